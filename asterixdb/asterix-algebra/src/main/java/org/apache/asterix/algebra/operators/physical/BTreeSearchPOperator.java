@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.apache.asterix.metadata.declared.DataSourceId;
 import org.apache.asterix.metadata.declared.DataSourceIndex;
+import org.apache.asterix.metadata.declared.DatasetDataSource;
 import org.apache.asterix.metadata.declared.MetadataProvider;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
@@ -43,6 +44,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
 import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSource;
 import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSourceIndex;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractUnnestMapOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
@@ -173,7 +175,13 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
                         orderColumns.add(new OrderColumn(orderVar, OrderKind.ASC));
                     }
                     propsLocal.add(new LocalOrderProperty(orderColumns));
-                    pv[0] = new StructuralPropertiesVector(new UnorderedPartitionedProperty(searchKeyVars, domain),
+                    // The keys are routed like the records, which may be partitioned on a prefix of the key.
+                    ListSet<LogicalVariable> partitioningVars = searchKeyVars;
+                    int numberOfPartitioningFields = getNumberOfPartitioningFields(numberOfKeyFields);
+                    if (numberOfPartitioningFields < numberOfKeyFields) {
+                        partitioningVars = new ListSet<>(lowKeyVarList.subList(0, numberOfPartitioningFields));
+                    }
+                    pv[0] = new StructuralPropertiesVector(new UnorderedPartitionedProperty(partitioningVars, domain),
                             propsLocal);
                     return new PhysicalRequirements(pv, IPartitioningRequirementsCoordinator.NO_COORDINATION);
                 }
@@ -185,4 +193,10 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
             return super.getRequiredPropertiesForChildren(op, reqdByParent, context);
         }
     }
+
+    private int getNumberOfPartitioningFields(int numberOfKeyFields) {
+        IDataSource<DataSourceId> dataSource = idx.getDataSource();
+        return dataSource instanceof DatasetDataSource
+                ? ((DatasetDataSource) dataSource).getDataset().getPartitionedByKeyCount() : numberOfKeyFields;
+    }
 }
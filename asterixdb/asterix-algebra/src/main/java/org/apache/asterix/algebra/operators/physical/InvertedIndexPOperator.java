@@ -69,11 +69,26 @@ import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokeniz
  */
 public class InvertedIndexPOperator extends IndexSearchPOperator {
     private final boolean isPartitioned;
+    // If positive, only the topK best matches of each query are returned.
+    private final int topK;
 
     public InvertedIndexPOperator(IDataSourceIndex<String, DataSourceId> idx, INodeDomain domain,
             boolean requiresBroadcast, boolean isPartitioned) {
+        this(idx, domain, requiresBroadcast, isPartitioned, 0);
+    }
+
+    public InvertedIndexPOperator(IDataSourceIndex<String, DataSourceId> idx, INodeDomain domain,
+            boolean requiresBroadcast, boolean isPartitioned, int topK) {
         super(idx, domain, requiresBroadcast);
         this.isPartitioned = isPartitioned;
+        this.topK = topK;
+    }
+
+    /**
+     * @return a copy of this operator that only returns the topK best matches of each query
+     */
+    public InvertedIndexPOperator withTopK(int topK) {
+        return new InvertedIndexPOperator(idx, domain, requiresBroadcast, isPartitioned, topK);
     }
 
     @Override
@@ -85,6 +100,11 @@ public class InvertedIndexPOperator extends IndexSearchPOperator {
         }
     }
 
+    @Override
+    public String toString() {
+        return topK > 0 ? getOperatorTag().toString() + " [topK: " + topK + "]" : getOperatorTag().toString();
+    }
+
     @Override
     public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
             IOperatorSchema opSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
@@ -124,7 +144,8 @@ public class InvertedIndexPOperator extends IndexSearchPOperator {
                         jobGenParams.getRetainInput(), retainNull, jobGenParams.getDatasetName(), dataset,
                         jobGenParams.getIndexName(), jobGenParams.getSearchKeyType(), keyIndexes,
                         jobGenParams.getSearchModifierType(), jobGenParams.getSimilarityThreshold(),
-                        minFilterFieldIndexes, maxFilterFieldIndexes, jobGenParams.getIsFullTextSearch(), frameLimit);
+                        minFilterFieldIndexes, maxFilterFieldIndexes, jobGenParams.getIsFullTextSearch(), frameLimit,
+                        jobGenParams.getTopK());
         IOperatorDescriptor opDesc = invIndexSearch.first;
         opDesc.setSourceLocation(unnestMapOp.getSourceLocation());
 
@@ -140,8 +161,8 @@ public class InvertedIndexPOperator extends IndexSearchPOperator {
             AbstractUnnestMapOperator unnestMap, IOperatorSchema opSchema, boolean retainInput, boolean retainMissing,
             String datasetName, Dataset dataset, String indexName, ATypeTag searchKeyType, int[] keyFields,
             SearchModifierType searchModifierType, IAlgebricksConstantValue similarityThreshold,
-            int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes, boolean isFullTextSearchQuery, int frameLimit)
-            throws AlgebricksException {
+            int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes, boolean isFullTextSearchQuery, int frameLimit,
+            int topK) throws AlgebricksException {
         boolean propagateIndexFilter = unnestMap.propagateIndexFilter();
         IAObject simThresh = ((AsterixConstantValue) similarityThreshold).getObject();
         int numPrimaryKeys = dataset.getPrimaryKeys().size();
@@ -170,7 +191,7 @@ public class InvertedIndexPOperator extends IndexSearchPOperator {
                 dataset.getSearchCallbackFactory(metadataProvider.getStorageComponentProvider(), secondaryIndex,
                         IndexOperation.SEARCH, null),
                 minFilterFieldIndexes, maxFilterFieldIndexes, isFullTextSearchQuery, numPrimaryKeys,
-                propagateIndexFilter, frameLimit);
+                propagateIndexFilter, frameLimit, topK);
         return new Pair<>(invIndexSearchOp, secondarySplitsAndConstraint.second);
     }
 }
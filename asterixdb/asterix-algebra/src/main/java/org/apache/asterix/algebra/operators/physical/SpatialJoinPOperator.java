@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.algebra.operators.physical;
+
+import org.apache.asterix.runtime.evaluators.common.SpatialMBRProviderFactory;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionRuntimeProvider;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.NestedLoopJoinPOperator;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.dataflow.std.join.SpatialJoinOperatorDescriptor;
+
+/**
+ * An inner join on a spatial intersection predicate. Like the nested loop join, the right input is broadcast and
+ * the left input can be partitioned in any way. Each partition joins the two inputs on a grid over the minimum
+ * bounding rectangles of the spatial keys and evaluates the full join condition on the candidate pairs.
+ */
+public class SpatialJoinPOperator extends NestedLoopJoinPOperator {
+
+    private final ILogicalExpression keyLeft;
+    private final ILogicalExpression keyRight;
+    private final FunctionIdentifier funcId;
+    private final int leftArgIndex;
+    private final int memSize;
+
+    /**
+     * @param keyLeft
+     *            the spatial key of the left input
+     * @param keyRight
+     *            the spatial key of the right input
+     * @param funcId
+     *            the spatial predicate of the join condition
+     * @param leftArgIndex
+     *            the position of the left key among the arguments of the predicate
+     */
+    public SpatialJoinPOperator(ILogicalExpression keyLeft, ILogicalExpression keyRight, FunctionIdentifier funcId,
+            int leftArgIndex, int memSize) {
+        super(JoinKind.INNER, JoinPartitioningType.BROADCAST, memSize);
+        this.keyLeft = keyLeft;
+        this.keyRight = keyRight;
+        this.funcId = funcId;
+        this.leftArgIndex = leftArgIndex;
+        this.memSize = memSize;
+    }
+
+    @Override
+    public PhysicalOperatorTag getOperatorTag() {
+        return PhysicalOperatorTag.SPATIAL_JOIN;
+    }
+
+    @Override
+    public String toString() {
+        return getOperatorTag().toString() + " [" + funcId.getName() + "]";
+    }
+
+    @Override
+    public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
+            IOperatorSchema propagatedSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
+            throws AlgebricksException {
+        AbstractBinaryJoinOperator join = (AbstractBinaryJoinOperator) op;
+        RecordDescriptor recDescriptor =
+                JobGenHelper.mkRecordDescriptor(context.getTypeEnvironment(op), propagatedSchema, context);
+        IExpressionRuntimeProvider expressionRuntimeProvider = context.getExpressionRuntimeProvider();
+        ILogicalOperator src1 = op.getInputs().get(0).getValue();
+        ILogicalOperator src2 = op.getInputs().get(1).getValue();
+
+        IScalarEvaluatorFactory leftKeyEval = expressionRuntimeProvider.createEvaluatorFactory(keyLeft,
+                context.getTypeEnvironment(src1), new IOperatorSchema[] { inputSchemas[0] }, context);
+        IScalarEvaluatorFactory rightKeyEval = expressionRuntimeProvider.createEvaluatorFactory(keyRight,
+                context.getTypeEnvironment(src2), new IOperatorSchema[] { inputSchemas[1] }, context);
+        IScalarEvaluatorFactory cond = expressionRuntimeProvider.createEvaluatorFactory(join.getCondition().getValue(),
+                context.getTypeEnvironment(op), new IOperatorSchema[] { propagatedSchema }, context);
+        ITuplePairComparatorFactory comparatorFactory =
+                new TuplePairEvaluatorFactory(cond, context.getBinaryBooleanInspectorFactory());
+
+        SpatialJoinOperatorDescriptor opDesc = new SpatialJoinOperatorDescriptor(builder.getJobSpec(),
+                new SpatialMBRProviderFactory(leftKeyEval, funcId, leftArgIndex, join.getSourceLocation()),
+                new SpatialMBRProviderFactory(rightKeyEval, funcId, 1 - leftArgIndex, join.getSourceLocation()),
+                comparatorFactory, recDescriptor, memSize);
+        opDesc.setSourceLocation(join.getSourceLocation());
+        contributeOpDesc(builder, join, opDesc);
+
+        builder.contributeGraphEdge(src1, 0, op, 0);
+        builder.contributeGraphEdge(src2, 0, op, 1);
+    }
+}
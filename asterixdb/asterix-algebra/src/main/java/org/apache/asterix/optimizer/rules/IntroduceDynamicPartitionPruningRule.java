@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import java.util.List;
+
+import org.apache.asterix.metadata.declared.DataSource;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.IAType;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.OperatorAnnotations;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.DataSourceScanPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HybridHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+import org.apache.hyracks.dataflow.std.join.IJoinKeyRangeConsumer;
+
+/**
+ * <pre>
+ * Description:
+ *      This rule lets the primary-key scan of the probe input of a hybrid hash join skip the keys that are out of the
+ *      range of the build keys of its partition. The join and the scan share a
+ *      {@link OperatorAnnotations#DYNAMIC_PARTITION_PRUNING} annotation, which connects the scan to the join during
+ *      the job generation. The rule applies if compiler.join.pruning is enabled and
+ *      1. the join is an inner hybrid hash join,
+ *      2. the probe input is a scan of an internal dataset that is followed by ONE_TO_ONE exchanges and ASSIGN,
+ *         SELECT or PROJECT operators only, so that the scan partition runs on the node of its join partition after
+ *         the build phase,
+ *      3. the probe keys are a prefix of the primary key of the dataset and have the same types as the build keys.
+ * Pre-conditions:
+ *      The physical operators are set.
+ * Post-requirements:
+ *      None.
+ * </pre>
+ */
+public class IntroduceDynamicPartitionPruningRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        if (!context.getPhysicalOptimizationConfig().getJoinPruning()) {
+            return false;
+        }
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.INNERJOIN || op.getPhysicalOperator() == null
+                || op.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.HYBRID_HASH_JOIN
+                || op.getAnnotations().containsKey(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING)) {
+            return false;
+        }
+        HybridHashJoinPOperator hhj = (HybridHashJoinPOperator) op.getPhysicalOperator();
+        if (hhj.getKind() != JoinKind.INNER) {
+            return false;
+        }
+        DataSourceScanOperator scan = findProbeScan(op.getInputs().get(0).getValue());
+        if (scan == null || !isPrimaryKeyPrefix(scan, hhj.getKeysLeftBranch())
+                || !haveSameTypes(context.getOutputTypeEnvironment(op), hhj.getKeysLeftBranch(),
+                        hhj.getKeysRightBranch())) {
+            return false;
+        }
+        Mutable<IJoinKeyRangeConsumer> consumer = new MutableObject<>();
+        op.getAnnotations().put(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING, consumer);
+        scan.getAnnotations().put(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING, consumer);
+        ((DataSourceScanPOperator) scan.getPhysicalOperator()).setDynamicPartitionPruning(true);
+        return true;
+    }
+
+    private static DataSourceScanOperator findProbeScan(ILogicalOperator probe) {
+        AbstractLogicalOperator op = (AbstractLogicalOperator) probe;
+        if (op.getOperatorTag() != LogicalOperatorTag.EXCHANGE) {
+            // the probe input must not be repartitioned
+            return null;
+        }
+        while (true) {
+            switch (op.getOperatorTag()) {
+                case EXCHANGE:
+                    if (op.getPhysicalOperator() == null
+                            || op.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.ONE_TO_ONE_EXCHANGE) {
+                        return null;
+                    }
+                    break;
+                case ASSIGN:
+                case SELECT:
+                case PROJECT:
+                    break;
+                case DATASOURCESCAN:
+                    return isPrunable((DataSourceScanOperator) op) ? (DataSourceScanOperator) op : null;
+                default:
+                    return null;
+            }
+            op = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
+        }
+    }
+
+    private static boolean isPrunable(DataSourceScanOperator scan) {
+        if (scan.getOutputLimit() >= 0 || !(scan.getPhysicalOperator() instanceof DataSourceScanPOperator)
+                || scan.getAnnotations().containsKey(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING)) {
+            return false;
+        }
+        if (!scan.getInputs().isEmpty()
+                && scan.getInputs().get(0).getValue().getOperatorTag() != LogicalOperatorTag.EMPTYTUPLESOURCE) {
+            return false;
+        }
+        return scan.getDataSource() instanceof DataSource
+                && ((DataSource) scan.getDataSource()).getDatasourceType() == DataSource.Type.INTERNAL_DATASET;
+    }
+
+    private static boolean isPrimaryKeyPrefix(DataSourceScanOperator scan, List<LogicalVariable> keys) {
+        List<LogicalVariable> primaryKeys =
+                ((DataSource) scan.getDataSource()).getPrimaryKeyVariables(scan.getVariables());
+        return !keys.isEmpty() && keys.size() <= primaryKeys.size()
+                && keys.equals(primaryKeys.subList(0, keys.size()));
+    }
+
+    private static boolean haveSameTypes(IVariableTypeEnvironment env, List<LogicalVariable> probeKeys,
+            List<LogicalVariable> buildKeys) throws AlgebricksException {
+        for (int i = 0; i < probeKeys.size(); i++) {
+            IAType probeType = (IAType) env.getVarType(probeKeys.get(i));
+            IAType buildType = (IAType) env.getVarType(buildKeys.get(i));
+            // the range is compared with the index keys, so the keys must not be of any other type
+            if (probeType == null || probeType.getTypeTag() == ATypeTag.UNION
+                    || probeType.getTypeTag() == ATypeTag.ANY || !probeType.equals(buildType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import org.apache.asterix.algebra.operators.physical.InvertedIndexPOperator;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.optimizer.rules.am.AccessMethodJobGenParams;
+import org.apache.asterix.optimizer.rules.am.InvertedIndexJobGenParams;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestMapOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Pattern:
+ * UNNEST_MAP (full-text search of a constant) -> (EXCHANGE)? -> ORDER -> (EXCHANGE)? ->
+ * UNNEST_MAP (primary search with an output limit and at most a full-text select condition)
+ * We push the output limit of the primary search to the full-text search as the number of best matches to return.
+ * The output limit of the primary search comes from a LIMIT without an ORDER BY (see PushLimitIntoPrimarySearchRule),
+ * so any k matching records are a valid result. Every key that the secondary search returns satisfies the full-text
+ * predicate, hence the secondary search only needs to return the k best matches of the query.
+ */
+public class PushLimitIntoInvertedIndexSearchRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        ILogicalOperator op = opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.UNNEST_MAP) {
+            return false;
+        }
+        UnnestMapOperator primarySearch = (UnnestMapOperator) op;
+        long outputLimit = primarySearch.getOutputLimit();
+        if (outputLimit <= 0 || outputLimit > Integer.MAX_VALUE || !isPrimarySearch(primarySearch)
+                || !isFullTextCondition(primarySearch.getSelectCondition())) {
+            return false;
+        }
+        ILogicalOperator child = skipExchange(primarySearch.getInputs().get(0).getValue());
+        if (child.getOperatorTag() != LogicalOperatorTag.ORDER) {
+            return false;
+        }
+        child = skipExchange(child.getInputs().get(0).getValue());
+        if (child.getOperatorTag() != LogicalOperatorTag.UNNEST_MAP) {
+            return false;
+        }
+        UnnestMapOperator secondarySearch = (UnnestMapOperator) child;
+        if (secondarySearch.propagatesInput() || !(secondarySearch
+                .getPhysicalOperator() instanceof InvertedIndexPOperator) || !isConstantSearch(secondarySearch)) {
+            return false;
+        }
+        AbstractFunctionCallExpression searchFunc =
+                (AbstractFunctionCallExpression) secondarySearch.getExpressionRef().getValue();
+        InvertedIndexJobGenParams jobGenParams = new InvertedIndexJobGenParams();
+        jobGenParams.readFromFuncArgs(searchFunc.getArguments());
+        if (!jobGenParams.getIsFullTextSearch() || jobGenParams.getRetainInput() || jobGenParams.getTopK() > 0) {
+            return false;
+        }
+        int topK = (int) outputLimit;
+        jobGenParams.setTopK(topK);
+        searchFunc.getArguments().clear();
+        jobGenParams.writeToFuncArgs(searchFunc.getArguments());
+        secondarySearch
+                .setPhysicalOperator(((InvertedIndexPOperator) secondarySearch.getPhysicalOperator()).withTopK(topK));
+        return true;
+    }
+
+    private static boolean isPrimarySearch(UnnestMapOperator op) {
+        ILogicalExpression unnestExpr = op.getExpressionRef().getValue();
+        if (unnestExpr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL
+                || !((AbstractFunctionCallExpression) unnestExpr).getFunctionIdentifier()
+                        .equals(BuiltinFunctions.INDEX_SEARCH)) {
+            return false;
+        }
+        AccessMethodJobGenParams jobGenParams = new AccessMethodJobGenParams();
+        jobGenParams.readFromFuncArgs(((AbstractFunctionCallExpression) unnestExpr).getArguments());
+        return jobGenParams.isPrimaryIndex();
+    }
+
+    /**
+     * @return true if the condition does not drop any record that contains the search key of the full-text index,
+     *         i.e. it is either missing or a single full-text predicate
+     */
+    private static boolean isFullTextCondition(Mutable<ILogicalExpression> conditionRef) {
+        if (conditionRef == null || conditionRef.getValue() == null) {
+            return true;
+        }
+        ILogicalExpression condition = conditionRef.getValue();
+        if (condition.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return false;
+        }
+        FunctionIdentifier fid = ((AbstractFunctionCallExpression) condition).getFunctionIdentifier();
+        return fid.equals(BuiltinFunctions.FULLTEXT_CONTAINS)
+                || fid.equals(BuiltinFunctions.FULLTEXT_CONTAINS_WO_OPTION);
+    }
+
+    /**
+     * @return true if the search keys of the secondary search are constants, i.e. there is a single query
+     */
+    private static boolean isConstantSearch(UnnestMapOperator op) {
+        ILogicalOperator child = op.getInputs().get(0).getValue();
+        while (child.getOperatorTag() == LogicalOperatorTag.EXCHANGE
+                || child.getOperatorTag() == LogicalOperatorTag.ASSIGN) {
+            child = child.getInputs().get(0).getValue();
+        }
+        return child.getOperatorTag() == LogicalOperatorTag.EMPTYTUPLESOURCE;
+    }
+
+    private static ILogicalOperator skipExchange(ILogicalOperator op) {
+        return op.getOperatorTag() == LogicalOperatorTag.EXCHANGE ? op.getInputs().get(0).getValue() : op;
+    }
+}
@@ -19,7 +19,10 @@
 package org.apache.asterix.optimizer.rules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.asterix.algebra.operators.physical.BTreeSearchPOperator;
 import org.apache.asterix.algebra.operators.physical.InvertedIndexPOperator;
@@ -27,6 +30,7 @@ import org.apache.asterix.algebra.operators.physical.RTreeSearchPOperator;
 import org.apache.asterix.common.config.DatasetConfig.IndexType;
 import org.apache.asterix.common.exceptions.CompilationException;
 import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.lang.common.util.FunctionUtil;
 import org.apache.asterix.metadata.declared.DataSourceId;
 import org.apache.asterix.metadata.declared.MetadataProvider;
 import org.apache.asterix.metadata.entities.Dataset;
@@ -34,6 +38,8 @@ import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.optimizer.base.AnalysisUtil;
 import org.apache.asterix.optimizer.rules.am.AccessMethodJobGenParams;
 import org.apache.asterix.optimizer.rules.am.BTreeJobGenParams;
+import org.apache.asterix.optimizer.rules.am.InvertedIndexJobGenParams;
+import org.apache.asterix.optimizer.rules.util.SpatialJoinUtils;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -47,9 +53,11 @@ import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.base.OperatorAnnotations;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AggregateFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IMergeAggregationExpressionFactory;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ScalarFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
 import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
 import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSourceIndex;
@@ -73,6 +81,14 @@ import org.apache.hyracks.algebricks.rewriter.util.JoinUtils;
 
 public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
 
+    private static final Set<FunctionIdentifier> WINDOW_MERGEABLE_AGGREGATES =
+            new HashSet<>(Arrays.asList(BuiltinFunctions.MIN, BuiltinFunctions.MAX, BuiltinFunctions.SUM,
+                    BuiltinFunctions.COUNT, BuiltinFunctions.SQL_MIN, BuiltinFunctions.SQL_MAX,
+                    BuiltinFunctions.SQL_SUM, BuiltinFunctions.SQL_COUNT));
+
+    private static final Set<FunctionIdentifier> WINDOW_REMOVABLE_AGGREGATES =
+            new HashSet<>(Arrays.asList(BuiltinFunctions.COUNT, BuiltinFunctions.SQL_COUNT));
+
     @Override
     public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
             throws AlgebricksException {
@@ -170,7 +186,9 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                                     ExternalGroupByPOperator externalGby = new ExternalGroupByPOperator(
                                             gby.getGroupByList(), physicalOptimizationConfig.getMaxFramesForGroupBy(),
                                             (long) physicalOptimizationConfig.getMaxFramesForGroupBy()
-                                                    * physicalOptimizationConfig.getFrameSize());
+                                                    * physicalOptimizationConfig.getFrameSize(),
+                                            physicalOptimizationConfig.getGroupByStream(),
+                                            physicalOptimizationConfig.getGroupByPassThroughRatio());
                                     generateMergeAggregationExpressions(gby, context);
                                     op.setPhysicalOperator(externalGby);
                                     setToExternalGby = true;
@@ -212,6 +230,11 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                 }
             }
         }
+        if (topLevelOp && op.getOperatorTag() == LogicalOperatorTag.INNERJOIN && (op.getPhysicalOperator() == null
+                || op.getPhysicalOperator().getOperatorTag() == PhysicalOperatorTag.NESTED_LOOP)) {
+            // the default join algorithm falls back to a nested loop join for spatial predicates
+            SpatialJoinUtils.trySetSpatialJoinOp((InnerJoinOperator) op, context);
+        }
         if (op.getPhysicalOperator() == null) {
             switch (op.getOperatorTag()) {
                 case INNERJOIN: {
@@ -264,14 +287,18 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                             }
                             case SINGLE_PARTITION_WORD_INVIX:
                             case SINGLE_PARTITION_NGRAM_INVIX: {
-                                op.setPhysicalOperator(
-                                        new InvertedIndexPOperator(dsi, storageDomain, requiresBroadcast, false));
+                                InvertedIndexJobGenParams invertedJobGenParams = new InvertedIndexJobGenParams();
+                                invertedJobGenParams.readFromFuncArgs(f.getArguments());
+                                op.setPhysicalOperator(new InvertedIndexPOperator(dsi, storageDomain,
+                                        requiresBroadcast, false, invertedJobGenParams.getTopK()));
                                 break;
                             }
                             case LENGTH_PARTITIONED_WORD_INVIX:
                             case LENGTH_PARTITIONED_NGRAM_INVIX: {
-                                op.setPhysicalOperator(
-                                        new InvertedIndexPOperator(dsi, storageDomain, requiresBroadcast, true));
+                                InvertedIndexJobGenParams invertedJobGenParams = new InvertedIndexJobGenParams();
+                                invertedJobGenParams.readFromFuncArgs(f.getArguments());
+                                op.setPhysicalOperator(new InvertedIndexPOperator(dsi, storageDomain,
+                                        requiresBroadcast, true, invertedJobGenParams.getTopK()));
                                 break;
                             }
                             default: {
@@ -283,7 +310,7 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                 }
                 case WINDOW: {
                     WindowOperator winOp = (WindowOperator) op;
-                    WindowPOperator physOp = createWindowPOperator(winOp, context);
+                    WindowPOperator physOp = createWindowPOperator(winOp, topLevelOp, context);
                     op.setPhysicalOperator(physOp);
                     break;
                 }
@@ -342,8 +369,8 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
         aggOp.setMergeExpressions(mergeExpressionRefs);
     }
 
-    private static WindowPOperator createWindowPOperator(WindowOperator winOp, IOptimizationContext context)
-            throws CompilationException {
+    private static WindowPOperator createWindowPOperator(WindowOperator winOp, boolean topLevelOp,
+            IOptimizationContext context) throws AlgebricksException {
         List<Mutable<ILogicalExpression>> partitionExprs = winOp.getPartitionExpressions();
         List<LogicalVariable> partitionColumns = new ArrayList<>(partitionExprs.size());
         for (Mutable<ILogicalExpression> pe : partitionExprs) {
@@ -375,10 +402,121 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                 winOp.getFrameValueExpressions());
         boolean nestedTrivialAggregates = winOp.hasNestedPlans()
                 && winOp.getNestedPlans().stream().allMatch(AnalysisUtil::isTrivialAggregateSubplan);
+        boolean frameSliding = nestedTrivialAggregates && frameStartIsMonotonic
+                && winOp.getFrameExcludeExpressions().isEmpty() && winOp.getFrameOffset().getValue() == null
+                && winOp.getFrameMaxObjects() < 0;
+        // sliding frames of removable aggregates are evaluated by removing the tuples that leave the frame
+        List<LogicalVariable> frameRemovedVariables = null;
+        List<Mutable<ILogicalExpression>> frameRemoveExpressions = null;
+        if (frameSliding && !winOp.getFrameStartExpressions().isEmpty() && !winOp.getFrameEndExpressions().isEmpty()
+                && frameEndIsMonotonic) {
+            frameRemovedVariables = new ArrayList<>();
+            frameRemoveExpressions = new ArrayList<>();
+            if (!generateWindowRemoveExpressions(winOp, frameRemovedVariables, frameRemoveExpressions, context)) {
+                frameRemovedVariables = null;
+                frameRemoveExpressions = null;
+            }
+        }
+        PhysicalOptimizationConfig physConfig = context.getPhysicalOptimizationConfig();
+        // other sliding frames of mergeable aggregates are evaluated with a segment tree if it is enabled
+        boolean frameSegmentTree = physConfig.getWindowSegmentTree() && frameSliding && frameRemoveExpressions == null
+                && (winOp.getFrameEndExpressions().isEmpty() || frameEndIsMonotonic)
+                && generateWindowMergeAggregationExpressions(winOp, context);
 
-        int memSizeInFrames = context.getPhysicalOptimizationConfig().getMaxFramesForWindow();
+        int memSizeInFrames = physConfig.getMaxFramesForWindow();
+        // hash grouping replaces the sort of the input, so it gets the memory of a sort
+        int groupingMemSizeInFrames = topLevelOp && physConfig.getWindowHash() && !partitionColumns.isEmpty()
+                ? physConfig.getMaxFramesExternalSort() : 0;
 
         return new WindowPOperator(partitionColumns, partitionMaterialization, orderColumns, frameStartIsMonotonic,
-                frameEndIsMonotonic, nestedTrivialAggregates, memSizeInFrames);
+                frameEndIsMonotonic, nestedTrivialAggregates, frameRemovedVariables, frameRemoveExpressions,
+                frameSegmentTree, memSizeInFrames, groupingMemSizeInFrames);
+    }
+
+    /**
+     * Creates the remove expressions of the nested aggregates of a window operator if all nested plans are
+     * aggregates over a nested-tuple-source, and all aggregate functions are counts. The count of a frame is the
+     * count of the tuples before the frame end minus the count of the tuples before the frame start.
+     * Sums are not removable this way, because the sum of the tuples before the frame end can overflow,
+     * or lose precision, although the sum of the frame does not.
+     *
+     * @return {@code true} if the remove expressions were created
+     */
+    private static boolean generateWindowRemoveExpressions(WindowOperator winOp,
+            List<LogicalVariable> outRemovedVariables, List<Mutable<ILogicalExpression>> outRemoveExpressions,
+            IOptimizationContext context) {
+        List<LogicalVariable> aggVars = new ArrayList<>();
+        for (ILogicalPlan p : winOp.getNestedPlans()) {
+            for (Mutable<ILogicalOperator> r : p.getRoots()) {
+                AggregateOperator aggOp = (AggregateOperator) r.getValue();
+                if (aggOp.getInputs().get(0).getValue().getOperatorTag() != LogicalOperatorTag.NESTEDTUPLESOURCE) {
+                    return false;
+                }
+                for (Mutable<ILogicalExpression> aggFuncRef : aggOp.getExpressions()) {
+                    FunctionIdentifier fid =
+                            ((AbstractFunctionCallExpression) aggFuncRef.getValue()).getFunctionIdentifier();
+                    if (!WINDOW_REMOVABLE_AGGREGATES.contains(fid)) {
+                        return false;
+                    }
+                }
+                aggVars.addAll(aggOp.getVariables());
+            }
+        }
+        for (LogicalVariable aggVar : aggVars) {
+            LogicalVariable removedVar = context.newVar();
+            ScalarFunctionCallExpression removeExpr = new ScalarFunctionCallExpression(
+                    FunctionUtil.getFunctionInfo(BuiltinFunctions.NUMERIC_SUBTRACT),
+                    new MutableObject<>(new VariableReferenceExpression(aggVar)),
+                    new MutableObject<>(new VariableReferenceExpression(removedVar)));
+            removeExpr.setSourceLocation(winOp.getSourceLocation());
+            outRemovedVariables.add(removedVar);
+            outRemoveExpressions.add(new MutableObject<>(removeExpr));
+        }
+        return true;
+    }
+
+    /**
+     * Sets the merge expressions of the nested aggregates of a window operator if all nested plans are
+     * aggregates over a nested-tuple-source, and all aggregate functions are min, max, sum or count.
+     * The result of these functions for one tuple is a valid input of their merge functions.
+     *
+     * @return {@code true} if the merge expressions were set
+     */
+    private static boolean generateWindowMergeAggregationExpressions(WindowOperator winOp,
+            IOptimizationContext context) throws AlgebricksException {
+        List<AggregateOperator> aggOps = new ArrayList<>();
+        for (ILogicalPlan p : winOp.getNestedPlans()) {
+            for (Mutable<ILogicalOperator> r : p.getRoots()) {
+                AggregateOperator aggOp = (AggregateOperator) r.getValue();
+                if (aggOp.getInputs().get(0).getValue().getOperatorTag() != LogicalOperatorTag.NESTEDTUPLESOURCE) {
+                    return false;
+                }
+                for (Mutable<ILogicalExpression> aggFuncRef : aggOp.getExpressions()) {
+                    FunctionIdentifier fid =
+                            ((AbstractFunctionCallExpression) aggFuncRef.getValue()).getFunctionIdentifier();
+                    if (!WINDOW_MERGEABLE_AGGREGATES.contains(fid)) {
+                        return false;
+                    }
+                }
+                aggOps.add(aggOp);
+            }
+        }
+        IMergeAggregationExpressionFactory mergeAggregationExpressionFactory =
+                context.getMergeAggregationExpressionFactory();
+        for (AggregateOperator aggOp : aggOps) {
+            List<Mutable<ILogicalExpression>> aggFuncRefs = aggOp.getExpressions();
+            List<LogicalVariable> aggProducedVars = aggOp.getVariables();
+            List<Mutable<ILogicalExpression>> mergeExpressionRefs = new ArrayList<>(aggFuncRefs.size());
+            for (int i = 0, n = aggFuncRefs.size(); i < n; i++) {
+                ILogicalExpression mergeExpr = mergeAggregationExpressionFactory
+                        .createMergeAggregation(aggProducedVars.get(i), aggFuncRefs.get(i).getValue(), context);
+                if (mergeExpr == null) {
+                    return false;
+                }
+                mergeExpressionRefs.add(new MutableObject<>(mergeExpr));
+            }
+            aggOp.setMergeExpressions(mergeExpressionRefs);
+        }
+        return true;
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.asterix.algebra.operators.physical.SpatialJoinPOperator;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.AlgebricksBuiltinFunctions;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
+
+public class SpatialJoinUtils {
+
+    private SpatialJoinUtils() {
+    }
+
+    /**
+     * Sets a spatial join as the physical operator of an inner join whose condition is a spatial intersection
+     * predicate (possibly in a conjunction) between an expression over the left input and an expression over the
+     * right input. Joins with an equality conjunct are left to the hash join.
+     *
+     * @return true if the spatial join was chosen; false otherwise.
+     */
+    public static boolean trySetSpatialJoinOp(AbstractBinaryJoinOperator op, IOptimizationContext context) {
+        if (op.getJoinKind() != JoinKind.INNER) {
+            return false;
+        }
+        ILogicalExpression cond = op.getCondition().getValue();
+        if (cond.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return false;
+        }
+        List<Mutable<ILogicalExpression>> conjuncts = new ArrayList<>();
+        if (!cond.splitIntoConjuncts(conjuncts)) {
+            conjuncts.add(op.getCondition());
+        }
+        AbstractFunctionCallExpression spatialPredicate = null;
+        for (Mutable<ILogicalExpression> conjunct : conjuncts) {
+            ILogicalExpression expr = conjunct.getValue();
+            if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+                continue;
+            }
+            AbstractFunctionCallExpression f = (AbstractFunctionCallExpression) expr;
+            FunctionIdentifier fid = f.getFunctionIdentifier();
+            if (fid.equals(AlgebricksBuiltinFunctions.EQ)) {
+                return false;
+            }
+            if (spatialPredicate == null && isSpatialIntersect(fid)) {
+                spatialPredicate = f;
+            }
+        }
+        if (spatialPredicate == null) {
+            return false;
+        }
+        List<LogicalVariable> varsLeft = op.getInputs().get(0).getValue().getSchema();
+        List<LogicalVariable> varsRight = op.getInputs().get(1).getValue().getSchema();
+        ILogicalExpression arg0 = spatialPredicate.getArguments().get(0).getValue();
+        ILogicalExpression arg1 = spatialPredicate.getArguments().get(1).getValue();
+        int leftArgIndex;
+        if (usesOnly(arg0, varsLeft) && usesOnly(arg1, varsRight)) {
+            leftArgIndex = 0;
+        } else if (usesOnly(arg1, varsLeft) && usesOnly(arg0, varsRight)) {
+            leftArgIndex = 1;
+        } else {
+            return false;
+        }
+        op.setPhysicalOperator(new SpatialJoinPOperator(leftArgIndex == 0 ? arg0 : arg1,
+                leftArgIndex == 0 ? arg1 : arg0, spatialPredicate.getFunctionIdentifier(), leftArgIndex,
+                context.getPhysicalOptimizationConfig().getMaxFramesForJoin()));
+        return true;
+    }
+
+    private static boolean isSpatialIntersect(FunctionIdentifier fid) {
+        return fid.equals(BuiltinFunctions.SPATIAL_INTERSECT) || fid.equals(BuiltinFunctions.ST_INTERSECTS);
+    }
+
+    private static boolean usesOnly(ILogicalExpression expr, Collection<LogicalVariable> vars) {
+        List<LogicalVariable> used = new ArrayList<>();
+        expr.getUsedVariables(used);
+        return !used.isEmpty() && vars.containsAll(used);
+    }
+}
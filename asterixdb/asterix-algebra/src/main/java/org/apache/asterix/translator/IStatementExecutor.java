@@ -80,6 +80,7 @@ public interface IStatementExecutor {
         private long count;
         private long size;
         private long processedObjects;
+        private long queueWaitTime;
 
         public long getCount() {
             return count;
@@ -104,6 +105,18 @@ public interface IStatementExecutor {
         public void setProcessedObjects(long processedObjects) {
             this.processedObjects = processedObjects;
         }
+
+        /**
+         * @return the time in milliseconds that the jobs of the request waited in the job queue of the cluster
+         *         controller
+         */
+        public long getQueueWaitTime() {
+            return queueWaitTime;
+        }
+
+        public void setQueueWaitTime(long queueWaitTime) {
+            this.queueWaitTime = queueWaitTime;
+        }
     }
 
     /**
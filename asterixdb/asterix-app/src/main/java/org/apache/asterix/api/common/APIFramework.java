@@ -87,12 +87,15 @@ import org.apache.hyracks.algebricks.compiler.api.ICompiler;
 import org.apache.hyracks.algebricks.compiler.api.ICompilerFactory;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.ExpressionRuntimeProvider;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IConflictingTypeResolver;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionEvalSizeComputer;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionTypeComputer;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IMergeAggregationExpressionFactory;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IMissableTypeComputer;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.StreamLimitPOperator;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.AbstractLogicalOperatorPrettyPrintVisitor;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.AlgebricksAppendable;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.LogicalOperatorPrettyPrintVisitor;
@@ -106,6 +109,7 @@ import org.apache.hyracks.api.client.IClusterInfoCollector;
 import org.apache.hyracks.api.client.IHyracksClientConnection;
 import org.apache.hyracks.api.client.NodeControllerInfo;
 import org.apache.hyracks.api.config.IOptionType;
+import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.exceptions.SourceLocation;
@@ -113,6 +117,7 @@ import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobSpecification;
 import org.apache.hyracks.api.job.resource.IClusterCapacity;
 import org.apache.hyracks.control.common.config.OptionTypes;
+import org.apache.hyracks.dataflow.std.base.AbstractConnectorDescriptor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -133,9 +138,14 @@ public class APIFramework {
                     CompilerProperties.COMPILER_SORTMEMORY_KEY, CompilerProperties.COMPILER_WINDOWMEMORY_KEY,
                     CompilerProperties.COMPILER_TEXTSEARCHMEMORY_KEY, CompilerProperties.COMPILER_PARALLELISM_KEY,
                     CompilerProperties.COMPILER_SORT_PARALLEL_KEY, CompilerProperties.COMPILER_SORT_SAMPLES_KEY,
-                    FunctionUtil.IMPORT_PRIVATE_FUNCTIONS, FuzzyUtils.SIM_FUNCTION_PROP_NAME,
-                    FuzzyUtils.SIM_THRESHOLD_PROP_NAME, StartFeedStatement.WAIT_FOR_COMPLETION,
-                    FeedActivityDetails.FEED_POLICY_NAME, FeedActivityDetails.COLLECT_LOCATIONS,
+                    CompilerProperties.COMPILER_HASH_DISTINCT_KEY, CompilerProperties.COMPILER_MERGE_JOIN_KEY,
+                    CompilerProperties.COMPILER_JOIN_PRUNING_KEY, CompilerProperties.COMPILER_SORT_THREADS_KEY,
+                    CompilerProperties.COMPILER_WINDOW_HASH_KEY, CompilerProperties.COMPILER_WINDOW_SEGMENT_TREE_KEY,
+                    CompilerProperties.COMPILER_FRAME_COMPRESSION_KEY, CompilerProperties.COMPILER_GROUPBY_STREAM_KEY,
+                    CompilerProperties.COMPILER_GROUPBY_PASSTHROUGH_RATIO_KEY, FunctionUtil.IMPORT_PRIVATE_FUNCTIONS,
+                    FuzzyUtils.SIM_FUNCTION_PROP_NAME, FuzzyUtils.SIM_THRESHOLD_PROP_NAME,
+                    StartFeedStatement.WAIT_FOR_COMPLETION, FeedActivityDetails.FEED_POLICY_NAME,
+                    FeedActivityDetails.COLLECT_LOCATIONS,
                     SqlppQueryRewriter.INLINE_WITH_OPTION, SqlppExpressionToPlanTranslator.REWRITE_IN_AS_OR_OPTION,
                     "hash_merge", "output-record-type", AbstractIntroduceAccessMethodRule.NO_INDEX_ONLY_PLAN_OPTION);
 
@@ -286,7 +296,15 @@ public class APIFramework {
 
         JobEventListenerFactory jobEventListenerFactory =
                 new JobEventListenerFactory(txnId, metadataProvider.isWriteTransaction());
+        // a query has no effect other than its result, so it stops once the limit that feeds its result is reached
+        final StreamLimitPOperator resultLimit = isQuery && statement == null ? getResultLimit(plan) : null;
+        if (resultLimit != null) {
+            resultLimit.setCloseOnLimit(true);
+        }
         JobSpecification spec = compiler.createJob(metadataProvider.getApplicationContext(), jobEventListenerFactory);
+        if (physOptConf.getFrameCompression()) {
+            enableFrameCompression(spec);
+        }
 
         if (isQuery) {
             // Sets a required capacity, only for read-only queries.
@@ -299,12 +317,47 @@ public class APIFramework {
                     ResourceUtils.getRequiredCapacity(plan, jobLocations, physOptConf);
             spec.setRequiredClusterCapacity(jobRequiredCapacity);
         }
+        if (resultLimit != null) {
+            spec.setTerminateOnResultCompletion(true);
+        }
         if (isQuery && conf.is(SessionConfig.OOB_HYRACKS_JOB)) {
             generateJob(spec);
         }
         return spec;
     }
 
+    private static void enableFrameCompression(JobSpecification spec) {
+        for (IConnectorDescriptor conn : spec.getConnectorMap().values()) {
+            if (conn instanceof AbstractConnectorDescriptor) {
+                ((AbstractConnectorDescriptor) conn).setFrameCompressionEnabled(true);
+            }
+        }
+    }
+
+    /**
+     * @return the physical operator of the unpartitioned LIMIT that feeds the DISTRIBUTE_RESULT at the root of the
+     *         plan, only followed by exchanges, projections and assignments, or null if there is no such limit
+     */
+    private static StreamLimitPOperator getResultLimit(ILogicalPlan plan) {
+        if (plan.getRoots().size() != 1) {
+            return null;
+        }
+        AbstractLogicalOperator op = (AbstractLogicalOperator) plan.getRoots().get(0).getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.DISTRIBUTE_RESULT) {
+            return null;
+        }
+        do {
+            op = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
+        } while (op.getOperatorTag() == LogicalOperatorTag.EXCHANGE || op.getOperatorTag() == LogicalOperatorTag.PROJECT
+                || op.getOperatorTag() == LogicalOperatorTag.ASSIGN);
+        if (op.getOperatorTag() != LogicalOperatorTag.LIMIT
+                || op.getExecutionMode() != AbstractLogicalOperator.ExecutionMode.UNPARTITIONED
+                || !(op.getPhysicalOperator() instanceof StreamLimitPOperator)) {
+            return null;
+        }
+        return (StreamLimitPOperator) op.getPhysicalOperator();
+    }
+
     private void printPlanAsResult(MetadataProvider metadataProvider, SessionOutput output) throws AlgebricksException {
         final SessionConfig conf = output.config();
         boolean quoteResult = output.config().getPlanFormat() == SessionConfig.PlanFormat.STRING;
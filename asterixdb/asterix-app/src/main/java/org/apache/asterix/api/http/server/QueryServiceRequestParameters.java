@@ -51,6 +51,7 @@ public class QueryServiceRequestParameters {
     private boolean job;
     private boolean signature;
     private boolean multiStatement;
+    private String workloadClass;
 
     public String getHost() {
         return host;
@@ -204,6 +205,14 @@ public class QueryServiceRequestParameters {
         this.multiStatement = multiStatement;
     }
 
+    public String getWorkloadClass() {
+        return workloadClass;
+    }
+
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
     @Override
     public String toString() {
         try {
@@ -225,6 +234,7 @@ public class QueryServiceRequestParameters {
             on.put("job", job);
             on.put("signature", signature);
             on.put("multiStatement", multiStatement);
+            on.put("workloadClass", workloadClass);
             if (statementParams != null) {
                 for (Map.Entry<String, JsonNode> statementParam : statementParams.entrySet()) {
                     on.set('$' + statementParam.getKey(), statementParam.getValue());
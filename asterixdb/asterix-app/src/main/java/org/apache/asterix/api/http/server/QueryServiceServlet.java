@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -153,7 +154,8 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         PARSE_ONLY("parse-only"),
         JOB("job"),
         SIGNATURE("signature"),
-        MULTI_STATEMENT("multi-statement");
+        MULTI_STATEMENT("multi-statement"),
+        WORKLOAD_CLASS("workload-class");
 
         private final String str;
 
@@ -184,6 +186,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
     private enum Metrics {
         ELAPSED_TIME("elapsedTime"),
         EXECUTION_TIME("executionTime"),
+        QUEUE_WAIT_TIME("queueWaitTime"),
         RESULT_COUNT("resultCount"),
         RESULT_SIZE("resultSize"),
         ERROR_COUNT("errorCount"),
@@ -319,8 +322,9 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         }
     }
 
-    private static void printMetrics(PrintWriter pw, long elapsedTime, long executionTime, long resultCount,
-            long resultSize, long processedObjects, long errorCount, long warnCount, Charset resultCharset) {
+    private static void printMetrics(PrintWriter pw, long elapsedTime, long executionTime, long queueWaitTime,
+            long resultCount, long resultSize, long processedObjects, long errorCount, long warnCount,
+            Charset resultCharset) {
         boolean hasErrors = errorCount != 0;
         boolean hasWarnings = warnCount != 0;
         boolean useAscii = !StandardCharsets.UTF_8.equals(resultCharset)
@@ -332,6 +336,10 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         ResultUtil.printField(pw, Metrics.ELAPSED_TIME.str(), Duration.formatNanos(elapsedTime, useAscii));
         pw.print("\t");
         ResultUtil.printField(pw, Metrics.EXECUTION_TIME.str(), Duration.formatNanos(executionTime, useAscii));
+        if (queueWaitTime > 0) {
+            pw.print("\t");
+            ResultUtil.printField(pw, Metrics.QUEUE_WAIT_TIME.str(), Duration.formatNanos(queueWaitTime, useAscii));
+        }
         pw.print("\t");
         ResultUtil.printField(pw, Metrics.RESULT_COUNT.str(), resultCount, true);
         pw.print("\t");
@@ -449,6 +457,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         param.setStatementParams(
                 getOptStatementParameters(jsonRequest, jsonRequest.fieldNames(), JsonNode::get, v -> v));
         param.setMultiStatement(getOptBoolean(jsonRequest, Parameter.MULTI_STATEMENT, true));
+        param.setWorkloadClass(toLower(getOptText(jsonRequest, Parameter.WORKLOAD_CLASS)));
         setJsonOptionalParameters(jsonRequest, optionalParameters);
     }
 
@@ -468,6 +477,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         param.setPlanFormat(getParameter(request, Parameter.PLAN_FORMAT));
         param.setParseOnly(getOptBoolean(request, Parameter.PARSE_ONLY, false));
         param.setMultiStatement(getOptBoolean(request, Parameter.MULTI_STATEMENT, true));
+        param.setWorkloadClass(toLower(getParameter(request, Parameter.WORKLOAD_CLASS)));
         try {
             param.setStatementParams(getOptStatementParameters(request, request.getParameterNames().iterator(),
                     IServletRequest::getParameter, OBJECT_MAPPER::readTree));
@@ -548,6 +558,11 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
                 optionalParams = optionalParamProvider.apply(request);
             }
             setRequestParam(request, param, optionalParams);
+            if (param.getWorkloadClass() != null) {
+                // the workload class is handed to the statement executor, which tags the jobs of the request with it
+                optionalParams = optionalParams == null ? new HashMap<>() : new HashMap<>(optionalParams);
+                optionalParams.put(Parameter.WORKLOAD_CLASS.str(), param.getWorkloadClass());
+            }
             LOGGER.info(() -> "handleRequest: " + LogRedactionUtil.userData(param.toString()));
             ResultDelivery delivery = parseResultDelivery(param.getMode());
             setSessionConfig(sessionOutput, param, delivery);
@@ -593,8 +608,9 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
             sessionOutput.release();
             execution.finish();
         }
-        printMetrics(sessionOutput.out(), System.nanoTime() - elapsedStart, execution.duration(), stats.getCount(),
-                stats.getSize(), stats.getProcessedObjects(), errorCount, warnings.size(), resultCharset);
+        printMetrics(sessionOutput.out(), System.nanoTime() - elapsedStart, execution.duration(),
+                TimeUnit.MILLISECONDS.toNanos(stats.getQueueWaitTime()), stats.getCount(), stats.getSize(),
+                stats.getProcessedObjects(), errorCount, warnings.size(), resultCharset);
         sessionOutput.out().print("}\n");
         sessionOutput.out().flush();
         if (sessionOutput.out().checkError()) {
@@ -45,6 +45,7 @@ import org.apache.hyracks.api.client.IHyracksClientConnection;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.control.cc.scheduler.WorkloadClassJobQueue;
 
 public class FeedEventsListener extends ActiveEntityEventsListener {
 
@@ -98,6 +99,7 @@ public class FeedEventsListener extends ActiveEntityEventsListener {
                     FeedOperations.buildStartFeedJob(mdProvider, feed, feedConnections, statementExecutor, hcc);
             JobSpecification feedJob = jobInfo.getLeft();
             feedJob.setProperty(ActiveNotificationHandler.ACTIVE_ENTITY_PROPERTY_NAME, entityId);
+            feedJob.setProperty(WorkloadClassJobQueue.WORKLOAD_CLASS_PROPERTY_NAME, WorkloadClassJobQueue.INGESTION);
             // TODO(Yingyi): currently we do not check IFrameWriter protocol violations for Feed jobs.
             // We will need to design general exception handling mechanism for feeds.
             setLocations(jobInfo.getRight());
@@ -65,6 +65,8 @@ import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.AUnorderedListType;
 import org.apache.asterix.om.types.BuiltinType;
 import org.apache.asterix.runtime.compression.CompressionManager;
+import org.apache.asterix.runtime.compression.FieldNameDictionaryCodecFactory;
+import org.apache.asterix.runtime.compression.InferredSchemaCodecFactory;
 import org.apache.asterix.runtime.utils.RuntimeComponentsProvider;
 import org.apache.asterix.transaction.management.opcallbacks.PrimaryIndexOperationTrackerFactory;
 import org.apache.asterix.transaction.management.opcallbacks.SecondaryIndexOperationTrackerFactory;
@@ -264,6 +266,10 @@ public class PersistedResourceRegistry implements IPersistedResourceRegistry {
 
         //ICompressorDecompressorFactory
         CompressionManager.registerCompressorDecompressorsFactoryClasses(REGISTERED_CLASSES);
+
+        //IComponentValueCodecFactory
+        REGISTERED_CLASSES.put("FieldNameDictionaryCodecFactory", FieldNameDictionaryCodecFactory.class);
+        REGISTERED_CLASSES.put("InferredSchemaCodecFactory", InferredSchemaCodecFactory.class);
     }
 
     @Override
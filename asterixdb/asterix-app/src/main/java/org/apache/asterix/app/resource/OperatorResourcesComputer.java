@@ -150,6 +150,12 @@ public class OperatorResourcesComputer {
         // memory budget configuration only applies to window operators that materialize partitions (non-streaming)
         // streaming window operators only need 2 frames: output + copy
         long memorySize = physOp.isPartitionMaterialization() ? windowMemorySize : 2 * frameSize;
+        // the segment tree of a partition gets as much memory as the partition itself
+        if (physOp.isFrameSegmentTree()) {
+            memorySize += windowMemorySize;
+        }
+        // hash grouping holds and sorts the partitions in memory
+        memorySize += (long) physOp.getGroupingMemSizeInFrames() * frameSize;
         return getOperatorRequiredMemory(op, memorySize);
     }
 }
\ No newline at end of file
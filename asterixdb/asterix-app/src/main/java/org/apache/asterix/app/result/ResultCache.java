@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.result.IResultSetReader;
+import org.apache.hyracks.api.result.ResultJobRecord.Status;
+
+/**
+ * This is a singleton class used to keep the results of read-only queries on the cluster controller, so that a
+ * repeated query is answered without running a job. A cached result is discarded when one of the datasets that it
+ * reads is modified or dropped, and the least recently used results are evicted when the cache is full.
+ */
+public class ResultCache {
+    public static final ResultCache INSTANCE = new ResultCache();
+    private final LinkedHashMap<Object, CachedResult> results;
+    private long size;
+    // incremented whenever a dataset is modified, so that a result read before the modification is not cached
+    private long version;
+
+    private ResultCache() {
+        results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the cached result of the query, or null if it is not cached
+     */
+    public synchronized CachedResult get(Object key) {
+        return results.get(key);
+    }
+
+    /**
+     * Caches the result of a query, unless a dataset was modified since the version was read or the result is larger
+     * than the cache.
+     */
+    public synchronized void put(Object key, CachedResult result, long readVersion, long capacity) {
+        if (readVersion != version || result.getSize() > capacity) {
+            return;
+        }
+        CachedResult previous = results.put(key, result);
+        if (previous != null) {
+            size -= previous.getSize();
+        }
+        size += result.getSize();
+        Iterator<CachedResult> it = results.values().iterator();
+        while (size > capacity && it.hasNext()) {
+            size -= it.next().getSize();
+            it.remove();
+        }
+    }
+
+    public synchronized void datasetModified(String dataverseName, String datasetName) {
+        version++;
+        Iterator<CachedResult> it = results.values().iterator();
+        while (it.hasNext()) {
+            CachedResult result = it.next();
+            for (Pair<String, String> source : result.getSources()) {
+                if (source.first.equals(dataverseName) && (datasetName == null || source.second.equals(datasetName))) {
+                    size -= result.getSize();
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the results that read a dataset of the dataverse.
+     */
+    public void invalidate(String dataverseName) {
+        datasetModified(dataverseName, null);
+    }
+
+    public synchronized void clear() {
+        version++;
+        results.clear();
+        size = 0;
+    }
+
+    public static class CachedResult {
+        private final List<byte[]> frames;
+        private final List<Pair<String, String>> sources;
+        private final ARecordType recordType;
+        private long size;
+        private Status status;
+
+        public CachedResult(List<Pair<String, String>> sources, ARecordType recordType) {
+            this.frames = new ArrayList<>();
+            this.sources = sources;
+            this.recordType = recordType;
+        }
+
+        public List<Pair<String, String>> getSources() {
+            return sources;
+        }
+
+        public ARecordType getRecordType() {
+            return recordType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return whether all the frames of the result were read
+         */
+        public boolean isComplete() {
+            return status != null;
+        }
+
+        /**
+         * @return a reader that returns the cached frames
+         */
+        public IResultSetReader createReader() {
+            return new IResultSetReader() {
+                private int next = 0;
+
+                @Override
+                public Status getResultStatus() {
+                    return status;
+                }
+
+                @Override
+                public int read(IFrame frame) throws HyracksDataException {
+                    frame.reset();
+                    if (next == frames.size()) {
+                        return 0;
+                    }
+                    byte[] bytes = frames.get(next++);
+                    frame.ensureFrameSize(bytes.length);
+                    ByteBuffer buffer = frame.getBuffer();
+                    buffer.clear();
+                    buffer.put(bytes);
+                    buffer.flip();
+                    return bytes.length;
+                }
+            };
+        }
+
+        /**
+         * @return a reader that copies the frames that it reads into this result, as long as the result is not
+         *         larger than the cache
+         */
+        public IResultSetReader createRecordingReader(IResultSetReader reader, long capacity) {
+            return new IResultSetReader() {
+                @Override
+                public Status getResultStatus() {
+                    return reader.getResultStatus();
+                }
+
+                @Override
+                public int read(IFrame frame) throws HyracksDataException {
+                    int readSize = reader.read(frame);
+                    if (readSize == 0) {
+                        status = reader.getResultStatus();
+                    } else if (size <= capacity) {
+                        ByteBuffer buffer = frame.getBuffer();
+                        byte[] bytes = new byte[buffer.capacity()];
+                        System.arraycopy(buffer.array(), 0, bytes, 0, buffer.capacity());
+                        frames.add(bytes);
+                        size += bytes.length;
+                    }
+                    return readSize;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.translator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
+import org.apache.asterix.lang.common.base.Expression;
+import org.apache.asterix.metadata.entities.Dataset;
+
+/**
+ * This is a singleton class used to keep track of the materialized views of each dataverse and of whether their
+ * content is still up to date with the datasets that they read. The views of a dataverse are loaded from the metadata
+ * when a query is first run in the dataverse, and are discarded when a dataset of the dataverse is created or dropped.
+ * <p>
+ * A view is stale when its sources were modified more often than the content of the view accounts for. The content is
+ * versioned: a refresh writes a new version, and the versions that queries are still reading are kept until they are
+ * released.
+ * <p>
+ * The views that read a single dataset are maintained incrementally from the records that INSERT statements add to
+ * it: the items of a selection and projection are appended, and the COUNT, SUM, MIN and MAX of a grouping are merged
+ * into the groups of the view. Any other modification of a source, such as a DELETE or an UPSERT, makes the view
+ * stale. Since this state is only kept in memory, the views are stale after a restart until they are read once.
+ */
+public class MaterializedViewRegistry {
+    public static final MaterializedViewRegistry INSTANCE = new MaterializedViewRegistry();
+    private final ConcurrentHashMap<String, List<MaterializedView>> views;
+
+    private MaterializedViewRegistry() {
+        views = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the views of the dataverse, or null if they are not loaded yet
+     */
+    public List<MaterializedView> getViews(String dataverseName) {
+        return views.get(dataverseName);
+    }
+
+    public void setViews(String dataverseName, List<MaterializedView> dataverseViews) {
+        views.put(dataverseName, dataverseViews);
+    }
+
+    public void invalidate(String dataverseName) {
+        views.remove(dataverseName);
+    }
+
+    /**
+     * Marks the views that read the dataset as stale, so that they are refreshed before they are read next.
+     */
+    public void datasetModified(String dataverseName, String datasetName) {
+        for (List<MaterializedView> dataverseViews : views.values()) {
+            for (MaterializedView view : dataverseViews) {
+                for (Dataset source : view.getSources()) {
+                    if (source.getDataverseName().equals(dataverseName)
+                            && source.getDatasetName().equals(datasetName)) {
+                        view.modified();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the loaded views that are maintained incrementally from the records that are inserted into the dataset,
+     *         ordered by their names, which is the order in which their refresh locks have to be acquired
+     */
+    public List<MaterializedView> getIncrementalViews(String dataverseName, String datasetName) {
+        List<MaterializedView> incrementalViews = new ArrayList<>();
+        for (List<MaterializedView> dataverseViews : views.values()) {
+            for (MaterializedView view : dataverseViews) {
+                if (!view.isIncremental()) {
+                    continue;
+                }
+                Dataset source = view.getSources().get(0);
+                if (source.getDataverseName().equals(dataverseName) && source.getDatasetName().equals(datasetName)) {
+                    incrementalViews.add(view);
+                }
+            }
+        }
+        incrementalViews.sort(Comparator.comparing(MaterializedView::getDataverseName)
+                .thenComparing(MaterializedView::getViewName));
+        return incrementalViews;
+    }
+
+    public static class MaterializedView {
+        private final String dataverseName;
+        private final String viewName;
+        private final String viewBody;
+        private final Expression body;
+        private final List<Dataset> sources;
+        private final boolean incremental;
+        private final boolean aggregate;
+        private final ReentrantLock refreshLock = new ReentrantLock();
+        private final AtomicLong modifications = new AtomicLong();
+        // Views are stale until they are refreshed once, since the version of their content is not known.
+        private volatile long refreshedModifications = -1;
+        private volatile long version = -1;
+        private long deltas;
+        // the number of queries that read each version of the view
+        private final Map<Long, Integer> readers = new HashMap<>();
+
+        public MaterializedView(String dataverseName, String viewName, String viewBody, Expression body,
+                List<Dataset> sources, boolean incremental, boolean aggregate) {
+            this.dataverseName = dataverseName;
+            this.viewName = viewName;
+            this.viewBody = viewBody;
+            this.body = body;
+            this.sources = sources;
+            this.incremental = incremental;
+            this.aggregate = aggregate;
+        }
+
+        public String getDataverseName() {
+            return dataverseName;
+        }
+
+        public String getViewName() {
+            return viewName;
+        }
+
+        public String getViewBody() {
+            return viewBody;
+        }
+
+        /**
+         * @return the query of the view as parsed, which is compared with the queries that could read the view
+         */
+        public Expression getBody() {
+            return body;
+        }
+
+        public List<Dataset> getSources() {
+            return sources;
+        }
+
+        public ReentrantLock getRefreshLock() {
+            return refreshLock;
+        }
+
+        /**
+         * @return whether the view is a selection and projection or a grouping of a single dataset, so that the
+         *         records that are inserted into the dataset can be added to the view without computing the view again
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * @return whether the view groups its source and computes COUNT, SUM, MIN or MAX aggregates, so that the
+         *         groups for the inserted records are merged into its items instead of being added after them
+         */
+        public boolean isAggregate() {
+            return aggregate;
+        }
+
+        public boolean isStale() {
+            return refreshedModifications != modifications.get();
+        }
+
+        /**
+         * @return the number of modifications of the sources of the view so far
+         */
+        public long getModifications() {
+            return modifications.get();
+        }
+
+        public void modified() {
+            modifications.incrementAndGet();
+        }
+
+        /**
+         * Records that the content of the view includes the given number of modifications of its sources.
+         */
+        public void setRefreshed(long modifications) {
+            refreshedModifications = modifications;
+        }
+
+        /**
+         * @return whether the view reads a dataset whose changes are not tracked, such as an external dataset
+         */
+        public boolean hasExternalSources() {
+            for (Dataset source : sources) {
+                if (source.getDatasetType() == DatasetType.EXTERNAL) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        /**
+         * @return the first position of the items that the next delta adds to the current version, which follows the
+         *         positions of the items that were added before
+         */
+        public long nextDeltaPosition() {
+            return ++deltas << Integer.SIZE;
+        }
+
+        /**
+         * Registers a query that reads the current version, which is kept until the query releases it.
+         *
+         * @return the current version
+         */
+        public synchronized long acquireVersion() {
+            readers.merge(version, 1, Integer::sum);
+            return version;
+        }
+
+        public synchronized void releaseVersion(long version) {
+            readers.computeIfPresent(version, (v, count) -> count > 1 ? count - 1 : null);
+        }
+
+        /**
+         * @return the versions that queries are still reading
+         */
+        public synchronized Set<Long> getVersionsInUse() {
+            return new HashSet<>(readers.keySet());
+        }
+    }
+}
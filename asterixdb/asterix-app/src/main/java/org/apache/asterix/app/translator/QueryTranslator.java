@@ -21,8 +21,11 @@ package org.apache.asterix.app.translator;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -30,6 +33,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,21 +41,28 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import org.apache.asterix.active.ActivityState;
 import org.apache.asterix.active.EntityId;
 import org.apache.asterix.active.IActiveEntityEventsListener;
 import org.apache.asterix.active.NoRetryPolicyFactory;
+import org.apache.asterix.algebra.base.ILangExtension;
 import org.apache.asterix.algebra.extension.ExtensionStatement;
 import org.apache.asterix.api.common.APIFramework;
 import org.apache.asterix.api.http.server.AbstractQueryApiServlet;
 import org.apache.asterix.api.http.server.ApiServlet;
+import org.apache.asterix.api.http.server.QueryServiceServlet;
 import org.apache.asterix.api.http.server.ResultUtil;
 import org.apache.asterix.app.active.ActiveEntityEventsListener;
 import org.apache.asterix.app.active.ActiveNotificationHandler;
 import org.apache.asterix.app.active.FeedEventsListener;
+import org.apache.asterix.app.result.ResultCache;
+import org.apache.asterix.app.result.ResultCache.CachedResult;
 import org.apache.asterix.app.result.ResultHandle;
 import org.apache.asterix.app.result.ResultReader;
+import org.apache.asterix.app.translator.MaterializedViewRegistry.MaterializedView;
 import org.apache.asterix.common.api.IClientRequest;
 import org.apache.asterix.common.api.IMetadataLockManager;
 import org.apache.asterix.common.api.IRequestTracker;
@@ -78,11 +89,22 @@ import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.external.operators.FeedIntakeOperatorNodePushable;
 import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.asterix.formats.nontagged.TypeTraitProvider;
+import org.apache.asterix.lang.common.base.AbstractClause;
+import org.apache.asterix.lang.common.base.Clause;
+import org.apache.asterix.lang.common.base.Expression;
+import org.apache.asterix.lang.common.base.IParser;
+import org.apache.asterix.lang.common.base.IQueryRewriter;
 import org.apache.asterix.lang.common.base.IReturningStatement;
 import org.apache.asterix.lang.common.base.IRewriterFactory;
 import org.apache.asterix.lang.common.base.IStatementRewriter;
 import org.apache.asterix.lang.common.base.Statement;
+import org.apache.asterix.lang.common.clause.GroupbyClause;
+import org.apache.asterix.lang.common.clause.WhereClause;
+import org.apache.asterix.lang.common.expression.CallExpr;
+import org.apache.asterix.lang.common.expression.GbyVariableExpressionPair;
 import org.apache.asterix.lang.common.expression.IndexedTypeExpression;
+import org.apache.asterix.lang.common.expression.ListConstructor;
+import org.apache.asterix.lang.common.expression.VariableExpr;
 import org.apache.asterix.lang.common.statement.CompactStatement;
 import org.apache.asterix.lang.common.statement.ConnectFeedStatement;
 import org.apache.asterix.lang.common.statement.CreateDataverseStatement;
@@ -90,6 +112,7 @@ import org.apache.asterix.lang.common.statement.CreateFeedPolicyStatement;
 import org.apache.asterix.lang.common.statement.CreateFeedStatement;
 import org.apache.asterix.lang.common.statement.CreateFunctionStatement;
 import org.apache.asterix.lang.common.statement.CreateIndexStatement;
+import org.apache.asterix.lang.common.statement.CreateMaterializedViewStatement;
 import org.apache.asterix.lang.common.statement.DatasetDecl;
 import org.apache.asterix.lang.common.statement.DataverseDecl;
 import org.apache.asterix.lang.common.statement.DataverseDropStatement;
@@ -105,19 +128,30 @@ import org.apache.asterix.lang.common.statement.IndexDropStatement;
 import org.apache.asterix.lang.common.statement.InsertStatement;
 import org.apache.asterix.lang.common.statement.InternalDetailsDecl;
 import org.apache.asterix.lang.common.statement.LoadStatement;
+import org.apache.asterix.lang.common.statement.MaterializedViewDropStatement;
 import org.apache.asterix.lang.common.statement.NodeGroupDropStatement;
 import org.apache.asterix.lang.common.statement.NodegroupDecl;
 import org.apache.asterix.lang.common.statement.Query;
 import org.apache.asterix.lang.common.statement.RefreshExternalDatasetStatement;
+import org.apache.asterix.lang.common.statement.RefreshMaterializedViewStatement;
 import org.apache.asterix.lang.common.statement.SetStatement;
 import org.apache.asterix.lang.common.statement.StartFeedStatement;
 import org.apache.asterix.lang.common.statement.StopFeedStatement;
 import org.apache.asterix.lang.common.statement.TypeDecl;
 import org.apache.asterix.lang.common.statement.TypeDropStatement;
 import org.apache.asterix.lang.common.statement.WriteStatement;
+import org.apache.asterix.lang.common.rewrites.LangRewritingContext;
 import org.apache.asterix.lang.common.struct.Identifier;
 import org.apache.asterix.lang.common.struct.VarIdentifier;
 import org.apache.asterix.lang.common.util.FunctionUtil;
+import org.apache.asterix.lang.sqlpp.clause.FromTerm;
+import org.apache.asterix.lang.sqlpp.clause.Projection;
+import org.apache.asterix.lang.sqlpp.clause.SelectBlock;
+import org.apache.asterix.lang.sqlpp.clause.SelectClause;
+import org.apache.asterix.lang.sqlpp.clause.SelectSetOperation;
+import org.apache.asterix.lang.sqlpp.expression.SelectExpression;
+import org.apache.asterix.lang.sqlpp.util.SqlppFormatPrintUtil;
+import org.apache.asterix.lang.sqlpp.util.SqlppRewriteUtil;
 import org.apache.asterix.metadata.IDatasetDetails;
 import org.apache.asterix.metadata.MetadataManager;
 import org.apache.asterix.metadata.MetadataTransactionContext;
@@ -148,6 +182,7 @@ import org.apache.asterix.metadata.utils.MetadataConstants;
 import org.apache.asterix.metadata.utils.MetadataLockUtil;
 import org.apache.asterix.metadata.utils.MetadataUtil;
 import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.ATypeTag;
 import org.apache.asterix.om.types.IAType;
@@ -196,10 +231,12 @@ import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobSpecification;
 import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.api.result.IResultSet;
+import org.apache.hyracks.api.result.IResultSetReader;
 import org.apache.hyracks.api.result.ResultSetId;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.job.IJobManager;
 import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.control.cc.scheduler.WorkloadClassJobQueue;
 import org.apache.hyracks.control.common.controllers.CCConfig;
 import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.job.profiling.om.JobletProfile;
@@ -218,6 +255,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
     private static final Logger LOGGER = LogManager.getLogger();
 
     public static final boolean IS_DEBUG_MODE = false;// true
+    // the SQL-92 aggregates whose values for the inserted records can be merged into the values of a materialized view
+    private static final Set<String> MERGEABLE_AGGREGATES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("count", "sum", "min", "max")));
     protected final List<Statement> statements;
     protected final ICcApplicationContext appCtx;
     protected final SessionOutput sessionOutput;
@@ -385,8 +425,17 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                         metadataProvider.setResultAsyncMode(
                                 resultDelivery == ResultDelivery.ASYNC || resultDelivery == ResultDelivery.DEFERRED);
                         metadataProvider.setMaxResultReads(maxResultReads);
-                        handleQuery(metadataProvider, (Query) stmt, hcc, resultSet, resultDelivery, outMetadata, stats,
-                                requestParameters, stmtParams, stmtRewriter);
+                        Mutable<Runnable> releaseView = new MutableObject<>();
+                        Query query = readMaterializedView((Query) stmt, hcc, requestParameters, releaseView);
+                        try {
+                            handleQuery(metadataProvider, query, hcc, resultSet, resultDelivery, outMetadata, stats,
+                                    requestParameters, stmtParams, stmtRewriter, releaseView.getValue());
+                        } catch (Exception e) {
+                            if (releaseView.getValue() != null) {
+                                releaseView.getValue().run();
+                            }
+                            throw e;
+                        }
                         break;
                     case COMPACT:
                         handleCompactStatement(metadataProvider, stmt, hcc);
@@ -394,6 +443,15 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                     case EXTERNAL_DATASET_REFRESH:
                         handleExternalDatasetRefreshStatement(metadataProvider, stmt, hcc);
                         break;
+                    case CREATE_MATERIALIZED_VIEW:
+                        handleCreateMaterializedViewStatement(metadataProvider, stmt, hcc, requestParameters);
+                        break;
+                    case MATERIALIZED_VIEW_DROP:
+                        handleMaterializedViewDropStatement(metadataProvider, stmt, hcc);
+                        break;
+                    case MATERIALIZED_VIEW_REFRESH:
+                        handleRefreshMaterializedViewStatement(metadataProvider, stmt, hcc, requestParameters);
+                        break;
                     case WRITE:
                         Pair<IAWriterFactory, FileSplit> result = handleWriteStatement(stmt);
                         writerFactory = (result.first != null) ? result.first : writerFactory;
@@ -541,6 +599,12 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
     public void handleCreateDatasetStatement(MetadataProvider metadataProvider, Statement stmt,
             IHyracksClientConnection hcc, IRequestParameters requestParameters) throws CompilationException, Exception {
+        handleCreateDatasetStatement(metadataProvider, stmt, null, hcc, requestParameters);
+    }
+
+    protected void handleCreateDatasetStatement(MetadataProvider metadataProvider, Statement stmt,
+            String materializedViewQuery, IHyracksClientConnection hcc, IRequestParameters requestParameters)
+            throws CompilationException, Exception {
         MutableObject<ProgressState> progress = new MutableObject<>(ProgressState.NO_PROGRESS);
         DatasetDecl dd = (DatasetDecl) stmt;
         SourceLocation sourceLoc = dd.getSourceLocation();
@@ -630,9 +694,13 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                         compactionPolicy = GlobalConfig.DEFAULT_FILTERED_DATASET_COMPACTION_POLICY_NAME;
                         compactionPolicyProperties = GlobalConfig.DEFAULT_COMPACTION_POLICY_PROPERTIES;
                     }
+                    List<List<String>> partitionedByExprs =
+                            ((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitionedByExprs();
+                    int partitionedByKeyCount =
+                            partitionedByExprs == null ? partitioningExprs.size() : partitionedByExprs.size();
                     datasetDetails = new InternalDatasetDetails(InternalDatasetDetails.FileStructure.BTREE,
                             InternalDatasetDetails.PartitioningStrategy.HASH, partitioningExprs, partitioningExprs,
-                            keySourceIndicators, partitioningTypes, autogenerated, filterField);
+                            keySourceIndicators, partitioningTypes, autogenerated, filterField, partitionedByKeyCount);
                     break;
                 case EXTERNAL:
                     String adapter = ((ExternalDetailsDecl) dd.getDatasetDetailsDecl()).getAdapter();
@@ -655,7 +723,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             dataset = new Dataset(dataverseName, datasetName, itemTypeDataverseName, itemTypeName,
                     metaItemTypeDataverseName, metaItemTypeName, ngName, compactionPolicy, compactionPolicyProperties,
                     datasetDetails, dd.getHints(), dsType, DatasetIdFactory.generateDatasetId(),
-                    MetadataUtil.PENDING_ADD_OP, compressionScheme);
+                    MetadataUtil.PENDING_ADD_OP, 0L, compressionScheme, materializedViewQuery);
             MetadataManager.INSTANCE.addDataset(metadataProvider.getMetadataTxnContext(), dataset);
             if (dd.getDatasetType() == DatasetType.INTERNAL) {
                 JobSpecification jobSpec = DatasetUtil.createDatasetJobSpec(dataset, metadataProvider);
@@ -1245,6 +1313,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         } finally {
             metadataProvider.getLocks().unlock();
             ExternalDatasetsRegistry.INSTANCE.releaseAcquiredLocks(metadataProvider);
+            MaterializedViewRegistry.INSTANCE.invalidate(dataverseName);
+            ResultCache.INSTANCE.invalidate(dataverseName);
         }
     }
 
@@ -1476,6 +1546,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             throw e;
         } finally {
             ExternalDatasetsRegistry.INSTANCE.releaseAcquiredLocks(metadataProvider);
+            MaterializedViewRegistry.INSTANCE.invalidate(dataverseName);
+            ResultCache.INSTANCE.datasetModified(dataverseName, datasetName);
         }
     }
 
@@ -1819,6 +1891,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             throw e;
         } finally {
             metadataProvider.getLocks().unlock();
+            // the cached results do not track the functions that they call
+            ResultCache.INSTANCE.clear();
         }
     }
 
@@ -1851,6 +1925,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
             throw e;
         } finally {
+            datasetModified(dataverseName, datasetName);
             metadataProvider.getLocks().unlock();
         }
     }
@@ -1870,6 +1945,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
             @Override
             public void unlock() {
+                datasetModified(dataverseName, stmtInsertUpsert.getDatasetName().getValue());
                 metadataProvider.getLocks().unlock();
             }
         };
@@ -1904,15 +1980,27 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
                     requestParameters, false);
         } else {
-            locker.lock();
+            // the inserted records are copied before the statement is rewritten in place
+            final Expression records = stmtInsertUpsert.getKind() == Statement.Kind.INSERT
+                    && compilationProvider.getLanguage() == ILangExtension.Language.SQLPP
+                            ? (Expression) SqlppRewriteUtil.deepCopy(stmtInsertUpsert.getBody()) : null;
+            final List<Pair<MaterializedView, Long>> lockedViews = records == null ? Collections.emptyList()
+                    : lockMaterializedViewsForDelta(dataverseName, stmtInsertUpsert, records, stmtParams);
+            boolean inserted = false;
             try {
-                final JobSpecification jobSpec = compiler.compile();
-                if (jobSpec == null) {
-                    return jobSpec;
+                locker.lock();
+                try {
+                    final JobSpecification jobSpec = compiler.compile();
+                    if (jobSpec == null) {
+                        return jobSpec;
+                    }
+                    runJob(hcc, jobSpec);
+                    inserted = true;
+                } finally {
+                    locker.unlock();
                 }
-                runJob(hcc, jobSpec);
             } finally {
-                locker.unlock();
+                applyMaterializedViewDeltas(lockedViews, inserted ? records : null, hcc, requestParameters);
             }
         }
         return null;
@@ -1951,6 +2039,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
             throw e;
         } finally {
+            datasetModified(dataverseName, stmtDelete.getDatasetName().getValue());
             metadataProvider.getLocks().unlock();
         }
     }
@@ -2198,6 +2287,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         String feedName = sfs.getFeedName().getValue();
         MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
         boolean committed = false;
+        List<FeedConnection> feedConnections = Collections.emptyList();
         MetadataLockUtil.startFeedBegin(lockManager, metadataProvider.getLocks(), dataverseName,
                 dataverseName + "." + feedName);
         try {
@@ -2207,8 +2297,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             // Feed & Feed Connections
             Feed feed = FeedMetadataUtil.validateIfFeedExists(dataverseName, feedName,
                     metadataProvider.getMetadataTxnContext());
-            List<FeedConnection> feedConnections = MetadataManager.INSTANCE
-                    .getFeedConections(metadataProvider.getMetadataTxnContext(), dataverseName, feedName);
+            feedConnections = MetadataManager.INSTANCE.getFeedConections(metadataProvider.getMetadataTxnContext(),
+                    dataverseName, feedName);
             if (feedConnections.isEmpty()) {
                 throw new CompilationException(ErrorCode.FEED_START_FEED_WITHOUT_CONNECTION, sourceLoc, feedName);
             }
@@ -2241,6 +2331,10 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
             throw e;
         } finally {
+            // the feed writes to its datasets from now on, and may have written to them before it failed
+            for (FeedConnection feedConnection : feedConnections) {
+                datasetModified(feedConnection.getDataverseName(), feedConnection.getDatasetName());
+            }
             metadataProvider.getLocks().unlock();
         }
     }
@@ -2323,6 +2417,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             abort(e, e, mdTxnCtx);
             throw e;
         } finally {
+            datasetModified(dataverseName, datasetName);
             metadataProvider.getLocks().unlock();
         }
     }
@@ -2457,6 +2552,19 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             IResultSet resultSet, ResultDelivery resultDelivery, ResultMetadata outMetadata, Stats stats,
             IRequestParameters requestParameters, Map<String, IAObject> stmtParams, IStatementRewriter stmtRewriter)
             throws Exception {
+        handleQuery(metadataProvider, query, hcc, resultSet, resultDelivery, outMetadata, stats, requestParameters,
+                stmtParams, stmtRewriter, null);
+    }
+
+    /**
+     * @param onCompletion
+     *            if not null, it is run once the job of the query completed, which is after this method returns for
+     *            asynchronous queries
+     */
+    private void handleQuery(MetadataProvider metadataProvider, Query query, IHyracksClientConnection hcc,
+            IResultSet resultSet, ResultDelivery resultDelivery, ResultMetadata outMetadata, Stats stats,
+            IRequestParameters requestParameters, Map<String, IAObject> stmtParams, IStatementRewriter stmtRewriter,
+            Runnable onCompletion) throws Exception {
         final IMetadataLocker locker = new IMetadataLocker() {
             @Override
             public void lock() {
@@ -2467,8 +2575,28 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 metadataProvider.getLocks().unlock();
                 // release external datasets' locks acquired during compilation of the query
                 ExternalDatasetsRegistry.INSTANCE.releaseAcquiredLocks(metadataProvider);
+                if (onCompletion != null) {
+                    onCompletion.run();
+                }
             }
         };
+        final long resultCacheSize = appCtx.getExternalProperties().getResultCacheSize();
+        final Object resultCacheKey = resultCacheSize > 0 && resultDelivery == ResultDelivery.IMMEDIATE
+                ? getResultCacheKey(metadataProvider, query, stmtParams) : null;
+        if (resultCacheKey != null) {
+            CachedResult cachedResult = ResultCache.INSTANCE.get(resultCacheKey);
+            if (cachedResult != null) {
+                if (onCompletion != null) {
+                    onCompletion.run();
+                }
+                sessionOutput.release();
+                ResultUtil.printResults(appCtx, new ResultReader(cachedResult.createReader()), sessionOutput, stats,
+                        cachedResult.getRecordType());
+                return;
+            }
+        }
+        final long resultCacheVersion = ResultCache.INSTANCE.getVersion();
+        final Mutable<CachedResult> resultToCache = new MutableObject<>();
         final IStatementCompiler compiler = () -> {
             MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
             boolean bActiveTxn = true;
@@ -2477,6 +2605,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 final JobSpecification jobSpec =
                         rewriteCompileQuery(hcc, metadataProvider, query, null, stmtParams, stmtRewriter);
                 afterCompile();
+                if (resultCacheKey != null) {
+                    resultToCache.setValue(createCachedResult(metadataProvider, query));
+                }
                 MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
                 bActiveTxn = false;
                 return query.isExplain() || !sessionConfig.isExecuteQuery() ? null : jobSpec;
@@ -2489,13 +2620,29 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
         };
         deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
-                requestParameters, true);
+                requestParameters, true, resultToCache, resultCacheSize);
+        CachedResult cachedResult = resultToCache.getValue();
+        if (cachedResult != null && cachedResult.isComplete()) {
+            ResultCache.INSTANCE.put(resultCacheKey, cachedResult, resultCacheVersion, resultCacheSize);
+        }
     }
 
     private void deliverResult(IHyracksClientConnection hcc, IResultSet resultSet, IStatementCompiler compiler,
             MetadataProvider metadataProvider, IMetadataLocker locker, ResultDelivery resultDelivery,
             ResultMetadata outMetadata, Stats stats, IRequestParameters requestParameters, boolean cancellable)
             throws Exception {
+        deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
+                requestParameters, cancellable, null, 0);
+    }
+
+    /**
+     * @param resultToCache
+     *            if it holds a result when the query is compiled, the frames that are delivered are copied into it
+     */
+    private void deliverResult(IHyracksClientConnection hcc, IResultSet resultSet, IStatementCompiler compiler,
+            MetadataProvider metadataProvider, IMetadataLocker locker, ResultDelivery resultDelivery,
+            ResultMetadata outMetadata, Stats stats, IRequestParameters requestParameters, boolean cancellable,
+            Mutable<CachedResult> resultToCache, long resultCacheSize) throws Exception {
         final ResultSetId resultSetId = metadataProvider.getResultSetId();
         switch (resultDelivery) {
             case ASYNC:
@@ -2510,7 +2657,11 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 break;
             case IMMEDIATE:
                 createAndRunJob(hcc, jobFlags, null, compiler, locker, resultDelivery, id -> {
-                    final ResultReader resultReader = new ResultReader(resultSet, id, resultSetId);
+                    IResultSetReader reader = resultSet.createReader(id, resultSetId);
+                    if (resultToCache != null && resultToCache.getValue() != null) {
+                        reader = resultToCache.getValue().createRecordingReader(reader, resultCacheSize);
+                    }
+                    final ResultReader resultReader = new ResultReader(reader);
                     updateJobStats(id, stats);
                     // stop buffering and allow for streaming result delivery
                     sessionOutput.release();
@@ -2537,6 +2688,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         final IJobManager jobManager =
                 ((ClusterControllerService) appCtx.getServiceContext().getControllerService()).getJobManager();
         final JobRun run = jobManager.get(jobId);
+        if (run != null && run.getStartTime() > 0) {
+            stats.setQueueWaitTime(stats.getQueueWaitTime() + run.getStartTime() - run.getCreateTime());
+        }
         if (run == null || run.getStatus() != JobStatus.TERMINATED) {
             return;
         }
@@ -2594,6 +2748,18 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         JobUtils.runJob(hcc, jobSpec, jobFlags, true);
     }
 
+    private static String getWorkloadClass(IRequestParameters requestParameters, ResultDelivery resultDelivery) {
+        final Map<String, String> optionalParameters = requestParameters.getOptionalParameters();
+        final String workloadClass = optionalParameters != null
+                ? optionalParameters.get(QueryServiceServlet.Parameter.WORKLOAD_CLASS.str()) : null;
+        if (workloadClass != null) {
+            return workloadClass;
+        }
+        // nobody waits for the results of asynchronous and deferred requests
+        return resultDelivery == ResultDelivery.IMMEDIATE ? WorkloadClassJobQueue.INTERACTIVE
+                : WorkloadClassJobQueue.BATCH;
+    }
+
     private static void createAndRunJob(IHyracksClientConnection hcc, EnumSet<JobFlag> jobFlags, Mutable<JobId> jId,
             IStatementCompiler compiler, IMetadataLocker locker, ResultDelivery resultDelivery, IResultPrinter printer,
             IRequestParameters requestParameters, boolean cancellable, ICcApplicationContext appCtx,
@@ -2610,6 +2776,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             if (cancellable) {
                 clientRequest.markCancellable();
             }
+            jobSpec.setProperty(WorkloadClassJobQueue.WORKLOAD_CLASS_PROPERTY_NAME,
+                    getWorkloadClass(requestParameters, resultDelivery));
             final SchedulableClientRequest schedulableRequest =
                     SchedulableClientRequest.of(clientRequest, requestParameters, metadataProvider, jobSpec);
             appCtx.getReceptionist().ensureSchedulable(schedulableRequest);
@@ -2893,8 +3061,690 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             if (lockAquired) {
                 ExternalDatasetsRegistry.INSTANCE.refreshEnd(ds, success);
             }
+            datasetModified(dataverseName, datasetName);
+            metadataProvider.getLocks().unlock();
+        }
+    }
+
+    protected void handleCreateMaterializedViewStatement(MetadataProvider metadataProvider, Statement stmt,
+            IHyracksClientConnection hcc, IRequestParameters requestParameters) throws Exception {
+        CreateMaterializedViewStatement cmvs = (CreateMaterializedViewStatement) stmt;
+        SourceLocation sourceLoc = cmvs.getSourceLocation();
+        String dataverseName = getActiveDataverse(cmvs.getDataverseName());
+        String viewName = cmvs.getViewName().getValue();
+        if (compilationProvider.getLanguage() != ILangExtension.Language.SQLPP) {
+            throw new CompilationException(ErrorCode.COMPILATION_ERROR, sourceLoc,
+                    "Materialized views are only supported in " + ILangExtension.Language.SQLPP);
+        }
+        if (cmvs.getQuery().getBody().getKind() != Expression.Kind.SELECT_EXPRESSION) {
+            throw new CompilationException(ErrorCode.COMPILATION_ERROR, sourceLoc,
+                    "The query of a materialized view has to be a SELECT query");
+        }
+        if (findMaterializedViewDataset(metadataProvider, dataverseName, viewName) != null) {
+            if (cmvs.getIfNotExists()) {
+                return;
+            }
+            throw new CompilationException(ErrorCode.DATASET_EXISTS, sourceLoc, viewName, dataverseName);
+        }
+        // The view is stored in a dataset of the same name whose records hold the version of the view that they
+        // belong to, their position in the result of the query and the result item.
+        String qualifiedName = getMaterializedViewQualifiedName(dataverseName, viewName);
+        handleCreateTypeStatement(metadataProvider, parseMaterializedViewStatement(dataverseName,
+                "create type " + qualifiedName + " as open { `version`: bigint, `pos`: bigint }"));
+        boolean datasetCreated = false;
+        try {
+            handleCreateDatasetStatement(metadataProvider,
+                    parseMaterializedViewStatement(dataverseName,
+                            "create dataset " + qualifiedName + "(" + qualifiedName + ") primary key `version`, `pos`"),
+                    cmvs.getViewBody(), hcc, requestParameters);
+            datasetCreated = true;
+            MaterializedViewRegistry.INSTANCE.invalidate(dataverseName);
+            MaterializedView view = null;
+            for (MaterializedView dataverseView : getMaterializedViews(dataverseName)) {
+                if (dataverseView.getViewName().equals(viewName)) {
+                    view = dataverseView;
+                }
+            }
+            if (view == null) {
+                throw new CompilationException(ErrorCode.COMPILATION_ERROR, sourceLoc,
+                        "Invalid query for materialized view " + viewName);
+            }
+            refreshMaterializedView(view, hcc, requestParameters);
+        } catch (Exception e) {
+            // remove the dataset and the type of the view
+            try {
+                if (datasetCreated) {
+                    doDropMaterializedView(metadataProvider, dataverseName, viewName, true, hcc, sourceLoc);
+                } else {
+                    handleTypeDropStatement(metadataProvider,
+                            new TypeDropStatement(new Identifier(dataverseName), new Identifier(viewName), true));
+                }
+            } catch (Exception e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    protected void handleMaterializedViewDropStatement(MetadataProvider metadataProvider, Statement stmt,
+            IHyracksClientConnection hcc) throws Exception {
+        MaterializedViewDropStatement stmtDrop = (MaterializedViewDropStatement) stmt;
+        doDropMaterializedView(metadataProvider, getActiveDataverse(stmtDrop.getDataverseName()),
+                stmtDrop.getViewName().getValue(), stmtDrop.getIfExists(), hcc, stmtDrop.getSourceLocation());
+    }
+
+    protected void doDropMaterializedView(MetadataProvider metadataProvider, String dataverseName, String viewName,
+            boolean ifExists, IHyracksClientConnection hcc, SourceLocation sourceLoc) throws Exception {
+        MetadataLockUtil.dropDatasetBegin(lockManager, metadataProvider.getLocks(), dataverseName,
+                dataverseName + "." + viewName);
+        try {
+            Dataset ds = findMaterializedViewDataset(metadataProvider, dataverseName, viewName);
+            if (ds == null) {
+                if (ifExists) {
+                    return;
+                }
+                throw new CompilationException(ErrorCode.UNKNOWN_DATASET_IN_DATAVERSE, sourceLoc, viewName,
+                        dataverseName);
+            }
+            if (!ds.isMaterializedView()) {
+                throw new CompilationException(ErrorCode.COMPILATION_ERROR, sourceLoc,
+                        viewName + " is not a materialized view");
+            }
+            doDropDataset(dataverseName, viewName, metadataProvider, false, hcc, true, sourceLoc);
+        } finally {
+            metadataProvider.getLocks().unlock();
+        }
+        handleTypeDropStatement(metadataProvider,
+                new TypeDropStatement(new Identifier(dataverseName), new Identifier(viewName), true));
+    }
+
+    protected void handleRefreshMaterializedViewStatement(MetadataProvider metadataProvider, Statement stmt,
+            IHyracksClientConnection hcc, IRequestParameters requestParameters) throws Exception {
+        RefreshMaterializedViewStatement stmtRefresh = (RefreshMaterializedViewStatement) stmt;
+        SourceLocation sourceLoc = stmtRefresh.getSourceLocation();
+        String dataverseName = getActiveDataverse(stmtRefresh.getDataverseName());
+        String viewName = stmtRefresh.getViewName().getValue();
+        for (MaterializedView view : getMaterializedViews(dataverseName)) {
+            if (view.getViewName().equals(viewName)) {
+                refreshMaterializedView(view, hcc, requestParameters);
+                return;
+            }
+        }
+        throw new CompilationException(ErrorCode.COMPILATION_ERROR, sourceLoc,
+                viewName + " is not a materialized view in dataverse " + dataverseName);
+    }
+
+    /**
+     * Replaces a query by a read of the materialized view of the active dataverse that has the same query, after
+     * refreshing the view if the datasets that it reads have changed.
+     *
+     * @param releaseView
+     *            receives the action that releases the version of the view that the query reads, which has to be run
+     *            once the query completed
+     */
+    protected Query readMaterializedView(Query query, IHyracksClientConnection hcc,
+            IRequestParameters requestParameters, Mutable<Runnable> releaseView) throws Exception {
+        if (compilationProvider.getLanguage() != ILangExtension.Language.SQLPP) {
+            return query;
+        }
+        String dataverseName = activeDataverse.getDataverseName();
+        for (MaterializedView view : getMaterializedViews(dataverseName)) {
+            if (!view.getBody().equals(query.getBody())) {
+                continue;
+            }
+            long version;
+            view.getRefreshLock().lock();
+            try {
+                if (!query.isExplain()
+                        && (view.isStale() || view.hasExternalSources() || isUsedByActiveFeed(view.getSources()))) {
+                    refreshMaterializedView(view, hcc, requestParameters);
+                }
+                version = view.acquireVersion();
+            } finally {
+                view.getRefreshLock().unlock();
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            releaseView.setValue(() -> {
+                if (released.compareAndSet(false, true)) {
+                    view.releaseVersion(version);
+                }
+            });
+            Query viewQuery = (Query) parseMaterializedViewStatement(dataverseName,
+                    "select value v.`item` from " + getMaterializedViewQualifiedName(dataverseName, view.getViewName())
+                            + " as v where v.`version` = " + version + " order by v.`pos`");
+            Query rewrittenQuery =
+                    new Query(query.isExplain(), query.isTopLevel(), viewQuery.getBody(), viewQuery.getVarCounter());
+            rewrittenQuery.setSourceLocation(query.getSourceLocation());
+            return rewrittenQuery;
+        }
+        return query;
+    }
+
+    private void refreshMaterializedView(MaterializedView view, IHyracksClientConnection hcc,
+            IRequestParameters requestParameters) throws Exception {
+        String dataverseName = view.getDataverseName();
+        String qualifiedName = getMaterializedViewQualifiedName(dataverseName, view.getViewName());
+        view.getRefreshLock().lock();
+        try {
+            // a change to the sources while the view is refreshed leaves it stale
+            long modifications = view.getModifications();
+            long version = Math.max(System.currentTimeMillis(), view.getVersion() + 1);
+
+            // #. add the new version of the view
+            IStatementRewriter stmtRewriter = rewriterFactory.createStatementRewriter();
+            Statement insert = parseMaterializedViewStatement(dataverseName,
+                    "insert into " + qualifiedName + " (select value { \"version\": " + version
+                            + ", \"pos\": p, \"item\": r } from (" + view.getViewBody() + ") as r at p)");
+            rewriteStatement(insert, stmtRewriter);
+            handleInsertUpsertStatement(createMaterializedViewMetadataProvider(dataverseName), insert, hcc, null,
+                    ResultDelivery.IMMEDIATE, null, new Stats(), false, requestParameters, null, stmtRewriter);
+            view.setVersion(version);
+            view.setRefreshed(modifications);
+
+            // #. remove the older versions, but keep the ones that queries are still reading. The versions that are
+            // released later are removed by the next refresh.
+            Set<Long> keptVersions = view.getVersionsInUse();
+            keptVersions.add(version);
+            stmtRewriter = rewriterFactory.createStatementRewriter();
+            Statement delete = parseMaterializedViewStatement(dataverseName, "delete from " + qualifiedName
+                    + " v where v.`version` not in " + keptVersions.stream().map(String::valueOf)
+                            .collect(Collectors.joining(", ", "[", "]")));
+            rewriteStatement(delete, stmtRewriter);
+            handleDeleteStatement(createMaterializedViewMetadataProvider(dataverseName), delete, hcc, false, null,
+                    stmtRewriter);
+        } finally {
+            view.getRefreshLock().unlock();
+        }
+    }
+
+    private List<MaterializedView> getMaterializedViews(String dataverseName) throws Exception {
+        List<MaterializedView> views = MaterializedViewRegistry.INSTANCE.getViews(dataverseName);
+        if (views != null) {
+            return views;
+        }
+        views = new ArrayList<>();
+        MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
+        MetadataProvider metadataProvider = new MetadataProvider(appCtx, activeDataverse);
+        metadataProvider.setMetadataTxnContext(mdTxnCtx);
+        lockManager.acquireDataverseReadLock(metadataProvider.getLocks(), dataverseName);
+        try {
+            Dataverse dv = MetadataManager.INSTANCE.getDataverse(mdTxnCtx, dataverseName);
+            if (dv != null) {
+                metadataProvider.setDefaultDataverse(dv);
+                for (Dataset dataset : MetadataManager.INSTANCE.getDataverseDatasets(mdTxnCtx, dataverseName)) {
+                    if (!dataset.isMaterializedView()) {
+                        continue;
+                    }
+                    try {
+                        views.add(loadMaterializedView(metadataProvider, dataset));
+                    } catch (CompilationException e) {
+                        // the view cannot be used anymore, e.g., because a dataset that it reads was dropped
+                        LOGGER.log(Level.WARN, "Ignoring materialized view " + dataset.getFullyQualifiedName(), e);
+                    }
+                }
+            }
+            MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
+        } catch (Exception e) {
+            abort(e, e, mdTxnCtx);
+            throw e;
+        } finally {
             metadataProvider.getLocks().unlock();
         }
+        MaterializedViewRegistry.INSTANCE.setViews(dataverseName, views);
+        return views;
+    }
+
+    private MaterializedView loadMaterializedView(MetadataProvider metadataProvider, Dataset dataset)
+            throws AlgebricksException {
+        String dataverseName = dataset.getDataverseName();
+        String viewBody = dataset.getMaterializedViewQuery();
+        // The query is parsed twice since rewriting it to find the datasets that it reads modifies it.
+        Query query = (Query) parseMaterializedViewStatement(dataverseName, viewBody);
+        Query rewrittenQuery = (Query) parseMaterializedViewStatement(dataverseName, viewBody);
+        IQueryRewriter rewriter = rewriterFactory.createQueryRewriter();
+        rewriter.rewrite(Collections.emptyList(), rewrittenQuery, metadataProvider,
+                new LangRewritingContext(rewrittenQuery.getVarCounter()), true, Collections.emptyList());
+        List<Dataset> sources = new ArrayList<>();
+        for (List<String> source : FunctionUtil
+                .getFunctionDependencies(rewriterFactory.createQueryRewriter(), rewrittenQuery.getBody(),
+                        metadataProvider)
+                .get(0)) {
+            Dataset sourceDataset = metadataProvider.findDataset(source.get(0), source.get(1));
+            if (sourceDataset != null) {
+                sources.add(sourceDataset);
+            }
+        }
+        boolean singleSource = sources.size() == 1 && sources.get(0).getDatasetType() == DatasetType.INTERNAL
+                && FunctionUtil.isDeterministic(rewriter, rewrittenQuery.getBody());
+        boolean aggregate = singleSource && getGroupAggregates(query.getBody()) != null;
+        boolean incremental = aggregate || (singleSource && getSelectProjectFromTerm(rewrittenQuery.getBody()) != null
+                && isSelectProjectOfSource(query.getBody()));
+        return new MaterializedView(dataverseName, dataset.getDatasetName(), viewBody, query.getBody(), sources,
+                incremental, aggregate);
+    }
+
+    /**
+     * @return the only FROM term of a query that selects and projects the items of a single collection, without
+     *         joining, grouping, ordering, limiting or removing duplicates, or null if the query is not of that form
+     */
+    private static FromTerm getSelectProjectFromTerm(Expression expr) {
+        if (expr.getKind() != Expression.Kind.SELECT_EXPRESSION) {
+            return null;
+        }
+        SelectExpression selectExpr = (SelectExpression) expr;
+        SelectSetOperation selectSetOperation = selectExpr.getSelectSetOperation();
+        if (selectExpr.hasLetClauses() || selectExpr.hasOrderby() || selectExpr.hasLimit()
+                || selectSetOperation.hasRightInputs() || !selectSetOperation.getLeftInput().selectBlock()) {
+            return null;
+        }
+        SelectBlock selectBlock = selectSetOperation.getLeftInput().getSelectBlock();
+        if (!selectBlock.hasFromClause() || selectBlock.hasGroupbyClause()
+                || selectBlock.hasLetHavingClausesAfterGroupby() || selectBlock.getSelectClause().distinct()
+                || selectBlock.getFromClause().getFromTerms().size() != 1) {
+            return null;
+        }
+        for (AbstractClause clause : selectBlock.getLetWhereList()) {
+            if (clause.getClauseType() != Clause.ClauseType.WHERE_CLAUSE) {
+                return null;
+            }
+        }
+        FromTerm fromTerm = selectBlock.getFromClause().getFromTerms().get(0);
+        return fromTerm.hasCorrelateClauses() || fromTerm.hasPositionalVariable() ? null : fromTerm;
+    }
+
+    /**
+     * @return whether the query, as parsed, computes each of its items from a single item of the collection that
+     *         it reads, so that the items for the records that are inserted into its source can be computed from
+     *         these records alone
+     */
+    private static boolean isSelectProjectOfSource(Expression expr) throws CompilationException {
+        FromTerm fromTerm = getSelectProjectFromTerm(expr);
+        if (fromTerm == null || (fromTerm.getLeftExpression().getKind() != Expression.Kind.VARIABLE_EXPRESSION
+                && fromTerm.getLeftExpression().getKind() != Expression.Kind.FIELD_ACCESSOR_EXPRESSION)) {
+            return false;
+        }
+        SelectBlock selectBlock =
+                ((SelectExpression) expr).getSelectSetOperation().getLeftInput().getSelectBlock();
+        SelectClause selectClause = selectBlock.getSelectClause();
+        List<Expression> exprs = new ArrayList<>();
+        if (selectClause.selectElement()) {
+            exprs.add(selectClause.getSelectElement().getExpression());
+        } else {
+            for (Projection projection : selectClause.getSelectRegular().getProjections()) {
+                if (!projection.star()) {
+                    exprs.add(projection.getExpression());
+                }
+            }
+        }
+        for (AbstractClause clause : selectBlock.getLetWhereList()) {
+            exprs.add(((WhereClause) clause).getWhereExpr());
+        }
+        for (Expression clauseExpr : exprs) {
+            if (!isComputedFromItem(clauseExpr, fromTerm)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the expression only reads the current item of the FROM term, without a subquery
+     */
+    private static boolean isComputedFromItem(Expression expr, FromTerm fromTerm) throws CompilationException {
+        if (SqlppRewriteUtil.constainsSubquery(expr)) {
+            return false;
+        }
+        for (VariableExpr var : SqlppRewriteUtil.getFreeVariable(expr)) {
+            if (!var.getVar().equals(fromTerm.getLeftVariable().getVar())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return for each field of the items of a query that groups the items of a single collection, the name of the
+     *         SQL-92 aggregate function that computes the field, or null if the field is a grouping key. Null is
+     *         returned if the query is not of that form, uses other aggregates than COUNT, SUM, MIN and MAX, or does
+     *         not select all of its grouping keys, since the groups for the inserted records could not be merged into
+     *         the items of the view then.
+     */
+    private static Map<String, String> getGroupAggregates(Expression expr) throws CompilationException {
+        if (expr.getKind() != Expression.Kind.SELECT_EXPRESSION) {
+            return null;
+        }
+        SelectExpression selectExpr = (SelectExpression) expr;
+        SelectSetOperation selectSetOperation = selectExpr.getSelectSetOperation();
+        if (selectExpr.hasLetClauses() || selectExpr.hasOrderby() || selectExpr.hasLimit()
+                || selectSetOperation.hasRightInputs() || !selectSetOperation.getLeftInput().selectBlock()) {
+            return null;
+        }
+        SelectBlock selectBlock = selectSetOperation.getLeftInput().getSelectBlock();
+        SelectClause selectClause = selectBlock.getSelectClause();
+        if (!selectBlock.hasFromClause() || selectBlock.hasLetHavingClausesAfterGroupby() || selectClause.distinct()
+                || selectClause.selectElement() || selectBlock.getFromClause().getFromTerms().size() != 1) {
+            return null;
+        }
+        FromTerm fromTerm = selectBlock.getFromClause().getFromTerms().get(0);
+        if (fromTerm.hasCorrelateClauses() || fromTerm.hasPositionalVariable()
+                || (fromTerm.getLeftExpression().getKind() != Expression.Kind.VARIABLE_EXPRESSION
+                        && fromTerm.getLeftExpression().getKind() != Expression.Kind.FIELD_ACCESSOR_EXPRESSION)) {
+            return null;
+        }
+        for (AbstractClause clause : selectBlock.getLetWhereList()) {
+            if (clause.getClauseType() != Clause.ClauseType.WHERE_CLAUSE
+                    || !isComputedFromItem(((WhereClause) clause).getWhereExpr(), fromTerm)) {
+                return null;
+            }
+        }
+        List<GbyVariableExpressionPair> keys = Collections.emptyList();
+        if (selectBlock.hasGroupbyClause()) {
+            GroupbyClause groupbyClause = selectBlock.getGroupbyClause();
+            if (groupbyClause.hasGroupVar() || groupbyClause.hasDecorList() || groupbyClause.hasWithMap()
+                    || groupbyClause.isGroupAll()) {
+                return null;
+            }
+            keys = groupbyClause.getGbyPairList();
+            for (GbyVariableExpressionPair key : keys) {
+                if (!isComputedFromItem(key.getExpr(), fromTerm)) {
+                    return null;
+                }
+            }
+        }
+        Map<String, String> aggregates = new LinkedHashMap<>();
+        Set<GbyVariableExpressionPair> selectedKeys = new HashSet<>();
+        for (Projection projection : selectClause.getSelectRegular().getProjections()) {
+            if (projection.star() || projection.varStar() || !projection.hasName()
+                    || aggregates.containsKey(projection.getName())) {
+                return null;
+            }
+            Expression projectionExpr = projection.getExpression();
+            GbyVariableExpressionPair key = null;
+            for (GbyVariableExpressionPair gbyPair : keys) {
+                if (gbyPair.getExpr().equals(projectionExpr) || (gbyPair.getVar() != null
+                        && projectionExpr.getKind() == Expression.Kind.VARIABLE_EXPRESSION
+                        && gbyPair.getVar().getVar().equals(((VariableExpr) projectionExpr).getVar()))) {
+                    key = gbyPair;
+                    break;
+                }
+            }
+            if (key != null) {
+                selectedKeys.add(key);
+                aggregates.put(projection.getName(), null);
+                continue;
+            }
+            if (projectionExpr.getKind() != Expression.Kind.CALL_EXPRESSION) {
+                return null;
+            }
+            CallExpr callExpr = (CallExpr) projectionExpr;
+            String function = callExpr.getFunctionSignature().getName().toLowerCase();
+            if (callExpr.getExprList().size() != 1 || !MERGEABLE_AGGREGATES.contains(function)
+                    || !isComputedFromItem(callExpr.getExprList().get(0), fromTerm)) {
+                return null;
+            }
+            aggregates.put(projection.getName(), function);
+        }
+        // a query without a GROUP BY clause is only an aggregate if it selects an aggregate
+        if (selectedKeys.size() != keys.size() || (keys.isEmpty() && aggregates.isEmpty())) {
+            return null;
+        }
+        return aggregates;
+    }
+
+    /**
+     * Locks the incrementally maintained views that read the dataset into which a statement inserts records and
+     * that are up to date, so that the items for the inserted records can be added to them once the statement ran.
+     * No other refresh or delta can change these views until they are unlocked by
+     * {@link #applyMaterializedViewDeltas(List, Expression, IHyracksClientConnection, IRequestParameters)}.
+     *
+     * @return the locked views with the number of modifications of their source that they account for, or an empty
+     *         list if the inserted records cannot be computed again, e.g., since they are read from a dataset or are
+     *         not deterministic. The views that are not maintained incrementally are refreshed on their next read.
+     */
+    private List<Pair<MaterializedView, Long>> lockMaterializedViewsForDelta(String dataverseName,
+            InsertStatement insert, Expression records, Map<String, IAObject> stmtParams)
+            throws CompilationException {
+        List<Pair<MaterializedView, Long>> lockedViews = new ArrayList<>();
+        if (insert.getKind() != Statement.Kind.INSERT || insert.getReturnExpression() != null
+                || compilationProvider.getLanguage() != ILangExtension.Language.SQLPP
+                || (stmtParams != null && !stmtParams.isEmpty())) {
+            return lockedViews;
+        }
+        String datasetName = insert.getDatasetName().getValue();
+        List<MaterializedView> views =
+                MaterializedViewRegistry.INSTANCE.getIncrementalViews(dataverseName, datasetName);
+        Expression.Kind kind = records.getKind();
+        if (views.isEmpty() || (kind != Expression.Kind.LIST_CONSTRUCTOR_EXPRESSION
+                && kind != Expression.Kind.RECORD_CONSTRUCTOR_EXPRESSION
+                && kind != Expression.Kind.SELECT_EXPRESSION) || !SqlppRewriteUtil.getFreeVariable(records).isEmpty()
+                || !FunctionUtil.isDeterministic(rewriterFactory.createQueryRewriter(), records)) {
+            return lockedViews;
+        }
+        for (CallExpr functionCall : rewriterFactory.createQueryRewriter().getFunctionCalls(records)) {
+            if (functionCall.getFunctionSignature().getName().equals(BuiltinFunctions.DATASET.getName())) {
+                return lockedViews;
+            }
+        }
+        for (MaterializedView view : views) {
+            view.getRefreshLock().lock();
+            if (view.isStale() || isUsedByActiveFeed(view.getSources())) {
+                view.getRefreshLock().unlock();
+            } else {
+                lockedViews.add(new Pair<>(view, view.getModifications()));
+            }
+        }
+        return lockedViews;
+    }
+
+    /**
+     * Adds the items for the inserted records to the current version of the locked views, unless the source of a
+     * view was also modified by another statement, and unlocks the views.
+     *
+     * @param records
+     *            the inserted records, or null if the insert failed
+     */
+    private void applyMaterializedViewDeltas(List<Pair<MaterializedView, Long>> lockedViews, Expression records,
+            IHyracksClientConnection hcc, IRequestParameters requestParameters) {
+        // the records are read in a FROM clause
+        Expression source = records;
+        if (records != null && records.getKind() == Expression.Kind.SELECT_EXPRESSION) {
+            ((SelectExpression) records).setSubquery(true);
+        } else if (records != null && records.getKind() == Expression.Kind.RECORD_CONSTRUCTOR_EXPRESSION) {
+            source = new ListConstructor(ListConstructor.Type.ORDERED_LIST_CONSTRUCTOR,
+                    Collections.singletonList(records));
+        }
+        for (Pair<MaterializedView, Long> lockedView : lockedViews) {
+            MaterializedView view = lockedView.first;
+            try {
+                // the insert itself is the only modification of the source that the view does not account for
+                long modifications = lockedView.second + 1;
+                if (source == null || view.getModifications() != modifications) {
+                    continue;
+                }
+                String dataverseName = view.getDataverseName();
+                String qualifiedName = getMaterializedViewQualifiedName(dataverseName, view.getViewName());
+                Query delta = (Query) parseMaterializedViewStatement(dataverseName, view.getViewBody());
+                FromTerm fromTerm = ((SelectExpression) delta.getBody()).getSelectSetOperation().getLeftInput()
+                        .getSelectBlock().getFromClause().getFromTerms().get(0);
+                fromTerm.setLeftExpression(source);
+                String deltaBody = SqlppFormatPrintUtil.toString(delta.getBody());
+                IStatementRewriter stmtRewriter = rewriterFactory.createStatementRewriter();
+                Statement insert = view.isAggregate()
+                        ? parseMaterializedViewStatement(dataverseName,
+                                getMergeGroupsStatement(view, qualifiedName, deltaBody))
+                        : parseMaterializedViewStatement(dataverseName,
+                                "insert into " + qualifiedName + " (select value { \"version\": " + view.getVersion()
+                                        + ", \"pos\": " + view.nextDeltaPosition() + " + p, \"item\": r } from ("
+                                        + deltaBody + ") as r at p)");
+                rewriteStatement(insert, stmtRewriter);
+                handleInsertUpsertStatement(createMaterializedViewMetadataProvider(dataverseName), insert, hcc, null,
+                        ResultDelivery.IMMEDIATE, null, new Stats(), false, requestParameters, null, stmtRewriter);
+                view.setRefreshed(modifications);
+            } catch (Exception e) {
+                // the view stays stale and is computed again when it is read next
+                LOGGER.log(Level.WARN, "Failed to add the inserted records to materialized view "
+                        + view.getDataverseName() + "." + view.getViewName(), e);
+            } finally {
+                view.getRefreshLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the statement that merges the groups that the query of an aggregate view computes for the inserted
+     *         records into the items of the current version of the view. The aggregates of a group that the view
+     *         already has are combined with the aggregates of the inserted records, and the other groups are added
+     *         after the items of the view.
+     */
+    private static String getMergeGroupsStatement(MaterializedView view, String qualifiedName, String deltaBody)
+            throws CompilationException {
+        StringBuilder item = new StringBuilder();
+        StringBuilder condition = new StringBuilder("true");
+        for (Map.Entry<String, String> field : getGroupAggregates(view.getBody()).entrySet()) {
+            String name = field.getKey();
+            String oldValue = "o.`item`.`" + name + "`";
+            String newValue = "d.`" + name + "`";
+            if (item.length() > 0) {
+                item.append(", ");
+            }
+            item.append('"').append(name).append("\": ");
+            if (field.getValue() == null) {
+                // null and missing keys are different groups
+                item.append(newValue);
+                condition.append(" and (").append(oldValue).append(" = ").append(newValue).append(" or (")
+                        .append(oldValue).append(" is null and ").append(newValue).append(" is null) or (")
+                        .append(oldValue).append(" is missing and ").append(newValue).append(" is missing))");
+            } else {
+                // the counts and sums add up, and the array aggregates ignore the unknown values of new groups
+                String merge = field.getValue().equals("count") ? "sum" : field.getValue();
+                item.append("array_").append(merge).append("([").append(oldValue).append(", ").append(newValue)
+                        .append("])");
+            }
+        }
+        long version = view.getVersion();
+        return "upsert into " + qualifiedName + " (select value { \"version\": " + version
+                + ", \"pos\": coalesce(o.`pos`, " + view.nextDeltaPosition() + " + p), \"item\": { " + item
+                + " } } from (" + deltaBody + ") as d at p left outer join (select value v from " + qualifiedName
+                + " as v where v.`version` = " + version + ") as o on " + condition + ")";
+    }
+
+    private Dataset findMaterializedViewDataset(MetadataProvider metadataProvider, String dataverseName,
+            String viewName) throws Exception {
+        MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
+        metadataProvider.setMetadataTxnContext(mdTxnCtx);
+        try {
+            Dataset ds = metadataProvider.findDataset(dataverseName, viewName);
+            MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
+            return ds;
+        } catch (Exception e) {
+            abort(e, e, mdTxnCtx);
+            throw e;
+        }
+    }
+
+    private MetadataProvider createMaterializedViewMetadataProvider(String dataverseName) throws Exception {
+        MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
+        try {
+            Dataverse dv = MetadataManager.INSTANCE.getDataverse(mdTxnCtx, dataverseName);
+            MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
+            return new MetadataProvider(appCtx, dv);
+        } catch (Exception e) {
+            abort(e, e, mdTxnCtx);
+            throw e;
+        }
+    }
+
+    private boolean isUsedByActiveFeed(List<Dataset> datasets) {
+        ActiveNotificationHandler activeEventHandler =
+                (ActiveNotificationHandler) appCtx.getActiveNotificationHandler();
+        for (IActiveEntityEventsListener listener : activeEventHandler.getEventListeners()) {
+            for (Dataset source : datasets) {
+                if (listener.isActive() && listener.isEntityUsingDataset(source)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notifies the materialized views and the cached results that read the dataset that it was modified.
+     */
+    private static void datasetModified(String dataverseName, String datasetName) {
+        MaterializedViewRegistry.INSTANCE.datasetModified(dataverseName, datasetName);
+        ResultCache.INSTANCE.datasetModified(dataverseName, datasetName);
+    }
+
+    /**
+     * @return the key of the result of the query in the result cache, or null if the result cannot be cached
+     */
+    private Object getResultCacheKey(MetadataProvider metadataProvider, Query query, Map<String, IAObject> stmtParams)
+            throws CompilationException {
+        if (query.isExplain() || !sessionConfig.isExecuteQuery()) {
+            return null;
+        }
+        for (String flag : new String[] { SessionConfig.OOB_EXPR_TREE, SessionConfig.OOB_REWRITTEN_EXPR_TREE,
+                SessionConfig.OOB_LOGICAL_PLAN, SessionConfig.OOB_OPTIMIZED_LOGICAL_PLAN,
+                SessionConfig.OOB_HYRACKS_JOB }) {
+            if (sessionConfig.is(flag)) {
+                // a cached result would skip the compilation whose output is requested
+                return null;
+            }
+        }
+        // the query is printed before it is rewritten, since it is rewritten in place
+        final StringWriter stringWriter = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(stringWriter)) {
+            query.accept(compilationProvider.getAstPrintVisitorFactory().createLangVisitor(writer), 0);
+        }
+        Map<String, Object> params = new HashMap<>();
+        if (stmtParams != null) {
+            stmtParams.forEach((name, value) -> params.put(name, value.toJSON()));
+        }
+        return Arrays.asList(stringWriter.toString(), metadataProvider.getDefaultDataverseName(), params,
+                new HashMap<>(metadataProvider.getConfig()), sessionConfig.fmt(),
+                sessionConfig.is(SessionConfig.FORMAT_CSV_HEADER), sessionConfig.is(SessionConfig.FORMAT_INDENT_JSON),
+                sessionConfig.is(SessionConfig.FORMAT_QUOTE_RECORD),
+                sessionConfig.is(SessionConfig.FORMAT_WRAPPER_ARRAY));
+    }
+
+    /**
+     * @return an empty result for the rewritten query, or null if its result cannot be cached since it calls a
+     *         non-deterministic function or reads a dataset whose changes are not tracked
+     */
+    private CachedResult createCachedResult(MetadataProvider metadataProvider, Query query)
+            throws AlgebricksException {
+        IQueryRewriter rewriter = rewriterFactory.createQueryRewriter();
+        if (!FunctionUtil.isDeterministic(rewriter, query.getBody())) {
+            return null;
+        }
+        List<Dataset> datasets = new ArrayList<>();
+        List<Pair<String, String>> sources = new ArrayList<>();
+        for (List<String> source : FunctionUtil.getFunctionDependencies(rewriter, query.getBody(), metadataProvider)
+                .get(0)) {
+            Dataset dataset = metadataProvider.findDataset(source.get(0), source.get(1));
+            if (dataset == null || dataset.getDatasetType() != DatasetType.INTERNAL
+                    || MetadataConstants.METADATA_DATAVERSE_NAME.equals(dataset.getDataverseName())) {
+                return null;
+            }
+            datasets.add(dataset);
+            sources.add(new Pair<>(dataset.getDataverseName(), dataset.getDatasetName()));
+        }
+        if (isUsedByActiveFeed(datasets)) {
+            return null;
+        }
+        return new CachedResult(sources, metadataProvider.findOutputRecordType());
+    }
+
+    private Statement parseMaterializedViewStatement(String dataverseName, String statement)
+            throws CompilationException {
+        // the statements of a view are run in the dataverse of the view
+        IParser parser = compilationProvider.getParserFactory()
+                .createParser("use `" + dataverseName + "`;\n" + statement + ";");
+        return parser.parse().get(1);
+    }
+
+    private static String getMaterializedViewQualifiedName(String dataverseName, String viewName) {
+        return "`" + dataverseName + "`.`" + viewName + "`";
     }
 
     @Override
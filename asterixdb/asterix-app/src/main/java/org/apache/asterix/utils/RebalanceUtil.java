@@ -23,6 +23,7 @@ import static org.apache.hyracks.storage.am.common.dataflow.IndexDropOperatorDes
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -309,11 +310,12 @@ public class RebalanceUtil {
         // Connects empty-tuple-source and scan.
         spec.connect(new OneToOneConnectorDescriptor(spec), starter, 0, primaryScanOp, 0);
 
-        // Connects scan and upsert.
-        int numKeys = target.getPrimaryKeys().size();
+        // Connects scan and upsert, hashing on the fields that the target is partitioned on.
+        int numKeys = target.getPartitionedByKeyCount();
         int[] keys = IntStream.range(0, numKeys).toArray();
         IConnectorDescriptor connectorDescriptor = new MToNPartitioningConnectorDescriptor(spec,
-                new FieldHashPartitionComputerFactory(keys, target.getPrimaryHashFunctionFactories(metadataProvider)));
+                new FieldHashPartitionComputerFactory(keys,
+                        Arrays.copyOf(target.getPrimaryHashFunctionFactories(metadataProvider), numKeys)));
         spec.connect(connectorDescriptor, primaryScanOp, 0, upsertOp, 0);
 
         // Connects upsert and sink.
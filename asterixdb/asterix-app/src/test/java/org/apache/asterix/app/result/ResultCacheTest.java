@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.asterix.app.result.ResultCache.CachedResult;
+import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.result.IResultSetReader;
+import org.apache.hyracks.api.result.ResultJobRecord.Status;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ResultCacheTest {
+    private static final int FRAME_SIZE = 256;
+
+    @After
+    public void clear() {
+        ResultCache.INSTANCE.clear();
+    }
+
+    @Test
+    public void replayCachedFrames() throws Exception {
+        CachedResult result = record(source("dv", "ds"), 3, Long.MAX_VALUE);
+        Assert.assertTrue(result.isComplete());
+        Assert.assertEquals(3L * FRAME_SIZE, result.getSize());
+        ResultCache.INSTANCE.put("q", result, ResultCache.INSTANCE.getVersion(), Long.MAX_VALUE);
+
+        IResultSetReader reader = ResultCache.INSTANCE.get("q").createReader();
+        IFrame frame = new VSizeFrame(new FrameManager(FRAME_SIZE));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(FRAME_SIZE, reader.read(frame));
+            Assert.assertEquals(FRAME_SIZE, frame.getFrameSize());
+            Assert.assertEquals(i, frame.getBuffer().get(0));
+        }
+        Assert.assertEquals(0, reader.read(frame));
+        Assert.assertNotNull(reader.getResultStatus());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        long capacity = 4L * FRAME_SIZE;
+        long version = ResultCache.INSTANCE.getVersion();
+        ResultCache.INSTANCE.put("q1", record(source("dv", "ds"), 2, capacity), version, capacity);
+        ResultCache.INSTANCE.put("q2", record(source("dv", "ds"), 2, capacity), version, capacity);
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q1"));
+        ResultCache.INSTANCE.put("q3", record(source("dv", "ds"), 1, capacity), version, capacity);
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q1"));
+        Assert.assertNull(ResultCache.INSTANCE.get("q2"));
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q3"));
+
+        // a result that is larger than the cache is not kept
+        CachedResult large = record(source("dv", "ds"), 5, capacity);
+        Assert.assertTrue(large.getSize() > capacity);
+        ResultCache.INSTANCE.put("q4", large, version, capacity);
+        Assert.assertNull(ResultCache.INSTANCE.get("q4"));
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q1"));
+    }
+
+    @Test
+    public void invalidateModifiedDatasets() throws Exception {
+        long version = ResultCache.INSTANCE.getVersion();
+        ResultCache.INSTANCE.put("q1", record(source("dv1", "ds1"), 1, Long.MAX_VALUE), version, Long.MAX_VALUE);
+        ResultCache.INSTANCE.put("q2", record(source("dv1", "ds2"), 1, Long.MAX_VALUE), version, Long.MAX_VALUE);
+        ResultCache.INSTANCE.put("q3", record(source("dv2", "ds1"), 1, Long.MAX_VALUE), version, Long.MAX_VALUE);
+
+        ResultCache.INSTANCE.datasetModified("dv1", "ds1");
+        Assert.assertNull(ResultCache.INSTANCE.get("q1"));
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q2"));
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q3"));
+
+        ResultCache.INSTANCE.invalidate("dv1");
+        Assert.assertNull(ResultCache.INSTANCE.get("q2"));
+        Assert.assertNotNull(ResultCache.INSTANCE.get("q3"));
+
+        // a result that was read before a dataset was modified is not cached
+        CachedResult result = record(source("dv2", "ds2"), 1, Long.MAX_VALUE);
+        ResultCache.INSTANCE.put("q4", result, version, Long.MAX_VALUE);
+        Assert.assertNull(ResultCache.INSTANCE.get("q4"));
+    }
+
+    private static List<Pair<String, String>> source(String dataverseName, String datasetName) {
+        return Collections.singletonList(new Pair<>(dataverseName, datasetName));
+    }
+
+    /**
+     * Reads a result of the given number of frames through a recording reader. The first byte of each frame is its
+     * position in the result.
+     */
+    private static CachedResult record(List<Pair<String, String>> sources, int numFrames, long capacity)
+            throws Exception {
+        IResultSetReader reader = Mockito.mock(IResultSetReader.class);
+        int[] next = new int[1];
+        Mockito.when(reader.read(Mockito.any(IFrame.class))).thenAnswer(invocation -> {
+            IFrame frame = invocation.getArgumentAt(0, IFrame.class);
+            frame.reset();
+            if (next[0] == numFrames) {
+                return 0;
+            }
+            frame.getBuffer().put(0, (byte) next[0]++);
+            return frame.getFrameSize();
+        });
+        Mockito.when(reader.getResultStatus()).thenReturn(new Status());
+        CachedResult result = new CachedResult(sources, null);
+        IResultSetReader recordingReader = result.createRecordingReader(reader, capacity);
+        IFrame frame = new VSizeFrame(new FrameManager(FRAME_SIZE));
+        while (recordingReader.read(frame) > 0) {
+            // read all the frames
+        }
+        return result;
+    }
+}
@@ -66,7 +66,7 @@ public class PartitionManagerTest {
         final InetSocketAddress nc2Address =
                 new InetSocketAddress(localNetworkAddress.getAddress(), localNetworkAddress.getPort());
         PartitionId id = new PartitionId(failedJob, new ConnectorDescriptorId(1), 0, 1);
-        NetworkInputChannel inputChannel = new NetworkInputChannel(nc1.getNetworkManager(), nc2Address, id, 1);
+        NetworkInputChannel inputChannel = new NetworkInputChannel(nc1.getNetworkManager(), nc2Address, id, 1, false);
         InputChannelFrameReader frameReader = new InputChannelFrameReader(inputChannel);
         inputChannel.registerMonitor(frameReader);
         AtomicBoolean failed = new AtomicBoolean(false);
@@ -68,7 +68,39 @@ public class CompilerProperties extends AbstractProperties {
         COMPILER_SORT_SAMPLES(
                 POSITIVE_INTEGER,
                 AlgebricksConfig.SORT_SAMPLES,
-                "The number of samples which parallel sorting should take from each partition");
+                "The number of samples which parallel sorting should take from each partition"),
+        COMPILER_SORT_THREADS(
+                POSITIVE_INTEGER,
+                AlgebricksConfig.SORT_THREADS,
+                "The number of threads that sort and merge the runs of a sort operator within a partition"),
+        COMPILER_HASH_DISTINCT(BOOLEAN, AlgebricksConfig.HASH_DISTINCT, "Enabling/Disabling hash-based distinct"),
+        COMPILER_MERGE_JOIN(BOOLEAN, AlgebricksConfig.MERGE_JOIN, "Enabling/Disabling merge join"),
+        COMPILER_JOIN_PRUNING(
+                BOOLEAN,
+                AlgebricksConfig.JOIN_PRUNING,
+                "Enabling/Disabling dynamic partition pruning of primary-key scans by hash joins"),
+        COMPILER_WINDOW_HASH(
+                BOOLEAN,
+                AlgebricksConfig.WINDOW_HASH,
+                "Enabling/Disabling hash-based grouping of window partitions instead of a sort"),
+        COMPILER_WINDOW_SEGMENT_TREE(
+                BOOLEAN,
+                AlgebricksConfig.WINDOW_SEGMENT_TREE,
+                "Enabling/Disabling the evaluation of sliding window frames with a segment tree"),
+        COMPILER_FRAME_COMPRESSION(
+                BOOLEAN,
+                AlgebricksConfig.FRAME_COMPRESSION,
+                "Enabling/Disabling the compression of the frames that connectors send between nodes"),
+        COMPILER_GROUPBY_STREAM(
+                BOOLEAN,
+                AlgebricksConfig.GROUPBY_STREAM,
+                "Enabling/Disabling the output of the groups of a local hash group-by whenever its memory is full "
+                        + "instead of spilling them"),
+        COMPILER_GROUPBY_PASSTHROUGH_RATIO(
+                DOUBLE,
+                AlgebricksConfig.GROUPBY_PASSTHROUGH_RATIO,
+                "The ratio of groups to input tuples above which a streaming local group-by passes the rest of its "
+                        + "input through");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -122,6 +154,24 @@ public class CompilerProperties extends AbstractProperties {
 
     public static final String COMPILER_SORT_SAMPLES_KEY = Option.COMPILER_SORT_SAMPLES.ini();
 
+    public static final String COMPILER_SORT_THREADS_KEY = Option.COMPILER_SORT_THREADS.ini();
+
+    public static final String COMPILER_HASH_DISTINCT_KEY = Option.COMPILER_HASH_DISTINCT.ini();
+
+    public static final String COMPILER_MERGE_JOIN_KEY = Option.COMPILER_MERGE_JOIN.ini();
+
+    public static final String COMPILER_JOIN_PRUNING_KEY = Option.COMPILER_JOIN_PRUNING.ini();
+
+    public static final String COMPILER_WINDOW_HASH_KEY = Option.COMPILER_WINDOW_HASH.ini();
+
+    public static final String COMPILER_WINDOW_SEGMENT_TREE_KEY = Option.COMPILER_WINDOW_SEGMENT_TREE.ini();
+
+    public static final String COMPILER_FRAME_COMPRESSION_KEY = Option.COMPILER_FRAME_COMPRESSION.ini();
+
+    public static final String COMPILER_GROUPBY_STREAM_KEY = Option.COMPILER_GROUPBY_STREAM.ini();
+
+    public static final String COMPILER_GROUPBY_PASSTHROUGH_RATIO_KEY = Option.COMPILER_GROUPBY_PASSTHROUGH_RATIO.ini();
+
     public static final int COMPILER_PARALLELISM_AS_STORAGE = 0;
 
     public CompilerProperties(PropertiesAccessor accessor) {
@@ -169,4 +219,41 @@ public class CompilerProperties extends AbstractProperties {
         int numSamples = accessor.getInt(Option.COMPILER_SORT_SAMPLES);
         return numSamples > 0 ? numSamples : AlgebricksConfig.SORT_SAMPLES;
     }
+
+    public int getSortThreads() {
+        int numThreads = accessor.getInt(Option.COMPILER_SORT_THREADS);
+        return numThreads > 0 ? numThreads : AlgebricksConfig.SORT_THREADS;
+    }
+
+    public boolean getHashDistinct() {
+        return accessor.getBoolean(Option.COMPILER_HASH_DISTINCT);
+    }
+
+    public boolean getMergeJoin() {
+        return accessor.getBoolean(Option.COMPILER_MERGE_JOIN);
+    }
+
+    public boolean getJoinPruning() {
+        return accessor.getBoolean(Option.COMPILER_JOIN_PRUNING);
+    }
+
+    public boolean getWindowHash() {
+        return accessor.getBoolean(Option.COMPILER_WINDOW_HASH);
+    }
+
+    public boolean getWindowSegmentTree() {
+        return accessor.getBoolean(Option.COMPILER_WINDOW_SEGMENT_TREE);
+    }
+
+    public boolean getFrameCompression() {
+        return accessor.getBoolean(Option.COMPILER_FRAME_COMPRESSION);
+    }
+
+    public boolean getGroupByStream() {
+        return accessor.getBoolean(Option.COMPILER_GROUPBY_STREAM);
+    }
+
+    public double getGroupByPassThroughRatio() {
+        return accessor.getDouble(Option.COMPILER_GROUPBY_PASSTHROUGH_RATIO);
+    }
 }
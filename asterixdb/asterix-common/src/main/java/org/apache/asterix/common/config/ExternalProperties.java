@@ -19,6 +19,7 @@
 package org.apache.asterix.common.config;
 
 import static org.apache.hyracks.control.common.config.OptionTypes.LEVEL;
+import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.POSITIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
 import static org.apache.hyracks.control.common.config.OptionTypes.UNSIGNED_INTEGER;
@@ -48,7 +49,12 @@ public class ExternalProperties extends AbstractProperties {
         MAX_WEB_REQUEST_SIZE(
                 UNSIGNED_INTEGER,
                 StorageUtil.getIntSizeInBytes(50, StorageUtil.StorageUnit.MEGABYTE),
-                "The maximum accepted web request size in bytes");
+                "The maximum accepted web request size in bytes"),
+        RESULT_CACHE_SIZE(
+                LONG_BYTE_UNIT,
+                0L,
+                "The maximum size of the results of read-only queries that are cached by the cluster controller to "
+                        + "answer repeated queries; 0 to disable the cache");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -67,6 +73,7 @@ public class ExternalProperties extends AbstractProperties {
                 case WEB_QUERYINTERFACE_PORT:
                 case API_PORT:
                 case ACTIVE_PORT:
+                case RESULT_CACHE_SIZE:
                     return Section.CC;
                 case NC_API_PORT:
                     return Section.NC;
@@ -141,4 +148,8 @@ public class ExternalProperties extends AbstractProperties {
     public int getMaxWebRequestSize() {
         return accessor.getInt(Option.MAX_WEB_REQUEST_SIZE);
     }
+
+    public long getResultCacheSize() {
+        return accessor.getLong(Option.RESULT_CACHE_SIZE);
+    }
 }
@@ -56,7 +56,16 @@ public class OptimizationConfUtil {
                 compilerProperties.getWindowMemorySize(), frameSize, MIN_FRAME_LIMIT_FOR_WINDOW, sourceLoc);
         int textSearchFrameLimit = getTextSearchNumFrames(compilerProperties, querySpecificConfig, sourceLoc);
         int sortNumSamples = getSortSamples(compilerProperties, querySpecificConfig, sourceLoc);
+        int sortNumThreads = getSortThreads(compilerProperties, querySpecificConfig, sourceLoc);
         boolean fullParallelSort = getSortParallel(compilerProperties, querySpecificConfig);
+        boolean hashDistinct = getHashDistinct(compilerProperties, querySpecificConfig);
+        boolean mergeJoin = getMergeJoin(compilerProperties, querySpecificConfig);
+        boolean joinPruning = getJoinPruning(compilerProperties, querySpecificConfig);
+        boolean windowHash = getWindowHash(compilerProperties, querySpecificConfig);
+        boolean windowSegmentTree = getWindowSegmentTree(compilerProperties, querySpecificConfig);
+        boolean frameCompression = getFrameCompression(compilerProperties, querySpecificConfig);
+        boolean groupByStream = getGroupByStream(compilerProperties, querySpecificConfig);
+        double groupByPassThroughRatio = getGroupByPassThroughRatio(compilerProperties, querySpecificConfig);
 
         PhysicalOptimizationConfig physOptConf = new PhysicalOptimizationConfig();
         physOptConf.setFrameSize(frameSize);
@@ -67,6 +76,15 @@ public class OptimizationConfUtil {
         physOptConf.setMaxFramesForTextSearch(textSearchFrameLimit);
         physOptConf.setSortParallel(fullParallelSort);
         physOptConf.setSortSamples(sortNumSamples);
+        physOptConf.setSortThreads(sortNumThreads);
+        physOptConf.setHashDistinct(hashDistinct);
+        physOptConf.setMergeJoin(mergeJoin);
+        physOptConf.setJoinPruning(joinPruning);
+        physOptConf.setWindowHash(windowHash);
+        physOptConf.setWindowSegmentTree(windowSegmentTree);
+        physOptConf.setFrameCompression(frameCompression);
+        physOptConf.setGroupByStream(groupByStream);
+        physOptConf.setGroupByPassThroughRatio(groupByPassThroughRatio);
 
         return physOptConf;
     }
@@ -115,6 +133,79 @@ public class OptimizationConfUtil {
         return compilerProperties.getSortParallel();
     }
 
+    private static boolean getHashDistinct(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_HASH_DISTINCT_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getHashDistinct();
+    }
+
+    private static boolean getMergeJoin(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_MERGE_JOIN_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getMergeJoin();
+    }
+
+    private static boolean getJoinPruning(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_JOIN_PRUNING_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getJoinPruning();
+    }
+
+    private static boolean getWindowHash(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_WINDOW_HASH_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getWindowHash();
+    }
+
+    private static boolean getWindowSegmentTree(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_WINDOW_SEGMENT_TREE_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getWindowSegmentTree();
+    }
+
+    private static boolean getFrameCompression(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_FRAME_COMPRESSION_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getFrameCompression();
+    }
+
+    private static boolean getGroupByStream(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_GROUPBY_STREAM_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.BOOLEAN.parse(valueInQuery);
+        }
+        return compilerProperties.getGroupByStream();
+    }
+
+    private static double getGroupByPassThroughRatio(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig) {
+        String valueInQuery =
+                (String) querySpecificConfig.get(CompilerProperties.COMPILER_GROUPBY_PASSTHROUGH_RATIO_KEY);
+        if (valueInQuery != null) {
+            return OptionTypes.DOUBLE.parse(valueInQuery);
+        }
+        return compilerProperties.getGroupByPassThroughRatio();
+    }
+
     @SuppressWarnings("squid:S1166") // Either log or rethrow this exception
     private static int getSortSamples(CompilerProperties compilerProperties, Map<String, Object> querySpecificConfig,
             SourceLocation sourceLoc) throws AsterixException {
@@ -127,4 +218,17 @@ public class OptimizationConfUtil {
                     CompilerProperties.COMPILER_SORT_SAMPLES_KEY, 1);
         }
     }
+
+    @SuppressWarnings("squid:S1166") // Either log or rethrow this exception
+    private static int getSortThreads(CompilerProperties compilerProperties, Map<String, Object> querySpecificConfig,
+            SourceLocation sourceLoc) throws AsterixException {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_SORT_THREADS_KEY);
+        try {
+            return valueInQuery == null ? compilerProperties.getSortThreads()
+                    : OptionTypes.POSITIVE_INTEGER.parse(valueInQuery);
+        } catch (IllegalArgumentException e) {
+            throw AsterixException.create(ErrorCode.COMPILATION_BAD_QUERY_PARAMETER_VALUE, sourceLoc,
+                    CompilerProperties.COMPILER_SORT_THREADS_KEY, 1);
+        }
+    }
 }
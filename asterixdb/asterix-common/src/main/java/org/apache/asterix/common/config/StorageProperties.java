@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.common.config;
 
+import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.DOUBLE;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
@@ -49,7 +50,8 @@ public class StorageProperties extends AbstractProperties {
         STORAGE_METADATA_MEMORYCOMPONENT_NUMPAGES(POSITIVE_INTEGER, 8),
         STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE(DOUBLE, 0.01d),
         STORAGE_MAX_ACTIVE_WRITABLE_DATASETS(UNSIGNED_INTEGER, 8),
-        STORAGE_COMPRESSION_BLOCK(STRING, "none");
+        STORAGE_COMPRESSION_BLOCK(STRING, "none"),
+        STORAGE_INVERTEDINDEX_COMPRESSEDLISTS(BOOLEAN, false);
 
         private final IOptionType interpreter;
         private final Object defaultValue;
@@ -92,6 +94,9 @@ public class StorageProperties extends AbstractProperties {
                     return "The maximum number of datasets that can be concurrently modified";
                 case STORAGE_COMPRESSION_BLOCK:
                     return "The default compression scheme for the storage";
+                case STORAGE_INVERTEDINDEX_COMPRESSEDLISTS:
+                    return "Whether newly created inverted indexes store their inverted lists in a compressed "
+                            + "block format";
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -187,6 +192,10 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getString(Option.STORAGE_COMPRESSION_BLOCK);
     }
 
+    public boolean isInvertedIndexCompressedLists() {
+        return accessor.getBoolean(Option.STORAGE_INVERTEDINDEX_COMPRESSEDLISTS);
+    }
+
     protected int getMetadataDatasets() {
         return MetadataIndexImmutableProperties.METADATA_DATASETS_COUNT;
     }
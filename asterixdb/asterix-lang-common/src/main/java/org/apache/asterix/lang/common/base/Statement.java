@@ -81,6 +81,9 @@ public interface Statement extends ILangExpression {
         FUNCTION_DROP,
         COMPACT,
         EXTERNAL_DATASET_REFRESH,
+        CREATE_MATERIALIZED_VIEW,
+        MATERIALIZED_VIEW_DROP,
+        MATERIALIZED_VIEW_REFRESH,
         SUBSCRIBE_FEED,
         EXTENSION,
     }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.lang.common.statement;
+
+import org.apache.asterix.common.exceptions.CompilationException;
+import org.apache.asterix.lang.common.base.AbstractStatement;
+import org.apache.asterix.lang.common.base.Statement;
+import org.apache.asterix.lang.common.struct.Identifier;
+import org.apache.asterix.lang.common.visitor.base.ILangVisitor;
+
+/**
+ * CREATE MATERIALIZED VIEW statement. The view stores the result of its query in a dataset of the same name, which
+ * is recomputed when the datasets read by the query change.
+ */
+public class CreateMaterializedViewStatement extends AbstractStatement {
+
+    private final Identifier dataverseName;
+    private final Identifier viewName;
+    private final String viewBody;
+    private final Query query;
+    private final boolean ifNotExists;
+
+    public CreateMaterializedViewStatement(Identifier dataverseName, Identifier viewName, String viewBody, Query query,
+            boolean ifNotExists) {
+        this.dataverseName = dataverseName;
+        this.viewName = viewName;
+        this.viewBody = viewBody;
+        this.query = query;
+        this.ifNotExists = ifNotExists;
+    }
+
+    public Identifier getDataverseName() {
+        return dataverseName;
+    }
+
+    public Identifier getViewName() {
+        return viewName;
+    }
+
+    public String getViewBody() {
+        return viewBody;
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    public boolean getIfNotExists() {
+        return ifNotExists;
+    }
+
+    @Override
+    public <R, T> R accept(ILangVisitor<R, T> visitor, T arg) throws CompilationException {
+        return null;
+    }
+
+    @Override
+    public Kind getKind() {
+        return Statement.Kind.CREATE_MATERIALIZED_VIEW;
+    }
+
+    @Override
+    public byte getCategory() {
+        return Category.DDL;
+    }
+
+}
@@ -25,13 +25,25 @@ public class InternalDetailsDecl implements IDatasetDetailsDecl {
     private final List<Integer> keySourceIndicators;
     private final boolean autogenerated;
     private final List<String> filterField;
+    private final List<List<String>> partitionedByExprs;
 
     public InternalDetailsDecl(List<List<String>> partitioningExpr, List<Integer> keySourceIndicators,
             boolean autogenerated, List<String> filterField) {
+        this(partitioningExpr, keySourceIndicators, autogenerated, filterField, null);
+    }
+
+    /**
+     * @param partitionedByExprs
+     *            the leading primary key fields that the records are hash-partitioned on, or null to partition on the
+     *            whole primary key
+     */
+    public InternalDetailsDecl(List<List<String>> partitioningExpr, List<Integer> keySourceIndicators,
+            boolean autogenerated, List<String> filterField, List<List<String>> partitionedByExprs) {
         this.partitioningExprs = partitioningExpr;
         this.keySourceIndicators = keySourceIndicators;
         this.autogenerated = autogenerated;
         this.filterField = filterField;
+        this.partitionedByExprs = partitionedByExprs;
     }
 
     public List<List<String>> getPartitioningExprs() {
@@ -50,4 +62,8 @@ public class InternalDetailsDecl implements IDatasetDetailsDecl {
         return filterField;
     }
 
+    public List<List<String>> getPartitionedByExprs() {
+        return partitionedByExprs;
+    }
+
 }
@@ -197,6 +197,33 @@ public class FunctionUtil {
         return dependencies;
     }
 
+    /**
+     * @return whether the expression only calls builtin functions that always return the same result for the same
+     *         arguments, e.g., no random() or current-datetime()
+     */
+    public static boolean isDeterministic(IQueryRewriter rewriter, Expression expression) throws CompilationException {
+        for (CallExpr functionCall : rewriter.getFunctionCalls(expression)) {
+            FunctionSignature signature = functionCall.getFunctionSignature();
+            if (signature.getName().equals(BuiltinFunctions.DATASET.getName())
+                    && signature.getArity() == BuiltinFunctions.DATASET.getArity()) {
+                continue;
+            }
+            IFunctionInfo finfo = null;
+            for (String namespace : new String[] { FunctionConstants.ASTERIX_NS,
+                    AlgebricksBuiltinFunctions.ALGEBRICKS_NS }) {
+                for (int arity : new int[] { signature.getArity(), FunctionIdentifier.VARARGS }) {
+                    if (finfo == null) {
+                        finfo = getFunctionInfo(new FunctionIdentifier(namespace, signature.getName(), arity));
+                    }
+                }
+            }
+            if (finfo == null || !finfo.isFunctional()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static Function lookupUserDefinedFunctionDecl(MetadataTransactionContext mdTxnCtx,
             FunctionSignature signature) throws AlgebricksException {
         if (signature.getNamespace() == null) {
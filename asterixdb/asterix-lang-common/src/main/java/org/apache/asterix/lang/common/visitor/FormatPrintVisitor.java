@@ -460,6 +460,12 @@ public class FormatPrintVisitor implements ILangVisitor<Void, Integer> {
                     + generateIfNotExists(dd.getIfNotExists()) + "(" + dd.getQualifiedTypeName() + ")"
                     + " primary key ");
             printDelimitedKeys(((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitioningExprs(), ",");
+            List<List<String>> partitionedByExprs =
+                    ((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitionedByExprs();
+            if (partitionedByExprs != null) {
+                out.print(" partitioned by ");
+                printDelimitedKeys(partitionedByExprs, ",");
+            }
             if (((InternalDetailsDecl) dd.getDatasetDetailsDecl()).isAutogenerated()) {
                 out.print(" autogenerated ");
             }
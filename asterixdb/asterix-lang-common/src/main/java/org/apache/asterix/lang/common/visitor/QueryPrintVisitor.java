@@ -390,6 +390,10 @@ public abstract class QueryPrintVisitor extends AbstractQueryExpressionVisitor<V
         if (dd.getDatasetType() == DatasetType.INTERNAL) {
             String line = skip(step) + "DatasetDecl " + dd.getName() + "(" + dd.getItemTypeName() + ")"
                     + " partitioned by " + ((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitioningExprs();
+            if (((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitionedByExprs() != null) {
+                line += " [hashed on " + ((InternalDetailsDecl) dd.getDatasetDetailsDecl()).getPartitionedByExprs()
+                        + "]";
+            }
             if (((InternalDetailsDecl) dd.getDatasetDetailsDecl()).isAutogenerated()) {
                 line += " [autogenerated]";
             }
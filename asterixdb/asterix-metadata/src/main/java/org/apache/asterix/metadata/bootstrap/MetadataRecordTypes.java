@@ -168,6 +168,7 @@ public final class MetadataRecordTypes {
             "BlockLevelStorageCompression";
     public static final String DATASET_ARECORD_DATASET_COMPRESSION_SCHEME_FIELD_NAME = "DatasetCompressionScheme";
     public static final String DATASET_ARECORD_REBALANCE_FIELD_NAME = "rebalanceCount";
+    public static final String DATASET_ARECORD_MATERIALIZED_VIEW_QUERY_FIELD_NAME = "MaterializedViewQuery";
     public static final ARecordType DATASET_RECORDTYPE = createRecordType(
             // RecordTypeName
             RECORD_NAME_DATASET,
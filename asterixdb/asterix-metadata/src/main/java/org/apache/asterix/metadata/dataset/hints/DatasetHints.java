@@ -19,6 +19,7 @@
 package org.apache.asterix.metadata.dataset.hints;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
@@ -60,6 +61,8 @@ public class DatasetHints {
         Set<IHint> hints = new HashSet<>();
         hints.add(new DatasetCardinalityHint());
         hints.add(new DatasetNodegroupCardinalityHint());
+        hints.add(new DatasetFieldNameDictionaryHint());
+        hints.add(new DatasetSchemaInferenceHint());
         return hints;
     }
 
@@ -129,4 +132,60 @@ public class DatasetHints {
 
     }
 
+    /**
+     * Hint that enables the dictionary of the open field names in the disk components of the primary index.
+     */
+    public static class DatasetFieldNameDictionaryHint implements IHint {
+        public static final String NAME = "FIELD_NAME_DICTIONARY";
+
+        public static final boolean DEFAULT = false;
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            return validateBoolean(value);
+        }
+
+        public static boolean isEnabled(Map<String, String> hints) {
+            String value = hints.get(NAME);
+            return value == null ? DEFAULT : Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * Hint that enables the inference of the schemas of the open fields in the disk components of the primary index,
+     * which then store the records that share a schema in a closed layout. It takes precedence over
+     * {@link DatasetFieldNameDictionaryHint}.
+     */
+    public static class DatasetSchemaInferenceHint implements IHint {
+        public static final String NAME = "SCHEMA_INFERENCE";
+
+        public static final boolean DEFAULT = false;
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            return validateBoolean(value);
+        }
+
+        public static boolean isEnabled(Map<String, String> hints) {
+            String value = hints.get(NAME);
+            return value == null ? DEFAULT : Boolean.parseBoolean(value);
+        }
+    }
+
+    private static Pair<Boolean, String> validateBoolean(String value) {
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            return new Pair<>(false, "Value must be true or false");
+        }
+        return new Pair<>(true, null);
+    }
 }
@@ -29,11 +29,15 @@ import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.external.indexing.FilesIndexDescription;
 import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.metadata.api.IResourceFactoryProvider;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetFieldNameDictionaryHint;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetSchemaInferenceHint;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
 import org.apache.asterix.metadata.utils.IndexUtil;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.runtime.compression.FieldNameDictionaryCodecFactory;
+import org.apache.asterix.runtime.compression.InferredSchemaCodecFactory;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.utils.Pair;
 import org.apache.hyracks.algebricks.data.IBinaryComparatorFactoryProvider;
@@ -45,6 +49,7 @@ import org.apache.hyracks.storage.am.common.api.IMetadataPageManagerFactory;
 import org.apache.hyracks.storage.am.lsm.btree.dataflow.ExternalBTreeLocalResourceFactory;
 import org.apache.hyracks.storage.am.lsm.btree.dataflow.ExternalBTreeWithBuddyLocalResourceFactory;
 import org.apache.hyracks.storage.am.lsm.btree.dataflow.LSMBTreeLocalResourceFactory;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodecFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallbackFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationSchedulerProvider;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
@@ -103,18 +108,34 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
                 } else {
                     compDecompFactory = NoOpCompressorDecompressorFactory.INSTANCE;
                 }
+                final IComponentValueCodecFactory valueCodecFactory = index.isPrimaryIndex()
+                        ? getValueCodecFactory(dataset, recordType) : null;
 
                 return new LSMBTreeLocalResourceFactory(storageManager, typeTraits, cmpFactories, filterTypeTraits,
                         filterCmpFactories, filterFields, opTrackerFactory, ioOpCallbackFactory,
                         metadataPageManagerFactory, vbcProvider, ioSchedulerProvider, mergePolicyFactory,
                         mergePolicyProperties, true, bloomFilterFields, bloomFilterFalsePositiveRate,
-                        index.isPrimaryIndex(), btreeFields, compDecompFactory);
+                        index.isPrimaryIndex(), btreeFields, compDecompFactory, valueCodecFactory);
             default:
                 throw new CompilationException(ErrorCode.COMPILATION_UNKNOWN_DATASET_TYPE,
                         dataset.getDatasetType().toString());
         }
     }
 
+    private static IComponentValueCodecFactory getValueCodecFactory(Dataset dataset, ARecordType recordType) {
+        // Only the open fields have their names and types in the records
+        if (!recordType.isOpen()) {
+            return null;
+        }
+        int recordField = dataset.getPrimaryKeys().size();
+        if (DatasetSchemaInferenceHint.isEnabled(dataset.getHints())) {
+            return new InferredSchemaCodecFactory(recordField);
+        } else if (DatasetFieldNameDictionaryHint.isEnabled(dataset.getHints())) {
+            return new FieldNameDictionaryCodecFactory(recordField);
+        }
+        return null;
+    }
+
     private static ITypeTraits[] getTypeTraits(MetadataProvider metadataProvider, Dataset dataset, Index index,
             ARecordType recordType, ARecordType metaType) throws AlgebricksException {
         ITypeTraits[] primaryTypeTraits = dataset.getPrimaryTypeTraits(metadataProvider, recordType, metaType);
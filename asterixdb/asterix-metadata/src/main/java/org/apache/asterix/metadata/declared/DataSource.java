@@ -157,6 +157,13 @@ public abstract class DataSource implements IDataSource<DataSourceId> {
         return new ArrayList<>(dataScanVariables.subList(0, dataScanVariables.size() - (hasMeta() ? 2 : 1)));
     }
 
+    /**
+     * @return the variables of the primary key fields that the records are hash-partitioned on
+     */
+    public List<LogicalVariable> getPartitioningKeyVariables(List<LogicalVariable> dataScanVariables) {
+        return getPrimaryKeyVariables(dataScanVariables);
+    }
+
     public abstract Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> buildDatasourceScanRuntime(
             MetadataProvider metadataProvider, IDataSource<DataSourceId> dataSource,
             List<LogicalVariable> scanVariables, List<LogicalVariable> projectVariables, boolean projectPushed,
@@ -86,8 +86,10 @@ public class DataSourcePartitioningProvider implements IDataSourcePropertiesProv
         if (scanVariables.size() < 2) {
             pp = new RandomPartitioningProperty(domain);
         } else {
+            // the records are sorted on the whole primary key even if they are partitioned on a prefix of it
             pvars.addAll(ds.getPrimaryKeyVariables(scanVariables));
-            pp = new UnorderedPartitionedProperty(pvars, domain);
+            pp = new UnorderedPartitionedProperty(new ListSet<>(ds.getPartitioningKeyVariables(scanVariables)),
+                    domain);
         }
         return pp;
     }
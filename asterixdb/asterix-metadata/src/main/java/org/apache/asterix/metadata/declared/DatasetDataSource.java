@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.metadata.declared;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
@@ -144,6 +145,14 @@ public class DatasetDataSource extends DataSource {
         return null;
     }
 
+    @Override
+    public List<LogicalVariable> getPartitioningKeyVariables(List<LogicalVariable> dataScanVariables) {
+        List<LogicalVariable> pkVars = getPrimaryKeyVariables(dataScanVariables);
+        int partitioningKeyCount = dataset.getPartitionedByKeyCount();
+        return partitioningKeyCount < dataset.getPrimaryKeys().size()
+                ? new ArrayList<>(pkVars.subList(0, partitioningKeyCount)) : pkVars;
+    }
+
     @Override
     public boolean isScanAccessPathALeaf() {
         return dataset.getDatasetType() == DatasetType.EXTERNAL;
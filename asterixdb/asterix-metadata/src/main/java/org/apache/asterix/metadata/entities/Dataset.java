@@ -148,6 +148,8 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
     private final long rebalanceCount;
     private int pendingOp;
     private final String compressionScheme;
+    // The query of a materialized view, or null if the dataset is not a materialized view.
+    private final String materializedViewQuery;
 
     public Dataset(String dataverseName, String datasetName, String recordTypeDataverseName, String recordTypeName,
             String nodeGroupName, String compactionPolicy, Map<String, String> compactionPolicyProperties,
@@ -172,13 +174,23 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
                 dataset.metaTypeDataverseName, dataset.metaTypeName, dataset.nodeGroupName,
                 dataset.compactionPolicyFactory, dataset.compactionPolicyProperties, dataset.datasetDetails,
                 dataset.hints, dataset.datasetType, dataset.datasetId, dataset.pendingOp, dataset.rebalanceCount,
-                dataset.compressionScheme);
+                dataset.compressionScheme, dataset.materializedViewQuery);
     }
 
     public Dataset(String dataverseName, String datasetName, String itemTypeDataverseName, String itemTypeName,
             String metaItemTypeDataverseName, String metaItemTypeName, String nodeGroupName, String compactionPolicy,
             Map<String, String> compactionPolicyProperties, IDatasetDetails datasetDetails, Map<String, String> hints,
             DatasetType datasetType, int datasetId, int pendingOp, long rebalanceCount, String compressionScheme) {
+        this(dataverseName, datasetName, itemTypeDataverseName, itemTypeName, metaItemTypeDataverseName,
+                metaItemTypeName, nodeGroupName, compactionPolicy, compactionPolicyProperties, datasetDetails, hints,
+                datasetType, datasetId, pendingOp, rebalanceCount, compressionScheme, null);
+    }
+
+    public Dataset(String dataverseName, String datasetName, String itemTypeDataverseName, String itemTypeName,
+            String metaItemTypeDataverseName, String metaItemTypeName, String nodeGroupName, String compactionPolicy,
+            Map<String, String> compactionPolicyProperties, IDatasetDetails datasetDetails, Map<String, String> hints,
+            DatasetType datasetType, int datasetId, int pendingOp, long rebalanceCount, String compressionScheme,
+            String materializedViewQuery) {
         this.dataverseName = dataverseName;
         this.datasetName = datasetName;
         this.recordTypeName = itemTypeName;
@@ -195,6 +207,7 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         this.hints = hints;
         this.rebalanceCount = rebalanceCount;
         this.compressionScheme = compressionScheme;
+        this.materializedViewQuery = materializedViewQuery;
     }
 
     @Override
@@ -647,6 +660,7 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         tree.put("pendingOp", MetadataUtil.pendingOpToString(pendingOp));
         tree.put("rebalanceCount", rebalanceCount);
         tree.put("compressionScheme", compressionScheme);
+        tree.put("materializedViewQuery", materializedViewQuery);
         return tree;
     }
 
@@ -690,6 +704,16 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         return ((InternalDatasetDetails) getDatasetDetails()).getPartitioningKey();
     }
 
+    /**
+     * @return the number of leading primary key fields that the records of the dataset are hash-partitioned on
+     */
+    public int getPartitionedByKeyCount() {
+        if (getDatasetType() == DatasetType.EXTERNAL) {
+            return getPrimaryKeys().size();
+        }
+        return ((InternalDatasetDetails) getDatasetDetails()).getPartitionedByKeyCount();
+    }
+
     public ITypeTraits[] getPrimaryTypeTraits(MetadataProvider metadataProvider, ARecordType recordType,
             ARecordType metaType) throws AlgebricksException {
         IStorageComponentProvider storageComponentProvider = metadataProvider.getStorageComponentProvider();
@@ -827,7 +851,7 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
                 this.metaTypeDataverseName, this.metaTypeName, targetNodeGroupName, this.compactionPolicyFactory,
                 this.compactionPolicyProperties, this.datasetDetails, this.hints, this.datasetType,
                 DatasetIdFactory.generateAlternatingDatasetId(this.datasetId), this.pendingOp, this.rebalanceCount + 1,
-                this.compressionScheme);
+                this.compressionScheme, this.materializedViewQuery);
     }
 
     // Gets an array of partition numbers for this dataset.
@@ -848,4 +872,12 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
     public String getCompressionScheme() {
         return compressionScheme;
     }
+
+    public String getMaterializedViewQuery() {
+        return materializedViewQuery;
+    }
+
+    public boolean isMaterializedView() {
+        return materializedViewQuery != null;
+    }
 }
@@ -31,7 +31,9 @@ import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
 import org.apache.asterix.metadata.IDatasetDetails;
 import org.apache.asterix.metadata.bootstrap.MetadataRecordTypes;
 import org.apache.asterix.om.base.ABoolean;
+import org.apache.asterix.om.base.AInt32;
 import org.apache.asterix.om.base.AInt8;
+import org.apache.asterix.om.base.AMutableInt32;
 import org.apache.asterix.om.base.AMutableInt8;
 import org.apache.asterix.om.base.AMutableString;
 import org.apache.asterix.om.base.AString;
@@ -63,13 +65,28 @@ public class InternalDatasetDetails implements IDatasetDetails {
     private final boolean autogenerated;
     private final List<String> filterField;
     private final List<Integer> keySourceIndicators;
+    private final int partitionedByKeyCount;
 
     public static final String FILTER_FIELD_NAME = "FilterField";
     public static final String KEY_FILD_SOURCE_INDICATOR_FIELD_NAME = "KeySourceIndicator";
+    public static final String PARTITIONED_BY_KEY_COUNT_FIELD_NAME = "PartitionedByKeyCount";
 
     public InternalDatasetDetails(FileStructure fileStructure, PartitioningStrategy partitioningStrategy,
             List<List<String>> partitioningKey, List<List<String>> primaryKey, List<Integer> keyFieldIndicators,
             List<IAType> primaryKeyType, boolean autogenerated, List<String> filterField) {
+        this(fileStructure, partitioningStrategy, partitioningKey, primaryKey, keyFieldIndicators, primaryKeyType,
+                autogenerated, filterField, partitioningKey.size());
+    }
+
+    /**
+     * @param partitionedByKeyCount
+     *            the number of leading primary key fields that the records are hash-partitioned on. Datasets that are
+     *            partitioned on the same fields in the same node group store the matching records in the same
+     *            partition.
+     */
+    public InternalDatasetDetails(FileStructure fileStructure, PartitioningStrategy partitioningStrategy,
+            List<List<String>> partitioningKey, List<List<String>> primaryKey, List<Integer> keyFieldIndicators,
+            List<IAType> primaryKeyType, boolean autogenerated, List<String> filterField, int partitionedByKeyCount) {
         this.fileStructure = fileStructure;
         this.partitioningStrategy = partitioningStrategy;
         this.partitioningKeys = partitioningKey;
@@ -85,6 +102,7 @@ public class InternalDatasetDetails implements IDatasetDetails {
         this.primaryKeyTypes = primaryKeyType;
         this.autogenerated = autogenerated;
         this.filterField = filterField;
+        this.partitionedByKeyCount = partitionedByKeyCount;
     }
 
     public List<List<String>> getPartitioningKey() {
@@ -119,6 +137,10 @@ public class InternalDatasetDetails implements IDatasetDetails {
         return filterField;
     }
 
+    public int getPartitionedByKeyCount() {
+        return partitionedByKeyCount;
+    }
+
     @Override
     public DatasetType getDatasetType() {
         return DatasetType.INTERNAL;
@@ -147,6 +169,9 @@ public class InternalDatasetDetails implements IDatasetDetails {
         @SuppressWarnings("unchecked")
         ISerializerDeserializer<AInt8> int8Serde =
                 SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT8);
+        @SuppressWarnings("unchecked")
+        ISerializerDeserializer<AInt32> int32Serde =
+                SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT32);
 
         // write field 0
         fieldValue.reset();
@@ -255,6 +280,17 @@ public class InternalDatasetDetails implements IDatasetDetails {
             internalRecordBuilder.addField(nameValue, fieldValue);
         }
 
+        // write the partitioning key count if the dataset is not partitioned on its whole primary key
+        if (partitionedByKeyCount < partitioningKeys.size()) {
+            ArrayBackedValueStorage nameValue = new ArrayBackedValueStorage();
+            nameValue.reset();
+            aString.setValue(PARTITIONED_BY_KEY_COUNT_FIELD_NAME);
+            stringSerde.serialize(aString, nameValue.getDataOutput());
+            fieldValue.reset();
+            int32Serde.serialize(new AMutableInt32(partitionedByKeyCount), fieldValue.getDataOutput());
+            internalRecordBuilder.addField(nameValue, fieldValue);
+        }
+
         internalRecordBuilder.write(out, true);
     }
 
@@ -209,8 +209,18 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
                     }
                 }
 
+                // Read the number of partitioning fields if the dataset is partitioned on a prefix of its key.
+                int partitionedByKeyCount = partitioningKey.size();
+                int partitionedByKeyCountIndex = datasetDetailsRecord.getType()
+                        .getFieldIndex(InternalDatasetDetails.PARTITIONED_BY_KEY_COUNT_FIELD_NAME);
+                if (partitionedByKeyCountIndex >= 0) {
+                    partitionedByKeyCount =
+                            ((AInt32) datasetDetailsRecord.getValueByPos(partitionedByKeyCountIndex)).getIntegerValue();
+                }
+
                 datasetDetails = new InternalDatasetDetails(fileStructure, partitioningStrategy, partitioningKey,
-                        partitioningKey, keyFieldSourceIndicator, partitioningKeyType, autogenerated, filterField);
+                        partitioningKey, keyFieldSourceIndicator, partitioningKeyType, autogenerated, filterField,
+                        partitionedByKeyCount);
                 break;
             }
 
@@ -260,10 +270,11 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
 
         long rebalanceCount = getRebalanceCount(datasetRecord);
         String compressionScheme = getCompressionScheme(datasetRecord);
+        String materializedViewQuery = getMaterializedViewQuery(datasetRecord);
 
         return new Dataset(dataverseName, datasetName, typeDataverseName, typeName, metaTypeDataverseName, metaTypeName,
                 nodeGroupName, compactionPolicy, compactionPolicyProperties, datasetDetails, hints, datasetType,
-                datasetId, pendingOp, rebalanceCount, compressionScheme);
+                datasetId, pendingOp, rebalanceCount, compressionScheme, materializedViewQuery);
     }
 
     private long getRebalanceCount(ARecord datasetRecord) {
@@ -274,6 +285,13 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
                 : 0;
     }
 
+    private String getMaterializedViewQuery(ARecord datasetRecord) {
+        // Read the query of the materialized view if the dataset is one.
+        int queryIndex = datasetRecord.getType()
+                .getFieldIndex(MetadataRecordTypes.DATASET_ARECORD_MATERIALIZED_VIEW_QUERY_FIELD_NAME);
+        return queryIndex >= 0 ? ((AString) datasetRecord.getValueByPos(queryIndex)).getStringValue() : null;
+    }
+
     private String getCompressionScheme(ARecord datasetRecord) {
         final ARecordType datasetType = datasetRecord.getType();
         final int compressionIndex = datasetType
@@ -423,6 +441,7 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
         writeMetaPart(dataset);
         writeRebalanceCount(dataset);
         writeBlockLevelStorageCompression(dataset);
+        writeMaterializedViewQuery(dataset);
     }
 
     private void writeMetaPart(Dataset dataset) throws HyracksDataException {
@@ -469,6 +488,19 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
         recordBuilder.addField(fieldName, fieldValue);
     }
 
+    private void writeMaterializedViewQuery(Dataset dataset) throws HyracksDataException {
+        if (dataset.isMaterializedView()) {
+            // Adds the field MaterializedViewQuery.
+            fieldName.reset();
+            aString.setValue(MetadataRecordTypes.DATASET_ARECORD_MATERIALIZED_VIEW_QUERY_FIELD_NAME);
+            stringSerde.serialize(aString, fieldName.getDataOutput());
+            fieldValue.reset();
+            aString.setValue(dataset.getMaterializedViewQuery());
+            stringSerde.serialize(aString, fieldValue.getDataOutput());
+            recordBuilder.addField(fieldName, fieldValue);
+        }
+    }
+
     private void writeRebalanceCount(Dataset dataset) throws HyracksDataException {
         if (dataset.getRebalanceCount() > 0) {
             // Adds the field rebalanceCount.
@@ -111,6 +111,7 @@ public class InvertedIndexResourceFactoryProvider implements IResourceFactoryPro
         ILSMIOOperationSchedulerProvider ioSchedulerProvider =
                 storageComponentProvider.getIoOperationSchedulerProvider();
         double bloomFilterFalsePositiveRate = mdProvider.getStorageProperties().getBloomFilterFalsePositiveRate();
+        boolean compressedInvLists = mdProvider.getStorageProperties().isInvertedIndexCompressedLists();
         ITypeTraits[] typeTraits = getInvListTypeTraits(mdProvider, dataset, recordType, metaType);
         IBinaryComparatorFactory[] cmpFactories =
                 getInvListComparatorFactories(mdProvider, dataset, recordType, metaType);
@@ -123,7 +124,7 @@ public class InvertedIndexResourceFactoryProvider implements IResourceFactoryPro
                 metadataPageManagerFactory, vbcProvider, ioSchedulerProvider, mergePolicyFactory, mergePolicyProperties,
                 true, tokenTypeTraits, tokenCmpFactories, tokenizerFactory, isPartitioned, invertedIndexFields,
                 secondaryFilterFieldsForNonBulkLoadOps, invertedIndexFieldsForNonBulkLoadOps,
-                bloomFilterFalsePositiveRate);
+                bloomFilterFalsePositiveRate, compressedInvLists);
     }
 
     private static ITypeTraits[] getInvListTypeTraits(MetadataProvider metadataProvider, Dataset dataset,
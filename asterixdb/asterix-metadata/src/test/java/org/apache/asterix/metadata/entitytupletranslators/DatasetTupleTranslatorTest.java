@@ -19,6 +19,7 @@
 package org.apache.asterix.metadata.entitytupletranslators;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,4 +70,24 @@ public class DatasetTupleTranslatorTest {
             }
         }
     }
+
+    @Test
+    public void testPartitionedByKeyCount() throws AlgebricksException, IOException {
+        int[] partitionedByKeyCounts = { 1, 2 };
+        for (int partitionedByKeyCount : partitionedByKeyCounts) {
+            InternalDatasetDetails details = new InternalDatasetDetails(FileStructure.BTREE, PartitioningStrategy.HASH,
+                    Arrays.asList(Collections.singletonList("user_id"), Collections.singletonList("row_id")),
+                    Arrays.asList(Collections.singletonList("user_id"), Collections.singletonList("row_id")), null,
+                    Arrays.asList(BuiltinType.AINT64, BuiltinType.AINT64), false, null, partitionedByKeyCount);
+
+            Dataset dataset = new Dataset("test", "log", "foo", "LogType", null, null, "DEFAULT_NG_ALL_NODES",
+                    "prefix", Collections.emptyMap(), details, Collections.emptyMap(), DatasetType.INTERNAL, 115, 0,
+                    CompressionManager.NONE);
+            DatasetTupleTranslator dtTranslator = new DatasetTupleTranslator(true);
+            ITupleReference tuple = dtTranslator.getTupleFromMetadataEntity(dataset);
+            Dataset deserializedDataset = dtTranslator.getMetadataEntityFromTuple(tuple);
+            Assert.assertEquals(partitionedByKeyCount, deserializedDataset.getPartitionedByKeyCount());
+            Assert.assertEquals(dataset.getPrimaryKeys(), deserializedDataset.getPrimaryKeys());
+        }
+    }
 }
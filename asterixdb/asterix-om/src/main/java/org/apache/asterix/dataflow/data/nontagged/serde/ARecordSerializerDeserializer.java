@@ -311,6 +311,50 @@ public class ARecordSerializerDeserializer implements ISerializerDeserializer<AR
         if (hasNoFields(serRecord, start, len) || serRecord[start + 5] != 1) {
             return -1;
         }
+        int entry = getOpenFieldEntry(serRecord, start, len, fieldName, nstart, nameHashFunction, nameComparator);
+        return entry < 0 ? -1 : getOpenFieldValueOffset(serRecord, start, entry, fieldName, nstart);
+    }
+
+    /**
+     * Looks up an open field like {@link #getFieldOffsetByName(byte[], int, int, byte[], int, IBinaryHashFunction,
+     * IBinaryComparator)}, but first checks the entry of the offset table at which the field was found in the previous
+     * record. Records that have the same open fields, such as the records of a disk component whose schemas are
+     * inferred, have the field at the same entry, so neither the name is hashed nor the offset table is searched.
+     *
+     * @param entries
+     *            the entries at which the fields were found, updated when a field is found at another entry
+     * @param entryIndex
+     *            the position of the entry of this field in {@code entries}
+     */
+    public static int getFieldOffsetByName(byte[] serRecord, int start, int len, byte[] fieldName, int nstart,
+            IBinaryHashFunction nameHashFunction, IBinaryComparator nameComparator, int[] entries, int entryIndex)
+            throws HyracksDataException {
+        if (hasNoFields(serRecord, start, len) || serRecord[start + 5] != 1) {
+            return -1;
+        }
+        int openPartOffset = start + AInt32SerializerDeserializer.getInt(serRecord, start + 6);
+        int entry = entries[entryIndex];
+        if (entry < AInt32SerializerDeserializer.getInt(serRecord, openPartOffset)) {
+            int fieldOffset = getOpenFieldOffset(serRecord, start, openPartOffset, entry);
+            int fieldUtflength = UTF8StringUtil.getUTFLength(fieldName, nstart + 1);
+            if (nameComparator.compare(serRecord, fieldOffset, len, fieldName, nstart + 1,
+                    fieldUtflength + UTF8StringUtil.getNumBytesToStoreLength(fieldUtflength)) == 0) {
+                return getOpenFieldValueOffset(serRecord, start, entry, fieldName, nstart);
+            }
+        }
+        entry = getOpenFieldEntry(serRecord, start, len, fieldName, nstart, nameHashFunction, nameComparator);
+        if (entry < 0) {
+            return -1;
+        }
+        entries[entryIndex] = entry;
+        return getOpenFieldValueOffset(serRecord, start, entry, fieldName, nstart);
+    }
+
+    /**
+     * @return the entry of the field in the offset table of the open part, or -1 if there is no field with this name
+     */
+    private static int getOpenFieldEntry(byte[] serRecord, int start, int len, byte[] fieldName, int nstart,
+            IBinaryHashFunction nameHashFunction, IBinaryComparator nameComparator) throws HyracksDataException {
         // 6 is the index of the first byte of the openPartOffset value.
         int openPartOffset = start + AInt32SerializerDeserializer.getInt(serRecord, start + 6);
         int numberOfOpenField = AInt32SerializerDeserializer.getInt(serRecord, openPartOffset);
@@ -332,8 +376,7 @@ public class ARecordSerializerDeserializer implements ISerializerDeserializer<AR
                 // the utf8 comparator do not require to put the precise length, we can just pass a estimated limit.
                 if (nameComparator.compare(serRecord, fieldOffset, len, fieldName, nstart + 1,
                         fieldUtflength + fieldUtfMetaLen) == 0) {
-                    // since they are equal, we can directly use the meta length and the utf length.
-                    return fieldOffset + fieldUtfMetaLen + fieldUtflength;
+                    return mid;
                 } else { // this else part has not been tested yet
                     for (int j = mid + 1; j < numberOfOpenField; j++) {
                         h = AInt32SerializerDeserializer.getInt(serRecord, offset + (8 * j));
@@ -341,7 +384,7 @@ public class ARecordSerializerDeserializer implements ISerializerDeserializer<AR
                             fieldOffset = start + AInt32SerializerDeserializer.getInt(serRecord, offset + (8 * j) + 4);
                             if (nameComparator.compare(serRecord, fieldOffset, len, fieldName, nstart + 1,
                                     fieldUtflength) == 0) {
-                                return fieldOffset + fieldUtfMetaLen + fieldUtflength;
+                                return j;
                             }
                         } else {
                             break;
@@ -359,6 +402,19 @@ public class ARecordSerializerDeserializer implements ISerializerDeserializer<AR
         return -1; // no field with this name.
     }
 
+    private static int getOpenFieldValueOffset(byte[] serRecord, int start, int entry, byte[] fieldName, int nstart) {
+        int openPartOffset = start + AInt32SerializerDeserializer.getInt(serRecord, start + 6);
+        int fieldOffset = getOpenFieldOffset(serRecord, start, openPartOffset, entry);
+        int fieldUtflength = UTF8StringUtil.getUTFLength(fieldName, nstart + 1);
+        // the value follows the name, which is equal to the given one
+        return fieldOffset + UTF8StringUtil.getNumBytesToStoreLength(fieldUtflength) + fieldUtflength;
+    }
+
+    private static int getOpenFieldOffset(byte[] serRecord, int start, int openPartOffset, int entry) {
+        // the number of open fields (4) and the hash code of the entry (4) precede the offset of the entry
+        return start + AInt32SerializerDeserializer.getInt(serRecord, openPartOffset + 8 * entry + 8);
+    }
+
     public static boolean hasNoFields(byte[] serRecord, int start, int len) {
         // a record with len <= 6 is empty
         return serRecord[start] != ATypeTag.SERIALIZED_RECORD_TYPE_TAG || len <= 6;
@@ -90,6 +90,7 @@ import org.apache.asterix.om.typecomputer.impl.NonTaggedGetItemResultType;
 import org.apache.asterix.om.typecomputer.impl.NotUnknownTypeComputer;
 import org.apache.asterix.om.typecomputer.impl.NullIfTypeComputer;
 import org.apache.asterix.om.typecomputer.impl.NullableDoubleTypeComputer;
+import org.apache.asterix.om.typecomputer.impl.NullableOrderedListOfADoubleTypeComputer;
 import org.apache.asterix.om.typecomputer.impl.NumericAddSubMulDivTypeComputer;
 import org.apache.asterix.om.typecomputer.impl.NumericSumAggTypeComputer;
 import org.apache.asterix.om.typecomputer.impl.NumericDivideTypeComputer;
@@ -549,6 +550,22 @@ public class BuiltinFunctions {
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-intermediate-kurtosis", 1);
     public static final FunctionIdentifier LOCAL_KURTOSIS =
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-local-kurtosis", 1);
+    public static final FunctionIdentifier APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-approx_count_distinct", 1);
+    public static final FunctionIdentifier GLOBAL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-global-approx_count_distinct", 1);
+    public static final FunctionIdentifier INTERMEDIATE_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-intermediate-approx_count_distinct", 1);
+    public static final FunctionIdentifier LOCAL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-local-approx_count_distinct", 1);
+    public static final FunctionIdentifier APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-approx_percentile", 1);
+    public static final FunctionIdentifier GLOBAL_APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-global-approx_percentile", 1);
+    public static final FunctionIdentifier INTERMEDIATE_APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-intermediate-approx_percentile", 1);
+    public static final FunctionIdentifier LOCAL_APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-local-approx_percentile", 1);
 
     public static final FunctionIdentifier SCALAR_AVG = new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "avg", 1);
     public static final FunctionIdentifier SCALAR_COUNT =
@@ -602,6 +619,14 @@ public class BuiltinFunctions {
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "global-kurtosis", 1);
     public static final FunctionIdentifier SCALAR_LOCAL_KURTOSIS =
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "local-kurtosis", 1);
+    public static final FunctionIdentifier SCALAR_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "approx_count_distinct", 1);
+    public static final FunctionIdentifier SCALAR_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier SCALAR_APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "approx_percentile", 1);
+    public static final FunctionIdentifier SCALAR_SQL_APPROX_PERCENTILE =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_percentile", 1);
 
     // serializable aggregate functions
     public static final FunctionIdentifier SERIAL_AVG =
@@ -1773,6 +1798,18 @@ public class BuiltinFunctions {
         addPrivateFunction(LOCAL_KURTOSIS, LocalSingleVarStatisticsTypeComputer.INSTANCE, true);
         addFunction(KURTOSIS, NullableDoubleTypeComputer.INSTANCE, true);
         addPrivateFunction(GLOBAL_KURTOSIS, NullableDoubleTypeComputer.INSTANCE, true);
+        addPrivateFunction(LOCAL_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(INTERMEDIATE_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addFunction(APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addPrivateFunction(GLOBAL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addFunction(SCALAR_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addFunction(SCALAR_SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addPrivateFunction(LOCAL_APPROX_PERCENTILE, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(INTERMEDIATE_APPROX_PERCENTILE, ABinaryTypeComputer.INSTANCE, true);
+        addFunction(APPROX_PERCENTILE, NullableOrderedListOfADoubleTypeComputer.INSTANCE, true);
+        addPrivateFunction(GLOBAL_APPROX_PERCENTILE, NullableOrderedListOfADoubleTypeComputer.INSTANCE, true);
+        addFunction(SCALAR_APPROX_PERCENTILE, NullableOrderedListOfADoubleTypeComputer.INSTANCE, true);
+        addFunction(SCALAR_SQL_APPROX_PERCENTILE, NullableOrderedListOfADoubleTypeComputer.INSTANCE, true);
 
         // SUM
         addFunction(SUM, NumericSumAggTypeComputer.INSTANCE, true);
@@ -2550,6 +2587,35 @@ public class BuiltinFunctions {
         addDistinctAgg(KURTOSIS_DISTINCT, SCALAR_KURTOSIS);
         addScalarAgg(KURTOSIS_DISTINCT, SCALAR_KURTOSIS_DISTINCT);
 
+        // APPROX_COUNT_DISTINCT
+
+        addAgg(APPROX_COUNT_DISTINCT);
+        addAgg(LOCAL_APPROX_COUNT_DISTINCT);
+        addAgg(GLOBAL_APPROX_COUNT_DISTINCT);
+        addLocalAgg(APPROX_COUNT_DISTINCT, LOCAL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(APPROX_COUNT_DISTINCT, INTERMEDIATE_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(LOCAL_APPROX_COUNT_DISTINCT, INTERMEDIATE_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(GLOBAL_APPROX_COUNT_DISTINCT, INTERMEDIATE_APPROX_COUNT_DISTINCT);
+        addGlobalAgg(APPROX_COUNT_DISTINCT, GLOBAL_APPROX_COUNT_DISTINCT);
+
+        // Null and missing values are ignored either way, so the SQL-92 form maps to the same aggregate.
+        addScalarAgg(APPROX_COUNT_DISTINCT, SCALAR_APPROX_COUNT_DISTINCT);
+        addScalarAgg(APPROX_COUNT_DISTINCT, SCALAR_SQL_APPROX_COUNT_DISTINCT);
+
+        // APPROX_PERCENTILE
+
+        addAgg(APPROX_PERCENTILE);
+        addAgg(LOCAL_APPROX_PERCENTILE);
+        addAgg(GLOBAL_APPROX_PERCENTILE);
+        addLocalAgg(APPROX_PERCENTILE, LOCAL_APPROX_PERCENTILE);
+        addIntermediateAgg(APPROX_PERCENTILE, INTERMEDIATE_APPROX_PERCENTILE);
+        addIntermediateAgg(LOCAL_APPROX_PERCENTILE, INTERMEDIATE_APPROX_PERCENTILE);
+        addIntermediateAgg(GLOBAL_APPROX_PERCENTILE, INTERMEDIATE_APPROX_PERCENTILE);
+        addGlobalAgg(APPROX_PERCENTILE, GLOBAL_APPROX_PERCENTILE);
+
+        addScalarAgg(APPROX_PERCENTILE, SCALAR_APPROX_PERCENTILE);
+        addScalarAgg(APPROX_PERCENTILE, SCALAR_SQL_APPROX_PERCENTILE);
+
         // FIRST_ELEMENT
 
         addAgg(FIRST_ELEMENT);
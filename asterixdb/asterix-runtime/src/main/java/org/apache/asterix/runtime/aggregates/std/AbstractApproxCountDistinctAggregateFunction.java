@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.std;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.dataflow.data.nontagged.hash.AMurmurHash3BinaryHashFunctionFamily;
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AMutableInt64;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.runtime.aggregates.utils.HyperLogLogSketch;
+import org.apache.asterix.runtime.exceptions.UnsupportedItemTypeException;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.ByteArrayPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+
+/**
+ * Estimates the number of distinct values with a {@link HyperLogLogSketch}. Null and missing values are ignored.
+ * The partial result is the sketch, serialized as a binary value, so that partial results are merged by taking the
+ * maximum of their registers.
+ */
+public abstract class AbstractApproxCountDistinctAggregateFunction extends AbstractAggregateFunction {
+
+    private final IScalarEvaluator eval;
+    private final IPointable inputVal = new VoidPointable();
+    // Two 32-bit hashes with different seeds make up the 64-bit hash of a value.
+    private final IBinaryHashFunction highHashFunction =
+            AMurmurHash3BinaryHashFunctionFamily.createBinaryHashFunction(BuiltinType.ANY, 0);
+    private final IBinaryHashFunction lowHashFunction =
+            AMurmurHash3BinaryHashFunctionFamily.createBinaryHashFunction(BuiltinType.ANY, 1);
+    private final HyperLogLogSketch sketch = new HyperLogLogSketch();
+    private final ArrayBackedValueStorage resultStorage = new ArrayBackedValueStorage();
+    private final byte[] metaBuffer = new byte[VarLenIntEncoderDecoder.getBytesRequired(Integer.MAX_VALUE)];
+    private final AMutableInt64 aInt64 = new AMutableInt64(0);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<AInt64> int64Serde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT64);
+
+    public AbstractApproxCountDistinctAggregateFunction(IScalarEvaluatorFactory[] args, IHyracksTaskContext context,
+            SourceLocation sourceLoc) throws HyracksDataException {
+        super(sourceLoc);
+        eval = args[0].createScalarEvaluator(context);
+    }
+
+    @Override
+    public void init() throws HyracksDataException {
+        sketch.reset();
+    }
+
+    protected void processDataValues(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] data = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        int length = inputVal.getLength();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[offset]);
+        if (typeTag == ATypeTag.MISSING || typeTag == ATypeTag.NULL) {
+            return;
+        }
+        long hash = ((long) highHashFunction.hash(data, offset, length) << Integer.SIZE)
+                | (lowHashFunction.hash(data, offset, length) & 0xffffffffL);
+        sketch.add(hash);
+    }
+
+    protected void processPartialResults(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] data = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[offset]);
+        switch (typeTag) {
+            case MISSING:
+            case NULL:
+            case SYSTEM_NULL:
+                break;
+            case BINARY:
+                int length = ByteArrayPointable.getContentLength(data, offset + 1);
+                sketch.merge(data, offset + 1 + ByteArrayPointable.getNumberBytesToStoreMeta(length));
+                break;
+            default:
+                throw new UnsupportedItemTypeException(sourceLoc, BuiltinFunctions.APPROX_COUNT_DISTINCT,
+                        data[offset]);
+        }
+    }
+
+    protected void finishPartialResults(IPointable result) throws HyracksDataException {
+        resultStorage.reset();
+        try {
+            DataOutput out = resultStorage.getDataOutput();
+            out.writeByte(ATypeTag.SERIALIZED_BINARY_TYPE_TAG);
+            int metaLength = VarLenIntEncoderDecoder.encode(HyperLogLogSketch.getSerializedSize(), metaBuffer, 0);
+            out.write(metaBuffer, 0, metaLength);
+            sketch.serialize(out);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        result.set(resultStorage);
+    }
+
+    protected void finishFinalResults(IPointable result) throws HyracksDataException {
+        resultStorage.reset();
+        aInt64.setValue(sketch.estimate());
+        int64Serde.serialize(aInt64, resultStorage.getDataOutput());
+        result.set(resultStorage);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.std;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.builders.OrderedListBuilder;
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AMutableDouble;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
+import org.apache.asterix.runtime.aggregates.utils.TDigestSketch;
+import org.apache.asterix.runtime.exceptions.UnsupportedItemTypeException;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.ByteArrayPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+
+/**
+ * Estimates the percentiles of numeric values with a {@link TDigestSketch}. The result is an array of the 0th to
+ * the 100th percentile, so that e.g. {@code approx_percentile(x)[95]} is the 95th percentile, or null if there are
+ * no values. Null, missing and NaN values are ignored. The partial result is the digest, serialized as a binary
+ * value.
+ */
+public abstract class AbstractApproxPercentileAggregateFunction extends AbstractAggregateFunction {
+
+    private static final int NUM_PERCENTILES = 101;
+    private static final AOrderedListType RESULT_TYPE = new AOrderedListType(BuiltinType.ADOUBLE, null);
+
+    private final IScalarEvaluator eval;
+    private final IPointable inputVal = new VoidPointable();
+    private final TDigestSketch digest = new TDigestSketch();
+    private final ArrayBackedValueStorage resultStorage = new ArrayBackedValueStorage();
+    private final ArrayBackedValueStorage sketchStorage = new ArrayBackedValueStorage();
+    private final ArrayBackedValueStorage itemStorage = new ArrayBackedValueStorage();
+    private final OrderedListBuilder listBuilder = new OrderedListBuilder();
+    private final byte[] metaBuffer = new byte[VarLenIntEncoderDecoder.getBytesRequired(Integer.MAX_VALUE)];
+    private final AMutableDouble aDouble = new AMutableDouble(0);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ADouble> doubleSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ADOUBLE);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ANull> nullSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ANULL);
+
+    public AbstractApproxPercentileAggregateFunction(IScalarEvaluatorFactory[] args, IHyracksTaskContext context,
+            SourceLocation sourceLoc) throws HyracksDataException {
+        super(sourceLoc);
+        eval = args[0].createScalarEvaluator(context);
+    }
+
+    @Override
+    public void init() throws HyracksDataException {
+        digest.reset();
+    }
+
+    protected void processDataValues(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] data = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[offset]);
+        switch (typeTag) {
+            case MISSING:
+            case NULL:
+                break;
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case FLOAT:
+            case DOUBLE:
+                double value = ATypeHierarchy.getDoubleValue(BuiltinFunctions.APPROX_PERCENTILE.getName(), 0, data,
+                        offset);
+                if (!Double.isNaN(value)) {
+                    digest.add(value);
+                }
+                break;
+            default:
+                throw new UnsupportedItemTypeException(sourceLoc, BuiltinFunctions.APPROX_PERCENTILE, data[offset]);
+        }
+    }
+
+    protected void processPartialResults(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] data = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[offset]);
+        switch (typeTag) {
+            case MISSING:
+            case NULL:
+            case SYSTEM_NULL:
+                break;
+            case BINARY:
+                int length = ByteArrayPointable.getContentLength(data, offset + 1);
+                digest.merge(data, offset + 1 + ByteArrayPointable.getNumberBytesToStoreMeta(length));
+                break;
+            default:
+                throw new UnsupportedItemTypeException(sourceLoc, BuiltinFunctions.APPROX_PERCENTILE, data[offset]);
+        }
+    }
+
+    protected void finishPartialResults(IPointable result) throws HyracksDataException {
+        resultStorage.reset();
+        sketchStorage.reset();
+        try {
+            digest.serialize(sketchStorage.getDataOutput());
+            DataOutput out = resultStorage.getDataOutput();
+            out.writeByte(ATypeTag.SERIALIZED_BINARY_TYPE_TAG);
+            int metaLength = VarLenIntEncoderDecoder.encode(sketchStorage.getLength(), metaBuffer, 0);
+            out.write(metaBuffer, 0, metaLength);
+            out.write(sketchStorage.getByteArray(), sketchStorage.getStartOffset(), sketchStorage.getLength());
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        result.set(resultStorage);
+    }
+
+    protected void finishFinalResults(IPointable result) throws HyracksDataException {
+        resultStorage.reset();
+        if (digest.isEmpty()) {
+            nullSerde.serialize(ANull.NULL, resultStorage.getDataOutput());
+        } else {
+            listBuilder.reset(RESULT_TYPE);
+            for (int i = 0; i < NUM_PERCENTILES; i++) {
+                itemStorage.reset();
+                aDouble.setValue(digest.quantile(i / 100.0));
+                doubleSerde.serialize(aDouble, itemStorage.getDataOutput());
+                listBuilder.addItem(itemStorage);
+            }
+            listBuilder.write(resultStorage.getDataOutput(), true);
+        }
+        result.set(resultStorage);
+    }
+}
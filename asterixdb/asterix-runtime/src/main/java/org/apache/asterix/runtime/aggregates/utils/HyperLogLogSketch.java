@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch that estimates the number of distinct 64-bit hash values added to it.
+ *
+ * The sketch has 2^{@value #PRECISION} one-byte registers, which gives a standard error of about 1.6%. Small
+ * cardinalities are estimated with linear counting. Since the hashes have 64 bits, no correction is needed for
+ * large cardinalities.
+ *
+ * Philippe Flajolet, Eric Fusy, Olivier Gandouet, Frederic Meunier: HyperLogLog: the analysis of a near-optimal
+ * cardinality estimation algorithm, 2007.
+ */
+public class HyperLogLogSketch {
+    public static final int PRECISION = 12;
+    public static final int NUM_REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NUM_REGISTERS);
+
+    private final byte[] registers = new byte[NUM_REGISTERS];
+
+    public void reset() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // The remaining bits are followed by a one so that the rank is at most 64 - PRECISION + 1.
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges a serialized sketch into this one.
+     */
+    public void merge(byte[] data, int offset) {
+        for (int i = 0; i < NUM_REGISTERS; i++) {
+            byte rank = data[offset + i];
+            if (rank > registers[i]) {
+                registers[i] = rank;
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * NUM_REGISTERS * NUM_REGISTERS / sum;
+        if (estimate <= 2.5 * NUM_REGISTERS && zeros > 0) {
+            estimate = NUM_REGISTERS * Math.log((double) NUM_REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void serialize(DataOutput out) throws IOException {
+        out.write(registers);
+    }
+
+    public static int getSerializedSize() {
+        return NUM_REGISTERS;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+
+/**
+ * A merging t-digest that estimates the quantiles of the values added to it.
+ *
+ * Values are buffered and periodically merged into a sorted list of centroids. The size of a centroid is bounded by
+ * the k1 scale function, so the centroids near the tails are small and the extreme quantiles are accurate. The
+ * digest keeps at most about {@value #COMPRESSION} centroids.
+ *
+ * Ted Dunning, Otmar Ertl: Computing Extremely Accurate Quantiles Using t-Digests, 2019.
+ */
+public class TDigestSketch {
+    public static final int COMPRESSION = 100;
+    private static final int MAX_CENTROIDS = 2 * COMPRESSION;
+    private static final int BUFFER_SIZE = 5 * COMPRESSION;
+    private static final int CENTROID_SIZE = 2 * Double.BYTES;
+    private static final int HEADER_SIZE = 2 * Double.BYTES + Integer.BYTES;
+
+    private final double[] means = new double[MAX_CENTROIDS + BUFFER_SIZE];
+    private final double[] weights = new double[MAX_CENTROIDS + BUFFER_SIZE];
+    // The first numCentroids entries are the merged centroids, the following numBuffered entries are not merged yet.
+    private int numCentroids;
+    private int numBuffered;
+    private double totalWeight;
+    private double min;
+    private double max;
+
+    public TDigestSketch() {
+        reset();
+    }
+
+    public void reset() {
+        numCentroids = 0;
+        numBuffered = 0;
+        totalWeight = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public boolean isEmpty() {
+        return totalWeight == 0;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merges a serialized digest into this one.
+     */
+    public void merge(byte[] data, int offset) {
+        int count = IntegerPointable.getInteger(data, offset + 2 * Double.BYTES);
+        if (count == 0) {
+            return;
+        }
+        min = Math.min(min, DoublePointable.getDouble(data, offset));
+        max = Math.max(max, DoublePointable.getDouble(data, offset + Double.BYTES));
+        int centroidOffset = offset + HEADER_SIZE;
+        for (int i = 0; i < count; i++, centroidOffset += CENTROID_SIZE) {
+            add(DoublePointable.getDouble(data, centroidOffset),
+                    DoublePointable.getDouble(data, centroidOffset + Double.BYTES));
+        }
+    }
+
+    private void add(double mean, double weight) {
+        if (numBuffered == BUFFER_SIZE) {
+            compress();
+        }
+        means[numCentroids + numBuffered] = mean;
+        weights[numCentroids + numBuffered] = weight;
+        numBuffered++;
+        totalWeight += weight;
+    }
+
+    /**
+     * Merges the buffered values into the centroids.
+     */
+    private void compress() {
+        if (numBuffered == 0) {
+            return;
+        }
+        int n = numCentroids + numBuffered;
+        sort(0, n - 1);
+        int merged = 0;
+        double weightSoFar = 0;
+        double limit = totalWeight * quantileLimit(0);
+        for (int i = 1; i < n; i++) {
+            if (weightSoFar + weights[merged] + weights[i] <= limit) {
+                double weight = weights[merged] + weights[i];
+                means[merged] += (means[i] - means[merged]) * weights[i] / weight;
+                weights[merged] = weight;
+            } else {
+                weightSoFar += weights[merged];
+                limit = totalWeight * quantileLimit(weightSoFar / totalWeight);
+                merged++;
+                means[merged] = means[i];
+                weights[merged] = weights[i];
+            }
+        }
+        numCentroids = merged + 1;
+        numBuffered = 0;
+    }
+
+    /**
+     * Returns the largest quantile that a centroid starting at quantile q may reach, i.e. the quantile at which the
+     * k1 scale function has grown by one.
+     */
+    private static double quantileLimit(double q) {
+        double k = COMPRESSION / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+        if (k >= COMPRESSION / 4.0) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / COMPRESSION) + 1) / 2;
+    }
+
+    /**
+     * Estimates the value at quantile q, which is between 0 and 1. The digest must not be empty.
+     */
+    public double quantile(double q) {
+        compress();
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        double index = q * totalWeight;
+        // The centroids are assumed to be centered at their cumulative weight. Below the first center and above the
+        // last one the estimate is interpolated with the extreme values.
+        double center = weights[0] / 2;
+        if (index < center) {
+            return min + (means[0] - min) * index / center;
+        }
+        for (int i = 0; i < numCentroids - 1; i++) {
+            double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+            if (index < nextCenter) {
+                return means[i] + (means[i + 1] - means[i]) * (index - center) / (nextCenter - center);
+            }
+            center = nextCenter;
+        }
+        double lastHalf = totalWeight - center;
+        return means[numCentroids - 1] + (max - means[numCentroids - 1]) * (index - center) / lastHalf;
+    }
+
+    public void serialize(DataOutput out) throws IOException {
+        compress();
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(numCentroids);
+        for (int i = 0; i < numCentroids; i++) {
+            out.writeDouble(means[i]);
+            out.writeDouble(weights[i]);
+        }
+    }
+
+    private void sort(int from, int to) {
+        while (from < to) {
+            double pivot = means[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (means[i] < pivot) {
+                    i++;
+                }
+                while (means[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurses into the smaller part to bound the stack depth.
+            if (j - from < to - i) {
+                sort(from, j);
+                from = i;
+            } else {
+                sort(i, to);
+                to = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        double mean = means[i];
+        means[i] = means[j];
+        means[j] = mean;
+        double weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+}
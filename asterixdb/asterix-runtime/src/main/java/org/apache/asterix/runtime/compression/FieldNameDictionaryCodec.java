@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.compression;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.storage.am.common.freepage.MutableArrayValueReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentMetadata;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodec;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueDecoder;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueEncoder;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+import org.apache.hyracks.util.string.UTF8StringUtil;
+
+/**
+ * Replaces the names of the open fields of the records of a disk component with their position in a dictionary of
+ * the component. The names are the same in most records of a dataset, so the records shrink by the size of their
+ * field names. The open fields of the records in open fields are encoded as well. The closed part of the records is
+ * kept as is, including the records in closed fields.
+ *
+ * An encoded name is a variable-length integer, which is the position of the name in the dictionary plus one, or zero
+ * followed by the name as is once the dictionary is full. The dictionary is stored in the component metadata.
+ */
+public class FieldNameDictionaryCodec implements IComponentValueCodec {
+    public static final MutableArrayValueReference DICTIONARY_KEY =
+            new MutableArrayValueReference("FieldNameDictionary".getBytes());
+    // keeps the dictionary small enough for the metadata page of the component
+    public static final int MAX_DICTIONARY_LENGTH = 4096;
+
+    private static final int LENGTH_OFFSET = 1;
+    private static final int HAS_OPEN_PART_OFFSET = 5;
+    private static final int OPEN_PART_OFFSET_OFFSET = 6;
+    private static final int OPEN_FIELD_ENTRY_SIZE = 8;
+
+    private final int field;
+
+    public FieldNameDictionaryCodec(int field) {
+        this.field = field;
+    }
+
+    @Override
+    public int getField() {
+        return field;
+    }
+
+    @Override
+    public IComponentValueEncoder createEncoder() {
+        return new Encoder();
+    }
+
+    @Override
+    public IComponentValueDecoder createDecoder(IComponentMetadata metadata) throws HyracksDataException {
+        ArrayBackedValueStorage dictionary = new ArrayBackedValueStorage();
+        metadata.get(DICTIONARY_KEY, dictionary);
+        return new Decoder(dictionary.toByteArray());
+    }
+
+    private abstract static class RecordRewriter {
+        private final byte[] intBuffer = new byte[5];
+        private int[][] fieldOrders = new int[0][];
+        protected ArrayBackedValueStorage output;
+        protected DataOutput out;
+
+        protected void rewrite(IValueReference value, ArrayBackedValueStorage output) throws HyracksDataException {
+            this.output = output;
+            this.out = output.getDataOutput();
+            try {
+                byte[] data = value.getByteArray();
+                int start = value.getStartOffset();
+                if (data[start] == ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                    rewriteRecord(data, start, 0);
+                } else {
+                    out.write(data, start, value.getLength());
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+        }
+
+        /**
+         * Rewrites the names of the open fields of an open record. The header and the closed part keep their size,
+         * so only the length of the record and the offsets of the open fields change.
+         */
+        private void rewriteRecord(byte[] data, int start, int depth) throws IOException {
+            int length = IntegerPointable.getInteger(data, start + LENGTH_OFFSET);
+            if (data[start + HAS_OPEN_PART_OFFSET] == 0) {
+                out.write(data, start, length);
+                return;
+            }
+            int outStart = output.getLength();
+            int openPartOffset = IntegerPointable.getInteger(data, start + OPEN_PART_OFFSET_OFFSET);
+            int numberOfOpenFields = IntegerPointable.getInteger(data, start + openPartOffset);
+            int entriesOffset = openPartOffset + 4;
+            out.write(data, start, entriesOffset + numberOfOpenFields * OPEN_FIELD_ENTRY_SIZE);
+            // the entries are sorted by the hash of the names, the fields are written in the order they were added
+            int[] order = getFieldOrder(data, start + entriesOffset, numberOfOpenFields, depth);
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                int entryOffset = entriesOffset + order[i] * OPEN_FIELD_ENTRY_SIZE + 4;
+                int fieldStart = start + IntegerPointable.getInteger(data, start + entryOffset);
+                int fieldEnd = i + 1 < numberOfOpenFields ? start + IntegerPointable.getInteger(data,
+                        start + entriesOffset + order[i + 1] * OPEN_FIELD_ENTRY_SIZE + 4) : start + length;
+                IntegerPointable.setInteger(output.getByteArray(), outStart + entryOffset,
+                        output.getLength() - outStart);
+                int valueStart = fieldStart + rewriteName(data, fieldStart);
+                if (data[valueStart] == ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                    rewriteRecord(data, valueStart, depth + 1);
+                } else {
+                    out.write(data, valueStart, fieldEnd - valueStart);
+                }
+            }
+            IntegerPointable.setInteger(output.getByteArray(), outStart + LENGTH_OFFSET, output.getLength() - outStart);
+        }
+
+        private int[] getFieldOrder(byte[] data, int entriesStart, int numberOfOpenFields, int depth) {
+            if (depth == fieldOrders.length) {
+                fieldOrders = Arrays.copyOf(fieldOrders, depth + 1);
+            }
+            if (fieldOrders[depth] == null || fieldOrders[depth].length < numberOfOpenFields) {
+                fieldOrders[depth] = new int[numberOfOpenFields];
+            }
+            int[] order = fieldOrders[depth];
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                int offset = getFieldOffset(data, entriesStart, i);
+                int j = i;
+                for (; j > 0 && getFieldOffset(data, entriesStart, order[j - 1]) > offset; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = i;
+            }
+            return order;
+        }
+
+        private static int getFieldOffset(byte[] data, int entriesStart, int entry) {
+            return IntegerPointable.getInteger(data, entriesStart + entry * OPEN_FIELD_ENTRY_SIZE + 4);
+        }
+
+        protected void writeVarInt(int value) throws IOException {
+            out.write(intBuffer, 0, VarLenIntEncoderDecoder.encode(value, intBuffer, 0));
+        }
+
+        protected static int getNameLength(byte[] data, int start) {
+            int utfLength = UTF8StringUtil.getUTFLength(data, start);
+            return UTF8StringUtil.getNumBytesToStoreLength(utfLength) + utfLength;
+        }
+
+        /**
+         * Writes the rewritten name of an open field
+         *
+         * @return the length of the name in the source record
+         */
+        protected abstract int rewriteName(byte[] data, int start) throws IOException;
+    }
+
+    private static class Encoder extends RecordRewriter implements IComponentValueEncoder {
+        private final Map<ByteBuffer, Integer> ids = new HashMap<>();
+        private final ArrayBackedValueStorage dictionary = new ArrayBackedValueStorage();
+
+        @Override
+        public void encode(IValueReference value, ArrayBackedValueStorage encoded) throws HyracksDataException {
+            rewrite(value, encoded);
+        }
+
+        @Override
+        protected int rewriteName(byte[] data, int start) throws IOException {
+            int nameLength = getNameLength(data, start);
+            Integer id = ids.get(ByteBuffer.wrap(data, start, nameLength));
+            if (id == null && dictionary.getLength() + nameLength <= MAX_DICTIONARY_LENGTH) {
+                id = ids.size();
+                ids.put(ByteBuffer.wrap(Arrays.copyOfRange(data, start, start + nameLength)), id);
+                dictionary.getDataOutput().write(data, start, nameLength);
+            }
+            if (id == null) {
+                writeVarInt(0);
+                out.write(data, start, nameLength);
+            } else {
+                writeVarInt(id + 1);
+            }
+            return nameLength;
+        }
+
+        @Override
+        public void end(IComponentMetadata metadata) throws HyracksDataException {
+            if (dictionary.getLength() > 0) {
+                metadata.put(DICTIONARY_KEY, dictionary);
+            }
+        }
+    }
+
+    private static class Decoder extends RecordRewriter implements IComponentValueDecoder {
+        private final byte[] dictionary;
+        private final int[] nameStarts;
+
+        private Decoder(byte[] dictionary) {
+            this.dictionary = dictionary;
+            int numberOfNames = 0;
+            for (int start = 0; start < dictionary.length; start += getNameLength(dictionary, start)) {
+                numberOfNames++;
+            }
+            nameStarts = new int[numberOfNames + 1];
+            for (int i = 0, start = 0; i < numberOfNames; i++) {
+                nameStarts[i] = start;
+                start += getNameLength(dictionary, start);
+            }
+            nameStarts[numberOfNames] = dictionary.length;
+        }
+
+        @Override
+        public void decode(IValueReference value, ArrayBackedValueStorage decoded) throws HyracksDataException {
+            rewrite(value, decoded);
+        }
+
+        @Override
+        protected int rewriteName(byte[] data, int start) throws IOException {
+            int id = VarLenIntEncoderDecoder.decode(data, start);
+            int idLength = VarLenIntEncoderDecoder.getBytesRequired(id);
+            if (id == 0) {
+                int nameLength = getNameLength(data, start + idLength);
+                out.write(data, start + idLength, nameLength);
+                return idLength + nameLength;
+            }
+            out.write(dictionary, nameStarts[id - 1], nameStarts[id] - nameStarts[id - 1]);
+            return idLength;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.compression;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IJsonSerializable;
+import org.apache.hyracks.api.io.IPersistedResourceRegistry;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodec;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodecFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Creates the {@link FieldNameDictionaryCodec} of the records of a primary index
+ */
+public class FieldNameDictionaryCodecFactory implements IComponentValueCodecFactory {
+    private static final long serialVersionUID = 1L;
+
+    private final int recordField;
+
+    /**
+     * @param recordField
+     *            the index of the record in the tuples of the primary index, which have an open record type
+     */
+    public FieldNameDictionaryCodecFactory(int recordField) {
+        this.recordField = recordField;
+    }
+
+    @Override
+    public IComponentValueCodec createValueCodec() {
+        return new FieldNameDictionaryCodec(recordField);
+    }
+
+    @Override
+    public JsonNode toJson(IPersistedResourceRegistry registry) throws HyracksDataException {
+        final ObjectNode json = registry.getClassIdentifier(getClass(), serialVersionUID);
+        json.put("recordField", recordField);
+        return json;
+    }
+
+    @SuppressWarnings("squid:S1172") // unused parameter
+    public static IJsonSerializable fromJson(IPersistedResourceRegistry registry, JsonNode json) {
+        return new FieldNameDictionaryCodecFactory(json.get("recordField").asInt());
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.compression;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.ARecordSerializerDeserializer;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.utils.NonTaggedFormatUtil;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.storage.am.common.freepage.MutableArrayValueReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentMetadata;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodec;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueDecoder;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueEncoder;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+import org.apache.hyracks.util.string.UTF8StringUtil;
+
+/**
+ * Infers the schemas of the open parts of the records of a disk component while the component is written. The schema
+ * of a record is the names and the types of its open fields, and the records that share a schema are stored in a
+ * closed layout: the header and the closed part as is, followed by the values of the open fields without their type
+ * tags. The names, the offset table and the type tags are restored from the schema when the records are read.
+ *
+ * An encoded record starts with a variable-length integer, which is the position of its schema plus one, or zero
+ * followed by the record as is. Records without open fields, records that are not records, and the records whose
+ * schema does not fit in the metadata of the component any more are the outliers that are stored as is. The schemas
+ * are stored in the component metadata.
+ *
+ * The decoded records of a schema have the same offset table, so the field accesses find an open field at the entry at
+ * which they found it in the previous record without a search, see {@link ARecordSerializerDeserializer}.
+ */
+public class InferredSchemaCodec implements IComponentValueCodec {
+    public static final MutableArrayValueReference SCHEMAS_KEY =
+            new MutableArrayValueReference("InferredSchemas".getBytes());
+    // keeps the schemas small enough for the metadata page of the component
+    public static final int MAX_SCHEMAS_LENGTH = 4096;
+
+    private static final int HAS_OPEN_PART_OFFSET = 5;
+    private static final int OPEN_PART_OFFSET_OFFSET = 6;
+    private static final int OPEN_FIELD_ENTRY_SIZE = 8;
+
+    private final int field;
+
+    public InferredSchemaCodec(int field) {
+        this.field = field;
+    }
+
+    @Override
+    public int getField() {
+        return field;
+    }
+
+    @Override
+    public IComponentValueEncoder createEncoder() {
+        return new Encoder();
+    }
+
+    @Override
+    public IComponentValueDecoder createDecoder(IComponentMetadata metadata) throws HyracksDataException {
+        ArrayBackedValueStorage schemas = new ArrayBackedValueStorage();
+        metadata.get(SCHEMAS_KEY, schemas);
+        return new Decoder(schemas.toByteArray());
+    }
+
+    private static void writeVarInt(DataOutput out, byte[] buffer, int value) throws IOException {
+        out.write(buffer, 0, VarLenIntEncoderDecoder.encode(value, buffer, 0));
+    }
+
+    private static int getNameLength(byte[] data, int start) {
+        int utfLength = UTF8StringUtil.getUTFLength(data, start);
+        return UTF8StringUtil.getNumBytesToStoreLength(utfLength) + utfLength;
+    }
+
+    /**
+     * A schema is serialized as the number of open fields, the hash and the position in the open part of every entry
+     * of the offset table, and the type tag and the name of every field in the order of the open part.
+     */
+    private static class Encoder implements IComponentValueEncoder {
+        private final Map<ByteBuffer, Integer> ids = new HashMap<>();
+        private final ArrayBackedValueStorage schemas = new ArrayBackedValueStorage();
+        private final ArrayBackedValueStorage schema = new ArrayBackedValueStorage();
+        private final byte[] intBuffer = new byte[5];
+        private int[] order = new int[0];
+        private int[] positions = new int[0];
+
+        @Override
+        public void encode(IValueReference value, ArrayBackedValueStorage encoded) throws HyracksDataException {
+            DataOutput out = encoded.getDataOutput();
+            try {
+                byte[] data = value.getByteArray();
+                int start = value.getStartOffset();
+                int id = inferSchema(data, start);
+                if (id < 0) {
+                    writeVarInt(out, intBuffer, 0);
+                    out.write(data, start, value.getLength());
+                    return;
+                }
+                writeVarInt(out, intBuffer, id + 1);
+                int openPartOffset = IntegerPointable.getInteger(data, start + OPEN_PART_OFFSET_OFFSET);
+                int length = IntegerPointable.getInteger(data, start + 1);
+                int entriesStart = start + openPartOffset + 4;
+                int numberOfOpenFields = IntegerPointable.getInteger(data, start + openPartOffset);
+                out.write(data, start, openPartOffset);
+                for (int i = 0; i < numberOfOpenFields; i++) {
+                    int fieldStart = start + getFieldOffset(data, entriesStart, order[i]);
+                    int fieldEnd = getFieldEnd(data, start, entriesStart, length, i, numberOfOpenFields);
+                    int tagStart = fieldStart + getNameLength(data, fieldStart);
+                    out.write(data, tagStart + 1, fieldEnd - tagStart - 1);
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+        }
+
+        /**
+         * @return the position of the schema of the record, or -1 if the record is stored as is
+         */
+        private int inferSchema(byte[] data, int start) throws HyracksDataException, IOException {
+            if (data[start] != ATypeTag.SERIALIZED_RECORD_TYPE_TAG || data[start + HAS_OPEN_PART_OFFSET] == 0) {
+                return -1;
+            }
+            int length = IntegerPointable.getInteger(data, start + 1);
+            int openPartOffset = IntegerPointable.getInteger(data, start + OPEN_PART_OFFSET_OFFSET);
+            int numberOfOpenFields = IntegerPointable.getInteger(data, start + openPartOffset);
+            int entriesStart = start + openPartOffset + 4;
+            sortByOffset(data, entriesStart, numberOfOpenFields);
+            schema.reset();
+            DataOutput out = schema.getDataOutput();
+            writeVarInt(out, intBuffer, numberOfOpenFields);
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                out.write(data, entriesStart + i * OPEN_FIELD_ENTRY_SIZE, 4);
+                writeVarInt(out, intBuffer, positions[i]);
+            }
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                int fieldStart = start + getFieldOffset(data, entriesStart, order[i]);
+                int fieldEnd = getFieldEnd(data, start, entriesStart, length, i, numberOfOpenFields);
+                int nameLength = getNameLength(data, fieldStart);
+                int tagStart = fieldStart + nameLength;
+                ATypeTag tag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[tagStart]);
+                if (NonTaggedFormatUtil.getFieldValueLength(data, tagStart + 1, tag, false) != fieldEnd - tagStart
+                        - 1) {
+                    // the value cannot be read back without its tag
+                    return -1;
+                }
+                out.writeByte(data[tagStart]);
+                out.write(data, fieldStart, nameLength);
+            }
+            ByteBuffer key = ByteBuffer.wrap(schema.getByteArray(), 0, schema.getLength());
+            Integer id = ids.get(key);
+            if (id == null) {
+                int schemaLength = VarLenIntEncoderDecoder.getBytesRequired(schema.getLength()) + schema.getLength();
+                if (schemas.getLength() + schemaLength > MAX_SCHEMAS_LENGTH) {
+                    return -1;
+                }
+                id = ids.size();
+                ids.put(ByteBuffer.wrap(schema.toByteArray()), id);
+                writeVarInt(schemas.getDataOutput(), intBuffer, schema.getLength());
+                schemas.append(schema);
+            }
+            return id;
+        }
+
+        /**
+         * Computes the order of the fields in the open part, which is the order the fields were added in, and the
+         * position of every entry of the offset table in that order.
+         */
+        private void sortByOffset(byte[] data, int entriesStart, int numberOfOpenFields) {
+            if (order.length < numberOfOpenFields) {
+                order = new int[numberOfOpenFields];
+                positions = new int[numberOfOpenFields];
+            }
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                int offset = getFieldOffset(data, entriesStart, i);
+                int j = i;
+                for (; j > 0 && getFieldOffset(data, entriesStart, order[j - 1]) > offset; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = i;
+            }
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                positions[order[i]] = i;
+            }
+        }
+
+        private int getFieldEnd(byte[] data, int start, int entriesStart, int length, int position,
+                int numberOfOpenFields) {
+            return position + 1 < numberOfOpenFields ? start + getFieldOffset(data, entriesStart, order[position + 1])
+                    : start + length;
+        }
+
+        private static int getFieldOffset(byte[] data, int entriesStart, int entry) {
+            return IntegerPointable.getInteger(data, entriesStart + entry * OPEN_FIELD_ENTRY_SIZE + 4);
+        }
+
+        @Override
+        public void end(IComponentMetadata metadata) throws HyracksDataException {
+            if (schemas.getLength() > 0) {
+                metadata.put(SCHEMAS_KEY, schemas);
+            }
+        }
+    }
+
+    private static class Schema {
+        private final byte[] data;
+        private final int[] hashes;
+        private final int[] positions;
+        private final ATypeTag[] tags;
+        private final int[] nameStarts;
+        private final int[] nameLengths;
+
+        private Schema(byte[] data, int start) {
+            this.data = data;
+            int numberOfOpenFields = VarLenIntEncoderDecoder.decode(data, start);
+            int offset = start + VarLenIntEncoderDecoder.getBytesRequired(numberOfOpenFields);
+            hashes = new int[numberOfOpenFields];
+            positions = new int[numberOfOpenFields];
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                hashes[i] = IntegerPointable.getInteger(data, offset);
+                positions[i] = VarLenIntEncoderDecoder.decode(data, offset + 4);
+                offset += 4 + VarLenIntEncoderDecoder.getBytesRequired(positions[i]);
+            }
+            tags = new ATypeTag[numberOfOpenFields];
+            nameStarts = new int[numberOfOpenFields];
+            nameLengths = new int[numberOfOpenFields];
+            for (int i = 0; i < numberOfOpenFields; i++) {
+                tags[i] = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[offset]);
+                nameStarts[i] = offset + 1;
+                nameLengths[i] = getNameLength(data, offset + 1);
+                offset = nameStarts[i] + nameLengths[i];
+            }
+        }
+    }
+
+    private static class Decoder implements IComponentValueDecoder {
+        private final Schema[] schemas;
+        private int[] valueLengths = new int[0];
+        private int[] fieldOffsets = new int[0];
+
+        private Decoder(byte[] data) {
+            List<Schema> list = new ArrayList<>();
+            for (int start = 0; start < data.length;) {
+                int schemaLength = VarLenIntEncoderDecoder.decode(data, start);
+                start += VarLenIntEncoderDecoder.getBytesRequired(schemaLength);
+                list.add(new Schema(data, start));
+                start += schemaLength;
+            }
+            schemas = list.toArray(new Schema[list.size()]);
+        }
+
+        @Override
+        public void decode(IValueReference value, ArrayBackedValueStorage decoded) throws HyracksDataException {
+            DataOutput out = decoded.getDataOutput();
+            try {
+                byte[] data = value.getByteArray();
+                int id = VarLenIntEncoderDecoder.decode(data, value.getStartOffset());
+                int start = value.getStartOffset() + VarLenIntEncoderDecoder.getBytesRequired(id);
+                if (id == 0) {
+                    out.write(data, start, value.getLength() - (start - value.getStartOffset()));
+                    return;
+                }
+                Schema schema = schemas[id - 1];
+                int numberOfOpenFields = schema.tags.length;
+                if (valueLengths.length < numberOfOpenFields) {
+                    valueLengths = new int[numberOfOpenFields];
+                    fieldOffsets = new int[numberOfOpenFields];
+                }
+                int openPartOffset = IntegerPointable.getInteger(data, start + OPEN_PART_OFFSET_OFFSET);
+                int fieldOffset = openPartOffset + 4 + numberOfOpenFields * OPEN_FIELD_ENTRY_SIZE;
+                int valueStart = start + openPartOffset;
+                for (int i = 0; i < numberOfOpenFields; i++) {
+                    valueLengths[i] = NonTaggedFormatUtil.getFieldValueLength(data, valueStart, schema.tags[i], false);
+                    fieldOffsets[i] = fieldOffset;
+                    fieldOffset += schema.nameLengths[i] + 1 + valueLengths[i];
+                    valueStart += valueLengths[i];
+                }
+                out.write(data, start, openPartOffset);
+                out.writeInt(numberOfOpenFields);
+                for (int i = 0; i < numberOfOpenFields; i++) {
+                    out.writeInt(schema.hashes[i]);
+                    out.writeInt(fieldOffsets[schema.positions[i]]);
+                }
+                valueStart = start + openPartOffset;
+                for (int i = 0; i < numberOfOpenFields; i++) {
+                    out.write(schema.data, schema.nameStarts[i], schema.nameLengths[i]);
+                    out.writeByte(schema.tags[i].serialize());
+                    out.write(data, valueStart, valueLengths[i]);
+                    valueStart += valueLengths[i];
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.evaluators.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import org.apache.asterix.dataflow.data.nontagged.Coordinate;
+import org.apache.asterix.dataflow.data.nontagged.serde.ACircleSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ADoubleSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AGeometrySerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt16SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ALineSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.APointSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.APolygonSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ARectangleSerializerDeserializer;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.runtime.exceptions.TypeMismatchException;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.dataflow.std.join.ITupleMBRProvider;
+import org.apache.hyracks.dataflow.std.join.ITupleMBRProviderFactory;
+
+import com.esri.core.geometry.Envelope;
+import com.esri.core.geometry.Geometry;
+
+/**
+ * Computes the minimum bounding rectangle of a spatial value for the spatial join. Points, lines, rectangles,
+ * circles, polygons and geometries are supported. Null and missing values have no rectangle.
+ */
+public class SpatialMBRProviderFactory implements ITupleMBRProviderFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IScalarEvaluatorFactory keyEvalFactory;
+    private final FunctionIdentifier funcId;
+    private final int argIndex;
+    private final SourceLocation sourceLoc;
+
+    /**
+     * @param keyEvalFactory
+     *            evaluates the spatial key of a tuple
+     * @param funcId
+     *            the spatial join predicate, used to report type errors
+     * @param argIndex
+     *            the position of the key among the arguments of the predicate
+     */
+    public SpatialMBRProviderFactory(IScalarEvaluatorFactory keyEvalFactory, FunctionIdentifier funcId, int argIndex,
+            SourceLocation sourceLoc) {
+        this.keyEvalFactory = keyEvalFactory;
+        this.funcId = funcId;
+        this.argIndex = argIndex;
+        this.sourceLoc = sourceLoc;
+    }
+
+    @Override
+    public ITupleMBRProvider createTupleMBRProvider(IHyracksTaskContext ctx) throws HyracksDataException {
+        final IScalarEvaluator keyEval = keyEvalFactory.createScalarEvaluator(ctx);
+        final FrameTupleReference tuple = new FrameTupleReference();
+        final IPointable key = new VoidPointable();
+        final Envelope envelope = new Envelope();
+        return new ITupleMBRProvider() {
+            @Override
+            public boolean getMBR(IFrameTupleAccessor accessor, int tIndex, double[] mbr)
+                    throws HyracksDataException {
+                tuple.reset(accessor, tIndex);
+                keyEval.evaluate(tuple, key);
+                byte[] data = key.getByteArray();
+                int start = key.getStartOffset();
+                ATypeTag tag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(data[start]);
+                switch (tag) {
+                    case MISSING:
+                    case NULL:
+                        return false;
+                    case POINT: {
+                        double x = ADoubleSerializerDeserializer.getDouble(data,
+                                start + APointSerializerDeserializer.getCoordinateOffset(Coordinate.X));
+                        double y = ADoubleSerializerDeserializer.getDouble(data,
+                                start + APointSerializerDeserializer.getCoordinateOffset(Coordinate.Y));
+                        setMBR(mbr, x, y, x, y);
+                        return true;
+                    }
+                    case LINE: {
+                        double x1 = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ALineSerializerDeserializer.getStartPointCoordinateOffset(Coordinate.X));
+                        double y1 = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ALineSerializerDeserializer.getStartPointCoordinateOffset(Coordinate.Y));
+                        double x2 = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ALineSerializerDeserializer.getEndPointCoordinateOffset(Coordinate.X));
+                        double y2 = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ALineSerializerDeserializer.getEndPointCoordinateOffset(Coordinate.Y));
+                        setMBR(mbr, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+                        return true;
+                    }
+                    case RECTANGLE:
+                        setMBR(mbr,
+                                ADoubleSerializerDeserializer.getDouble(data,
+                                        start + ARectangleSerializerDeserializer
+                                                .getBottomLeftCoordinateOffset(Coordinate.X)),
+                                ADoubleSerializerDeserializer.getDouble(data,
+                                        start + ARectangleSerializerDeserializer
+                                                .getBottomLeftCoordinateOffset(Coordinate.Y)),
+                                ADoubleSerializerDeserializer.getDouble(data,
+                                        start + ARectangleSerializerDeserializer
+                                                .getUpperRightCoordinateOffset(Coordinate.X)),
+                                ADoubleSerializerDeserializer.getDouble(data,
+                                        start + ARectangleSerializerDeserializer
+                                                .getUpperRightCoordinateOffset(Coordinate.Y)));
+                        return true;
+                    case CIRCLE: {
+                        double x = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ACircleSerializerDeserializer.getCenterPointCoordinateOffset(Coordinate.X));
+                        double y = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ACircleSerializerDeserializer.getCenterPointCoordinateOffset(Coordinate.Y));
+                        double radius = ADoubleSerializerDeserializer.getDouble(data,
+                                start + ACircleSerializerDeserializer.getRadiusOffset());
+                        setMBR(mbr, x - radius, y - radius, x + radius, y + radius);
+                        return true;
+                    }
+                    case POLYGON: {
+                        int numPoints = AInt16SerializerDeserializer.getShort(data,
+                                start + APolygonSerializerDeserializer.getNumberOfPointsOffset());
+                        setMBR(mbr, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                                Double.NEGATIVE_INFINITY);
+                        for (int i = 0; i < numPoints; i++) {
+                            double x = ADoubleSerializerDeserializer.getDouble(data,
+                                    start + APolygonSerializerDeserializer.getCoordinateOffset(i, Coordinate.X));
+                            double y = ADoubleSerializerDeserializer.getDouble(data,
+                                    start + APolygonSerializerDeserializer.getCoordinateOffset(i, Coordinate.Y));
+                            setMBR(mbr, Math.min(mbr[0], x), Math.min(mbr[1], y), Math.max(mbr[2], x),
+                                    Math.max(mbr[3], y));
+                        }
+                        return numPoints > 0;
+                    }
+                    case GEOMETRY: {
+                        Geometry geometry = AGeometrySerializerDeserializer.INSTANCE
+                                .deserialize(new DataInputStream(
+                                        new ByteArrayInputStream(data, start + 1, key.getLength() - 1)))
+                                .getGeometry().getEsriGeometry();
+                        if (geometry == null) {
+                            return false;
+                        }
+                        geometry.queryEnvelope(envelope);
+                        if (envelope.isEmpty()) {
+                            return false;
+                        }
+                        setMBR(mbr, envelope.getXMin(), envelope.getYMin(), envelope.getXMax(), envelope.getYMax());
+                        return true;
+                    }
+                    default:
+                        throw new TypeMismatchException(sourceLoc, funcId, argIndex, data[start],
+                                ATypeTag.SERIALIZED_POINT_TYPE_TAG, ATypeTag.SERIALIZED_LINE_TYPE_TAG,
+                                ATypeTag.SERIALIZED_RECTANGLE_TYPE_TAG, ATypeTag.SERIALIZED_CIRCLE_TYPE_TAG,
+                                ATypeTag.SERIALIZED_POLYGON_TYPE_TAG, ATypeTag.SERIALIZED_GEOMETRY_TYPE_TAG);
+                }
+            }
+        };
+    }
+
+    private static void setMBR(double[] mbr, double minX, double minY, double maxX, double maxY) {
+        mbr[0] = minX;
+        mbr[1] = minY;
+        mbr[2] = maxX;
+        mbr[3] = maxY;
+    }
+}
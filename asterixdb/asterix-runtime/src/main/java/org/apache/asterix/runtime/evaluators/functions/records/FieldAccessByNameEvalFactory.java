@@ -70,6 +70,8 @@ public class FieldAccessByNameEvalFactory implements IScalarEvaluatorFactory {
             private IPointable inputArg1 = new VoidPointable();
             private IScalarEvaluator eval0 = recordEvalFactory.createScalarEvaluator(ctx);
             private IScalarEvaluator eval1 = fldNameEvalFactory.createScalarEvaluator(ctx);
+            // the entries of the offset table at which the open fields were found in the previous record
+            private final int[] fieldEntries = new int[1];
             private int fieldValueOffset;
             private int fieldValueLength;
             private ATypeTag fieldValueTypeTag;
@@ -91,7 +93,8 @@ public class FieldAccessByNameEvalFactory implements IScalarEvaluatorFactory {
                     byte[] serFldName = inputArg1.getByteArray();
                     int serFldNameOffset = inputArg1.getStartOffset();
                     fieldValueOffset = ARecordSerializerDeserializer.getFieldOffsetByName(serRecord, serRecordOffset,
-                            serRecordLen, serFldName, serFldNameOffset, fieldNameHashFunction, fieldNameComparator);
+                            serRecordLen, serFldName, serFldNameOffset, fieldNameHashFunction, fieldNameComparator,
+                            fieldEntries, 0);
                     if (fieldValueOffset < 0) {
                         out.writeByte(ATypeTag.SERIALIZED_MISSING_TYPE_TAG);
                         result.set(resultStorage);
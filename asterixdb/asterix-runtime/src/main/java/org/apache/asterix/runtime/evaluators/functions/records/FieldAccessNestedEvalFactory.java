@@ -86,6 +86,8 @@ public class FieldAccessNestedEvalFactory implements IScalarEvaluatorFactory {
             private final IScalarEvaluator eval0 = recordEvalFactory.createScalarEvaluator(ctx);
             private final IPointable[] fieldPointables = new VoidPointable[fieldPath.size()];
             private final RuntimeRecordTypeInfo[] recTypeInfos = new RuntimeRecordTypeInfo[fieldPath.size()];
+            // the entries of the offset table at which the open fields were found in the previous record
+            private final int[] fieldEntries = new int[fieldPath.size()];
             @SuppressWarnings("unchecked")
             private final ISerializerDeserializer<ANull> nullSerde =
                     SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ANULL);
@@ -213,7 +215,7 @@ public class FieldAccessNestedEvalFactory implements IScalarEvaluatorFactory {
                         openField = true;
                         subFieldOffset = ARecordSerializerDeserializer.getFieldOffsetByName(serRecord, start, len,
                                 fieldPointables[pathIndex].getByteArray(), fieldPointables[pathIndex].getStartOffset(),
-                                fieldNameHashFunction, fieldNameComparator);
+                                fieldNameHashFunction, fieldNameComparator, fieldEntries, pathIndex);
                         if (subFieldOffset < 0) {
                             out.writeByte(ATypeTag.SERIALIZED_MISSING_TYPE_TAG);
                             result.set(resultStorage);
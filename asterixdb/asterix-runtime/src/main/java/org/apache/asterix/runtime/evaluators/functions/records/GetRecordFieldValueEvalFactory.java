@@ -77,6 +77,8 @@ public class GetRecordFieldValueEvalFactory implements IScalarEvaluatorFactory {
             private final IScalarEvaluator recordEval = recordEvalFactory.createScalarEvaluator(ctx);
             private final IScalarEvaluator fieldNameEval = fldNameEvalFactory.createScalarEvaluator(ctx);
             private final RuntimeRecordTypeInfo recTypeInfo = new RuntimeRecordTypeInfo();
+            // the entries of the offset table at which the open fields were found in the previous record
+            private final int[] fieldEntries = new int[1];
 
             {
                 recTypeInfo.reset(recordType);
@@ -128,7 +130,8 @@ public class GetRecordFieldValueEvalFactory implements IScalarEvaluatorFactory {
 
                     // Look at open fields.
                     subFieldOffset = ARecordSerializerDeserializer.getFieldOffsetByName(serRecord, serRecordOffset,
-                            serRecordLen, serFldName, serFldNameOffset, fieldNameHashFunction, fieldNameComparator);
+                            serRecordLen, serFldName, serFldNameOffset, fieldNameHashFunction, fieldNameComparator,
+                            fieldEntries, 0);
                     if (subFieldOffset < 0) {
                         out.writeByte(ATypeTag.SERIALIZED_MISSING_TYPE_TAG);
                         result.set(resultStorage);
@@ -32,12 +32,16 @@ import org.apache.asterix.runtime.aggregates.collections.FirstElementAggregateDe
 import org.apache.asterix.runtime.aggregates.collections.LastElementAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.collections.ListifyAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.collections.LocalFirstElementAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarCountAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarMaxAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarMinAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlCountAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlKurtosisAggregateDescriptor;
@@ -120,8 +124,12 @@ import org.apache.asterix.runtime.aggregates.serializable.std.SerializableStddev
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSumAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableVarAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableVarPopAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.ApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.ApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.AvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.CountAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.GlobalApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.GlobalApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSqlSumAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSumAggregateDescriptor;
@@ -141,6 +149,8 @@ import org.apache.asterix.runtime.aggregates.std.GlobalSqlVarAggregateDescriptor
 import org.apache.asterix.runtime.aggregates.std.GlobalSqlVarPopAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalVarAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalVarPopAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.IntermediateApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.IntermediateApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateSkewnessAggregateDescriptor;
@@ -156,6 +166,8 @@ import org.apache.asterix.runtime.aggregates.std.IntermediateSqlVarPopAggregateD
 import org.apache.asterix.runtime.aggregates.std.IntermediateVarAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateVarPopAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.KurtosisAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.LocalApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.LocalApproxPercentileAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalMaxAggregateDescriptor;
@@ -595,6 +607,14 @@ public final class FunctionCollection implements IFunctionCollection {
         fc.add(LocalKurtosisAggregateDescriptor.FACTORY);
         fc.add(IntermediateKurtosisAggregateDescriptor.FACTORY);
         fc.add(GlobalKurtosisAggregateDescriptor.FACTORY);
+        fc.add(ApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(LocalApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(IntermediateApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(GlobalApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(ApproxPercentileAggregateDescriptor.FACTORY);
+        fc.add(LocalApproxPercentileAggregateDescriptor.FACTORY);
+        fc.add(IntermediateApproxPercentileAggregateDescriptor.FACTORY);
+        fc.add(GlobalApproxPercentileAggregateDescriptor.FACTORY);
         fc.add(SkewnessAggregateDescriptor.FACTORY);
         fc.add(LocalSkewnessAggregateDescriptor.FACTORY);
         fc.add(IntermediateSkewnessAggregateDescriptor.FACTORY);
@@ -649,6 +669,10 @@ public final class FunctionCollection implements IFunctionCollection {
         fc.add(ScalarVarPopAggregateDescriptor.FACTORY);
         fc.add(ScalarKurtosisAggregateDescriptor.FACTORY);
         fc.add(ScalarSkewnessAggregateDescriptor.FACTORY);
+        fc.add(ScalarApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(ScalarSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(ScalarApproxPercentileAggregateDescriptor.FACTORY);
+        fc.add(ScalarSqlApproxPercentileAggregateDescriptor.FACTORY);
 
         // SQL aggregates
         fc.add(SqlCountAggregateDescriptor.FACTORY);
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproximateSketchTest {
+
+    @Test
+    public void testHyperLogLog() throws IOException {
+        Random random = new Random(0);
+        HyperLogLogSketch left = new HyperLogLogSketch();
+        HyperLogLogSketch right = new HyperLogLogSketch();
+        long[] hashes = new long[100000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            // Every value is added twice, duplicates must not change the estimate.
+            left.add(hashes[i]);
+            left.add(hashes[i]);
+        }
+        // The right sketch sees the second half of the values again.
+        for (int i = hashes.length / 2; i < hashes.length; i++) {
+            right.add(hashes[i]);
+        }
+        assertCloseTo(hashes.length, left.estimate(), 0.05);
+        assertCloseTo(hashes.length / 2, right.estimate(), 0.05);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        right.serialize(new DataOutputStream(bytes));
+        Assert.assertEquals(HyperLogLogSketch.getSerializedSize(), bytes.size());
+        long before = left.estimate();
+        left.merge(bytes.toByteArray(), 0);
+        Assert.assertEquals(before, left.estimate());
+
+        // Small cardinalities are corrected with linear counting.
+        HyperLogLogSketch small = new HyperLogLogSketch();
+        for (int i = 0; i < 10; i++) {
+            small.add(hashes[i]);
+        }
+        Assert.assertEquals(10, small.estimate());
+        small.reset();
+        Assert.assertEquals(0, small.estimate());
+    }
+
+    @Test
+    public void testTDigest() throws IOException {
+        Random random = new Random(0);
+        TDigestSketch left = new TDigestSketch();
+        TDigestSketch right = new TDigestSketch();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            double value = random.nextDouble();
+            if (i % 2 == 0) {
+                left.add(value);
+            } else {
+                right.add(value);
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        right.serialize(new DataOutputStream(bytes));
+        left.merge(bytes.toByteArray(), 0);
+        for (double q = 0.01; q < 1; q += 0.01) {
+            Assert.assertEquals(q, left.quantile(q), 0.01);
+        }
+        Assert.assertEquals(0, left.quantile(0), 0.001);
+        Assert.assertEquals(1, left.quantile(1), 0.001);
+
+        TDigestSketch single = new TDigestSketch();
+        Assert.assertTrue(single.isEmpty());
+        single.add(7);
+        Assert.assertFalse(single.isEmpty());
+        Assert.assertEquals(7, single.quantile(0.3), 0);
+    }
+
+    private static void assertCloseTo(long expected, long actual, double relativeError) {
+        Assert.assertTrue("Expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * relativeError);
+    }
+}
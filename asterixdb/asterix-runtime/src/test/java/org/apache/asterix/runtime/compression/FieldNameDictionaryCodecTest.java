@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.asterix.builders.RecordBuilder;
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.RecordUtil;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueDecoder;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueEncoder;
+import org.apache.hyracks.storage.am.lsm.common.impls.MemoryComponentMetadata;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FieldNameDictionaryCodecTest {
+    private static final ARecordType RECORD_TYPE =
+            new ARecordType("Tweet", new String[] { "id" }, new IAType[] { BuiltinType.AINT64 }, true);
+
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<AString> stringSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ASTRING);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<AInt64> int64Serde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT64);
+
+    @Test
+    public void testRepeatedNames() throws HyracksDataException {
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(createRecord(i, "user", "location", "retweet_count"));
+        }
+        int encodedLength = checkRoundTrip(records);
+        int length = records.stream().mapToInt(r -> r.length).sum();
+        Assert.assertTrue(encodedLength + " >= " + length, encodedLength < length);
+    }
+
+    @Test
+    public void testFullDictionary() throws HyracksDataException {
+        List<byte[]> records = new ArrayList<>();
+        int numberOfNames = FieldNameDictionaryCodec.MAX_DICTIONARY_LENGTH / 10;
+        for (int i = 0; i < numberOfNames; i++) {
+            records.add(createRecord(i, "unique_field_" + i, "nested_" + i, "retweet_count"));
+        }
+        checkRoundTrip(records);
+    }
+
+    @Test
+    public void testEmptyComponent() throws HyracksDataException {
+        checkRoundTrip(Arrays.asList(createRecord(0), createRecord(1)));
+    }
+
+    /**
+     * Encodes the records into a component and checks that they are decoded as is
+     *
+     * @return the length of the encoded records
+     */
+    private static int checkRoundTrip(List<byte[]> records) throws HyracksDataException {
+        FieldNameDictionaryCodec codec = new FieldNameDictionaryCodec(1);
+        IComponentValueEncoder encoder = codec.createEncoder();
+        List<byte[]> encodedRecords = new ArrayList<>();
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        for (byte[] record : records) {
+            storage.reset();
+            ArrayBackedValueStorage value = new ArrayBackedValueStorage();
+            value.set(record, 0, record.length);
+            encoder.encode(value, storage);
+            encodedRecords.add(storage.toByteArray());
+        }
+        MemoryComponentMetadata metadata = new MemoryComponentMetadata();
+        encoder.end(metadata);
+
+        IComponentValueDecoder decoder = codec.createDecoder(metadata);
+        int encodedLength = 0;
+        for (int i = 0; i < records.size(); i++) {
+            byte[] encodedRecord = encodedRecords.get(i);
+            storage.reset();
+            ArrayBackedValueStorage value = new ArrayBackedValueStorage();
+            value.set(encodedRecord, 0, encodedRecord.length);
+            decoder.decode(value, storage);
+            Assert.assertArrayEquals(records.get(i), storage.toByteArray());
+            encodedLength += encodedRecord.length;
+        }
+        return encodedLength;
+    }
+
+    /**
+     * Creates a record with a closed field, the given open fields, and an open field with a nested record that has
+     * the same open fields
+     */
+    private byte[] createRecord(long id, String... openFieldNames) throws HyracksDataException {
+        ArrayBackedValueStorage nested = new ArrayBackedValueStorage();
+        RecordBuilder nestedBuilder = new RecordBuilder();
+        nestedBuilder.reset(RecordUtil.FULLY_OPEN_RECORD_TYPE);
+        nestedBuilder.init();
+        for (String name : openFieldNames) {
+            nestedBuilder.addField(serialize(name), serialize(name + id));
+        }
+        nestedBuilder.write(nested.getDataOutput(), true);
+
+        RecordBuilder builder = new RecordBuilder();
+        builder.reset(RECORD_TYPE);
+        builder.init();
+        ArrayBackedValueStorage idValue = new ArrayBackedValueStorage();
+        int64Serde.serialize(new AInt64(id), idValue.getDataOutput());
+        builder.addField(0, idValue);
+        for (String name : openFieldNames) {
+            builder.addField(serialize(name), serialize("value of " + name));
+        }
+        if (openFieldNames.length > 0) {
+            builder.addField(serialize("nested"), nested);
+        }
+        ArrayBackedValueStorage record = new ArrayBackedValueStorage();
+        builder.write(record.getDataOutput(), true);
+        return record.toByteArray();
+    }
+
+    private ArrayBackedValueStorage serialize(String value) throws HyracksDataException {
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        stringSerde.serialize(new AString(value), storage.getDataOutput());
+        return storage;
+    }
+}
@@ -29,4 +29,6 @@ public interface OperatorAnnotations {
     // Integer
     public static final String MAX_NUMBER_FRAMES = "MAX_NUMBER_FRAMES"; // -->
     // Integer
+    public static final String DYNAMIC_PARTITION_PRUNING = "DYNAMIC_PARTITION_PRUNING"; // -->
+    // Mutable<IJoinKeyRangeConsumer>, shared by a hash join and the scan of its probe input
 }
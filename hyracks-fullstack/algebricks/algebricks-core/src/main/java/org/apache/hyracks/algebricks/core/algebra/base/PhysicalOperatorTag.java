@@ -31,6 +31,7 @@ public enum PhysicalOperatorTag {
     EXTERNAL_GROUP_BY,
     EXTERNAL_LOOKUP,
     FORWARD,
+    HASH_DISTINCT_BY,
     HASH_GROUP_BY,
     HASH_PARTITION_EXCHANGE,
     HASH_PARTITION_MERGE_EXCHANGE,
@@ -43,6 +44,7 @@ public enum PhysicalOperatorTag {
     INSERT_DELETE,
     LENGTH_PARTITIONED_INVERTED_INDEX_SEARCH,
     MATERIALIZE,
+    MERGE_JOIN,
     MICRO_PRE_CLUSTERED_GROUP_BY,
     MICRO_PRE_SORTED_DISTINCT_BY,
     MICRO_UNION_ALL,
@@ -64,6 +66,7 @@ public enum PhysicalOperatorTag {
     SINK_WRITE,
     SORT_GROUP_BY,
     SORT_MERGE_EXCHANGE,
+    SPATIAL_JOIN,
     SPLIT,
     STABLE_SORT,
     STATS,
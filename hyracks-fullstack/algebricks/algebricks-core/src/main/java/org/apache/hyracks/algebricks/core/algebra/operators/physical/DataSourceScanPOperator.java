@@ -20,6 +20,7 @@ package org.apache.hyracks.algebricks.core.algebra.operators.physical;
 
 import java.util.List;
 
+import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraint;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.utils.Pair;
@@ -28,6 +29,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.OperatorAnnotations;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
 import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSource;
@@ -43,6 +45,7 @@ import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirement
 import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertiesVector;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.IJoinKeyRangeConsumer;
 import org.apache.hyracks.storage.am.common.api.ITupleFilterFactory;
 
 @SuppressWarnings("rawtypes")
@@ -50,6 +53,8 @@ public class DataSourceScanPOperator extends AbstractScanPOperator {
 
     private final IDataSource<?> dataSource;
     private Object implConfig;
+    // whether the scan carries a DYNAMIC_PARTITION_PRUNING annotation, which is shown in the plan
+    private boolean dynamicPartitionPruning;
 
     public DataSourceScanPOperator(IDataSource<?> dataSource) {
         this.dataSource = dataSource;
@@ -63,6 +68,16 @@ public class DataSourceScanPOperator extends AbstractScanPOperator {
         return implConfig;
     }
 
+    public void setDynamicPartitionPruning(boolean dynamicPartitionPruning) {
+        this.dynamicPartitionPruning = dynamicPartitionPruning;
+    }
+
+    @Override
+    public String toString() {
+        return dynamicPartitionPruning ? getOperatorTag() + " [" + OperatorAnnotations.DYNAMIC_PARTITION_PRUNING + "]"
+                : super.toString();
+    }
+
     @Override
     public PhysicalOperatorTag getOperatorTag() {
         return PhysicalOperatorTag.DATASOURCE_SCAN;
@@ -121,6 +136,7 @@ public class DataSourceScanPOperator extends AbstractScanPOperator {
                 scan.getOutputLimit(), opSchema, typeEnv, context, builder.getJobSpec(), implConfig);
         IOperatorDescriptor opDesc = p.first;
         opDesc.setSourceLocation(scan.getSourceLocation());
+        setJoinKeyRangeConsumer(scan, opDesc);
         builder.contributeHyracksOperator(scan, opDesc);
         if (p.second != null) {
             builder.contributeAlgebricksPartitionConstraint(opDesc, p.second);
@@ -129,4 +145,16 @@ public class DataSourceScanPOperator extends AbstractScanPOperator {
         ILogicalOperator srcExchange = scan.getInputs().get(0).getValue();
         builder.contributeGraphEdge(srcExchange, 0, scan, 0);
     }
+
+    /**
+     * Hands the scan over to the hash join that shares its {@link OperatorAnnotations#DYNAMIC_PARTITION_PRUNING}
+     * annotation, see {@link HybridHashJoinPOperator}.
+     */
+    @SuppressWarnings("unchecked")
+    private static void setJoinKeyRangeConsumer(DataSourceScanOperator scan, IOperatorDescriptor opDesc) {
+        Object annotation = scan.getAnnotations().get(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING);
+        if (annotation instanceof Mutable && opDesc instanceof IJoinKeyRangeConsumer) {
+            ((Mutable<IJoinKeyRangeConsumer>) annotation).setValue((IJoinKeyRangeConsumer) opDesc);
+        }
+    }
 }
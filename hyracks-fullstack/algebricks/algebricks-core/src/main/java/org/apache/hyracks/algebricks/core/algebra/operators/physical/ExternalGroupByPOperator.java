@@ -52,6 +52,7 @@ import org.apache.hyracks.algebricks.core.algebra.properties.LocalGroupingProper
 import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirements;
 import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertiesVector;
 import org.apache.hyracks.algebricks.core.algebra.properties.UnorderedPartitionedProperty;
+import org.apache.hyracks.algebricks.core.config.AlgebricksConfig;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.core.jobgen.impl.OperatorSchemaImpl;
@@ -70,12 +71,23 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
 
     private final long inputSize;
     private final int frameLimit;
+    // whether a local group-by outputs its groups when its memory is full instead of spilling them
+    private final boolean streamPartialResults;
+    private final double passThroughGroupRatio;
     private List<LogicalVariable> columnSet = new ArrayList<LogicalVariable>();
 
     public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
             long fileSize) {
+        this(gbyList, frameLimit, fileSize, AlgebricksConfig.GROUPBY_STREAM,
+                AlgebricksConfig.GROUPBY_PASSTHROUGH_RATIO);
+    }
+
+    public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
+            long fileSize, boolean streamPartialResults, double passThroughGroupRatio) {
         this.frameLimit = frameLimit;
         this.inputSize = fileSize;
+        this.streamPartialResults = streamPartialResults;
+        this.passThroughGroupRatio = passThroughGroupRatio;
         computeColumnSet(gbyList);
     }
 
@@ -271,6 +283,11 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
                 keyAndDecFields, frameLimit, comparatorFactories, normalizedKeyFactory, aggregatorFactory, mergeFactory,
                 recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories));
         gbyOpDesc.setSourceLocation(gby.getSourceLocation());
+        // The local step of a two-phase aggregation is grouped again by the global step, so it may output a group
+        // several times and need not spill.
+        if (isStreamingPartialResults(gby)) {
+            gbyOpDesc.setStreamPartialResults(true, passThroughGroupRatio);
+        }
         contributeOpDesc(builder, gby, gbyOpDesc);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
@@ -279,10 +296,14 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
     @Override
     public Pair<int[], int[]> getInputOutputDependencyLabels(ILogicalOperator op) {
         int[] inputDependencyLabels = new int[] { 0 };
-        int[] outputDependencyLabels = new int[] { 1 };
+        int[] outputDependencyLabels = new int[] { isStreamingPartialResults((GroupByOperator) op) ? 0 : 1 };
         return new Pair<int[], int[]>(inputDependencyLabels, outputDependencyLabels);
     }
 
+    private boolean isStreamingPartialResults(GroupByOperator gby) {
+        return streamPartialResults && !gby.isGlobal();
+    }
+
     @Override
     public boolean expensiveThanMaterialization() {
         return true;
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.exceptions.NotImplementedException;
 import org.apache.hyracks.algebricks.common.utils.ListSet;
@@ -29,6 +30,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.OperatorAnnotations;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
@@ -54,6 +56,7 @@ import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.dataflow.std.join.IJoinKeyRangeConsumer;
 import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoinOperatorDescriptor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -143,6 +146,7 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         opDesc = generateOptimizedHashJoinRuntime(context, inputSchemas, keysLeft, keysRight, leftHashFunFamilies,
                 rightHashFunFamilies, leftCompFactories, rightCompFactories, predEvaluatorFactory, recDescriptor, spec);
         opDesc.setSourceLocation(op.getSourceLocation());
+        setJoinKeyRangeConsumer(op, opDesc);
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
         ILogicalOperator src1 = op.getInputs().get(0).getValue();
@@ -151,6 +155,26 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         builder.contributeGraphEdge(src2, 0, op, 1);
     }
 
+    /**
+     * Lets the scan of the probe input skip the keys that are out of the range of the build keys, if the join and
+     * the scan share a {@link OperatorAnnotations#DYNAMIC_PARTITION_PRUNING} annotation. The scan is compiled before
+     * the join, so its descriptor is already known.
+     */
+    @SuppressWarnings("unchecked")
+    private void setJoinKeyRangeConsumer(ILogicalOperator op, IOperatorDescriptor opDesc) {
+        Object annotation = op.getAnnotations().get(OperatorAnnotations.DYNAMIC_PARTITION_PRUNING);
+        if (kind != JoinKind.INNER || !(annotation instanceof Mutable)
+                || !(opDesc instanceof OptimizedHybridHashJoinOperatorDescriptor)) {
+            return;
+        }
+        IJoinKeyRangeConsumer consumer = ((Mutable<IJoinKeyRangeConsumer>) annotation).getValue();
+        if (consumer != null) {
+            OptimizedHybridHashJoinOperatorDescriptor hhj = (OptimizedHybridHashJoinOperatorDescriptor) opDesc;
+            hhj.setCollectBuildKeyRange(true);
+            consumer.setJoinKeyRangeSource(hhj.getBuildActivityId());
+        }
+    }
+
     private IOperatorDescriptor generateOptimizedHashJoinRuntime(JobGenContext context, IOperatorSchema[] inputSchemas,
             int[] keysLeft, int[] keysRight, IBinaryHashFunctionFamily[] leftHashFunFamilies,
             IBinaryHashFunctionFamily[] rightHashFunFamilies, IBinaryComparatorFactory[] leftCompFactories,
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.core.algebra.operators.physical;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.common.exceptions.NotImplementedException;
+import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder.OrderKind;
+import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.LocalOrderProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
+import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirements;
+import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertiesVector;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
+import org.apache.hyracks.algebricks.data.IBinaryComparatorFactoryProvider;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactoryProvider;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.dataflow.std.join.MergeJoinBound;
+import org.apache.hyracks.dataflow.std.join.MergeJoinOperatorDescriptor;
+
+/**
+ * A merge join of two inputs that are sorted on their join keys. The inputs are required to be locally ordered, so
+ * sorts are only added for inputs that do not deliver the order already, such as the scans of two datasets that are
+ * joined on their primary keys.
+ * <p>
+ * An equi-join partitions both inputs on their keys. A band or inequality join broadcasts the right input; every right
+ * tuple matches the left keys between its lower and upper bound, either of which may be missing.
+ */
+public class MergeJoinPOperator extends AbstractHashJoinPOperator {
+
+    private final List<LogicalVariable> lowKeysRightBranch;
+    private final boolean lowInclusive;
+    private final List<LogicalVariable> highKeysRightBranch;
+    private final boolean highInclusive;
+    private final int memSizeInFrames;
+
+    public MergeJoinPOperator(JoinKind kind, List<LogicalVariable> sideLeftOfEqualities,
+            List<LogicalVariable> sideRightOfEqualities, int memSizeInFrames) {
+        this(kind, JoinPartitioningType.PAIRWISE, sideLeftOfEqualities, sideRightOfEqualities, true,
+                sideRightOfEqualities, true, memSizeInFrames);
+    }
+
+    public MergeJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType, List<LogicalVariable> keysLeft,
+            List<LogicalVariable> lowKeysRight, boolean lowInclusive, List<LogicalVariable> highKeysRight,
+            boolean highInclusive, int memSizeInFrames) {
+        // The right input is sorted on its lower bound, or on its upper bound if it has none.
+        super(kind, partitioningType, keysLeft, lowKeysRight != null ? lowKeysRight : highKeysRight);
+        this.lowKeysRightBranch = lowKeysRight;
+        this.lowInclusive = lowInclusive;
+        this.highKeysRightBranch = highKeysRight;
+        this.highInclusive = highInclusive;
+        this.memSizeInFrames = memSizeInFrames;
+    }
+
+    @Override
+    public PhysicalOperatorTag getOperatorTag() {
+        return PhysicalOperatorTag.MERGE_JOIN;
+    }
+
+    private boolean isEquiJoin() {
+        return lowKeysRightBranch == highKeysRightBranch && lowInclusive && highInclusive;
+    }
+
+    @Override
+    public String toString() {
+        if (isEquiJoin()) {
+            return getOperatorTag().toString() + " " + keysLeftBranch + keysRightBranch;
+        }
+        return getOperatorTag().toString() + " " + keysLeftBranch + (lowInclusive ? "[" : "(")
+                + (lowKeysRightBranch != null ? lowKeysRightBranch : "") + ", "
+                + (highKeysRightBranch != null ? highKeysRightBranch : "") + (highInclusive ? "]" : ")");
+    }
+
+    @Override
+    public boolean isMicroOperator() {
+        return false;
+    }
+
+    @Override
+    public PhysicalRequirements getRequiredPropertiesForChildren(ILogicalOperator op,
+            IPhysicalPropertiesVector reqdByParent, IOptimizationContext context) {
+        PhysicalRequirements partitioningRequirements =
+                super.getRequiredPropertiesForChildren(op, reqdByParent, context);
+        IPhysicalPropertiesVector[] partitioning = partitioningRequirements.getRequiredProperties();
+        StructuralPropertiesVector[] pv = new StructuralPropertiesVector[2];
+        pv[0] = new StructuralPropertiesVector(partitioning[0].getPartitioningProperty(),
+                getOrderProperties(keysLeftBranch));
+        pv[1] = new StructuralPropertiesVector(partitioning[1].getPartitioningProperty(),
+                getOrderProperties(keysRightBranch));
+        return new PhysicalRequirements(pv, partitioningRequirements.getPartitioningCoordinator());
+    }
+
+    private static List<ILocalStructuralProperty> getOrderProperties(List<LogicalVariable> keys) {
+        List<OrderColumn> orderColumns = new ArrayList<>();
+        for (LogicalVariable key : keys) {
+            orderColumns.add(new OrderColumn(key, OrderKind.ASC));
+        }
+        List<ILocalStructuralProperty> localProperties = new ArrayList<>();
+        localProperties.add(new LocalOrderProperty(orderColumns));
+        return localProperties;
+    }
+
+    @Override
+    public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
+            IOperatorSchema propagatedSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
+            throws AlgebricksException {
+        int[] keysLeft = JobGenHelper.variablesToFieldIndexes(keysLeftBranch, inputSchemas[0]);
+        IVariableTypeEnvironment env = context.getTypeEnvironment(op);
+        MergeJoinBound lowBound = createBound(lowKeysRightBranch, lowInclusive, inputSchemas[1], env, context);
+        MergeJoinBound highBound = createBound(highKeysRightBranch, highInclusive, inputSchemas[1], env, context);
+
+        IPredicateEvaluatorFactory predEvaluatorFactory = null;
+        ITuplePairComparatorFactory comparatorFactory = null;
+        if (isEquiJoin()) {
+            IPredicateEvaluatorFactoryProvider predEvaluatorFactoryProvider =
+                    context.getPredicateEvaluatorFactoryProvider();
+            predEvaluatorFactory = (predEvaluatorFactoryProvider == null ? null
+                    : predEvaluatorFactoryProvider.getPredicateEvaluatorFactory(keysLeft,
+                            JobGenHelper.variablesToFieldIndexes(keysRightBranch, inputSchemas[1])));
+        } else {
+            // The bounds only prune the pairs; the join condition decides on the pairs within the bounds.
+            IOperatorSchema[] conditionInputSchemas = new IOperatorSchema[] { propagatedSchema };
+            IScalarEvaluatorFactory cond = context.getExpressionRuntimeProvider().createEvaluatorFactory(
+                    ((AbstractBinaryJoinOperator) op).getCondition().getValue(), env, conditionInputSchemas, context);
+            comparatorFactory = new NestedLoopJoinPOperator.TuplePairEvaluatorFactory(cond,
+                    context.getBinaryBooleanInspectorFactory());
+        }
+
+        RecordDescriptor recDescriptor =
+                JobGenHelper.mkRecordDescriptor(context.getTypeEnvironment(op), propagatedSchema, context);
+        IMissingWriterFactory[] nonMatchWriterFactories;
+        switch (kind) {
+            case INNER:
+                nonMatchWriterFactories = null;
+                break;
+            case LEFT_OUTER:
+                nonMatchWriterFactories = new IMissingWriterFactory[inputSchemas[1].getSize()];
+                for (int j = 0; j < nonMatchWriterFactories.length; j++) {
+                    nonMatchWriterFactories[j] = context.getMissingWriterFactory();
+                }
+                break;
+            default:
+                throw new NotImplementedException();
+        }
+        IOperatorDescriptor opDesc = new MergeJoinOperatorDescriptor(builder.getJobSpec(), keysLeft, lowBound,
+                highBound, recDescriptor, memSizeInFrames, predEvaluatorFactory, comparatorFactory,
+                kind == JoinKind.LEFT_OUTER, nonMatchWriterFactories);
+        opDesc.setSourceLocation(op.getSourceLocation());
+        contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
+
+        ILogicalOperator src1 = op.getInputs().get(0).getValue();
+        builder.contributeGraphEdge(src1, 0, op, 0);
+        ILogicalOperator src2 = op.getInputs().get(1).getValue();
+        builder.contributeGraphEdge(src2, 0, op, 1);
+    }
+
+    private MergeJoinBound createBound(List<LogicalVariable> keysRight, boolean inclusive,
+            IOperatorSchema rightSchema, IVariableTypeEnvironment env, JobGenContext context)
+            throws AlgebricksException {
+        if (keysRight == null) {
+            return null;
+        }
+        validateNumKeys(keysLeftBranch, keysRight);
+        IBinaryComparatorFactory[] comparatorFactories = new IBinaryComparatorFactory[keysRight.size()];
+        IBinaryComparatorFactoryProvider bcfp = context.getBinaryComparatorFactoryProvider();
+        for (int i = 0; i < keysRight.size(); i++) {
+            comparatorFactories[i] = bcfp.getBinaryComparatorFactory(env.getVarType(keysLeftBranch.get(i)),
+                    env.getVarType(keysRight.get(i)), true);
+        }
+        return new MergeJoinBound(JobGenHelper.variablesToFieldIndexes(keysRight, rightSchema), comparatorFactories,
+                inclusive);
+    }
+
+    @Override
+    protected List<ILocalStructuralProperty> deliveredLocalProperties(ILogicalOperator op,
+            IOptimizationContext context) {
+        AbstractLogicalOperator op0 = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
+        IPhysicalPropertiesVector pv0 = op0.getPhysicalOperator().getDeliveredProperties();
+        List<ILocalStructuralProperty> lp0 = pv0.getLocalProperties();
+        if (lp0 != null) {
+            // maintains the local properties of the left input
+            return new LinkedList<>(lp0);
+        }
+        return new LinkedList<>();
+    }
+}
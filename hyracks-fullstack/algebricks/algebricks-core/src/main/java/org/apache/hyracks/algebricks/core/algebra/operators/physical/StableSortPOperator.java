@@ -49,15 +49,21 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
 
     private int maxNumberOfFrames;
     private int topK;
+    private int sortThreads;
 
     public StableSortPOperator(int maxNumberOfFrames) {
         this(maxNumberOfFrames, -1);
     }
 
     public StableSortPOperator(int maxNumberOfFrames, int topK) {
+        this(maxNumberOfFrames, topK, 1);
+    }
+
+    public StableSortPOperator(int maxNumberOfFrames, int topK, int sortThreads) {
         super();
         this.maxNumberOfFrames = maxNumberOfFrames;
         this.topK = topK;
+        this.sortThreads = sortThreads;
     }
 
     @Override
@@ -102,8 +108,10 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         AbstractSorterOperatorDescriptor sortOpDesc;
         // topK == -1 means that a topK value is not provided.
         if (topK == -1) {
-            sortOpDesc =
+            ExternalSortOperatorDescriptor externalSortOpDesc =
                     new ExternalSortOperatorDescriptor(spec, maxNumberOfFrames, sortFields, nkcf, comps, recDescriptor);
+            externalSortOpDesc.setDegreeOfParallelism(sortThreads);
+            sortOpDesc = externalSortOpDesc;
         } else {
             // Since topK value is provided, topK optimization is possible.
             // We call topKSorter instead of calling ExternalSortOperator.
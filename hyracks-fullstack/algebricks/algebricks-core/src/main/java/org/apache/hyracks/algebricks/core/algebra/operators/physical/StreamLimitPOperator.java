@@ -42,10 +42,24 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 
 public class StreamLimitPOperator extends AbstractPhysicalOperator {
 
+    private boolean closeOnLimit;
+
     public StreamLimitPOperator() {
 
     }
 
+    /**
+     * Sets whether the output is closed as soon as the limit is reached, which is only done for the limit that feeds
+     * the result of a query, so that the job can terminate once its result is complete.
+     */
+    public void setCloseOnLimit(boolean closeOnLimit) {
+        this.closeOnLimit = closeOnLimit;
+    }
+
+    public boolean isCloseOnLimit() {
+        return closeOnLimit;
+    }
+
     @Override
     public PhysicalOperatorTag getOperatorTag() {
         return PhysicalOperatorTag.STREAM_LIMIT;
@@ -96,8 +110,10 @@ public class StreamLimitPOperator extends AbstractPhysicalOperator {
                 : expressionRuntimeProvider.createEvaluatorFactory(offsetExpr, env, inputSchemas, context);
         RecordDescriptor recDesc =
                 JobGenHelper.mkRecordDescriptor(context.getTypeEnvironment(op), propagatedSchema, context);
+        // the runtime of a nested plan is reopened for every input tuple of the outer plan, so its output is only
+        // closed early in the outer plan
         StreamLimitRuntimeFactory runtime = new StreamLimitRuntimeFactory(maxObjectsFact, offsetFact, null,
-                context.getBinaryIntegerInspectorFactory());
+                context.getBinaryIntegerInspectorFactory(), closeOnLimit && outerPlanSchema == null);
         runtime.setSourceLocation(limit.getSourceLocation());
         builder.contributeMicroOperator(limit, runtime, recDesc);
         // and contribute one edge from its child
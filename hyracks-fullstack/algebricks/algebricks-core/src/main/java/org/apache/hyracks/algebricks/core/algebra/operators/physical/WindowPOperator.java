@@ -32,13 +32,16 @@ import org.apache.hyracks.algebricks.common.utils.Pair;
 import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AggregateFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionRuntimeProvider;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
 import org.apache.hyracks.algebricks.core.algebra.expressions.StatefulFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AggregateOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.WindowOperator;
@@ -46,6 +49,7 @@ import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralPro
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningRequirementsCoordinator;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.LocalGroupingProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.LocalOrderProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
 import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirements;
@@ -53,13 +57,16 @@ import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertie
 import org.apache.hyracks.algebricks.core.algebra.properties.UnorderedPartitionedProperty;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
+import org.apache.hyracks.algebricks.core.jobgen.impl.OperatorSchemaImpl;
 import org.apache.hyracks.algebricks.data.IBinaryComparatorFactoryProvider;
 import org.apache.hyracks.algebricks.runtime.base.AlgebricksPipeline;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.AbstractWindowRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansRunningRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansSegmentTreeRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansUnboundedRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowSimpleRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowAggregatorDescriptorFactory;
@@ -82,19 +89,62 @@ public class WindowPOperator extends AbstractPhysicalOperator {
 
     private final boolean nestedTrivialAggregates;
 
+    private final boolean frameSegmentTree;
+
+    // The variables that hold the nested aggregates over the tuples before the frame start, null if not removable.
+    private final List<LogicalVariable> frameRemovedVariables;
+
+    // The expressions that compute the nested aggregates of a sliding frame, null if not removable.
+    private final List<Mutable<ILogicalExpression>> frameRemoveExpressions;
+
     // The maximum number of in-memory frames that this operator can use.
     private final int memSizeInFrames;
 
+    // The number of in-memory frames for grouping the partitions by hashing, zero if the input is sorted instead.
+    private final int groupingMemSizeInFrames;
+
     public WindowPOperator(List<LogicalVariable> partitionColumns, boolean partitionMaterialization,
             List<OrderColumn> orderColumns, boolean frameStartIsMonotonic, boolean frameEndIsMonotonic,
             boolean nestedTrivialAggregates, int memSizeInFrames) {
+        this(partitionColumns, partitionMaterialization, orderColumns, frameStartIsMonotonic, frameEndIsMonotonic,
+                nestedTrivialAggregates, null, null, false, memSizeInFrames, 0);
+    }
+
+    /**
+     * @param frameRemovedVariables
+     *            if not null, a variable for each output variable of the nested plans that holds its value over the
+     *            tuples before the frame start
+     * @param frameRemoveExpressions
+     *            if not null, the nested plans are trivial aggregates and the frame is a sliding frame with
+     *            monotonic boundaries, no exclusions, no offset and no limit. Each expression computes an output
+     *            variable of the nested plans for the frame from its value over the tuples before the frame end
+     *            (the output variable itself) and its value over the tuples before the frame start
+     *            (the corresponding removed variable), so the tuples that leave the frame are removed from the
+     *            aggregates instead of aggregating each frame again
+     * @param frameSegmentTree
+     *            if true, the nested plans are trivial aggregates with merge expressions and the frame is a sliding
+     *            frame with monotonic boundaries, no exclusions, no offset and no limit, so the aggregates of each
+     *            frame are computed with a segment tree built over the partition
+     * @param groupingMemSizeInFrames
+     *            if positive, the operator hashes its input on the partition columns and sorts each group of
+     *            partitions with this much memory, so it does not require its input to be sorted
+     */
+    public WindowPOperator(List<LogicalVariable> partitionColumns, boolean partitionMaterialization,
+            List<OrderColumn> orderColumns, boolean frameStartIsMonotonic, boolean frameEndIsMonotonic,
+            boolean nestedTrivialAggregates, List<LogicalVariable> frameRemovedVariables,
+            List<Mutable<ILogicalExpression>> frameRemoveExpressions, boolean frameSegmentTree, int memSizeInFrames,
+            int groupingMemSizeInFrames) {
         this.partitionColumns = partitionColumns;
         this.partitionMaterialization = partitionMaterialization;
         this.orderColumns = orderColumns;
         this.frameStartIsMonotonic = frameStartIsMonotonic;
         this.frameEndIsMonotonic = frameEndIsMonotonic;
         this.nestedTrivialAggregates = nestedTrivialAggregates;
+        this.frameRemovedVariables = frameRemovedVariables;
+        this.frameRemoveExpressions = frameRemoveExpressions;
+        this.frameSegmentTree = frameSegmentTree;
         this.memSizeInFrames = memSizeInFrames;
+        this.groupingMemSizeInFrames = groupingMemSizeInFrames;
     }
 
     @Override
@@ -102,6 +152,11 @@ public class WindowPOperator extends AbstractPhysicalOperator {
         return PhysicalOperatorTag.WINDOW;
     }
 
+    @Override
+    public String toString() {
+        return frameSegmentTree ? getOperatorTag().toString() + " [segment tree]" : getOperatorTag().toString();
+    }
+
     @Override
     public PhysicalRequirements getRequiredPropertiesForChildren(ILogicalOperator op,
             IPhysicalPropertiesVector reqdByParent, IOptimizationContext context) throws AlgebricksException {
@@ -124,6 +179,16 @@ public class WindowPOperator extends AbstractPhysicalOperator {
         // require local order property [pc1, ... pcN, oc1, ... ocN]
         // accounting for cases where there's an overlap between order and partition columns
         // TODO replace with required local grouping on partition columns + local order on order columns
+        List<OrderColumn> lopColumns = getLocalOrderColumns(op);
+        List<ILocalStructuralProperty> localProps = lopColumns.isEmpty() || isHashGrouping() ? null
+                : Collections.singletonList(new LocalOrderProperty(lopColumns));
+
+        return new PhysicalRequirements(
+                new StructuralPropertiesVector[] { new StructuralPropertiesVector(pp, localProps) },
+                IPartitioningRequirementsCoordinator.NO_COORDINATION);
+    }
+
+    private List<OrderColumn> getLocalOrderColumns(ILogicalOperator op) throws AlgebricksException {
         List<OrderColumn> lopColumns = new ArrayList<>();
         ListSet<LogicalVariable> pcVars = new ListSet<>();
         pcVars.addAll(partitionColumns);
@@ -140,18 +205,21 @@ public class WindowPOperator extends AbstractPhysicalOperator {
         for (LogicalVariable pColumn : pcVars) {
             lopColumns.add(pIdx++, new OrderColumn(pColumn, OrderOperator.IOrder.OrderKind.ASC));
         }
-        List<ILocalStructuralProperty> localProps =
-                lopColumns.isEmpty() ? null : Collections.singletonList(new LocalOrderProperty(lopColumns));
-
-        return new PhysicalRequirements(
-                new StructuralPropertiesVector[] { new StructuralPropertiesVector(pp, localProps) },
-                IPartitioningRequirementsCoordinator.NO_COORDINATION);
+        return lopColumns;
     }
 
     @Override
     public void computeDeliveredProperties(ILogicalOperator op, IOptimizationContext context) {
         AbstractLogicalOperator op2 = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
-        deliveredProperties = op2.getDeliveredPhysicalProperties().clone();
+        if (isHashGrouping()) {
+            // the output is grouped on the partition columns, but the order of the input is lost
+            IPartitioningProperty pp = op2.getDeliveredPhysicalProperties().getPartitioningProperty();
+            List<ILocalStructuralProperty> localProps = new ArrayList<>(1);
+            localProps.add(new LocalGroupingProperty(new ListSet<>(partitionColumns)));
+            deliveredProperties = new StructuralPropertiesVector(pp, localProps);
+        } else {
+            deliveredProperties = op2.getDeliveredPhysicalProperties().clone();
+        }
     }
 
     @Override
@@ -243,6 +311,27 @@ public class WindowPOperator extends AbstractPhysicalOperator {
                             runningAggOutColumns, runningAggFactories, aggregatorOutputSchemaSize, nestedAggFactory,
                             memSizeInFrames);
                 }
+            } else if (frameRemoveExpressions != null && !frameEndExprList.isEmpty()
+                    && frameExcludeExprList.isEmpty() && frameOffsetExpr == null && frameMaxObjects < 0) {
+                // special case #3: sliding frame with monotonic boundaries, no exclusions, no offset,
+                //                  trivial aggregate subplans ( aggregate + nts ) with remove expressions
+                nestedAggFactory.setPartialOutputEnabled(true);
+                runtime = new WindowNestedPlansRunningRuntimeFactory(partitionColumnsList,
+                        partitionComparatorFactories, orderComparatorFactories,
+                        frameValueExprEvalsAndComparators.first, frameValueExprEvalsAndComparators.second,
+                        frameStartExprEvals, frameEndExprEvals, createFrameRemoveEvaluatorFactories(winOp, context),
+                        frameMaxObjects, projectionColumnsExcludingSubplans, runningAggOutColumns,
+                        runningAggFactories, aggregatorOutputSchemaSize, nestedAggFactory, memSizeInFrames);
+            } else if (frameSegmentTree && frameExcludeExprList.isEmpty() && frameOffsetExpr == null
+                    && frameMaxObjects < 0) {
+                // special case #4: sliding frame with monotonic boundaries, no exclusions, no offset,
+                //                  trivial aggregate subplans ( aggregate + nts ) with merge aggregates
+                runtime = new WindowNestedPlansSegmentTreeRuntimeFactory(partitionColumnsList,
+                        partitionComparatorFactories, orderComparatorFactories,
+                        frameValueExprEvalsAndComparators.first, frameValueExprEvalsAndComparators.second,
+                        frameStartExprEvals, frameEndExprEvals, createMergeAggregateFactories(winOp, context),
+                        projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories,
+                        aggregatorOutputSchemaSize, nestedAggFactory, memSizeInFrames);
             }
             // default case
             if (runtime == null) {
@@ -264,6 +353,18 @@ public class WindowPOperator extends AbstractPhysicalOperator {
                     orderComparatorFactories, projectionColumnsExcludingSubplans, runningAggOutColumns,
                     runningAggFactories);
         }
+        if (isHashGrouping()) {
+            List<OrderColumn> sortColumns = getLocalOrderColumns(op);
+            List<LogicalVariable> sortVars = new ArrayList<>(sortColumns.size());
+            for (OrderColumn oc : sortColumns) {
+                sortVars.add(oc.getColumn());
+            }
+            runtime.setHashGrouping(
+                    JobGenHelper.variablesToBinaryHashFunctionFamilies(partitionColumns, opTypeEnv, context),
+                    JobGenHelper.projectVariables(inputSchemas[0], sortVars),
+                    JobGenHelper.variablesToBinaryComparatorFactories(sortColumns, opTypeEnv, context),
+                    groupingMemSizeInFrames);
+        }
         runtime.setSourceLocation(winOp.getSourceLocation());
 
         // contribute one Asterix framewriter
@@ -288,6 +389,69 @@ public class WindowPOperator extends AbstractPhysicalOperator {
         return partitionMaterialization;
     }
 
+    public boolean isFrameSegmentTree() {
+        return frameSegmentTree;
+    }
+
+    public boolean isHashGrouping() {
+        return groupingMemSizeInFrames > 0;
+    }
+
+    public int getGroupingMemSizeInFrames() {
+        return groupingMemSizeInFrames;
+    }
+
+    /**
+     * Creates the evaluators of the remove expressions. Their input tuples contain the outputs of the nested plans
+     * over the tuples before the frame end followed by their outputs over the tuples before the frame start.
+     */
+    private IScalarEvaluatorFactory[] createFrameRemoveEvaluatorFactories(WindowOperator winOp,
+            JobGenContext context) throws AlgebricksException {
+        IOperatorSchema removeInputSchema = new OperatorSchemaImpl();
+        for (ILogicalPlan p : winOp.getNestedPlans()) {
+            for (Mutable<ILogicalOperator> r : p.getRoots()) {
+                for (LogicalVariable v : ((AggregateOperator) r.getValue()).getVariables()) {
+                    removeInputSchema.addVariable(v);
+                }
+            }
+        }
+        for (LogicalVariable v : frameRemovedVariables) {
+            removeInputSchema.addVariable(v);
+        }
+        return createEvaluatorFactories(frameRemoveExpressions, new IOperatorSchema[] { removeInputSchema },
+                context.getTypeEnvironment(winOp), context.getExpressionRuntimeProvider(), context);
+    }
+
+    /**
+     * Creates the merge aggregates of the nested plans. Their input tuples contain the outputs of the nested plans.
+     */
+    private IAggregateEvaluatorFactory[] createMergeAggregateFactories(WindowOperator winOp, JobGenContext context)
+            throws AlgebricksException {
+        List<AggregateOperator> aggOps = new ArrayList<>();
+        IOperatorSchema mergeInputSchema = new OperatorSchemaImpl();
+        for (ILogicalPlan p : winOp.getNestedPlans()) {
+            for (Mutable<ILogicalOperator> r : p.getRoots()) {
+                AggregateOperator aggOp = (AggregateOperator) r.getValue();
+                aggOps.add(aggOp);
+                for (LogicalVariable v : aggOp.getVariables()) {
+                    mergeInputSchema.addVariable(v);
+                }
+            }
+        }
+        IOperatorSchema[] mergeInputSchemas = new IOperatorSchema[] { mergeInputSchema };
+        IExpressionRuntimeProvider exprRuntimeProvider = context.getExpressionRuntimeProvider();
+        List<IAggregateEvaluatorFactory> mergeAggFactories = new ArrayList<>(mergeInputSchema.getSize());
+        for (AggregateOperator aggOp : aggOps) {
+            IVariableTypeEnvironment aggTypeEnv = context.getTypeEnvironment(aggOp);
+            for (Mutable<ILogicalExpression> mergeExprRef : aggOp.getMergeExpressions()) {
+                AggregateFunctionCallExpression mergeExpr = (AggregateFunctionCallExpression) mergeExprRef.getValue();
+                mergeAggFactories.add(exprRuntimeProvider.createAggregateFunctionFactory(mergeExpr, aggTypeEnv,
+                        mergeInputSchemas, context));
+            }
+        }
+        return mergeAggFactories.toArray(new IAggregateEvaluatorFactory[0]);
+    }
+
     private IScalarEvaluatorFactory[] createEvaluatorFactories(List<Mutable<ILogicalExpression>> exprList,
             IOperatorSchema[] inputSchemas, IVariableTypeEnvironment inputTypeEnv,
             IExpressionRuntimeProvider exprRuntimeProvider, JobGenContext context) throws AlgebricksException {
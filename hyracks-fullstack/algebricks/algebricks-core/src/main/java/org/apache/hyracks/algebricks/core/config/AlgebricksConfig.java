@@ -26,5 +26,14 @@ public class AlgebricksConfig {
     public static final String ALGEBRICKS_LOGGER_NAME = "org.apache.hyracks.algebricks";
     public static final Logger ALGEBRICKS_LOGGER = LogManager.getLogger(ALGEBRICKS_LOGGER_NAME);
     public static final int SORT_SAMPLES = 100;
+    public static final int SORT_THREADS = 1;
     public static final boolean SORT_PARALLEL = true;
+    public static final boolean HASH_DISTINCT = false;
+    public static final boolean MERGE_JOIN = false;
+    public static final boolean JOIN_PRUNING = false;
+    public static final boolean WINDOW_HASH = false;
+    public static final boolean WINDOW_SEGMENT_TREE = false;
+    public static final boolean FRAME_COMPRESSION = false;
+    public static final boolean GROUPBY_STREAM = false;
+    public static final double GROUPBY_PASSTHROUGH_RATIO = 0.8;
 }
@@ -49,7 +49,8 @@ public class HeuristicOptimizer {
             PhysicalOperatorTag.HYBRID_HASH_JOIN, PhysicalOperatorTag.IN_MEMORY_HASH_JOIN,
             PhysicalOperatorTag.NESTED_LOOP, PhysicalOperatorTag.PRE_SORTED_DISTINCT_BY,
             PhysicalOperatorTag.PRE_CLUSTERED_GROUP_BY, PhysicalOperatorTag.REPLICATE, PhysicalOperatorTag.STABLE_SORT,
-            PhysicalOperatorTag.UNION_ALL, PhysicalOperatorTag.FORWARD };
+            PhysicalOperatorTag.UNION_ALL, PhysicalOperatorTag.FORWARD, PhysicalOperatorTag.SPATIAL_JOIN,
+            PhysicalOperatorTag.HASH_DISTINCT_BY, PhysicalOperatorTag.MERGE_JOIN };
     public static final PhysicalOperatorTag[] hyraxOperatorsBelowWhichJobGenIsDisabled = new PhysicalOperatorTag[] {};
 
     public HeuristicOptimizer(ILogicalPlan plan,
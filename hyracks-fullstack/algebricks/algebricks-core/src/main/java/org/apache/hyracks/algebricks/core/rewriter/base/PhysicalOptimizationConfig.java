@@ -39,6 +39,15 @@ public class PhysicalOptimizationConfig {
     private static final String DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE = "DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE";
     private static final String SORT_PARALLEL = "SORT_PARALLEL";
     private static final String SORT_SAMPLES = "SORT_SAMPLES";
+    private static final String SORT_THREADS = "SORT_THREADS";
+    private static final String HASH_DISTINCT = "HASH_DISTINCT";
+    private static final String MERGE_JOIN = "MERGE_JOIN";
+    private static final String JOIN_PRUNING = "JOIN_PRUNING";
+    private static final String WINDOW_HASH = "WINDOW_HASH";
+    private static final String WINDOW_SEGMENT_TREE = "WINDOW_SEGMENT_TREE";
+    private static final String FRAME_COMPRESSION = "FRAME_COMPRESSION";
+    private static final String GROUPBY_STREAM = "GROUPBY_STREAM";
+    private static final String GROUPBY_PASSTHROUGH_RATIO = "GROUPBY_PASSTHROUGH_RATIO";
 
     private Properties properties = new Properties();
 
@@ -172,6 +181,78 @@ public class PhysicalOptimizationConfig {
         setInt(SORT_SAMPLES, sortSamples);
     }
 
+    public int getSortThreads() {
+        return getInt(SORT_THREADS, AlgebricksConfig.SORT_THREADS);
+    }
+
+    public void setSortThreads(int sortThreads) {
+        setInt(SORT_THREADS, sortThreads);
+    }
+
+    public boolean getHashDistinct() {
+        return getBoolean(HASH_DISTINCT, AlgebricksConfig.HASH_DISTINCT);
+    }
+
+    public void setHashDistinct(boolean hashDistinct) {
+        setBoolean(HASH_DISTINCT, hashDistinct);
+    }
+
+    public boolean getMergeJoin() {
+        return getBoolean(MERGE_JOIN, AlgebricksConfig.MERGE_JOIN);
+    }
+
+    public void setMergeJoin(boolean mergeJoin) {
+        setBoolean(MERGE_JOIN, mergeJoin);
+    }
+
+    public boolean getJoinPruning() {
+        return getBoolean(JOIN_PRUNING, AlgebricksConfig.JOIN_PRUNING);
+    }
+
+    public void setJoinPruning(boolean joinPruning) {
+        setBoolean(JOIN_PRUNING, joinPruning);
+    }
+
+    public boolean getWindowHash() {
+        return getBoolean(WINDOW_HASH, AlgebricksConfig.WINDOW_HASH);
+    }
+
+    public void setWindowHash(boolean windowHash) {
+        setBoolean(WINDOW_HASH, windowHash);
+    }
+
+    public boolean getWindowSegmentTree() {
+        return getBoolean(WINDOW_SEGMENT_TREE, AlgebricksConfig.WINDOW_SEGMENT_TREE);
+    }
+
+    public void setWindowSegmentTree(boolean windowSegmentTree) {
+        setBoolean(WINDOW_SEGMENT_TREE, windowSegmentTree);
+    }
+
+    public boolean getFrameCompression() {
+        return getBoolean(FRAME_COMPRESSION, AlgebricksConfig.FRAME_COMPRESSION);
+    }
+
+    public void setFrameCompression(boolean frameCompression) {
+        setBoolean(FRAME_COMPRESSION, frameCompression);
+    }
+
+    public boolean getGroupByStream() {
+        return getBoolean(GROUPBY_STREAM, AlgebricksConfig.GROUPBY_STREAM);
+    }
+
+    public void setGroupByStream(boolean groupByStream) {
+        setBoolean(GROUPBY_STREAM, groupByStream);
+    }
+
+    public double getGroupByPassThroughRatio() {
+        return getDouble(GROUPBY_PASSTHROUGH_RATIO, AlgebricksConfig.GROUPBY_PASSTHROUGH_RATIO);
+    }
+
+    public void setGroupByPassThroughRatio(double groupByPassThroughRatio) {
+        setDouble(GROUPBY_PASSTHROUGH_RATIO, groupByPassThroughRatio);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
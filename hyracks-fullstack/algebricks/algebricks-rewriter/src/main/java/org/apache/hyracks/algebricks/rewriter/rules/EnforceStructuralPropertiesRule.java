@@ -562,7 +562,8 @@ public class EnforceStructuralPropertiesRule implements IAlgebraicRewriteRule {
         if (isMicroOp) {
             oo.setPhysicalOperator(new InMemoryStableSortPOperator());
         } else {
-            oo.setPhysicalOperator(new StableSortPOperator(physicalOptimizationConfig.getMaxFramesExternalSort()));
+            oo.setPhysicalOperator(new StableSortPOperator(physicalOptimizationConfig.getMaxFramesExternalSort(), -1,
+                    physicalOptimizationConfig.getSortThreads()));
         }
         oo.getInputs().add(topOp);
         context.computeAndSetTypeEnvironmentForOperator(oo);
@@ -62,6 +62,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.physical.DistributeR
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.EmptyTupleSourcePOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.ExternalGroupByPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.ForwardPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashDistinctPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.InMemoryStableSortPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.IndexBulkloadPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.IndexInsertDeleteUpsertPOperator;
@@ -140,7 +141,10 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
                 }
                 case DISTINCT: {
                     DistinctOperator distinct = (DistinctOperator) op;
-                    if (topLevelOp) {
+                    if (topLevelOp && physicalOptimizationConfig.getHashDistinct()
+                            && !isInputSortedOnDistinctVars(distinct)) {
+                        setHashDistinct(distinct, context);
+                    } else if (topLevelOp) {
                         distinct.setPhysicalOperator(new PreSortedDistinctByPOperator(distinct.getDistinctByVarList()));
                     } else {
                         distinct.setPhysicalOperator(
@@ -178,7 +182,9 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
                                     ExternalGroupByPOperator externalGby = new ExternalGroupByPOperator(
                                             gby.getGroupByList(), physicalOptimizationConfig.getMaxFramesForGroupBy(),
                                             (long) physicalOptimizationConfig.getMaxFramesForGroupBy()
-                                                    * physicalOptimizationConfig.getFrameSize());
+                                                    * physicalOptimizationConfig.getFrameSize(),
+                                            physicalOptimizationConfig.getGroupByStream(),
+                                            physicalOptimizationConfig.getGroupByPassThroughRatio());
                                     op.setPhysicalOperator(externalGby);
                                     break;
                                 }
@@ -229,7 +235,8 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
                     }
                     if (topLevelOp) {
                         op.setPhysicalOperator(new StableSortPOperator(
-                                physicalOptimizationConfig.getMaxFramesExternalSort(), oo.getTopK()));
+                                physicalOptimizationConfig.getMaxFramesExternalSort(), oo.getTopK(),
+                                physicalOptimizationConfig.getSortThreads()));
                     } else {
                         op.setPhysicalOperator(new InMemoryStableSortPOperator());
                     }
@@ -413,6 +420,65 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
         }
     }
 
+    private static void setHashDistinct(DistinctOperator distinct, IOptimizationContext context)
+            throws AlgebricksException {
+        int framesLimit = context.getPhysicalOptimizationConfig().getMaxFramesForGroupBy();
+        distinct.setPhysicalOperator(new HashDistinctPOperator(distinct.getDistinctByVarList(), framesLimit));
+        if (distinct.getExecutionMode() != AbstractLogicalOperator.ExecutionMode.PARTITIONED) {
+            return;
+        }
+        // Removes the duplicates of each partition before they are hash-partitioned on the distinct variables.
+        List<Mutable<ILogicalExpression>> localExprs = new ArrayList<>();
+        for (LogicalVariable var : distinct.getDistinctByVarList()) {
+            localExprs.add(new MutableObject<>(new VariableReferenceExpression(var)));
+        }
+        DistinctOperator localDistinct = new DistinctOperator(localExprs);
+        localDistinct.setSourceLocation(distinct.getSourceLocation());
+        localDistinct.setExecutionMode(AbstractLogicalOperator.ExecutionMode.LOCAL);
+        localDistinct.setPhysicalOperator(new HashDistinctPOperator(distinct.getDistinctByVarList(), framesLimit));
+        localDistinct.getInputs().add(new MutableObject<>(distinct.getInputs().get(0).getValue()));
+        distinct.getInputs().get(0).setValue(localDistinct);
+        localDistinct.recomputeSchema();
+        context.computeAndSetTypeEnvironmentForOperator(localDistinct);
+    }
+
+    /**
+     * Checks whether the input of a distinct is already sorted on the distinct variables, in which case the
+     * sort-based distinct does not need to sort again.
+     */
+    private static boolean isInputSortedOnDistinctVars(DistinctOperator distinct) {
+        List<LogicalVariable> distinctVars = distinct.getDistinctByVarList();
+        ILogicalOperator child = distinct.getInputs().get(0).getValue();
+        while (true) {
+            switch (child.getOperatorTag()) {
+                case ASSIGN:
+                case SELECT:
+                case PROJECT:
+                case LIMIT:
+                    child = child.getInputs().get(0).getValue();
+                    break;
+                case ORDER: {
+                    List<Pair<IOrder, Mutable<ILogicalExpression>>> orderExprs =
+                            ((OrderOperator) child).getOrderExpressions();
+                    if (orderExprs.size() < distinctVars.size()) {
+                        return false;
+                    }
+                    List<LogicalVariable> orderVars = new ArrayList<>();
+                    for (int i = 0; i < distinctVars.size(); i++) {
+                        ILogicalExpression expr = orderExprs.get(i).second.getValue();
+                        if (expr.getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+                            return false;
+                        }
+                        orderVars.add(((VariableReferenceExpression) expr).getVariableReference());
+                    }
+                    return orderVars.containsAll(distinctVars);
+                }
+                default:
+                    return false;
+            }
+        }
+    }
+
     private static void getKeys(List<Mutable<ILogicalExpression>> keyExpressions, List<LogicalVariable> keys) {
         for (Mutable<ILogicalExpression> kExpr : keyExpressions) {
             keys.add(getKey(kExpr.getValue()));
@@ -20,11 +20,13 @@ package org.apache.hyracks.algebricks.rewriter.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.common.utils.Pair;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
@@ -38,13 +40,24 @@ import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceE
 import org.apache.hyracks.algebricks.core.algebra.functions.AlgebricksBuiltinFunctions;
 import org.apache.hyracks.algebricks.core.algebra.functions.AlgebricksBuiltinFunctions.ComparisonKind;
 import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSourcePropertiesProvider;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder.OrderKind;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.LogicalPropertiesVisitor;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractJoinPOperator.JoinPartitioningType;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.HybridHashJoinPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.InMemoryHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.MergeJoinPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.NestedLoopJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty.PropertyType;
 import org.apache.hyracks.algebricks.core.algebra.properties.ILogicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.LocalOrderProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
 import org.apache.hyracks.algebricks.core.config.AlgebricksConfig;
 
 public class JoinUtils {
@@ -63,7 +76,12 @@ public class JoinUtils {
         if (isHashJoinCondition(op.getCondition().getValue(), varsLeft, varsRight, sideLeft, sideRight)) {
             BroadcastSide side = getBroadcastJoinSide(op.getCondition().getValue(), varsLeft, varsRight);
             if (side == null) {
-                setHashJoinOp(op, JoinPartitioningType.PAIRWISE, sideLeft, sideRight, context);
+                if (context.getPhysicalOptimizationConfig().getMergeJoin()
+                        && alignKeysWithInputOrder(op, sideLeft, sideRight)) {
+                    setMergeJoinOp(op, sideLeft, sideRight, context);
+                } else {
+                    setHashJoinOp(op, JoinPartitioningType.PAIRWISE, sideLeft, sideRight, context);
+                }
             } else {
                 switch (side) {
                     case RIGHT:
@@ -86,11 +104,195 @@ public class JoinUtils {
                         throw new IllegalStateException(side.toString());
                 }
             }
-        } else {
+        } else if (!context.getPhysicalOptimizationConfig().getMergeJoin()
+                || !setBandMergeJoinOp(op, varsLeft, varsRight, context)) {
             setNestedLoopJoinOp(op, context);
         }
     }
 
+    private static void setMergeJoinOp(AbstractBinaryJoinOperator op, List<LogicalVariable> sideLeft,
+            List<LogicalVariable> sideRight, IOptimizationContext context) {
+        op.setPhysicalOperator(new MergeJoinPOperator(op.getJoinKind(), sideLeft, sideRight,
+                context.getPhysicalOptimizationConfig().getMaxFramesForJoin()));
+    }
+
+    /**
+     * Uses a merge join for a condition that bounds a left variable by right variables from below, from above or
+     * both, e.g. {@code $l >= $lo and $l <= $hi}. The right input is broadcast and both inputs are sorted.
+     *
+     * @return whether the condition has this form
+     */
+    private static boolean setBandMergeJoinOp(AbstractBinaryJoinOperator op, List<LogicalVariable> varsLeft,
+            List<LogicalVariable> varsRight, IOptimizationContext context) {
+        ILogicalExpression e = op.getCondition().getValue();
+        if (e.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return false;
+        }
+        List<Mutable<ILogicalExpression>> conjuncts = new ArrayList<>();
+        AbstractFunctionCallExpression fexp = (AbstractFunctionCallExpression) e;
+        if (fexp.getFunctionIdentifier().equals(AlgebricksBuiltinFunctions.AND)) {
+            conjuncts.addAll(fexp.getArguments());
+        } else {
+            conjuncts.add(op.getCondition());
+        }
+        LogicalVariable keyLeft = null;
+        LogicalVariable low = null;
+        LogicalVariable high = null;
+        boolean lowInclusive = false;
+        boolean highInclusive = false;
+        for (Mutable<ILogicalExpression> conjunct : conjuncts) {
+            if (conjunct.getValue().getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+                return false;
+            }
+            AbstractFunctionCallExpression cmp = (AbstractFunctionCallExpression) conjunct.getValue();
+            ComparisonKind ck = AlgebricksBuiltinFunctions.getComparisonType(cmp.getFunctionIdentifier());
+            if (ck == null || ck == ComparisonKind.EQ || ck == ComparisonKind.NEQ) {
+                return false;
+            }
+            ILogicalExpression arg0 = cmp.getArguments().get(0).getValue();
+            ILogicalExpression arg1 = cmp.getArguments().get(1).getValue();
+            if (arg0.getExpressionTag() != LogicalExpressionTag.VARIABLE
+                    || arg1.getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+                return false;
+            }
+            LogicalVariable var0 = ((VariableReferenceExpression) arg0).getVariableReference();
+            LogicalVariable var1 = ((VariableReferenceExpression) arg1).getVariableReference();
+            LogicalVariable varLeft;
+            LogicalVariable varRight;
+            if (varsLeft.contains(var0) && varsRight.contains(var1)) {
+                varLeft = var0;
+                varRight = var1;
+            } else if (varsLeft.contains(var1) && varsRight.contains(var0)) {
+                // Mirrors the comparison so that the left variable comes first.
+                varLeft = var1;
+                varRight = var0;
+                ck = mirror(ck);
+            } else {
+                return false;
+            }
+            if (keyLeft != null && keyLeft != varLeft) {
+                return false;
+            }
+            keyLeft = varLeft;
+            boolean isLowBound = ck == ComparisonKind.GT || ck == ComparisonKind.GE;
+            if (isLowBound ? low != null : high != null) {
+                return false;
+            }
+            if (isLowBound) {
+                low = varRight;
+                lowInclusive = ck == ComparisonKind.GE;
+            } else {
+                high = varRight;
+                highInclusive = ck == ComparisonKind.LE;
+            }
+        }
+        List<LogicalVariable> keysLeft = Collections.singletonList(keyLeft);
+        op.setPhysicalOperator(new MergeJoinPOperator(op.getJoinKind(), JoinPartitioningType.BROADCAST, keysLeft,
+                low != null ? Collections.singletonList(low) : null, lowInclusive,
+                high != null ? Collections.singletonList(high) : null, highInclusive,
+                context.getPhysicalOptimizationConfig().getMaxFramesForJoin()));
+        return true;
+    }
+
+    private static ComparisonKind mirror(ComparisonKind ck) {
+        switch (ck) {
+            case LT:
+                return ComparisonKind.GT;
+            case LE:
+                return ComparisonKind.GE;
+            case GT:
+                return ComparisonKind.LT;
+            case GE:
+                return ComparisonKind.LE;
+            default:
+                return ck;
+        }
+    }
+
+    /**
+     * Checks whether both inputs of an equi-join are already sorted on the join keys, in which case a merge join
+     * does not need to sort or repartition them. The keys are reordered to follow the order of the inputs.
+     */
+    private static boolean alignKeysWithInputOrder(AbstractBinaryJoinOperator op, List<LogicalVariable> sideLeft,
+            List<LogicalVariable> sideRight) throws AlgebricksException {
+        List<LogicalVariable> orderLeft = getInputOrder(op.getInputs().get(0).getValue());
+        List<LogicalVariable> orderRight = getInputOrder(op.getInputs().get(1).getValue());
+        int numKeys = sideLeft.size();
+        if (orderLeft.size() < numKeys || orderRight.size() < numKeys) {
+            return false;
+        }
+        List<LogicalVariable> alignedLeft = new ArrayList<>(numKeys);
+        List<LogicalVariable> alignedRight = new ArrayList<>(numKeys);
+        for (int i = 0; i < numKeys; i++) {
+            int keyIndex = sideLeft.indexOf(orderLeft.get(i));
+            if (keyIndex < 0 || sideRight.get(keyIndex) != orderRight.get(i)) {
+                return false;
+            }
+            alignedLeft.add(sideLeft.get(keyIndex));
+            alignedRight.add(sideRight.get(keyIndex));
+        }
+        sideLeft.clear();
+        sideLeft.addAll(alignedLeft);
+        sideRight.clear();
+        sideRight.addAll(alignedRight);
+        return true;
+    }
+
+    /**
+     * Returns the leading variables that an input is sorted on in ascending order, as far as it can be told from the
+     * data source or an order operator below operators that keep the order of their input.
+     */
+    private static List<LogicalVariable> getInputOrder(ILogicalOperator op) throws AlgebricksException {
+        List<LogicalVariable> order = new ArrayList<>();
+        ILogicalOperator current = op;
+        while (true) {
+            switch (current.getOperatorTag()) {
+                case ASSIGN:
+                case SELECT:
+                case PROJECT:
+                    current = current.getInputs().get(0).getValue();
+                    break;
+                case DATASOURCESCAN: {
+                    DataSourceScanOperator scan = (DataSourceScanOperator) current;
+                    IDataSourcePropertiesProvider propertiesProvider = scan.getDataSource().getPropertiesProvider();
+                    if (propertiesProvider == null) {
+                        return order;
+                    }
+                    IPhysicalPropertiesVector properties =
+                            propertiesProvider.computePropertiesVector(scan.getVariables());
+                    if (properties.getLocalProperties() == null) {
+                        return order;
+                    }
+                    for (ILocalStructuralProperty property : properties.getLocalProperties()) {
+                        if (property.getPropertyType() == PropertyType.LOCAL_ORDER_PROPERTY) {
+                            for (OrderColumn column : ((LocalOrderProperty) property).getOrderColumns()) {
+                                if (column.getOrder() != OrderKind.ASC) {
+                                    break;
+                                }
+                                order.add(column.getColumn());
+                            }
+                            break;
+                        }
+                    }
+                    return order;
+                }
+                case ORDER: {
+                    for (Pair<IOrder, Mutable<ILogicalExpression>> orderExpr : ((OrderOperator) current)
+                            .getOrderExpressions()) {
+                        if (orderExpr.first.getKind() != OrderKind.ASC
+                                || orderExpr.second.getValue().getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+                            break;
+                        }
+                        order.add(((VariableReferenceExpression) orderExpr.second.getValue()).getVariableReference());
+                    }
+                    return order;
+                }
+                default:
+                    return order;
+            }
+        }
+    }
+
     private static void setNestedLoopJoinOp(AbstractBinaryJoinOperator op, IOptimizationContext context) {
         op.setPhysicalOperator(new NestedLoopJoinPOperator(op.getJoinKind(), JoinPartitioningType.BROADCAST,
                 context.getPhysicalOptimizationConfig().getMaxFramesForJoin()));
@@ -33,7 +33,9 @@ import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
 import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
-import org.apache.hyracks.dataflow.std.sort.FrameSorterMergeSort;
+import org.apache.hyracks.dataflow.std.sort.AbstractFrameSorter;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterFactory;
 
 public class InMemorySortRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
 
@@ -66,7 +68,7 @@ public class InMemorySortRuntimeFactory extends AbstractOneInputOneOutputRuntime
     public AbstractOneInputOneOutputPushRuntime createOneOutputPushRuntime(final IHyracksTaskContext ctx)
             throws HyracksDataException {
         return new AbstractOneInputOneOutputPushRuntime() {
-            FrameSorterMergeSort frameSorter = null;
+            AbstractFrameSorter frameSorter = null;
 
             @Override
             public void open() throws HyracksDataException {
@@ -75,8 +77,9 @@ public class InMemorySortRuntimeFactory extends AbstractOneInputOneOutputRuntime
                     IFrameBufferManager manager = new VariableFrameMemoryManager(
                             new VariableFramePool(ctx, VariableFramePool.UNLIMITED_MEMORY),
                             FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT));
-                    frameSorter = new FrameSorterMergeSort(ctx, manager, VariableFramePool.UNLIMITED_MEMORY, sortFields,
-                            keyNormalizerFactories, comparatorFactories, outputRecordDesc);
+                    frameSorter = FrameSorterFactory.createFrameSorter(Algorithm.MERGE_SORT, ctx, manager,
+                            VariableFramePool.UNLIMITED_MEMORY, sortFields, keyNormalizerFactories,
+                            comparatorFactories, outputRecordDesc);
                 }
                 frameSorter.reset();
             }
@@ -38,14 +38,28 @@ public class StreamLimitRuntimeFactory extends AbstractOneInputOneOutputRuntimeF
     private final IScalarEvaluatorFactory maxObjectsEvalFactory;
     private final IScalarEvaluatorFactory offsetEvalFactory;
     private final IBinaryIntegerInspectorFactory binaryIntegerInspectorFactory;
+    private final boolean closeOnLimit;
 
     public StreamLimitRuntimeFactory(IScalarEvaluatorFactory maxObjectsEvalFactory,
             IScalarEvaluatorFactory offsetEvalFactory, int[] projectionList,
             IBinaryIntegerInspectorFactory binaryIntegerInspectorFactory) {
+        this(maxObjectsEvalFactory, offsetEvalFactory, projectionList, binaryIntegerInspectorFactory, false);
+    }
+
+    /**
+     * @param closeOnLimit
+     *            whether the output is closed as soon as the limit is reached instead of when the input is closed,
+     *            so that the consumers do not wait for the producers to finish. It must not be set if the runtime is
+     *            opened more than once, e.g., in a nested plan.
+     */
+    public StreamLimitRuntimeFactory(IScalarEvaluatorFactory maxObjectsEvalFactory,
+            IScalarEvaluatorFactory offsetEvalFactory, int[] projectionList,
+            IBinaryIntegerInspectorFactory binaryIntegerInspectorFactory, boolean closeOnLimit) {
         super(projectionList);
         this.maxObjectsEvalFactory = maxObjectsEvalFactory;
         this.offsetEvalFactory = offsetEvalFactory;
         this.binaryIntegerInspectorFactory = binaryIntegerInspectorFactory;
+        this.closeOnLimit = closeOnLimit;
     }
 
     @Override
@@ -120,6 +134,20 @@ public class StreamLimitRuntimeFactory extends AbstractOneInputOneOutputRuntimeF
                         break;
                     }
                 }
+                if (closeOnLimit && !firstTuple && toSkip == 0 && toWrite == 0) {
+                    // the rest of the input is not needed, the frames that follow are dropped
+                    afterLastTuple = true;
+                    closeOutput();
+                }
+            }
+
+            private void closeOutput() throws HyracksDataException {
+                try {
+                    super.close();
+                } finally {
+                    // the output is neither failed nor closed again
+                    isOpen = false;
+                }
             }
 
             @Override
@@ -140,7 +168,9 @@ public class StreamLimitRuntimeFactory extends AbstractOneInputOneOutputRuntimeF
 
             @Override
             public void flush() throws HyracksDataException {
-                appender.flush(writer);
+                if (isOpen) {
+                    appender.flush(writer);
+                }
             }
 
         };
@@ -61,7 +61,7 @@ abstract class AbstractWindowNestedPlansPushRuntime extends WindowMaterializingP
     @Override
     protected void init() throws HyracksDataException {
         super.init();
-        nestedAgg = nestedAggFactory.createAggregator(ctx, null, null, null, null, null, -1);
+        nestedAgg = createNestedAggregator();
     }
 
     @Override
@@ -75,6 +75,13 @@ abstract class AbstractWindowNestedPlansPushRuntime extends WindowMaterializingP
         return new ArrayTupleBuilder(projectionList.length + nestedAggOutSchemaSize);
     }
 
+    /**
+     * Creates another aggregator for the nested plans, which has its own pipelines
+     */
+    final IAggregatorDescriptor createNestedAggregator() throws HyracksDataException {
+        return nestedAggFactory.createAggregator(ctx, null, null, null, null, null, -1);
+    }
+
     /**
      * Aggregator created by
      * {@link WindowAggregatorDescriptorFactory#createAggregator(IHyracksTaskContext, RecordDescriptor,
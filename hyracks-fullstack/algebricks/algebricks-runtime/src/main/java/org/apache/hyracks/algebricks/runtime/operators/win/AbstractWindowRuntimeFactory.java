@@ -19,9 +19,13 @@
 
 package org.apache.hyracks.algebricks.runtime.operators.win;
 
+import org.apache.hyracks.algebricks.runtime.base.IPushRuntime;
 import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 
 public abstract class AbstractWindowRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
 
@@ -37,6 +41,14 @@ public abstract class AbstractWindowRuntimeFactory extends AbstractOneInputOneOu
 
     final IRunningAggregateEvaluatorFactory[] runningAggFactories;
 
+    private IBinaryHashFunctionFamily[] partitionHashFunctionFamilies;
+
+    private int[] groupingSortColumns;
+
+    private IBinaryComparatorFactory[] groupingSortComparatorFactories;
+
+    private int groupingMemSizeInFrames;
+
     AbstractWindowRuntimeFactory(int[] partitionColumns, IBinaryComparatorFactory[] partitionComparatorFactories,
             IBinaryComparatorFactory[] orderComparatorFactories, int[] projectionColumns, int[] runningAggOutColumns,
             IRunningAggregateEvaluatorFactory[] runningAggFactories) {
@@ -47,4 +59,35 @@ public abstract class AbstractWindowRuntimeFactory extends AbstractOneInputOneOu
         this.partitionComparatorFactories = partitionComparatorFactories;
         this.orderComparatorFactories = orderComparatorFactories;
     }
+
+    /**
+     * Groups the input by hashing on the partition columns instead of requiring an input that is sorted on the
+     * partition and order columns, see {@link WindowHashGroupingPushRuntime}.
+     *
+     * @param partitionHashFunctionFamilies
+     *            hash functions of the partition columns
+     * @param sortColumns
+     *            the partition columns followed by the order columns
+     * @param sortComparatorFactories
+     *            comparators of the sort columns
+     * @param memSizeInFrames
+     *            the memory for grouping and sorting
+     */
+    public void setHashGrouping(IBinaryHashFunctionFamily[] partitionHashFunctionFamilies, int[] sortColumns,
+            IBinaryComparatorFactory[] sortComparatorFactories, int memSizeInFrames) {
+        this.partitionHashFunctionFamilies = partitionHashFunctionFamilies;
+        this.groupingSortColumns = sortColumns;
+        this.groupingSortComparatorFactories = sortComparatorFactories;
+        this.groupingMemSizeInFrames = memSizeInFrames;
+    }
+
+    @Override
+    public IPushRuntime[] createPushRuntime(IHyracksTaskContext ctx) throws HyracksDataException {
+        IPushRuntime runtime = createOneOutputPushRuntime(ctx);
+        if (partitionHashFunctionFamilies != null) {
+            runtime = new WindowHashGroupingPushRuntime(runtime, partitionColumns, partitionHashFunctionFamilies,
+                    groupingSortColumns, groupingSortComparatorFactories, ctx, groupingMemSizeInFrames);
+        }
+        return new IPushRuntime[] { runtime };
+    }
 }
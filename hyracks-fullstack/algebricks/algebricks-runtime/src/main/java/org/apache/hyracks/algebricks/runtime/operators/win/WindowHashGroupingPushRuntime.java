@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.win;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import org.apache.hyracks.algebricks.runtime.base.IPushRuntime;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.IPartitionedTupleBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunMerger;
+import org.apache.hyracks.dataflow.std.structures.TuplePointer;
+
+/**
+ * Groups the tuples of each window partition by hashing instead of sorting the whole input. Tuples are hashed on the
+ * partition columns into buckets that are kept in memory and spilled to run files when the memory is full. On close,
+ * every bucket is sorted on the partition and order columns and pushed to the window runtime, so the window runtime
+ * receives each partition as one ordered sequence of tuples. The in-memory buckets are processed first and usually fit
+ * into the sort memory, the spilled buckets are sorted externally afterwards.
+ */
+class WindowHashGroupingPushRuntime implements IPushRuntime {
+
+    // the hash exchange in front of this operator uses the default hash functions, so use a different seed to
+    // spread the tuples of one node over all buckets
+    private static final int HASH_SEED = 1;
+
+    // average number of frames a bucket takes when the bucket memory is full
+    private static final int FRAMES_PER_BUCKET = 4;
+
+    private final IPushRuntime windowRuntime;
+
+    private final IFrameWriter windowWriter;
+
+    private final int[] partitionColumns;
+
+    private final IBinaryHashFunctionFamily[] partitionHashFunctionFamilies;
+
+    private final int[] sortColumns;
+
+    private final IBinaryComparatorFactory[] sortComparatorFactories;
+
+    private final IHyracksTaskContext ctx;
+
+    private final int bucketFrames;
+
+    private final int sortFrames;
+
+    private final int numBuckets;
+
+    private RecordDescriptor inputRecordDesc;
+
+    private FrameTupleAccessor inputAccessor;
+
+    private ITuplePartitionComputer bucketComputer;
+
+    private IBinaryComparator[] sortComparators;
+
+    private IPartitionedTupleBufferManager bufferManager;
+
+    private PreferToSpillFullyOccupiedFramePolicy spillPolicy;
+
+    private BitSet spilledBuckets;
+
+    private RunFileWriter[] runWriters;
+
+    private TuplePointer tuplePointer;
+
+    private boolean isOpen;
+
+    private boolean failed;
+
+    WindowHashGroupingPushRuntime(IPushRuntime windowRuntime, int[] partitionColumns,
+            IBinaryHashFunctionFamily[] partitionHashFunctionFamilies, int[] sortColumns,
+            IBinaryComparatorFactory[] sortComparatorFactories, IHyracksTaskContext ctx, int memSizeInFrames) {
+        this.windowRuntime = windowRuntime;
+        this.partitionColumns = partitionColumns;
+        this.partitionHashFunctionFamilies = partitionHashFunctionFamilies;
+        this.sortColumns = sortColumns;
+        this.sortComparatorFactories = sortComparatorFactories;
+        this.ctx = ctx;
+        // the sort memory also holds the tuple pointers, so it gets twice the frames of the buckets
+        bucketFrames = Math.max(1, (memSizeInFrames - 1) / 3);
+        sortFrames = Math.max(2 * bucketFrames + 1, memSizeInFrames - bucketFrames);
+        numBuckets = Math.max(1, bucketFrames / FRAMES_PER_BUCKET);
+        windowWriter = new IFrameWriter() {
+            @Override
+            public void open() {
+                // the window runtime is opened once by this runtime
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                windowRuntime.nextFrame(buffer);
+            }
+
+            @Override
+            public void fail() {
+                // failures are propagated by this runtime
+            }
+
+            @Override
+            public void close() {
+                // the window runtime is closed once by this runtime
+            }
+        };
+    }
+
+    @Override
+    public void setOutputFrameWriter(int index, IFrameWriter writer, RecordDescriptor recordDesc) {
+        windowRuntime.setOutputFrameWriter(index, writer, recordDesc);
+    }
+
+    @Override
+    public void setInputRecordDescriptor(int index, RecordDescriptor recordDescriptor) {
+        inputRecordDesc = recordDescriptor;
+        windowRuntime.setInputRecordDescriptor(index, recordDescriptor);
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        if (inputAccessor == null) {
+            inputAccessor = new FrameTupleAccessor(inputRecordDesc);
+            bucketComputer = new FieldHashPartitionComputerFamily(partitionColumns, partitionHashFunctionFamilies)
+                    .createPartitioner(HASH_SEED);
+            sortComparators = new IBinaryComparator[sortComparatorFactories.length];
+            for (int i = 0; i < sortComparatorFactories.length; i++) {
+                sortComparators[i] = sortComparatorFactories[i].createBinaryComparator();
+            }
+            spilledBuckets = new BitSet(numBuckets);
+            runWriters = new RunFileWriter[numBuckets];
+            tuplePointer = new TuplePointer();
+        }
+        failed = false;
+        spilledBuckets.clear();
+        bufferManager = new VPartitionTupleBufferManager(ctx,
+                PreferToSpillFullyOccupiedFramePolicy.createAtMostOneFrameForSpilledPartitionConstrain(spilledBuckets),
+                numBuckets, bucketFrames * ctx.getInitialFrameSize());
+        spillPolicy = new PreferToSpillFullyOccupiedFramePolicy(bufferManager, spilledBuckets);
+        isOpen = true;
+        windowRuntime.open();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        inputAccessor.reset(buffer);
+        for (int i = 0, n = inputAccessor.getTupleCount(); i < n; i++) {
+            int bucket = bucketComputer.partition(inputAccessor, i, numBuckets);
+            while (!bufferManager.insertTuple(bucket, inputAccessor, i, tuplePointer)) {
+                int victim = spillPolicy.selectVictimPartition(bucket);
+                if (victim < 0) {
+                    throw new HyracksDataException(
+                            "No more space left in the memory buffer, please assign more memory to window.");
+                }
+                spillBucket(victim);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws HyracksDataException {
+        // tuples are held back until close, there is nothing to push forward
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        failed = true;
+        if (isOpen) {
+            windowRuntime.fail();
+        }
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (!failed) {
+                for (int b = spilledBuckets.nextSetBit(0); b >= 0; b = spilledBuckets.nextSetBit(b + 1)) {
+                    spillBucket(b);
+                }
+                for (int b = spilledBuckets.nextClearBit(0); b < numBuckets; b = spilledBuckets.nextClearBit(b + 1)) {
+                    if (bufferManager.getNumTuples(b) > 0) {
+                        sortInMemoryBucket(b);
+                    }
+                }
+                bufferManager.close();
+                for (int b = spilledBuckets.nextSetBit(0); b >= 0; b = spilledBuckets.nextSetBit(b + 1)) {
+                    sortSpilledBucket(b);
+                }
+            }
+        } catch (Exception e) {
+            fail();
+            throw e;
+        } finally {
+            try {
+                eraseRunFiles();
+                bufferManager.close();
+            } finally {
+                isOpen = false;
+                windowRuntime.close();
+            }
+        }
+    }
+
+    private void spillBucket(int bucket) throws HyracksDataException {
+        RunFileWriter writer = runWriters[bucket];
+        if (writer == null) {
+            FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(getClass().getSimpleName());
+            writer = new RunFileWriter(file, ctx.getIoManager());
+            writer.open();
+            runWriters[bucket] = writer;
+        }
+        bufferManager.flushPartition(bucket, writer);
+        bufferManager.clearPartition(bucket);
+        spilledBuckets.set(bucket);
+    }
+
+    private void sortInMemoryBucket(int bucket) throws HyracksDataException {
+        ExternalSortRunGenerator runGenerator = createRunGenerator();
+        try {
+            bufferManager.flushPartition(bucket, runGenerator);
+            bufferManager.clearPartition(bucket);
+            runGenerator.close();
+        } catch (Exception e) {
+            runGenerator.getSorter().close();
+            throw e;
+        }
+        merge(runGenerator);
+    }
+
+    private void sortSpilledBucket(int bucket) throws HyracksDataException {
+        RunFileWriter writer = runWriters[bucket];
+        runWriters[bucket] = null;
+        writer.close();
+        GeneratedRunFileReader reader = writer.createDeleteOnCloseReader();
+        ExternalSortRunGenerator runGenerator = createRunGenerator();
+        try {
+            IFrame frame = new VSizeFrame(ctx);
+            reader.open();
+            try {
+                while (reader.nextFrame(frame)) {
+                    runGenerator.nextFrame(frame.getBuffer());
+                }
+            } finally {
+                reader.close();
+            }
+            runGenerator.close();
+        } catch (Exception e) {
+            runGenerator.getSorter().close();
+            throw e;
+        }
+        merge(runGenerator);
+    }
+
+    private ExternalSortRunGenerator createRunGenerator() throws HyracksDataException {
+        ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, sortColumns, null,
+                sortComparatorFactories, inputRecordDesc, Algorithm.MERGE_SORT, sortFrames);
+        runGenerator.open();
+        return runGenerator;
+    }
+
+    private void merge(ExternalSortRunGenerator runGenerator) throws HyracksDataException {
+        new ExternalSortRunMerger(ctx, runGenerator.getSorter(), runGenerator.getRuns(), sortColumns,
+                sortComparators, null, inputRecordDesc, sortFrames, Integer.MAX_VALUE, windowWriter).process();
+    }
+
+    private void eraseRunFiles() throws HyracksDataException {
+        for (int b = 0; b < numBuckets; b++) {
+            RunFileWriter writer = runWriters[b];
+            if (writer != null) {
+                runWriters[b] = null;
+                writer.erase();
+            }
+        }
+    }
+}
@@ -22,20 +22,34 @@ package org.apache.hyracks.algebricks.runtime.operators.win;
 import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
 import org.apache.hyracks.dataflow.common.data.accessors.PointableTupleReference;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
 import org.apache.hyracks.storage.common.MultiComparator;
 
 /**
  * Optimized runtime for window operators that performs partition materialization and can evaluate running aggregates
  * as well as regular aggregates (in nested plans) over accumulating window frames
  * (unbounded preceding to current row or N following).
+ * <p>
+ * It also evaluates sliding window frames with monotonic boundaries if the nested aggregates are removable.
+ * Then the tuples that enter the frame are aggregated as in an accumulating frame, and the tuples that leave the
+ * frame are aggregated by a second aggregator. The remove evaluators compute the aggregates of the frame from
+ * the outputs of both aggregators, so each tuple is aggregated once instead of once for every frame it is in.
  */
 final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlansPushRuntime {
 
@@ -45,7 +59,9 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
 
     private static final int TMP_POSITION_SLOT = 2;
 
-    private static final int PARTITION_READER_SLOT_COUNT = TMP_POSITION_SLOT + 1;
+    private static final int FRAME_START_POSITION_SLOT = 3;
+
+    private static final int PARTITION_READER_SLOT_COUNT = FRAME_START_POSITION_SLOT + 1;
 
     private final IScalarEvaluatorFactory[] frameValueEvalFactories;
 
@@ -65,6 +81,32 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
 
     private final int frameMaxObjects;
 
+    private final boolean frameRemovable;
+
+    private final IScalarEvaluatorFactory[] frameStartEvalFactories;
+
+    private IScalarEvaluator[] frameStartEvals;
+
+    private PointableTupleReference frameStartPointables;
+
+    private final IScalarEvaluatorFactory[] frameRemoveEvalFactories;
+
+    private IScalarEvaluator[] frameRemoveEvals;
+
+    private IPointable frameRemoveResult;
+
+    private IAggregatorDescriptor removedAgg;
+
+    private ArrayTupleBuilder removeTupleBuilder;
+
+    private VSizeFrame removeFrame;
+
+    private FrameTupleAppender removeAppender;
+
+    private FrameTupleAccessor removeAccessor;
+
+    private FrameTupleReference removeRef;
+
     private FrameTupleAccessor tAccess2;
 
     private FrameTupleReference tRef2;
@@ -75,9 +117,18 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
 
     private int toWrite;
 
+    private int chunkIdxFrameStartGlobal;
+
+    private int tBeginIdxFrameStartGlobal;
+
+    private long addedCount;
+
+    private long removedCount;
+
     WindowNestedPlansRunningPushRuntime(int[] partitionColumns, IBinaryComparatorFactory[] partitionComparatorFactories,
             IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
-            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameEndEvalFactories,
+            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameStartEvalFactories,
+            IScalarEvaluatorFactory[] frameEndEvalFactories, IScalarEvaluatorFactory[] frameRemoveEvalFactories,
             int frameMaxObjects, int[] projectionColumns, int[] runningAggOutColumns,
             IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
             WindowAggregatorDescriptorFactory nestedAggFactory, IHyracksTaskContext ctx, int memSizeInFrames,
@@ -89,6 +140,9 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
         this.frameEndEvalFactories = frameEndEvalFactories;
         this.frameValueComparatorFactories = frameValueComparatorFactories;
         this.frameMaxObjects = frameMaxObjects;
+        this.frameRemovable = frameRemoveEvalFactories != null;
+        this.frameStartEvalFactories = frameStartEvalFactories;
+        this.frameRemoveEvalFactories = frameRemoveEvalFactories;
     }
 
     @Override
@@ -101,6 +155,29 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
         frameEndPointables = createPointables(frameEndEvalFactories.length);
         tAccess2 = new FrameTupleAccessor(inputRecordDesc);
         tRef2 = new FrameTupleReference();
+        if (frameRemovable) {
+            frameStartEvals = createEvaluators(frameStartEvalFactories, ctx);
+            frameStartPointables = createPointables(frameStartEvalFactories.length);
+            frameRemoveEvals = createEvaluators(frameRemoveEvalFactories, ctx);
+            frameRemoveResult = VoidPointable.FACTORY.createPointable();
+            removedAgg = createNestedAggregator();
+            // the outputs of the aggregator of the frame end followed by the outputs of the aggregator of the start
+            int removeFieldCount = 2 * nestedAggOutSchemaSize;
+            removeTupleBuilder = new ArrayTupleBuilder(removeFieldCount);
+            removeFrame = new VSizeFrame(ctx);
+            removeAppender = new FrameTupleAppender();
+            removeAccessor =
+                    new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[removeFieldCount]));
+            removeRef = new FrameTupleReference();
+        }
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        super.close();
+        if (removedAgg != null) {
+            removedAgg.close();
+        }
     }
 
     @Override
@@ -110,6 +187,13 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
         chunkIdxFrameEndGlobal = 0;
         tBeginIdxFrameEndGlobal = -1;
         toWrite = frameMaxObjects;
+        if (frameRemovable) {
+            removedAgg.init(null, null, -1, null);
+            chunkIdxFrameStartGlobal = 0;
+            tBeginIdxFrameStartGlobal = -1;
+            addedCount = 0;
+            removedCount = 0;
+        }
     }
 
     @Override
@@ -179,6 +263,7 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
                     }
 
                     nestedAggAggregate(tAccess2, tIdxInner);
+                    addedCount++;
 
                     if (toWrite > 0) {
                         toWrite--;
@@ -195,7 +280,11 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
                 tBeginIdxFrameEndGlobal = 0;
             }
 
-            if (isLastTupleInPartition) {
+            if (frameRemovable) {
+                evaluate(frameStartEvals, tRef, frameStartPointables);
+                removeTuplesBeforeFrameStart(nChunks);
+                outputFrameAggregates(isLastTupleInPartition);
+            } else if (isLastTupleInPartition) {
                 nestedAggOutputFinalResult(tupleBuilder);
             } else {
                 nestedAggOutputPartialResult(tupleBuilder);
@@ -206,6 +295,92 @@ final class WindowNestedPlansRunningPushRuntime extends AbstractWindowNestedPlan
         partitionReader.restorePosition(PARTITION_POSITION_SLOT);
     }
 
+    /**
+     * Aggregates the tuples that are before the current frame start with the removed aggregator. The frame start is
+     * monotonic, so the scan continues from the first tuple that was not removed for the previous frame. Only the
+     * tuples that were aggregated by the frame end are removed, so an empty frame removes all aggregated tuples.
+     */
+    private void removeTuplesBeforeFrameStart(int nChunks) throws HyracksDataException {
+        int chunkIdxInnerStart = chunkIdxFrameStartGlobal;
+        int tBeginIdxInnerStart = tBeginIdxFrameStartGlobal;
+        if (chunkIdxInnerStart >= nChunks || removedCount == addedCount) {
+            return;
+        }
+        if (tBeginIdxInnerStart >= 0) {
+            partitionReader.restorePosition(FRAME_START_POSITION_SLOT);
+        } else {
+            partitionReader.rewind();
+        }
+
+        for (int chunkIdxInner = chunkIdxInnerStart; chunkIdxInner < nChunks; chunkIdxInner++) {
+            partitionReader.savePosition(TMP_POSITION_SLOT);
+            IFrame frameInner = partitionReader.nextFrame(false);
+            tAccess2.reset(frameInner.getBuffer());
+
+            int tBeginIdxInner;
+            if (tBeginIdxInnerStart >= 0) {
+                tBeginIdxInner = tBeginIdxInnerStart;
+                tBeginIdxInnerStart = -1;
+            } else {
+                tBeginIdxInner = getTupleBeginIdx(chunkIdxInner);
+            }
+            int tEndIdxInner = getTupleEndIdx(chunkIdxInner);
+
+            for (int tIdxInner = tBeginIdxInner; tIdxInner <= tEndIdxInner; tIdxInner++) {
+                tRef2.reset(tAccess2, tIdxInner);
+
+                evaluate(frameValueEvals, tRef2, frameValuePointables);
+
+                if (removedCount == addedCount
+                        || frameValueComparators.compare(frameValuePointables, frameStartPointables) >= 0) {
+                    // value >= start => in the frame, or not aggregated yet
+                    // save position of the current tuple, will continue from it for the next frame
+                    chunkIdxFrameStartGlobal = chunkIdxInner;
+                    tBeginIdxFrameStartGlobal = tIdxInner;
+                    partitionReader.copyPosition(TMP_POSITION_SLOT, FRAME_START_POSITION_SLOT);
+                    return;
+                }
+
+                removedAgg.aggregate(tAccess2, tIdxInner, null, -1, null);
+                removedCount++;
+            }
+        }
+
+        // all tuples were removed
+        chunkIdxFrameStartGlobal = nChunks;
+        tBeginIdxFrameStartGlobal = 0;
+    }
+
+    /**
+     * Computes the nested aggregates of the current frame from the aggregates of the tuples before the frame end and
+     * the aggregates of the tuples before the frame start, and appends them to the output tuple builder
+     */
+    private void outputFrameAggregates(boolean isLastTupleInPartition) throws HyracksDataException {
+        removeTupleBuilder.reset();
+        if (isLastTupleInPartition) {
+            nestedAggOutputFinalResult(removeTupleBuilder);
+            removedAgg.outputFinalResult(removeTupleBuilder, null, -1, null);
+        } else {
+            nestedAggOutputPartialResult(removeTupleBuilder);
+            removedAgg.outputPartialResult(removeTupleBuilder, null, -1, null);
+        }
+        int[] fieldEndOffsets = removeTupleBuilder.getFieldEndOffsets();
+        byte[] data = removeTupleBuilder.getByteArray();
+        int size = removeTupleBuilder.getSize();
+        removeFrame.ensureFrameSize(
+                FrameHelper.calcAlignedFrameSizeToStore(fieldEndOffsets.length, size, ctx.getInitialFrameSize()));
+        removeAppender.reset(removeFrame, true);
+        if (!removeAppender.append(fieldEndOffsets, data, 0, size)) {
+            throw new IllegalStateException();
+        }
+        removeAccessor.reset(removeFrame.getBuffer());
+        removeRef.reset(removeAccessor, 0);
+        for (IScalarEvaluator frameRemoveEval : frameRemoveEvals) {
+            frameRemoveEval.evaluate(removeRef, frameRemoveResult);
+            tupleBuilder.addField(frameRemoveResult);
+        }
+    }
+
     @Override
     protected int getPartitionReaderSlotCount() {
         return PARTITION_READER_SLOT_COUNT;
@@ -30,7 +30,8 @@ import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 /**
  * Optimized runtime for window operators that performs partition materialization and can evaluate running aggregates
  * as well as regular aggregates (in nested plans) over accumulating window frames
- * (unbounded preceding to current row or N following).
+ * (unbounded preceding to current row or N following), or over sliding window frames with monotonic boundaries
+ * if the nested aggregates are removable.
  */
 public class WindowNestedPlansRunningRuntimeFactory extends AbstractWindowNestedPlansRuntimeFactory {
 
@@ -44,6 +45,10 @@ public class WindowNestedPlansRunningRuntimeFactory extends AbstractWindowNested
 
     private final int frameMaxObjects;
 
+    private final IScalarEvaluatorFactory[] frameStartEvalFactories;
+
+    private final IScalarEvaluatorFactory[] frameRemoveEvalFactories;
+
     public WindowNestedPlansRunningRuntimeFactory(int[] partitionColumns,
             IBinaryComparatorFactory[] partitionComparatorFactories,
             IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
@@ -51,6 +56,29 @@ public class WindowNestedPlansRunningRuntimeFactory extends AbstractWindowNested
             int frameMaxObjects, int[] projectionColumnsExcludingSubplans, int[] runningAggOutColumns,
             IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
             WindowAggregatorDescriptorFactory nestedAggFactory, int memSizeInFrames) {
+        this(partitionColumns, partitionComparatorFactories, orderComparatorFactories, frameValueEvalFactories,
+                frameValueComparatorFactories, null, frameEndEvalFactories, null, frameMaxObjects,
+                projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
+                nestedAggFactory, memSizeInFrames);
+    }
+
+    /**
+     * @param frameStartEvalFactories
+     *            frame start of a sliding frame, {@code null} for an accumulating frame
+     * @param frameRemoveEvalFactories
+     *            remove evaluators of a sliding frame, {@code null} for an accumulating frame. There is one for each
+     *            output field of the nested plans. Their input tuple contains the output fields of the nested plans
+     *            over the tuples before the frame end followed by the output fields over the tuples before the
+     *            frame start.
+     */
+    public WindowNestedPlansRunningRuntimeFactory(int[] partitionColumns,
+            IBinaryComparatorFactory[] partitionComparatorFactories,
+            IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
+            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameStartEvalFactories,
+            IScalarEvaluatorFactory[] frameEndEvalFactories, IScalarEvaluatorFactory[] frameRemoveEvalFactories,
+            int frameMaxObjects, int[] projectionColumnsExcludingSubplans, int[] runningAggOutColumns,
+            IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
+            WindowAggregatorDescriptorFactory nestedAggFactory, int memSizeInFrames) {
         super(partitionColumns, partitionComparatorFactories, orderComparatorFactories,
                 projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
                 nestedAggFactory, memSizeInFrames);
@@ -58,19 +86,23 @@ public class WindowNestedPlansRunningRuntimeFactory extends AbstractWindowNested
         this.frameValueComparatorFactories = frameValueComparatorFactories;
         this.frameEndEvalFactories = frameEndEvalFactories;
         this.frameMaxObjects = frameMaxObjects;
+        this.frameStartEvalFactories = frameStartEvalFactories;
+        this.frameRemoveEvalFactories = frameRemoveEvalFactories;
     }
 
     @Override
     public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx) {
         return new WindowNestedPlansRunningPushRuntime(partitionColumns, partitionComparatorFactories,
-                orderComparatorFactories, frameValueEvalFactories, frameValueComparatorFactories, frameEndEvalFactories,
-                frameMaxObjects, projectionList, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
-                nestedAggFactory, ctx, memSizeInFrames, sourceLoc);
+                orderComparatorFactories, frameValueEvalFactories, frameValueComparatorFactories,
+                frameStartEvalFactories, frameEndEvalFactories, frameRemoveEvalFactories, frameMaxObjects,
+                projectionList, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize, nestedAggFactory,
+                ctx, memSizeInFrames, sourceLoc);
     }
 
     @Override
     public String toString() {
-        return "window [nested-running] (" + Arrays.toString(partitionColumns) + ") "
+        String kind = frameRemoveEvalFactories != null ? "nested-running-removable" : "nested-running";
+        return "window [" + kind + "] (" + Arrays.toString(partitionColumns) + ") "
                 + Arrays.toString(runningAggOutColumns) + " := " + Arrays.toString(runningAggFactories);
     }
 }
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.win;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.PointableTupleReference;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Optimized runtime for window operators that performs partition materialization and can evaluate running aggregates
+ * as well as regular aggregates (in nested plans) over sliding window frames with monotonic boundaries.
+ * <p>
+ * The nested aggregates are evaluated with a segment tree that is built over each partition. The leaves of the tree
+ * contain the nested aggregates of each tuple, and each inner node contains the merged aggregates of its children.
+ * The aggregates of a frame are then computed by merging O(log N) nodes instead of aggregating each tuple in the
+ * frame. The leaves also contain the frame values of their tuples, so the boundaries of a frame are found by moving
+ * forward from the boundaries of the previous frame.
+ * <p>
+ * If the tree does not fit into the memory budget then the partition is evaluated by
+ * {@link WindowNestedPlansPushRuntime}.
+ */
+final class WindowNestedPlansSegmentTreePushRuntime extends WindowNestedPlansPushRuntime {
+
+    private final IScalarEvaluatorFactory[] frameValueEvalFactories;
+
+    private IScalarEvaluator[] frameValueEvals;
+
+    private PointableTupleReference frameValuePointables;
+
+    private final IBinaryComparatorFactory[] frameValueComparatorFactories;
+
+    private MultiComparator frameValueComparators;
+
+    private final IScalarEvaluatorFactory[] frameStartEvalFactories;
+
+    private IScalarEvaluator[] frameStartEvals;
+
+    private PointableTupleReference frameStartPointables;
+
+    private final boolean frameEndExists;
+
+    private final IScalarEvaluatorFactory[] frameEndEvalFactories;
+
+    private IScalarEvaluator[] frameEndEvals;
+
+    private PointableTupleReference frameEndPointables;
+
+    private final IAggregateEvaluatorFactory[] mergeAggFactories;
+
+    private IAggregateEvaluator[] mergeAggs;
+
+    private IPointable mergeAggResult;
+
+    private final int treeMemSizeInFrames;
+
+    private int treePositionSlot;
+
+    private FrameTupleAccessor tAccess2;
+
+    private FrameTupleReference tRef2;
+
+    private IFrame[] treeFrames;
+
+    private int treeFrameCount;
+
+    private FrameTupleAppender treeAppender;
+
+    private FrameTupleAccessor treeAccessor;
+
+    private FrameTupleReference treeRef;
+
+    private ArrayTupleBuilder treeTupleBuilder;
+
+    // (frame index << 32 | tuple index) of each tree node. leaves are at [leafCount, 2 * leafCount)
+    private long[] treeNodes;
+
+    private int leafCount;
+
+    private boolean treeExists;
+
+    private int frameStartIdx;
+
+    private int frameEndIdx;
+
+    WindowNestedPlansSegmentTreePushRuntime(int[] partitionColumns,
+            IBinaryComparatorFactory[] partitionComparatorFactories,
+            IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
+            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameStartEvalFactories,
+            IScalarEvaluatorFactory[] frameEndEvalFactories, IAggregateEvaluatorFactory[] mergeAggFactories,
+            int[] projectionColumns, int[] runningAggOutColumns,
+            IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
+            WindowAggregatorDescriptorFactory nestedAggFactory, IHyracksTaskContext ctx, int memSizeInFrames,
+            SourceLocation sourceLoc) {
+        super(partitionColumns, partitionComparatorFactories, orderComparatorFactories, frameValueEvalFactories,
+                frameValueComparatorFactories, frameStartEvalFactories, true, frameEndEvalFactories, null, -1, null,
+                null, null, -1, projectionColumns, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
+                nestedAggFactory, ctx, memSizeInFrames, sourceLoc);
+        this.frameValueEvalFactories = frameValueEvalFactories;
+        this.frameValueComparatorFactories = frameValueComparatorFactories;
+        this.frameStartEvalFactories = frameStartEvalFactories;
+        this.frameEndEvalFactories = frameEndEvalFactories;
+        this.frameEndExists = frameEndEvalFactories != null && frameEndEvalFactories.length > 0;
+        this.mergeAggFactories = mergeAggFactories;
+        this.treeMemSizeInFrames = memSizeInFrames;
+    }
+
+    @Override
+    protected void init() throws HyracksDataException {
+        super.init();
+        frameValueEvals = createEvaluators(frameValueEvalFactories, ctx);
+        frameValueComparators = MultiComparator.create(frameValueComparatorFactories);
+        frameValuePointables = createPointables(frameValueEvalFactories.length);
+        frameStartEvals = createEvaluators(frameStartEvalFactories, ctx);
+        frameStartPointables = createPointables(frameStartEvalFactories.length);
+        if (frameEndExists) {
+            frameEndEvals = createEvaluators(frameEndEvalFactories, ctx);
+            frameEndPointables = createPointables(frameEndEvalFactories.length);
+        }
+        mergeAggs = new IAggregateEvaluator[mergeAggFactories.length];
+        for (int i = 0; i < mergeAggFactories.length; i++) {
+            mergeAggs[i] = mergeAggFactories[i].createAggregateEvaluator(ctx);
+        }
+        mergeAggResult = VoidPointable.FACTORY.createPointable();
+        tAccess2 = new FrameTupleAccessor(inputRecordDesc);
+        tRef2 = new FrameTupleReference();
+        // tree nodes contain the nested aggregates followed by the frame values
+        int treeFieldCount = nestedAggOutSchemaSize + frameValueEvalFactories.length;
+        treeFrames = new IFrame[treeMemSizeInFrames];
+        treeAppender = new FrameTupleAppender();
+        treeAccessor = new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[treeFieldCount]));
+        treeRef = new FrameTupleReference();
+        treeTupleBuilder = new ArrayTupleBuilder(treeFieldCount);
+        treeNodes = new long[256];
+    }
+
+    @Override
+    protected void beginPartitionImpl() throws HyracksDataException {
+        super.beginPartitionImpl();
+        treeExists = false;
+        frameStartIdx = 0;
+        frameEndIdx = 0;
+    }
+
+    @Override
+    protected void producePartitionTuples(int chunkIdx, IFrame chunkFrame) throws HyracksDataException {
+        if (chunkIdx == 0) {
+            treeExists = buildTree();
+        }
+        if (!treeExists) {
+            super.producePartitionTuples(chunkIdx, chunkFrame);
+            return;
+        }
+
+        tAccess.reset(chunkFrame.getBuffer());
+        int tBeginIdx = getTupleBeginIdx(chunkIdx);
+        int tEndIdx = getTupleEndIdx(chunkIdx);
+
+        for (int tIdx = tBeginIdx; tIdx <= tEndIdx; tIdx++) {
+            tRef.reset(tAccess, tIdx);
+
+            // running aggregates
+            produceTuple(tupleBuilder, tAccess, tIdx, tRef);
+
+            // frame boundaries: [frameStartIdx, frameEndIdx)
+            evaluate(frameStartEvals, tRef, frameStartPointables);
+            while (frameStartIdx < leafCount && compareFrameValue(frameStartIdx, frameStartPointables) < 0) {
+                frameStartIdx++;
+            }
+            if (frameEndExists) {
+                evaluate(frameEndEvals, tRef, frameEndPointables);
+                frameEndIdx = Math.max(frameEndIdx, frameStartIdx);
+                while (frameEndIdx < leafCount && compareFrameValue(frameEndIdx, frameEndPointables) <= 0) {
+                    frameEndIdx++;
+                }
+            } else {
+                frameEndIdx = leafCount;
+            }
+
+            if (frameStartIdx < frameEndIdx) {
+                aggregateFrame(frameStartIdx, frameEndIdx);
+            } else {
+                // empty frame
+                nestedAggInit();
+                nestedAggOutputFinalResult(tupleBuilder);
+            }
+            appendToFrameFromTupleBuilder(tupleBuilder);
+        }
+    }
+
+    /**
+     * Builds the segment tree of the current partition.
+     *
+     * @return {@code false} if the tree does not fit into the memory budget
+     */
+    private boolean buildTree() throws HyracksDataException {
+        treeFrameCount = 0;
+        leafCount = 0;
+        if (!nextTreeFrame()) {
+            return false;
+        }
+
+        // leaves
+        partitionReader.savePosition(treePositionSlot);
+        partitionReader.rewind();
+        try {
+            for (int chunkIdx = 0, nChunks = getPartitionChunkCount(); chunkIdx < nChunks; chunkIdx++) {
+                IFrame chunkFrame = partitionReader.nextFrame(false);
+                tAccess2.reset(chunkFrame.getBuffer());
+                for (int tIdx = getTupleBeginIdx(chunkIdx), tEndIdx = getTupleEndIdx(chunkIdx); tIdx <= tEndIdx;
+                        tIdx++) {
+                    tRef2.reset(tAccess2, tIdx);
+                    treeTupleBuilder.reset();
+                    nestedAggInit();
+                    nestedAggAggregate(tAccess2, tIdx);
+                    nestedAggOutputFinalResult(treeTupleBuilder);
+                    evaluate(frameValueEvals, tRef2, frameValuePointables);
+                    for (int i = 0; i < frameValuePointables.getFieldCount(); i++) {
+                        treeTupleBuilder.addField(frameValuePointables.getField(i));
+                    }
+                    ensureTreeCapacity(leafCount + 1);
+                    if (!appendTreeNode(leafCount)) {
+                        return false;
+                    }
+                    leafCount++;
+                }
+            }
+        } finally {
+            partitionReader.restorePosition(treePositionSlot);
+        }
+        ensureTreeCapacity(2 * leafCount);
+        System.arraycopy(treeNodes, 0, treeNodes, leafCount, leafCount);
+
+        // inner nodes
+        for (int nodeIdx = leafCount - 1; nodeIdx > 0; nodeIdx--) {
+            treeTupleBuilder.reset();
+            mergeAggInit();
+            mergeAggStep(2 * nodeIdx);
+            mergeAggStep(2 * nodeIdx + 1);
+            mergeAggFinish(treeTupleBuilder);
+            for (int i = 0; i < frameValuePointables.getFieldCount(); i++) {
+                treeTupleBuilder.addFieldEndOffset();
+            }
+            if (!appendTreeNode(nodeIdx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the nested aggregates of leaves [startIdx, endIdx) and appends them to the output tuple builder
+     */
+    private void aggregateFrame(int startIdx, int endIdx) throws HyracksDataException {
+        mergeAggInit();
+        for (int l = startIdx + leafCount, r = endIdx + leafCount; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) != 0) {
+                mergeAggStep(l++);
+            }
+            if ((r & 1) != 0) {
+                mergeAggStep(--r);
+            }
+        }
+        mergeAggFinish(tupleBuilder);
+    }
+
+    private void mergeAggInit() throws HyracksDataException {
+        for (IAggregateEvaluator mergeAgg : mergeAggs) {
+            mergeAgg.init();
+        }
+    }
+
+    private void mergeAggStep(int nodeIdx) throws HyracksDataException {
+        resetTreeRef(nodeIdx);
+        for (IAggregateEvaluator mergeAgg : mergeAggs) {
+            mergeAgg.step(treeRef);
+        }
+    }
+
+    private void mergeAggFinish(ArrayTupleBuilder outTupleBuilder) throws HyracksDataException {
+        for (IAggregateEvaluator mergeAgg : mergeAggs) {
+            mergeAgg.finish(mergeAggResult);
+            outTupleBuilder.addField(mergeAggResult);
+        }
+    }
+
+    private int compareFrameValue(int leafIdx, PointableTupleReference boundaryPointables)
+            throws HyracksDataException {
+        resetTreeRef(leafCount + leafIdx);
+        for (int i = 0; i < frameValuePointables.getFieldCount(); i++) {
+            int fIdx = nestedAggOutSchemaSize + i;
+            frameValuePointables.getField(i).set(treeRef.getFieldData(fIdx), treeRef.getFieldStart(fIdx),
+                    treeRef.getFieldLength(fIdx));
+        }
+        return frameValueComparators.compare(frameValuePointables, boundaryPointables);
+    }
+
+    private void resetTreeRef(int nodeIdx) {
+        long node = treeNodes[nodeIdx];
+        treeAccessor.reset(treeFrames[(int) (node >>> 32)].getBuffer());
+        treeRef.reset(treeAccessor, (int) node);
+    }
+
+    private boolean appendTreeNode(int nodeIdx) throws HyracksDataException {
+        int[] fieldEndOffsets = treeTupleBuilder.getFieldEndOffsets();
+        byte[] data = treeTupleBuilder.getByteArray();
+        int size = treeTupleBuilder.getSize();
+        if (!treeAppender.append(fieldEndOffsets, data, 0, size)) {
+            if (!nextTreeFrame() || !treeAppender.append(fieldEndOffsets, data, 0, size)) {
+                return false;
+            }
+        }
+        treeNodes[nodeIdx] = ((long) (treeFrameCount - 1) << 32) | (treeAppender.getTupleCount() - 1);
+        return true;
+    }
+
+    private boolean nextTreeFrame() throws HyracksDataException {
+        if (treeFrameCount == treeFrames.length) {
+            return false;
+        }
+        IFrame frame = treeFrames[treeFrameCount];
+        if (frame == null) {
+            treeFrames[treeFrameCount] = frame = new VSizeFrame(ctx);
+        }
+        treeAppender.reset(frame, true);
+        treeFrameCount++;
+        return true;
+    }
+
+    private void ensureTreeCapacity(int nodeCount) {
+        if (treeNodes.length < nodeCount) {
+            treeNodes = Arrays.copyOf(treeNodes, Math.max(nodeCount, 2 * treeNodes.length));
+        }
+    }
+
+    @Override
+    protected int getPartitionReaderSlotCount() {
+        treePositionSlot = super.getPartitionReaderSlotCount();
+        return treePositionSlot + 1;
+    }
+}
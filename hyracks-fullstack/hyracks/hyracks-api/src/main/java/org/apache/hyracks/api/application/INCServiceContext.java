@@ -21,6 +21,7 @@ package org.apache.hyracks.api.application;
 import org.apache.hyracks.api.comm.IChannelInterfaceFactory;
 import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.util.trace.ITracer;
 
@@ -54,6 +55,13 @@ public interface INCServiceContext extends IServiceContext {
      */
     IMemoryManager getMemoryManager();
 
+    /**
+     * Get the broker that lends memory to the operators at the node.
+     *
+     * @return Memory Broker, or null if operators are limited to their compiled budgets
+     */
+    IMemoryBroker getMemoryBroker();
+
     /**
      * Get a Tracer to write trace events to.
      *
@@ -96,4 +96,10 @@ public interface IChannelReadInterface {
      * @return The buffer factory used by this {@link IChannelReadInterface}
      */
     public IBufferFactory getBufferFactory();
+
+    /**
+     * Enables the decompression of the frames received by this {@link IChannelReadInterface}.
+     * Must be called before any data is received from the remote write interface.
+     */
+    public void enableFrameCompression();
 }
@@ -85,4 +85,11 @@ public interface IChannelWriteInterface {
      * state of this {@link IChannelWriteInterface}
      */
     public void adjustChannelWritability();
+
+    /**
+     * Enables the compression of the frames written by this {@link IChannelWriteInterface}.
+     * Must be called before any buffer is passed to the full buffer acceptor and requires
+     * the remote read interface to have compression enabled as well.
+     */
+    public void enableFrameCompression();
 }
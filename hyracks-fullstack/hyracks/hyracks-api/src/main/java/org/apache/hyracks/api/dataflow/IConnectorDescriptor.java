@@ -118,6 +118,11 @@ public interface IConnectorDescriptor extends Serializable {
      */
     public boolean allProducersToAllConsumers();
 
+    /**
+     * Indicate whether the frames sent over the network by this connector are compressed
+     */
+    public boolean isFrameCompressionEnabled();
+
     /**
      * Gets the display name.
      */
@@ -33,6 +33,20 @@ public interface ITuplePartitionComputer {
      */
     public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException;
 
+    /**
+     * Computes a non-negative hash value for the tuple (located at tIndex in the frame). Tuples with equal keys get
+     * equal values, so a hash table can derive both the slot and the stored hash code of a tuple from a single call.
+     * Hash-based partition computers return the value from which {@link #partition} takes its remainder. The default
+     * implementation delegates to {@link #partition} with {@link Integer#MAX_VALUE} partitions.
+     * @param accessor The accessor of the frame to access tuples
+     * @param tIndex The index of the tuple in consideration
+     * @return The non-negative hash value of the tuple
+     * @throws HyracksDataException
+     */
+    public default int hash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+        return partition(accessor, tIndex, Integer.MAX_VALUE);
+    }
+
     /**
      * Gives the data partitioner a chance to set up its environment before it starts partitioning tuples. This method
      * should be called in the open() of {@link org.apache.hyracks.api.comm.IFrameWriter}. The default implementation
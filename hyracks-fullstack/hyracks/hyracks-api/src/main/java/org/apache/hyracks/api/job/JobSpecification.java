@@ -85,6 +85,9 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
 
     private IClusterCapacity requiredClusterCapacity;
 
+    // whether the job can stop as soon as all its results are complete, i.e., it has no other effect
+    private boolean terminateOnResultCompletion;
+
     private transient int operatorIdCounter;
 
     private transient int connectorIdCounter;
@@ -308,6 +311,14 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
         return requiredClusterCapacity;
     }
 
+    public void setTerminateOnResultCompletion(boolean terminateOnResultCompletion) {
+        this.terminateOnResultCompletion = terminateOnResultCompletion;
+    }
+
+    public boolean isTerminateOnResultCompletion() {
+        return terminateOnResultCompletion;
+    }
+
     public void setMetaOps(List<IOperatorDescriptor> metaOps) {
         this.metaOps = metaOps;
     }
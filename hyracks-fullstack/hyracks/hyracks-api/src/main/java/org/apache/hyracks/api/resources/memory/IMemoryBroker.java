@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.resources.memory;
+
+/**
+ * Lends memory of a node to the operators that run on it, on top of the budgets that the operators were compiled
+ * with. An operator borrows memory when its budget is exhausted and returns it when it closes, or earlier when
+ * the broker is under pressure, i.e., when other operators wait for memory.
+ */
+public interface IMemoryBroker {
+    /**
+     * Borrows memory from the broker.
+     *
+     * @param minBytes
+     *            the least amount of memory that is useful to the caller
+     * @param maxBytes
+     *            the amount of memory that the caller would like to have
+     * @return the amount of memory borrowed, either 0 or between {@code minBytes} and {@code maxBytes}
+     */
+    long grant(long minBytes, long maxBytes);
+
+    /**
+     * Returns borrowed memory to the broker.
+     *
+     * @param bytes
+     *            the amount of memory returned
+     */
+    void release(long bytes);
+
+    /**
+     * @return true if the callers should return the memory they borrowed as soon as they can
+     */
+    boolean isUnderPressure();
+
+    /**
+     * @return the amount of memory that can still be borrowed
+     */
+    long getAvailableMemory();
+}
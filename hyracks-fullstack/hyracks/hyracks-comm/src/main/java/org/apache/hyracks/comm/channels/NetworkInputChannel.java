@@ -37,7 +37,7 @@ import org.apache.logging.log4j.Logger;
 public class NetworkInputChannel implements IInputChannel {
     private static final Logger LOGGER = LogManager.getLogger();
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 21;
 
     private final IChannelConnectionFactory netManager;
 
@@ -49,6 +49,8 @@ public class NetworkInputChannel implements IInputChannel {
 
     private final int nBuffers;
 
+    private final boolean frameCompression;
+
     private IChannelControlBlock ccb;
 
     private IInputChannelMonitor monitor;
@@ -56,12 +58,13 @@ public class NetworkInputChannel implements IInputChannel {
     private Object attachment;
 
     public NetworkInputChannel(IChannelConnectionFactory netManager, SocketAddress remoteAddress,
-            PartitionId partitionId, int nBuffers) {
+            PartitionId partitionId, int nBuffers, boolean frameCompression) {
         this.netManager = netManager;
         this.remoteAddress = remoteAddress;
         this.partitionId = partitionId;
         fullQueue = new ArrayDeque<ByteBuffer>(nBuffers);
         this.nBuffers = nBuffers;
+        this.frameCompression = frameCompression;
     }
 
     @Override
@@ -101,11 +104,15 @@ public class NetworkInputChannel implements IInputChannel {
         ccb.getWriteInterface().setEmptyBufferAcceptor(new WriteEmptyBufferAcceptor());
         ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBuffers, ctx), nBuffers,
                 ctx.getInitialFrameSize());
+        if (frameCompression) {
+            ccb.getReadInterface().enableFrameCompression();
+        }
         ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_MESSAGE_SIZE);
         writeBuffer.putLong(partitionId.getJobId().getId());
         writeBuffer.putInt(partitionId.getConnectorDescriptorId().getId());
         writeBuffer.putInt(partitionId.getSenderIndex());
         writeBuffer.putInt(partitionId.getReceiverIndex());
+        writeBuffer.put((byte) (frameCompression ? 1 : 0));
         writeBuffer.flip();
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("Sending partition request: " + partitionId + " on channel: " + ccb);
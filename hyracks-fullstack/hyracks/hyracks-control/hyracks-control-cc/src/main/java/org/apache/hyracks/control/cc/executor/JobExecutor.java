@@ -89,6 +89,8 @@ public class JobExecutor {
 
     private boolean cancelled = false;
 
+    private boolean terminatedEarly = false;
+
     public JobExecutor(ClusterControllerService ccs, JobRun jobRun, Collection<Constraint> constraints,
             DeployedJobSpecId deployedJobSpecId) {
         this.ccs = ccs;
@@ -527,6 +529,25 @@ public class JobExecutor {
         }
     }
 
+    /**
+     * Terminates a job whose results are complete before all its tasks are done, e.g., because a limit has been
+     * satisfied. The tasks that are still running are aborted, and the job terminates successfully.
+     */
+    public void terminateJobEarly() {
+        // If the job is already terminated or failed, do nothing here.
+        if (jobRun.getPendingStatus() != null || terminatedEarly) {
+            return;
+        }
+        LOGGER.debug(() -> "Terminating job " + jobRun.getJobId() + " as its results are complete");
+        terminatedEarly = true;
+        Set<TaskCluster> inProgressTaskClustersCopy = new HashSet<>(inProgressTaskClusters);
+        for (TaskCluster tc : inProgressTaskClustersCopy) {
+            abortTaskCluster(findLastTaskClusterAttempt(tc), TaskClusterAttempt.TaskClusterStatus.ABORTED);
+        }
+        ccs.getWorkQueue().schedule(new JobCleanupWork(ccs.getJobManager(), jobRun.getJobId(), JobStatus.TERMINATED,
+                null, NoOpCallback.INSTANCE));
+    }
+
     public void abortJob(List<Exception> exceptions, IResultCallback<Void> callback) {
         Set<TaskCluster> inProgressTaskClustersCopy = new HashSet<>(inProgressTaskClusters);
         for (TaskCluster tc : inProgressTaskClustersCopy) {
@@ -684,6 +705,10 @@ public class JobExecutor {
     public void notifyTaskFailure(TaskAttempt ta, List<Exception> exceptions) {
         try {
             LOGGER.debug("Received failure notification for TaskAttempt " + ta.getTaskAttemptId());
+            if (terminatedEarly) {
+                // the task failed because it was aborted when the job terminated
+                return;
+            }
             TaskAttemptId taId = ta.getTaskAttemptId();
             TaskCluster tc = ta.getTask().getTaskCluster();
             TaskClusterAttempt lastAttempt = findLastTaskClusterAttempt(tc);
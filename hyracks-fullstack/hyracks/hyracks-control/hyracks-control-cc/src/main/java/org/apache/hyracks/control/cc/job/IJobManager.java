@@ -27,6 +27,8 @@ import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.control.common.work.IResultCallback;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 /**
  * This interface abstracts the job lifecycle management and job scheduling for a cluster.
  */
@@ -125,4 +127,15 @@ public interface IJobManager {
      * @return the maximum number of jobs to queue before rejecting new jobs
      */
     int getJobQueueCapacity();
+
+    /**
+     * @return the workload classes of the job queue, each as {@code <name>:<weight>[:<max concurrent jobs>[:<max
+     *         memory>]]}
+     */
+    String[] getJobQueueWorkloadClasses();
+
+    /**
+     * @return the statistics of the job queue in JSON
+     */
+    ObjectNode getJobQueueStats();
 }
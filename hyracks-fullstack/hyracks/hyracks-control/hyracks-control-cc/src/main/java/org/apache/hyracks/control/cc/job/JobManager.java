@@ -107,7 +107,8 @@ public class JobManager implements IJobManager {
     public void add(JobRun jobRun) throws HyracksException {
         checkJob(jobRun);
         JobSpecification job = jobRun.getJobSpecification();
-        IJobCapacityController.JobSubmissionStatus status = jobCapacityController.allocate(job);
+        IJobCapacityController.JobSubmissionStatus status = jobQueue.canExecute(jobRun)
+                ? jobCapacityController.allocate(job) : IJobCapacityController.JobSubmissionStatus.QUEUE;
         CCServiceContext serviceCtx = ccs.getContext();
         serviceCtx.notifyJobCreation(jobRun.getJobId(), job);
         switch (status) {
@@ -232,6 +233,7 @@ public class JobManager implements IJobManager {
         if (activeRunMap.remove(jobId) != null) {
             // non-active jobs have zero capacity
             releaseJobCapacity(run);
+            jobQueue.notifyJobFinished(run);
         }
         runMapArchive.put(jobId, run);
         runMapHistory.put(jobId, run.getExceptions());
@@ -295,6 +297,16 @@ public class JobManager implements IJobManager {
         return ccs.getCCConfig().getJobQueueCapacity();
     }
 
+    @Override
+    public String[] getJobQueueWorkloadClasses() {
+        return ccs.getCCConfig().getJobQueueWorkloadClasses();
+    }
+
+    @Override
+    public ObjectNode getJobQueueStats() {
+        return jobQueue.getStats();
+    }
+
     private void pickJobsToRun() throws HyracksException {
         List<JobRun> selectedRuns = jobQueue.pull();
         for (JobRun run : selectedRuns) {
@@ -307,6 +319,7 @@ public class JobManager implements IJobManager {
         run.setStartTime(System.currentTimeMillis());
         JobId jobId = run.getJobId();
         activeRunMap.put(jobId, run);
+        jobQueue.notifyJobStarted(run);
         run.setStatus(JobStatus.RUNNING, null);
         executeJobInternal(run);
     }
@@ -26,6 +26,9 @@ import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.control.cc.job.JobRun;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 /**
  * This interface specifies a job queue.
  */
@@ -73,4 +76,43 @@ public interface IJobQueue {
      * Clears the job queue
      */
     void clear();
+
+    /**
+     * Checks whether a newly submitted job may start right away if the cluster has the capacity for it.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     * @return false if the job has to be queued anyway, e.g., because of the limits of its workload class or because
+     *         jobs of its workload class are already waiting.
+     */
+    default boolean canExecute(JobRun run) {
+        return true;
+    }
+
+    /**
+     * Notifies the queue that a job started running, either right after its submission or after it was pulled.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     */
+    default void notifyJobStarted(JobRun run) {
+        // no-op by default
+    }
+
+    /**
+     * Notifies the queue that a job that was running completed.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     */
+    default void notifyJobFinished(JobRun run) {
+        // no-op by default
+    }
+
+    /**
+     * @return the statistics of the queue, e.g., how long the jobs it started waited, in JSON.
+     */
+    default ObjectNode getStats() {
+        return new ObjectMapper().createObjectNode();
+    }
 }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.JobStatus;
+import org.apache.hyracks.api.job.resource.IJobCapacityController;
+import org.apache.hyracks.api.job.resource.IReadOnlyClusterCapacity;
+import org.apache.hyracks.control.cc.job.IJobManager;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.util.StorageUtil;
+import org.apache.hyracks.util.annotations.NotThreadSafe;
+import org.apache.hyracks.util.annotations.ThreadSafetyGuaranteedBy;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * An implementation of IJobQueue that separates jobs into workload classes, e.g., interactive queries, ingestion and
+ * batch queries, so that a burst of heavy jobs does not block the short ones behind it. The class of a job is the
+ * value of its {@link #WORKLOAD_CLASS_PROPERTY_NAME} property. Each class queues its jobs in FIFO order and the
+ * classes share the cluster by weighted-fair scheduling: while two classes have jobs waiting, a class with twice the
+ * weight gets twice as many jobs started. A class can also be limited to a number of concurrent jobs and to an amount
+ * of memory. A job only starts when no job of its class was queued before it.
+ */
+@NotThreadSafe
+@ThreadSafetyGuaranteedBy("JobManager")
+public class WorkloadClassJobQueue implements IJobQueue {
+
+    public static final String WORKLOAD_CLASS_PROPERTY_NAME = "workload-class";
+    public static final String INTERACTIVE = "interactive";
+    public static final String INGESTION = "ingestion";
+    public static final String BATCH = "batch";
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Map<String, WorkloadClass> workloadClasses = new LinkedHashMap<>();
+    private final WorkloadClass defaultClass;
+    private final Map<JobId, WorkloadClass> runningJobs = new HashMap<>();
+    private final IJobManager jobManager;
+    private final IJobCapacityController jobCapacityController;
+    private final int jobQueueCapacity;
+    // the start tag of the job that started last
+    private double virtualTime;
+    private int size;
+
+    public WorkloadClassJobQueue(IJobManager jobManager, IJobCapacityController jobCapacityController) {
+        this.jobManager = jobManager;
+        this.jobCapacityController = jobCapacityController;
+        this.jobQueueCapacity = jobManager.getJobQueueCapacity();
+        WorkloadClass lastClass = null;
+        for (String definition : jobManager.getJobQueueWorkloadClasses()) {
+            lastClass = WorkloadClass.parse(definition);
+            workloadClasses.put(lastClass.name, lastClass);
+        }
+        if (lastClass == null) {
+            throw new IllegalArgumentException("No workload class is defined");
+        }
+        defaultClass = lastClass;
+    }
+
+    @Override
+    public void add(JobRun run) throws HyracksException {
+        if (size >= jobQueueCapacity) {
+            throw HyracksException.create(ErrorCode.JOB_QUEUE_FULL, jobQueueCapacity);
+        }
+        getWorkloadClass(run).pending.put(run.getJobId(), run);
+        size++;
+    }
+
+    @Override
+    public JobRun remove(JobId jobId) {
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            JobRun run = workloadClass.pending.remove(jobId);
+            if (run != null) {
+                size--;
+                return run;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public JobRun get(JobId jobId) {
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            JobRun run = workloadClass.pending.get(jobId);
+            if (run != null) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<JobRun> pull() {
+        List<JobRun> jobRuns = new ArrayList<>();
+        List<WorkloadClass> candidates = new ArrayList<>();
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            if (!workloadClass.pending.isEmpty()) {
+                candidates.add(workloadClass);
+            }
+        }
+        while (!candidates.isEmpty()) {
+            // Serves the class whose next job has the smallest start tag.
+            WorkloadClass next = candidates.get(0);
+            for (WorkloadClass candidate : candidates) {
+                if (candidate.getStartTag(virtualTime) < next.getStartTag(virtualTime)) {
+                    next = candidate;
+                }
+            }
+            JobRun run = pull(next);
+            if (run == null) {
+                // None of the jobs of the class can start until running jobs complete.
+                candidates.remove(next);
+            } else {
+                jobRuns.add(run);
+                if (next.pending.isEmpty()) {
+                    candidates.remove(next);
+                }
+            }
+        }
+        return jobRuns;
+    }
+
+    private JobRun pull(WorkloadClass workloadClass) {
+        Iterator<JobRun> runIterator = workloadClass.pending.values().iterator();
+        while (runIterator.hasNext()) {
+            JobRun run = runIterator.next();
+            if (!workloadClass.admits(getRequiredMemory(run))) {
+                // The jobs queued behind it wait as well.
+                return null;
+            }
+            JobSpecification job = run.getJobSpecification();
+            // Cluster maximum capacity can change over time, thus we have to re-check if the job should be rejected
+            // or not.
+            try {
+                IJobCapacityController.JobSubmissionStatus status = jobCapacityController.allocate(job);
+                // Checks if the job can be executed immediately.
+                if (status == IJobCapacityController.JobSubmissionStatus.EXECUTE) {
+                    runIterator.remove(); // Removes the selected job.
+                    size--;
+                    start(workloadClass, run);
+                    return run;
+                }
+                return null;
+            } catch (HyracksException exception) {
+                // The required capacity exceeds maximum capacity.
+                List<Exception> exceptions = new ArrayList<>();
+                exceptions.add(exception);
+                runIterator.remove(); // Removes the job from the queue.
+                size--;
+                try {
+                    // Fails the job.
+                    jobManager.prepareComplete(run, JobStatus.FAILURE_BEFORE_EXECUTION, exceptions);
+                } catch (HyracksException e) {
+                    LOGGER.log(Level.ERROR, e.getMessage(), e);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Collection<JobRun> jobs() {
+        List<JobRun> jobRuns = new ArrayList<>(size);
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            jobRuns.addAll(workloadClass.pending.values());
+        }
+        return Collections.unmodifiableCollection(jobRuns);
+    }
+
+    @Override
+    public void clear() {
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            workloadClass.pending.clear();
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean canExecute(JobRun run) {
+        WorkloadClass workloadClass = getWorkloadClass(run);
+        return workloadClass.pending.isEmpty() && workloadClass.admits(getRequiredMemory(run));
+    }
+
+    @Override
+    public void notifyJobStarted(JobRun run) {
+        if (!runningJobs.containsKey(run.getJobId())) {
+            start(getWorkloadClass(run), run);
+        }
+    }
+
+    @Override
+    public void notifyJobFinished(JobRun run) {
+        WorkloadClass workloadClass = runningJobs.remove(run.getJobId());
+        if (workloadClass != null) {
+            workloadClass.runningJobs--;
+            workloadClass.runningMemory -= getRequiredMemory(run);
+        }
+    }
+
+    @Override
+    public ObjectNode getStats() {
+        ObjectMapper om = new ObjectMapper();
+        ObjectNode stats = om.createObjectNode();
+        ArrayNode classes = om.createArrayNode();
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            ObjectNode jo = om.createObjectNode();
+            jo.put("name", workloadClass.name);
+            jo.put("weight", workloadClass.weight);
+            jo.put("pending-jobs", workloadClass.pending.size());
+            jo.put("running-jobs", workloadClass.runningJobs);
+            jo.put("started-jobs", workloadClass.startedJobs);
+            jo.put("average-wait-time", getAverageWaitTime(workloadClass.name));
+            jo.put("max-wait-time", workloadClass.maxWaitTime);
+            classes.add(jo);
+        }
+        stats.set("workload-classes", classes);
+        return stats;
+    }
+
+    private void start(WorkloadClass workloadClass, JobRun run) {
+        double startTag = workloadClass.getStartTag(virtualTime);
+        workloadClass.finishTag = startTag + 1.0 / workloadClass.weight;
+        virtualTime = startTag;
+        workloadClass.runningJobs++;
+        workloadClass.runningMemory += getRequiredMemory(run);
+        long waitTime = Math.max(0, System.currentTimeMillis() - run.getCreateTime());
+        workloadClass.startedJobs++;
+        workloadClass.totalWaitTime += waitTime;
+        workloadClass.maxWaitTime = Math.max(workloadClass.maxWaitTime, waitTime);
+        runningJobs.put(run.getJobId(), workloadClass);
+    }
+
+    private WorkloadClass getWorkloadClass(JobRun run) {
+        Serializable name = run.getJobSpecification().getProperty(WORKLOAD_CLASS_PROPERTY_NAME);
+        WorkloadClass workloadClass = name == null ? null : workloadClasses.get(name.toString());
+        return workloadClass == null ? defaultClass : workloadClass;
+    }
+
+    private static long getRequiredMemory(JobRun run) {
+        IReadOnlyClusterCapacity capacity = run.getJobSpecification().getRequiredClusterCapacity();
+        return capacity == null ? 0 : capacity.getAggregatedMemoryByteSize();
+    }
+
+    /**
+     * @return the number of jobs of the workload class that started running
+     */
+    public long getStartedJobCount(String workloadClass) {
+        return workloadClasses.get(workloadClass).startedJobs;
+    }
+
+    /**
+     * @return the average time in milliseconds that the started jobs of the workload class waited to start
+     */
+    public long getAverageWaitTime(String workloadClass) {
+        WorkloadClass wc = workloadClasses.get(workloadClass);
+        return wc.startedJobs == 0 ? 0 : wc.totalWaitTime / wc.startedJobs;
+    }
+
+    /**
+     * @return the longest time in milliseconds that a started job of the workload class waited to start
+     */
+    public long getMaxWaitTime(String workloadClass) {
+        return workloadClasses.get(workloadClass).maxWaitTime;
+    }
+
+    private static class WorkloadClass {
+        private final String name;
+        private final int weight;
+        // 0 for no limit
+        private final int maxConcurrentJobs;
+        // 0 for no limit
+        private final long maxMemory;
+        private final Map<JobId, JobRun> pending = new LinkedHashMap<>();
+        private int runningJobs;
+        private long runningMemory;
+        // the finish tag of the job of the class that started last
+        private double finishTag;
+        private long startedJobs;
+        private long totalWaitTime;
+        private long maxWaitTime;
+
+        private WorkloadClass(String name, int weight, int maxConcurrentJobs, long maxMemory) {
+            this.name = name;
+            this.weight = weight;
+            this.maxConcurrentJobs = maxConcurrentJobs;
+            this.maxMemory = maxMemory;
+        }
+
+        private double getStartTag(double virtualTime) {
+            return Math.max(virtualTime, finishTag);
+        }
+
+        private boolean admits(long requiredMemory) {
+            if (maxConcurrentJobs > 0 && runningJobs >= maxConcurrentJobs) {
+                return false;
+            }
+            // a job that needs more memory than the limit of its class runs alone
+            return maxMemory <= 0 || runningJobs == 0 || runningMemory + requiredMemory <= maxMemory;
+        }
+
+        private static WorkloadClass parse(String definition) {
+            String[] parts = definition.trim().split(":");
+            if (parts.length < 2 || parts.length > 4 || parts[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid workload class: " + definition);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Invalid weight of workload class: " + definition);
+            }
+            int maxConcurrentJobs = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+            long maxMemory = parts.length > 3 ? StorageUtil.getByteValue(parts[3]) : 0;
+            return new WorkloadClass(parts[0], weight, maxConcurrentJobs, maxMemory);
+        }
+    }
+}
@@ -21,7 +21,11 @@ package org.apache.hyracks.control.cc.work;
 import org.apache.hyracks.api.result.ResultSetId;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.result.ResultJobRecord;
 import org.apache.hyracks.control.cc.ClusterControllerService;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.control.cc.result.IResultDirectoryService;
 import org.apache.hyracks.control.common.work.AbstractWork;
 
 public class ReportResultPartitionWriteCompletionWork extends AbstractWork {
@@ -44,12 +48,27 @@ public class ReportResultPartitionWriteCompletionWork extends AbstractWork {
     @Override
     public void run() {
         try {
-            ccs.getResultDirectoryService().reportResultPartitionWriteCompletion(jobId, rsId, partition);
+            IResultDirectoryService resultDirectoryService = ccs.getResultDirectoryService();
+            resultDirectoryService.reportResultPartitionWriteCompletion(jobId, rsId, partition);
+            if (resultDirectoryService.getResultStatus(jobId, rsId).getState() == ResultJobRecord.State.SUCCESS) {
+                terminateJobIfDone();
+            }
         } catch (HyracksDataException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void terminateJobIfDone() {
+        JobRun run = ccs.getJobManager().get(jobId);
+        if (run == null || run.getPendingStatus() != null || run.getExecutor() == null) {
+            return;
+        }
+        JobSpecification spec = run.getJobSpecification();
+        if (spec != null && spec.isTerminateOnResultCompletion() && spec.getResultSetIds().size() == 1) {
+            run.getExecutor().terminateJobEarly();
+        }
+    }
+
     @Override
     public String toString() {
         return getName() + ": JobId@" + jobId + " ResultSetId@" + rsId + " Partition@" + partition;
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.resource.IJobCapacityController;
+import org.apache.hyracks.control.cc.job.IJobManager;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+public class WorkloadClassJobQueueTest {
+
+    private long nextJobId;
+
+    @Test
+    public void testWeightedFairness() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(100, "interactive:4", "batch:1");
+        List<JobRun> batchRuns = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            JobRun run = mockJobRun("batch");
+            batchRuns.add(run);
+            queue.add(run);
+        }
+        for (int i = 0; i < 8; i++) {
+            queue.add(mockJobRun("interactive"));
+        }
+        List<JobRun> pulled = queue.pull();
+        Assert.assertEquals(16, pulled.size());
+        Assert.assertTrue(queue.jobs().isEmpty());
+        // batch jobs were queued first, but interactive jobs get four times the share while both classes wait
+        int batchJobs = 0;
+        for (JobRun run : pulled.subList(0, 10)) {
+            if (batchRuns.contains(run)) {
+                batchJobs++;
+            }
+        }
+        Assert.assertEquals(2, batchJobs);
+        Assert.assertEquals(8, queue.getStartedJobCount("interactive"));
+        Assert.assertEquals(8, queue.getStartedJobCount("batch"));
+    }
+
+    @Test
+    public void testMaxConcurrentJobs() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(100, "interactive:4:2", "batch:1");
+        JobRun first = mockJobRun("interactive");
+        Assert.assertTrue(queue.canExecute(first));
+        queue.notifyJobStarted(first);
+        JobRun second = mockJobRun("interactive");
+        queue.notifyJobStarted(second);
+        // a job that starts running is counted only once
+        queue.notifyJobStarted(second);
+
+        JobRun third = mockJobRun("interactive");
+        Assert.assertFalse(queue.canExecute(third));
+        Assert.assertTrue(queue.canExecute(mockJobRun("batch")));
+        queue.add(third);
+        Assert.assertTrue(queue.pull().isEmpty());
+        Assert.assertEquals(1, queue.jobs().size());
+
+        queue.notifyJobFinished(first);
+        List<JobRun> pulled = queue.pull();
+        Assert.assertEquals(1, pulled.size());
+        Assert.assertSame(third, pulled.get(0));
+        Assert.assertTrue(queue.jobs().isEmpty());
+        Assert.assertEquals(3, queue.getStartedJobCount("interactive"));
+    }
+
+    @Test
+    public void testFifoWithinWorkloadClass() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(100, "interactive:4:1", "batch:1");
+        JobRun running = mockJobRun("interactive");
+        queue.notifyJobStarted(running);
+        JobRun waiting = mockJobRun("interactive");
+        Assert.assertFalse(queue.canExecute(waiting));
+        queue.add(waiting);
+        queue.notifyJobFinished(running);
+
+        // the class has room again, but a new job does not start ahead of the job that is already waiting
+        JobRun next = mockJobRun("interactive");
+        Assert.assertFalse(queue.canExecute(next));
+        Assert.assertTrue(queue.canExecute(mockJobRun("batch")));
+        queue.add(next);
+        List<JobRun> pulled = queue.pull();
+        Assert.assertEquals(1, pulled.size());
+        Assert.assertSame(waiting, pulled.get(0));
+
+        queue.notifyJobFinished(waiting);
+        pulled = queue.pull();
+        Assert.assertEquals(1, pulled.size());
+        Assert.assertSame(next, pulled.get(0));
+    }
+
+    @Test
+    public void testStats() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(100, "interactive:4", "batch:1");
+        queue.add(mockJobRun("batch"));
+        queue.add(mockJobRun("batch"));
+        Assert.assertEquals(2, queue.pull().size());
+        queue.add(mockJobRun("interactive"));
+
+        ArrayNode classes = (ArrayNode) queue.getStats().get("workload-classes");
+        Assert.assertEquals(2, classes.size());
+        JsonNode interactive = classes.get(0);
+        Assert.assertEquals("interactive", interactive.get("name").asText());
+        Assert.assertEquals(4, interactive.get("weight").asInt());
+        Assert.assertEquals(1, interactive.get("pending-jobs").asInt());
+        Assert.assertEquals(0, interactive.get("started-jobs").asLong());
+        JsonNode batch = classes.get(1);
+        Assert.assertEquals("batch", batch.get("name").asText());
+        Assert.assertEquals(0, batch.get("pending-jobs").asInt());
+        Assert.assertEquals(2, batch.get("running-jobs").asInt());
+        Assert.assertEquals(2, batch.get("started-jobs").asLong());
+        Assert.assertEquals(queue.getAverageWaitTime("batch"), batch.get("average-wait-time").asLong());
+        Assert.assertEquals(queue.getMaxWaitTime("batch"), batch.get("max-wait-time").asLong());
+    }
+
+    @Test
+    public void testUnknownWorkloadClass() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(100, "interactive:4", "batch:1");
+        JobRun unknown = mockJobRun("unknown");
+        JobRun untagged = mockJobRun(null);
+        queue.add(unknown);
+        queue.add(untagged);
+        Assert.assertSame(unknown, queue.get(unknown.getJobId()));
+        Assert.assertEquals(2, queue.pull().size());
+        Assert.assertEquals(0, queue.getStartedJobCount("interactive"));
+        Assert.assertEquals(2, queue.getStartedJobCount("batch"));
+    }
+
+    @Test
+    public void testQueueCapacity() throws HyracksException {
+        WorkloadClassJobQueue queue = createQueue(2, "interactive:4", "batch:1");
+        queue.add(mockJobRun("interactive"));
+        JobRun batchRun = mockJobRun("batch");
+        queue.add(batchRun);
+        try {
+            queue.add(mockJobRun("interactive"));
+            Assert.fail("the queue is full");
+        } catch (HyracksException e) {
+            Assert.assertEquals(ErrorCode.JOB_QUEUE_FULL, e.getErrorCode());
+        }
+        Assert.assertSame(batchRun, queue.remove(batchRun.getJobId()));
+        queue.add(mockJobRun("interactive"));
+        Assert.assertEquals(2, queue.jobs().size());
+        queue.clear();
+        Assert.assertTrue(queue.jobs().isEmpty());
+    }
+
+    private static WorkloadClassJobQueue createQueue(int capacity, String... workloadClasses)
+            throws HyracksException {
+        IJobManager jobManager = mock(IJobManager.class);
+        when(jobManager.getJobQueueCapacity()).thenReturn(capacity);
+        when(jobManager.getJobQueueWorkloadClasses()).thenReturn(workloadClasses);
+        IJobCapacityController jobCapacityController = mock(IJobCapacityController.class);
+        when(jobCapacityController.allocate(any()))
+                .thenReturn(IJobCapacityController.JobSubmissionStatus.EXECUTE);
+        return new WorkloadClassJobQueue(jobManager, jobCapacityController);
+    }
+
+    private JobRun mockJobRun(String workloadClass) {
+        JobRun run = mock(JobRun.class);
+        when(run.getJobId()).thenReturn(new JobId(nextJobId++));
+        JobSpecification job = mock(JobSpecification.class);
+        when(job.getProperty(WorkloadClassJobQueue.WORKLOAD_CLASS_PROPERTY_NAME)).thenReturn(workloadClass);
+        when(run.getJobSpecification()).thenReturn(job);
+        when(run.getCreateTime()).thenReturn(System.currentTimeMillis());
+        return run;
+    }
+}
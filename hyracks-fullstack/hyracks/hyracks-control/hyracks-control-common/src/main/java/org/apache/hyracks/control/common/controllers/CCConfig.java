@@ -23,6 +23,7 @@ import static org.apache.hyracks.control.common.config.OptionTypes.LONG;
 import static org.apache.hyracks.control.common.config.OptionTypes.POSITIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.SHORT;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
+import static org.apache.hyracks.control.common.config.OptionTypes.STRING_ARRAY;
 import static org.apache.hyracks.control.common.config.OptionTypes.UNSIGNED_INTEGER;
 
 import java.io.File;
@@ -72,6 +73,7 @@ public class CCConfig extends ControllerConfig {
         CLUSTER_TOPOLOGY(STRING),
         JOB_QUEUE_CLASS(STRING, "org.apache.hyracks.control.cc.scheduler.FIFOJobQueue"),
         JOB_QUEUE_CAPACITY(POSITIVE_INTEGER, 4096),
+        JOB_QUEUE_WORKLOAD_CLASSES(STRING_ARRAY, new String[] { "interactive:4", "ingestion:2", "batch:1" }),
         JOB_MANAGER_CLASS(STRING, "org.apache.hyracks.control.cc.job.JobManager"),
         ENFORCE_FRAME_WRITER_PROTOCOL(BOOLEAN, false),
         CORES_MULTIPLIER(POSITIVE_INTEGER, 3),
@@ -182,6 +184,10 @@ public class CCConfig extends ControllerConfig {
                     return "Specify the implementation class name for the job queue";
                 case JOB_QUEUE_CAPACITY:
                     return "The maximum number of jobs to queue before rejecting new jobs";
+                case JOB_QUEUE_WORKLOAD_CLASSES:
+                    return "The workload classes of the workload class job queue, each as "
+                            + "<name>:<weight>[:<max concurrent jobs>[:<max memory>]]; jobs of an unknown class are "
+                            + "queued in the last class";
                 case JOB_MANAGER_CLASS:
                     return "Specify the implementation class name for the job manager";
                 case ENFORCE_FRAME_WRITER_PROTOCOL:
@@ -426,6 +432,10 @@ public class CCConfig extends ControllerConfig {
         return getAppConfig().getInt(Option.JOB_QUEUE_CAPACITY);
     }
 
+    public String[] getJobQueueWorkloadClasses() {
+        return getAppConfig().getStringArray(Option.JOB_QUEUE_WORKLOAD_CLASSES);
+    }
+
     public boolean getEnforceFrameWriterProtocol() {
         return getAppConfig().getBoolean(Option.ENFORCE_FRAME_WRITER_PROTOCOL);
     }
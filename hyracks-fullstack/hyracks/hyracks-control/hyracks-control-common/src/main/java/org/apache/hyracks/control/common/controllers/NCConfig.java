@@ -21,6 +21,7 @@ package org.apache.hyracks.control.common.controllers;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG;
+import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.POSITIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING_ARRAY;
@@ -80,6 +81,7 @@ public class NCConfig extends ControllerConfig {
         RESULT_TTL(LONG, 86400000L),
         RESULT_SWEEP_THRESHOLD(LONG, 60000L),
         RESULT_MANAGER_MEMORY(INTEGER_BYTE_UNIT, -1),
+        MEMORY_BROKER_SIZE(LONG_BYTE_UNIT, 0L),
         @SuppressWarnings("RedundantCast") // not redundant- false positive from IDEA
         APP_CLASS(STRING, (String) null),
         NCSERVICE_PID(INTEGER, -1),
@@ -201,6 +203,9 @@ public class NCConfig extends ControllerConfig {
                             + "milliseconds";
                 case RESULT_MANAGER_MEMORY:
                     return "Memory usable for result caching at this Node Controller in bytes";
+                case MEMORY_BROKER_SIZE:
+                    return "Memory that joins, sorts and group-bys at this Node Controller can borrow beyond their "
+                            + "compiled budgets in bytes (0 disables borrowing)";
                 case APP_CLASS:
                     return "Application NC Main Class";
                 case NCSERVICE_PID:
@@ -532,6 +537,14 @@ public class NCConfig extends ControllerConfig {
         configManager.set(nodeId, Option.RESULT_MANAGER_MEMORY, resultManagerMemory);
     }
 
+    public long getMemoryBrokerSize() {
+        return appConfig.getLong(Option.MEMORY_BROKER_SIZE);
+    }
+
+    public void setMemoryBrokerSize(long memoryBrokerSize) {
+        configManager.set(nodeId, Option.MEMORY_BROKER_SIZE, memoryBrokerSize);
+    }
+
     public String getAppClass() {
         return appConfig.getString(Option.APP_CLASS);
     }
@@ -26,6 +26,7 @@ import org.apache.hyracks.api.application.IStateDumpHandler;
 import org.apache.hyracks.api.comm.IChannelInterfaceFactory;
 import org.apache.hyracks.api.config.IApplicationConfig;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.api.service.IControllerService;
 import org.apache.hyracks.control.common.application.ServiceContext;
@@ -33,6 +34,7 @@ import org.apache.hyracks.control.common.context.ServerContext;
 import org.apache.hyracks.control.common.utils.HyracksThreadFactory;
 import org.apache.hyracks.control.nc.NodeControllerService;
 import org.apache.hyracks.control.nc.io.IOManager;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 import org.apache.hyracks.control.nc.resources.memory.MemoryManager;
 import org.apache.hyracks.util.trace.ITracer;
 import org.apache.hyracks.util.trace.TraceCategoryRegistry;
@@ -43,6 +45,7 @@ public class NCServiceContext extends ServiceContext implements INCServiceContex
     private final String nodeId;
     private final IOManager ioManager;
     private final MemoryManager memoryManager;
+    private final MemoryBroker memoryBroker;
     private IStateDumpHandler sdh;
     private final NodeControllerService ncs;
     private IChannelInterfaceFactory messagingChannelInterfaceFactory;
@@ -56,6 +59,8 @@ public class NCServiceContext extends ServiceContext implements INCServiceContex
         this.nodeId = nodeId;
         this.ioManager = ioManager;
         this.memoryManager = memoryManager;
+        long memoryBrokerSize = ncs.getConfiguration().getMemoryBrokerSize();
+        this.memoryBroker = memoryBrokerSize > 0 ? new MemoryBroker(memoryBrokerSize) : null;
         this.ncs = ncs;
         this.sdh = lccm::dumpState;
         this.tracer = new Tracer(nodeId, ncs.getConfiguration().getTraceCategories(), new TraceCategoryRegistry());
@@ -95,6 +100,11 @@ public class NCServiceContext extends ServiceContext implements INCServiceContex
         return memoryManager;
     }
 
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
+
     @Override
     public ITracer getTracer() {
         return tracer;
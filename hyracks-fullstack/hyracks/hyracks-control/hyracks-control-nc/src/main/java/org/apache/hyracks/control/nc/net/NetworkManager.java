@@ -47,7 +47,7 @@ public class NetworkManager implements IChannelConnectionFactory {
 
     private static final int MAX_CONNECTION_ATTEMPTS = 5;
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 21;
 
     private final PartitionManager partitionManager;
 
@@ -129,9 +129,13 @@ public class NetworkManager implements IChannelConnectionFactory {
         @Override
         public void accept(ByteBuffer buffer) {
             PartitionId pid = readInitialMessage(buffer);
+            boolean frameCompression = buffer.get() != 0;
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("Received initial partition request: " + pid + " on channel: " + ccb);
             }
+            if (frameCompression) {
+                ccb.getWriteInterface().enableFrameCompression();
+            }
             noc = new NetworkOutputChannel(ccb, nBuffers);
             partitionManager.registerPartitionRequest(pid, noc);
         }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+
+public class MemoryBroker implements IMemoryBroker {
+    // the broker is under pressure when less than this fraction of its memory is left
+    private static final int LOW_WATERMARK_DIVISOR = 10;
+
+    private final long maxMemory;
+    private final long lowWatermark;
+    private long available;
+    // set when a request could not be granted, cleared when enough memory was returned
+    private boolean denied;
+
+    public MemoryBroker(long maxMemory) {
+        this.maxMemory = maxMemory;
+        this.lowWatermark = maxMemory / LOW_WATERMARK_DIVISOR;
+        this.available = maxMemory;
+    }
+
+    @Override
+    public synchronized long grant(long minBytes, long maxBytes) {
+        if (available < minBytes) {
+            denied = true;
+            return 0;
+        }
+        long granted = Math.min(available, Math.max(minBytes, maxBytes));
+        available -= granted;
+        return granted;
+    }
+
+    @Override
+    public synchronized void release(long bytes) {
+        available = Math.min(maxMemory, available + bytes);
+        if (available > lowWatermark) {
+            denied = false;
+        }
+    }
+
+    @Override
+    public synchronized boolean isUnderPressure() {
+        return denied || available < lowWatermark;
+    }
+
+    @Override
+    public synchronized long getAvailableMemory() {
+        return available;
+    }
+
+    public long getMaximumMemory() {
+        return maxMemory;
+    }
+}
@@ -238,7 +238,10 @@ public class ResultState implements IStateObject {
     }
 
     public synchronized void abort() {
-        failed.set(true);
+        // a complete result stays readable, e.g., when its job terminates early and aborts the remaining tasks
+        if (!eos.get()) {
+            failed.set(true);
+        }
         notifyAll();
     }
 
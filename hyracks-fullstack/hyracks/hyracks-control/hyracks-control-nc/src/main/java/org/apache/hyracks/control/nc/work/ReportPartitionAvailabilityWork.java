@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.comm.PartitionChannel;
+import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.comm.channels.NetworkInputChannel;
@@ -50,13 +51,15 @@ public class ReportPartitionAvailabilityWork extends AbstractWork {
             Map<JobId, Joblet> jobletMap = ncs.getJobletMap();
             Joblet ji = jobletMap.get(pid.getJobId());
             if (ji != null) {
+                IConnectorDescriptor conn = ji.getActivityClusterGraph().getConnectorMap()
+                        .get(pid.getConnectorDescriptorId()).getConnectorMap().get(pid.getConnectorDescriptorId());
                 PartitionChannel channel =
                         new PartitionChannel(pid,
                                 new NetworkInputChannel(ncs.getNetworkManager(),
                                         new InetSocketAddress(
                                                 InetAddress.getByAddress(networkAddress.lookupIpAddress()),
                                                 networkAddress.getPort()),
-                                        pid, 5));
+                                        pid, 5, conn.isFrameCompressionEnabled()));
                 ji.reportPartitionAvailability(channel);
             }
         } catch (Exception e) {
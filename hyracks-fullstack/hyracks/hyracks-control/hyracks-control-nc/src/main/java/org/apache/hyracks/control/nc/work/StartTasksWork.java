@@ -301,7 +301,7 @@ public class StartTasksWork extends AbstractWork {
                                         new InetSocketAddress(
                                                 InetAddress.getByAddress(networkAddress.lookupIpAddress()),
                                                 networkAddress.getPort()),
-                                        pid, 5));
+                                        pid, 5, inputs.get(i).isFrameCompressionEnabled()));
                         channels.add(channel);
                     }
                 }
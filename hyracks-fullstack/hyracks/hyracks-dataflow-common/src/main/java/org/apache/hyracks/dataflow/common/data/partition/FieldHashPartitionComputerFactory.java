@@ -48,6 +48,11 @@ public class FieldHashPartitionComputerFactory implements ITuplePartitionCompute
                 if (nParts == 1) {
                     return 0;
                 }
+                return hash(accessor, tIndex) % nParts;
+            }
+
+            @Override
+            public int hash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
                 int h = 0;
                 int startOffset = accessor.getTupleStartOffset(tIndex);
                 int slotLength = accessor.getFieldSlotsLength();
@@ -63,7 +68,7 @@ public class FieldHashPartitionComputerFactory implements ITuplePartitionCompute
                 if (h < 0) {
                     h = -(h + 1);
                 }
-                return h % nParts;
+                return h;
             }
         };
     }
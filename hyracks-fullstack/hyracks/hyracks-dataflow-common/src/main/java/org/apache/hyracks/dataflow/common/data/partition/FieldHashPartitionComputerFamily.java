@@ -45,6 +45,11 @@ public class FieldHashPartitionComputerFamily implements ITuplePartitionComputer
         return new ITuplePartitionComputer() {
             @Override
             public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException {
+                return hash(accessor, tIndex) % nParts;
+            }
+
+            @Override
+            public int hash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
                 int h = 0;
                 int startOffset = accessor.getTupleStartOffset(tIndex);
                 int slotLength = accessor.getFieldSlotsLength();
@@ -60,7 +65,7 @@ public class FieldHashPartitionComputerFamily implements ITuplePartitionComputer
                 if (h < 0) {
                     h = -(h + 1);
                 }
-                return h % nParts;
+                return h;
             }
         };
     }
@@ -45,6 +45,11 @@ public class RepartitionComputerFamily implements ITuplePartitionComputerFamily
             public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException {
                 return delegate.partition(accessor, tIndex, factor * nParts) / factor;
             }
+
+            @Override
+            public int hash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+                return delegate.hash(accessor, tIndex);
+            }
         };
     }
 
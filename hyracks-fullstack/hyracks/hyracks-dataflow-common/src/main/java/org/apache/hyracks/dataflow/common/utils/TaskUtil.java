@@ -21,7 +21,9 @@ package org.apache.hyracks.dataflow.common.utils;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.hyracks.api.context.IHyracksJobletContext;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 
 /**
  * A Utility class for facilitating common operations used with a hyracks task
@@ -74,4 +76,17 @@ public class TaskUtil {
         Map<String, Object> sharedMap = TaskUtil.getSharedMap(ctx, false);
         return sharedMap == null ? null : (T) sharedMap.get(key);
     }
+
+    /**
+     * get the memory broker of the node that runs the task
+     *
+     * @param ctx
+     *            the task context
+     * @return the memory broker, or null if the operators of the task are limited to their compiled budgets
+     */
+    public static IMemoryBroker getMemoryBroker(IHyracksTaskContext ctx) {
+        IHyracksJobletContext jobletCtx = ctx.getJobletContext();
+        return jobletCtx == null || jobletCtx.getServiceContext() == null ? null
+                : jobletCtx.getServiceContext().getMemoryBroker();
+    }
 }
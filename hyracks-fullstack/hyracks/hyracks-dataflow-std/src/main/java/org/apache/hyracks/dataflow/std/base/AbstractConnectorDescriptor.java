@@ -34,6 +34,8 @@ public abstract class AbstractConnectorDescriptor implements IConnectorDescripto
 
     protected String displayName;
 
+    protected boolean frameCompression;
+
     public AbstractConnectorDescriptor(IConnectorDescriptorRegistry spec) {
         this.id = spec.createConnectorDescriptor(this);
         displayName = getClass().getName() + "[" + id + "]";
@@ -54,6 +56,19 @@ public abstract class AbstractConnectorDescriptor implements IConnectorDescripto
         this.displayName = displayName;
     }
 
+    @Override
+    public boolean isFrameCompressionEnabled() {
+        return frameCompression;
+    }
+
+    /**
+     * Enables the compression of the frames this connector sends between different nodes.
+     * Worthwhile for exchanges that saturate the network while the nodes have idle cores.
+     */
+    public void setFrameCompressionEnabled(boolean frameCompression) {
+        this.frameCompression = frameCompression;
+    }
+
     @Override
     public JsonNode toJSON() {
         ObjectMapper om = new ObjectMapper();
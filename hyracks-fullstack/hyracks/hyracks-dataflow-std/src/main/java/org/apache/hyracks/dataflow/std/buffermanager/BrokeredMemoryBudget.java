@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.buffermanager;
+
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+
+/**
+ * A memory budget that starts at the budget an operator was compiled with and can grow by borrowing memory from the
+ * {@link IMemoryBroker} of the node. The borrowed memory is given back when the broker is under pressure, at the
+ * points where the operator has spilled and released some of its frames, and at the latest when it closes.
+ */
+public class BrokeredMemoryBudget {
+    // the budget grows by at least this fraction of the compiled budget to limit the calls to the broker
+    private static final int GROWTH_DIVISOR = 4;
+
+    private final IMemoryBroker broker;
+    private final long baseBudget;
+    private final long minGrowth;
+    private long budget;
+
+    public BrokeredMemoryBudget(IMemoryBroker broker, long baseBudget) {
+        this.broker = broker;
+        this.baseBudget = baseBudget;
+        this.minGrowth = baseBudget / GROWTH_DIVISOR;
+        this.budget = baseBudget;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getBorrowed() {
+        return budget - baseBudget;
+    }
+
+    /**
+     * Grows the budget to at least the given size if the broker has enough memory.
+     *
+     * @param requiredBytes
+     *            the budget needed by the caller
+     * @return true if the budget is at least {@code requiredBytes}
+     */
+    public boolean ensure(long requiredBytes) {
+        if (requiredBytes <= budget) {
+            return true;
+        }
+        long missing = requiredBytes - budget;
+        budget += broker.grant(missing, Math.max(missing, minGrowth));
+        return requiredBytes <= budget;
+    }
+
+    /**
+     * @return true if the budget holds borrowed memory that the broker wants back
+     */
+    public boolean shouldShrink() {
+        return budget > baseBudget && broker.isUnderPressure();
+    }
+
+    /**
+     * Gives back up to the given amount of the borrowed memory.
+     *
+     * @param bytes
+     *            the amount of memory the caller no longer uses
+     * @return the amount of memory given back
+     */
+    public long shrink(long bytes) {
+        long released = Math.min(bytes, budget - baseBudget);
+        if (released > 0) {
+            budget -= released;
+            broker.release(released);
+        }
+        return released;
+    }
+
+    /**
+     * Gives back all the borrowed memory.
+     */
+    public void releaseAll() {
+        shrink(budget - baseBudget);
+    }
+
+    public static BrokeredMemoryBudget create(IMemoryBroker broker, long baseBudget) {
+        return broker == null ? null : new BrokeredMemoryBudget(broker, baseBudget);
+    }
+}
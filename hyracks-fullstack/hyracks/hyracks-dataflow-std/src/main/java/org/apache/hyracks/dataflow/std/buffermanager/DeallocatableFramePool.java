@@ -29,13 +29,25 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 public class DeallocatableFramePool implements IDeallocatableFramePool {
 
     private final IHyracksFrameMgrContext ctx;
-    private final int memBudget;
+    private final BrokeredMemoryBudget brokeredBudget;
+    private int memBudget;
     private int allocated;
     private LinkedList<ByteBuffer> buffers;
 
     public DeallocatableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes) {
+        this(ctx, memBudgetInBytes, null);
+    }
+
+    /**
+     * @param brokeredBudget
+     *            if not null, the pool borrows memory beyond {@code memBudgetInBytes} when it runs out of space and
+     *            gives it back as frames are deallocated while the broker is under pressure
+     */
+    public DeallocatableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes,
+            BrokeredMemoryBudget brokeredBudget) {
         this.ctx = ctx;
         this.memBudget = memBudgetInBytes;
+        this.brokeredBudget = brokeredBudget;
         this.allocated = 0;
         this.buffers = new LinkedList<>();
     }
@@ -56,12 +68,24 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         if (buffer != null) {
             return buffer;
         }
-        if (haveEnoughFreeSpace(frameSize)) {
+        if (haveEnoughFreeSpace(frameSize) || borrow(frameSize)) {
             return createNewFrame(frameSize);
         }
         return mergeExistingFrames(frameSize);
     }
 
+    private boolean borrow(int frameSize) {
+        if (brokeredBudget == null || !brokeredBudget.ensure((long) allocated + frameSize)) {
+            return false;
+        }
+        updateBudget();
+        return haveEnoughFreeSpace(frameSize);
+    }
+
+    private void updateBudget() {
+        memBudget = (int) Math.min(Integer.MAX_VALUE, brokeredBudget.getBudget());
+    }
+
     private ByteBuffer mergeExistingFrames(int frameSize) throws HyracksDataException {
         int mergedSize = memBudget - allocated;
         for (Iterator<ByteBuffer> iter = buffers.iterator(); iter.hasNext();) {
@@ -100,7 +124,13 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
 
     @Override
     public void deAllocateBuffer(ByteBuffer buffer) {
-        if (buffer.capacity() != ctx.getInitialFrameSize()) {
+        if (brokeredBudget != null && brokeredBudget.shouldShrink()) {
+            // give the frame back to the memory broker
+            ctx.deallocateFrames(buffer.capacity());
+            allocated -= buffer.capacity();
+            brokeredBudget.shrink(buffer.capacity());
+            updateBudget();
+        } else if (buffer.capacity() != ctx.getInitialFrameSize()) {
             // simply deallocate the Big Object frame
             ctx.deallocateFrames(buffer.capacity());
             allocated -= buffer.capacity();
@@ -124,5 +154,9 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         }
         allocated = 0;
         buffers.clear();
+        if (brokeredBudget != null) {
+            brokeredBudget.releaseAll();
+            updateBudget();
+        }
     }
 }
@@ -34,7 +34,8 @@ public class VariableFramePool implements IFramePool {
 
     private final IHyracksFrameMgrContext ctx;
     private final int minFrameSize;
-    private final int memBudget;
+    private final BrokeredMemoryBudget brokeredBudget;
+    private int memBudget;
 
     private int allocateMem;
     private ArrayList<ByteBuffer> buffers; // the unused slots were sorted by size increasingly.
@@ -48,14 +49,31 @@ public class VariableFramePool implements IFramePool {
      *            the given memory budgets to allocate the frames. If it less than 0, it will be treated as unlimited budgets
      */
     public VariableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes) {
+        this(ctx, memBudgetInBytes, null);
+    }
+
+    /**
+     * The constructor of a VariableFramePool that can borrow memory beyond its budget.
+     *
+     * @param ctx
+     * @param memBudgetInBytes
+     *            the given memory budgets to allocate the frames. If it less than 0, it will be treated as unlimited
+     *            budgets
+     * @param brokeredBudget
+     *            if not null, the pool borrows memory beyond {@code memBudgetInBytes} when it runs out of space and
+     *            gives it back on {@link #reset()} while the broker is under pressure
+     */
+    public VariableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes, BrokeredMemoryBudget brokeredBudget) {
         this.ctx = ctx;
         this.minFrameSize = ctx.getInitialFrameSize();
         this.allocateMem = 0;
         if (memBudgetInBytes == UNLIMITED_MEMORY) {
+            this.brokeredBudget = null;
             this.memBudget = Integer.MAX_VALUE;
             this.buffers = new ArrayList<>();
             this.used = new BitSet();
         } else {
+            this.brokeredBudget = brokeredBudget;
             this.memBudget = memBudgetInBytes;
             this.buffers = new ArrayList<>(memBudgetInBytes / minFrameSize);
             this.used = new BitSet(memBudgetInBytes / minFrameSize);
@@ -78,13 +96,25 @@ public class VariableFramePool implements IFramePool {
         if (frameId >= 0) {
             return reuseFrame(frameId);
         }
-        if (haveEnoughFreeSpace(frameSize)) {
+        if (haveEnoughFreeSpace(frameSize) || borrow(frameSize)) {
             return createNewFrame(frameSize);
         }
         return mergeExistingFrames(frameSize);
 
     }
 
+    private boolean borrow(int frameSize) {
+        if (brokeredBudget == null || !brokeredBudget.ensure((long) allocateMem + frameSize)) {
+            return false;
+        }
+        updateBudget();
+        return haveEnoughFreeSpace(frameSize);
+    }
+
+    private void updateBudget() {
+        memBudget = (int) Math.min(Integer.MAX_VALUE, brokeredBudget.getBudget());
+    }
+
     private boolean haveEnoughFreeSpace(int frameSize) {
         return frameSize + allocateMem <= memBudget;
     }
@@ -174,6 +204,16 @@ public class VariableFramePool implements IFramePool {
         removeEmptySpot(buffers);
         Collections.sort(buffers, sizeByteBufferComparator);
         used.clear();
+        if (brokeredBudget != null) {
+            // give the largest frames back to the memory broker while it is under pressure
+            while (!buffers.isEmpty() && brokeredBudget.shouldShrink()) {
+                ByteBuffer frame = buffers.remove(buffers.size() - 1);
+                ctx.deallocateFrames(frame.capacity());
+                allocateMem -= frame.capacity();
+                brokeredBudget.shrink(frame.capacity());
+            }
+            updateBudget();
+        }
     }
 
     private static void removeEmptySpot(List<ByteBuffer> buffers) {
@@ -191,6 +231,10 @@ public class VariableFramePool implements IFramePool {
         buffers.clear();
         used.clear();
         allocateMem = 0;
+        if (brokeredBudget != null) {
+            brokeredBudget.releaseAll();
+            updateBudget();
+        }
     }
 
     private static Comparator<ByteBuffer> sizeByteBufferComparator = new Comparator<ByteBuffer>() {
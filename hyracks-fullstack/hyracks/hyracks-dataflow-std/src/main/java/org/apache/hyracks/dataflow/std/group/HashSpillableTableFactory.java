@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.dataflow.std.group;
 
+import java.util.Arrays;
 import java.util.BitSet;
 
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
@@ -32,8 +33,11 @@ import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.common.utils.TaskUtil;
+import org.apache.hyracks.dataflow.std.buffermanager.BrokeredMemoryBudget;
 import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
@@ -84,17 +88,23 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             intermediateResultKeys[i] = i;
         }
 
+        // Only the first comparators.length key fields are grouped on. The remaining key fields (decorations) are
+        // carried over from the first tuple of each group and are neither hashed nor compared.
+        final int numGroupKeys = Math.min(keyFields.length, comparators.length);
+        final int[] groupKeys = Arrays.copyOf(keyFields, numGroupKeys);
+        final int[] intermediateGroupKeys = Arrays.copyOf(intermediateResultKeys, numGroupKeys);
+
         final FrameTuplePairComparator ftpcInputCompareToAggregate =
-                new FrameTuplePairComparator(keyFields, intermediateResultKeys, comparators);
+                new FrameTuplePairComparator(groupKeys, intermediateGroupKeys, comparators);
 
         final ITuplePartitionComputer tpc =
-                new FieldHashPartitionComputerFamily(keyFields, hashFunctionFamilies).createPartitioner(seed);
+                new FieldHashPartitionComputerFamily(groupKeys, hashFunctionFamilies).createPartitioner(seed);
 
         // For calculating hash value for the already aggregated tuples (not incoming tuples)
         // This computer is required to calculate the hash value of a aggregated tuple
         // while doing the garbage collection work on Hash Table.
         final ITuplePartitionComputer tpcIntermediate =
-                new FieldHashPartitionComputerFamily(intermediateResultKeys, hashFunctionFamilies)
+                new FieldHashPartitionComputerFamily(intermediateGroupKeys, hashFunctionFamilies)
                         .createPartitioner(seed);
 
         final IAggregatorDescriptor aggregator = aggregateFactory.createAggregator(ctx, inRecordDescriptor,
@@ -122,8 +132,9 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             private final TuplePointer pointer = new TuplePointer();
             private final BitSet spilledSet = new BitSet(numPartitions);
             // This frame pool will be shared by both data table and hash table.
-            private final IDeallocatableFramePool framePool =
-                    new DeallocatableFramePool(ctx, framesLimit * ctx.getInitialFrameSize());
+            private final IDeallocatableFramePool framePool = new DeallocatableFramePool(ctx,
+                    framesLimit * ctx.getInitialFrameSize(), BrokeredMemoryBudget.create(
+                            TaskUtil.getMemoryBroker(ctx), (long) framesLimit * ctx.getInitialFrameSize()));
             // buffer manager for hash table
             private final ISimpleFrameBufferManager bufferManagerForHashTable =
                     new FramePoolBackedFrameBufferManager(framePool);
@@ -143,9 +154,16 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             private final FrameTupleAppender outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
 
+            // holds the aggregate state of a single tuple that is passed through, allocated on the first use
+            private VSizeFrame passThroughFrame;
+            private FrameTupleAppender passThroughAppender;
+            private FrameTupleAccessor passThroughAccessor;
+
             @Override
             public void close() throws HyracksDataException {
                 hashTableForTuplePointer.close();
+                // gives the memory borrowed by the frame pool back to the memory broker
+                bufferManager.close();
                 aggregator.close();
             }
 
@@ -168,6 +186,20 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 bufferManager.clearPartition(partition);
             }
 
+            @Override
+            public void reset() throws HyracksDataException {
+                for (int p = 0; p < tableSize; p++) {
+                    hashTableForTuplePointer.delete(p);
+                }
+                if (hashTableForTuplePointer.isGarbageCollectionNeeded()) {
+                    hashTableForTuplePointer.collectGarbage(bufferAccessor, tpcIntermediate);
+                }
+                for (int p = 0; p < getNumPartitions(); p++) {
+                    bufferManager.clearPartition(p);
+                }
+                spilledSet.clear();
+            }
+
             private int getPartition(int entryInHashTable) {
                 return entryInHashTable / entriesPerPartition;
             }
@@ -182,8 +214,14 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public boolean insert(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
+                int hash = tpc.hash(accessor, tIndex);
+                int entryInHashTable = hash % tableSize;
+                int hashCode = hash % SerializableHashTable.HASH_CODE_RANGE;
                 for (int i = 0; i < hashTableForTuplePointer.getTupleCount(entryInHashTable); i++) {
+                    // The aggregate states of other keys in the same entry are skipped without touching their frames.
+                    if (hashTableForTuplePointer.getTupleHashCode(entryInHashTable, i) != hashCode) {
+                        continue;
+                    }
                     hashTableForTuplePointer.getTuplePointer(entryInHashTable, i, pointer);
                     bufferAccessor.reset(pointer);
                     int c = ftpcInputCompareToAggregate.compare(accessor, tIndex, bufferAccessor);
@@ -192,7 +230,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                         return true;
                     }
                 }
-                return insertNewAggregateEntry(entryInHashTable, accessor, tIndex);
+                return insertNewAggregateEntry(entryInHashTable, hashCode, accessor, tIndex);
             }
 
             /**
@@ -201,8 +239,8 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
              * So, if an insertion succeeds on the data table and the same insertion on the hash table fails, then
              * we need to revert the effect of data table insertion.
              */
-            private boolean insertNewAggregateEntry(int entryInHashTable, IFrameTupleAccessor accessor, int tIndex)
-                    throws HyracksDataException {
+            private boolean insertNewAggregateEntry(int entryInHashTable, int hashCode, IFrameTupleAccessor accessor,
+                    int tIndex) throws HyracksDataException {
                 initStateTupleBuilder(accessor, tIndex);
                 int pid = getPartition(entryInHashTable);
 
@@ -213,7 +251,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 }
 
                 // Insertion to the hash table
-                if (!hashTableForTuplePointer.insert(entryInHashTable, pointer)) {
+                if (!hashTableForTuplePointer.insert(entryInHashTable, pointer, hashCode)) {
                     // To preserve the atomicity of this method, we need to undo the effect
                     // of the above bufferManager.insertTuple() call since the given insertion has failed.
                     bufferManager.cancelInsertTuple(pid);
@@ -252,26 +290,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                                     bufferAccessor.getFieldLength(intermediateResultKeys[k]));
                         }
 
-                        boolean hasOutput = false;
-                        switch (type) {
-                            case PARTIAL:
-                                hasOutput = aggregator.outputPartialResult(outputTupleBuilder, bufferAccessor,
-                                        pointer.getTupleIndex(), aggregateState);
-                                break;
-                            case FINAL:
-                                hasOutput = aggregator.outputFinalResult(outputTupleBuilder, bufferAccessor,
-                                        pointer.getTupleIndex(), aggregateState);
-                                break;
-                        }
-
-                        if (hasOutput && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
-                                outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
-                            outputAppender.write(writer, true);
-                            if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
-                                    outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
-                                throw new HyracksDataException("The output item is too large to be fit into a frame.");
-                            }
-                        }
+                        outputResult(bufferAccessor, pointer.getTupleIndex(), writer, type);
                     }
                 }
                 outputAppender.write(writer, true);
@@ -279,6 +298,59 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 return count;
             }
 
+            @Override
+            public int passThrough(IFrameTupleAccessor accessor, IFrameWriter writer, AggregateType type)
+                    throws HyracksDataException {
+                if (passThroughFrame == null) {
+                    passThroughFrame = new VSizeFrame(ctx);
+                    passThroughAppender = new FrameTupleAppender();
+                    passThroughAccessor = new FrameTupleAccessor(outRecordDescriptor);
+                }
+                int tupleCount = accessor.getTupleCount();
+                for (int i = 0; i < tupleCount; i++) {
+                    initStateTupleBuilder(accessor, i);
+                    passThroughAppender.reset(passThroughFrame, true);
+                    if (!passThroughAppender.append(stateTupleBuilder.getFieldEndOffsets(),
+                            stateTupleBuilder.getByteArray(), 0, stateTupleBuilder.getSize())) {
+                        throw new HyracksDataException("The aggregate state is too large to be fit into a frame.");
+                    }
+                    passThroughAccessor.reset(passThroughFrame.getBuffer());
+                    outputTupleBuilder.reset();
+                    for (int k = 0; k < intermediateResultKeys.length; k++) {
+                        outputTupleBuilder.addField(passThroughAccessor, 0, intermediateResultKeys[k]);
+                    }
+                    outputResult(passThroughAccessor, 0, writer, type);
+                }
+                if (outputAppender.getTupleCount() > 0) {
+                    outputAppender.write(writer, true);
+                }
+                return tupleCount;
+            }
+
+            private void outputResult(IFrameTupleAccessor stateAccessor, int stateIndex, IFrameWriter writer,
+                    AggregateType type) throws HyracksDataException {
+                boolean hasOutput = false;
+                switch (type) {
+                    case PARTIAL:
+                        hasOutput = aggregator.outputPartialResult(outputTupleBuilder, stateAccessor, stateIndex,
+                                aggregateState);
+                        break;
+                    case FINAL:
+                        hasOutput = aggregator.outputFinalResult(outputTupleBuilder, stateAccessor, stateIndex,
+                                aggregateState);
+                        break;
+                }
+
+                if (hasOutput && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                        outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                    outputAppender.write(writer, true);
+                    if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                            outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                        throw new HyracksDataException("The output item is too large to be fit into a frame.");
+                    }
+                }
+            }
+
             @Override
             public int getNumPartitions() {
                 return bufferManager.getNumPartitions();
@@ -286,7 +358,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
+                int entryInHashTable = tpc.hash(accessor, tIndex) % tableSize;
                 int partition = getPartition(entryInHashTable);
                 return spillPolicy.selectVictimPartition(partition);
             }
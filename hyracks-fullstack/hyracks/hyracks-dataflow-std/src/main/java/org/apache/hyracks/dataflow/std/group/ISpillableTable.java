@@ -37,6 +37,13 @@ public interface ISpillableTable {
      */
     void clear(int partition) throws HyracksDataException;
 
+    /**
+     * Reset all the partitions to the initial state, including the spilled ones. The occupied resources will be
+     * released.
+     * @throws HyracksDataException
+     */
+    void reset() throws HyracksDataException;
+
     /**
      * Insert the specific tuple into the table.
      * @param accessor
@@ -56,6 +63,18 @@ public interface ISpillableTable {
      */
     int flushFrames(int partition, IFrameWriter writer, AggregateType type) throws HyracksDataException;
 
+    /**
+     * Aggregate each tuple of the given frame as a group of its own and write the results to writer, bypassing the
+     * table. Return the numOfTuples that have been written.
+     * @param accessor
+     * @param writer
+     * @param type
+     * @return
+     * @throws HyracksDataException
+     */
+    int passThrough(IFrameTupleAccessor accessor, IFrameWriter writer, AggregateType type)
+            throws HyracksDataException;
+
     /**
      * Get number of partitions
      */
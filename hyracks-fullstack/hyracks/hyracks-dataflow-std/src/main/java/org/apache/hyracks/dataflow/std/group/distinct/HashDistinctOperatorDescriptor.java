@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.distinct;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupOperatorDescriptor;
+
+/**
+ * Removes duplicates with a hash table instead of sorting the input. The hash table, its partitioning, and the
+ * spilling and recursive re-partitioning of the spilled partitions are the ones of the external hash group-by;
+ * the distinct is a group-by without aggregate fields.
+ * The first {@code comparatorFactories.length} key fields are the distinct fields. The remaining key fields are
+ * carried over from the first tuple of each distinct value.
+ */
+public class HashDistinctOperatorDescriptor extends ExternalGroupOperatorDescriptor {
+
+    private static final long serialVersionUID = 1L;
+
+    public HashDistinctOperatorDescriptor(IOperatorDescriptorRegistry spec, int tableSize, long inputFileSize,
+            int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            RecordDescriptor outRecordDesc) {
+        super(spec, tableSize, inputFileSize, keyFields, framesLimit, comparatorFactories, firstNormalizerFactory,
+                DistinctAggregatorDescriptorFactory.INSTANCE, DistinctAggregatorDescriptorFactory.INSTANCE,
+                outRecordDesc, outRecordDesc, new HashSpillableTableFactory(hashFunctionFamilies));
+    }
+}
@@ -44,6 +44,8 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
 
     private static final int MERGE_ACTIVITY_ID = 1;
 
+    private static final int STREAM_ACTIVITY_ID = 2;
+
     private static final long serialVersionUID = 1L;
     private final int[] keyFields;
     private final IBinaryComparatorFactory[] comparatorFactories;
@@ -58,6 +60,8 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
     private final RecordDescriptor outRecDesc;
     private final int tableSize;
     private final long fileSize;
+    private boolean streamPartialResults = false;
+    private double passThroughGroupRatio;
 
     public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
             int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
@@ -102,6 +106,13 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
      */
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
+        if (streamPartialResults) {
+            StreamActivity streamAct = new StreamActivity(new ActivityId(odId, STREAM_ACTIVITY_ID));
+            builder.addActivity(this, streamAct);
+            builder.addSourceEdge(0, streamAct, 0);
+            builder.addTargetEdge(0, streamAct, 0);
+            return;
+        }
         AggregateActivity aggregateAct = new AggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
         MergeActivity mergeAct = new MergeActivity(new ActivityId(odId, MERGE_ACTIVITY_ID));
 
@@ -152,6 +163,36 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
 
     }
 
+    private class StreamActivity extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public StreamActivity(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            return new ExternalGroupStreamOperatorNodePushable(ctx, tableSize, fileSize, keyFields, framesLimit,
+                    comparatorFactories, firstNormalizerFactory, partialAggregatorFactory,
+                    recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), outRecDescs[0],
+                    spillableTableFactory, passThroughGroupRatio);
+        }
+    }
+
+    /**
+     * Makes the operator output its groups whenever its memory is full instead of spilling them, and pass its input
+     * through once the groups it outputs are more than {@code passThroughGroupRatio} of the tuples it consumed, see
+     * {@link ExternalGroupStreamOperatorNodePushable}. The operator no longer blocks, but a group may be output
+     * several times, so this is only valid if the output is grouped again, e.g. for the local step of a two-phase
+     * aggregation.
+     */
+    public void setStreamPartialResults(boolean streamPartialResults, double passThroughGroupRatio) {
+        this.streamPartialResults = streamPartialResults;
+        this.passThroughGroupRatio = passThroughGroupRatio;
+    }
+
     /**
      * Based on a rough estimation of a tuple (each field size: 4 bytes) size and the number of possible hash values
      * for the given number of group-by columns, calculates the number of hash entries for the hash table in Group-by.
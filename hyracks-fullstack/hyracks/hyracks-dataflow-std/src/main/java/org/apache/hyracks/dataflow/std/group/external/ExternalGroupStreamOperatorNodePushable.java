@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.AggregateType;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Pre-aggregates the input of a group-by whose results are aggregated again downstream, such as the local step of a
+ * two-phase aggregation. A group may therefore be output more than once: when the table is full, all its groups are
+ * written to the output and the table starts over, so nothing is spilled to run files. When the groups that are
+ * written are more than a given fraction of the tuples that were inserted into them, the table does not reduce the
+ * input enough and the rest of the input is passed through, each tuple being output as a group of its own.
+ */
+public class ExternalGroupStreamOperatorNodePushable extends AbstractUnaryInputUnaryOutputOperatorNodePushable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final IHyracksTaskContext ctx;
+    private final int[] keyFields;
+    private final IBinaryComparator[] comparators;
+    private final INormalizedKeyComputer firstNormalizerComputer;
+    private final IAggregatorDescriptorFactory aggregatorFactory;
+    private final int framesLimit;
+    private final ISpillableTableFactory spillableTableFactory;
+    private final RecordDescriptor inRecordDescriptor;
+    private final RecordDescriptor outRecordDescriptor;
+    private final int tableSize;
+    private final long fileSize;
+    // The input is passed through once the table outputs more groups than this fraction of the tuples it consumed.
+    private final double passThroughGroupRatio;
+    private final FrameTupleAccessor accessor;
+
+    private ISpillableTable table;
+    private long numInsertedTuples;
+    private long numPassedTuples;
+    private boolean passThrough;
+    private boolean isFailed;
+
+    public ExternalGroupStreamOperatorNodePushable(IHyracksTaskContext ctx, int tableSize, long fileSize,
+            int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
+            RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor,
+            ISpillableTableFactory spillableTableFactory, double passThroughGroupRatio) {
+        this.ctx = ctx;
+        this.framesLimit = framesLimit;
+        this.aggregatorFactory = aggregatorFactory;
+        this.keyFields = keyFields;
+        this.comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        this.firstNormalizerComputer =
+                firstNormalizerFactory == null ? null : firstNormalizerFactory.createNormalizedKeyComputer();
+        this.spillableTableFactory = spillableTableFactory;
+        this.inRecordDescriptor = inRecordDescriptor;
+        this.outRecordDescriptor = outRecordDescriptor;
+        this.tableSize = tableSize;
+        this.fileSize = fileSize;
+        this.passThroughGroupRatio = passThroughGroupRatio;
+        this.accessor = new FrameTupleAccessor(inRecordDescriptor);
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        writer.open();
+        table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, keyFields, comparators,
+                firstNormalizerComputer, aggregatorFactory, inRecordDescriptor, outRecordDescriptor, framesLimit, 0);
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        accessor.reset(buffer);
+        if (passThrough) {
+            numPassedTuples += table.passThrough(accessor, writer, AggregateType.FINAL);
+            return;
+        }
+        int tupleCount = accessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            if (!table.insert(accessor, i)) {
+                flushTable();
+                if (!table.insert(accessor, i)) {
+                    throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
+                }
+            }
+            numInsertedTuples++;
+        }
+    }
+
+    /**
+     * Writes all the groups of the table to the output and empties the table. If the groups did not reduce the
+     * tuples that were inserted enough, the following frames are passed through.
+     */
+    private void flushTable() throws HyracksDataException {
+        long numGroups = 0;
+        for (int i = 0; i < table.getNumPartitions(); i++) {
+            numGroups += table.flushFrames(i, writer, AggregateType.FINAL);
+        }
+        table.reset();
+        if (numGroups > numInsertedTuples * passThroughGroupRatio) {
+            passThrough = true;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("passing through the input after " + numInsertedTuples + " tuples aggregated into "
+                        + numGroups + " groups");
+            }
+        }
+        numInsertedTuples = 0;
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        isFailed = true;
+        writer.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (!isFailed && table != null) {
+                for (int i = 0; i < table.getNumPartitions(); i++) {
+                    table.flushFrames(i, writer, AggregateType.FINAL);
+                }
+            }
+            if (LOGGER.isDebugEnabled() && numPassedTuples > 0) {
+                LOGGER.debug("passed through " + numPassedTuples + " tuples");
+            }
+        } catch (Exception e) {
+            writer.fail();
+            throw e;
+        } finally {
+            try {
+                if (table != null) {
+                    table.close();
+                }
+            } finally {
+                table = null;
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import org.apache.hyracks.api.dataflow.ActivityId;
+
+/**
+ * An operator that reads a probe input of a hash join and that can restrict its output to the range of the keys of
+ * the build input. The tasks of the operator must run after the build phase of the join, on the node of the join task
+ * of the same partition, e.g., the operator is connected to the probe input of the join by a one-to-one connector.
+ */
+public interface IJoinKeyRangeConsumer {
+    /**
+     * @param buildActivityId
+     *            the activity whose task state holds the {@link JoinKeyRange} of the build input of each partition
+     */
+    void setJoinKeyRangeSource(ActivityId buildActivityId);
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Computes the two-dimensional minimum bounding rectangle of the spatial key of a tuple.
+ */
+public interface ITupleMBRProvider {
+    /**
+     * @param accessor
+     *            the accessor of the frame that holds the tuple
+     * @param tIndex
+     *            the index of the tuple in the frame
+     * @param mbr
+     *            receives the rectangle as { minX, minY, maxX, maxY }
+     * @return false if the tuple has no spatial key (e.g. it is null or missing) and can never join
+     */
+    boolean getMBR(IFrameTupleAccessor accessor, int tIndex, double[] mbr) throws HyracksDataException;
+}
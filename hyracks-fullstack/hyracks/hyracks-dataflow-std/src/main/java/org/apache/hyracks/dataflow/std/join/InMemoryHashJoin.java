@@ -39,6 +39,7 @@ import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.TupleInFrameListAccessor;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 import org.apache.logging.log4j.LogManager;
@@ -122,19 +123,22 @@ public class InMemoryHashJoin {
         accessorBuild.reset(buffer);
         int tCount = accessorBuild.getTupleCount();
         for (int i = 0; i < tCount; ++i) {
-            int entry = tpcBuild.partition(accessorBuild, i, table.getTableSize());
+            int hash = tpcBuild.hash(accessorBuild, i);
+            int entry = hash % table.getTableSize();
+            int hashCode = hash % SerializableHashTable.HASH_CODE_RANGE;
             storedTuplePointer.reset(bIndex, i);
             // If an insertion fails, then tries to insert the same tuple pointer again after compacting the table.
-            if (!table.insert(entry, storedTuplePointer)) {
-                compactTableAndInsertAgain(entry, storedTuplePointer);
+            if (!table.insert(entry, storedTuplePointer, hashCode)) {
+                compactTableAndInsertAgain(entry, storedTuplePointer, hashCode);
             }
         }
     }
 
-    public boolean compactTableAndInsertAgain(int entry, TuplePointer tPointer) throws HyracksDataException {
+    public boolean compactTableAndInsertAgain(int entry, TuplePointer tPointer, int hashCode)
+            throws HyracksDataException {
         boolean oneMoreTry = false;
         if (compactHashTable() >= 0) {
-            oneMoreTry = table.insert(entry, tPointer);
+            oneMoreTry = table.insert(entry, tPointer, hashCode);
         }
         return oneMoreTry;
     }
@@ -158,9 +162,15 @@ public class InMemoryHashJoin {
     void join(int tid, IFrameWriter writer) throws HyracksDataException {
         boolean matchFound = false;
         if (isTableCapacityNotZero) {
-            int entry = tpcProbe.partition(accessorProbe, tid, table.getTableSize());
+            int hash = tpcProbe.hash(accessorProbe, tid);
+            int entry = hash % table.getTableSize();
             int tupleCount = table.getTupleCount(entry);
+            int hashCode = hash % SerializableHashTable.HASH_CODE_RANGE;
             for (int i = 0; i < tupleCount; i++) {
+                // The build tuples of other keys in the same entry are skipped without touching their frames.
+                if (table.getTupleHashCode(entry, i) != hashCode) {
+                    continue;
+                }
                 table.getTuplePointer(entry, i, storedTuplePointer);
                 int bIndex = storedTuplePointer.getFrameIndex();
                 int tIndex = storedTuplePointer.getTupleIndex();
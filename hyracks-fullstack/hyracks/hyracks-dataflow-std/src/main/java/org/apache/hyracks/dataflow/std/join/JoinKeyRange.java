@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+
+/**
+ * The smallest and the largest keys of the tuples of a join input, in the lexicographic order of the keys. The build
+ * phase of a hash join collects the range of its keys, so that the scan of the probe input can skip the tuples whose
+ * keys are out of the range, see {@link IJoinKeyRangeConsumer}.
+ */
+public class JoinKeyRange {
+    private final IBinaryComparator[] comparators;
+    private final int[] keys;
+    private final IFrameTupleAccessor accessor;
+    private final ArrayTupleBuilder minBuilder;
+    private final ArrayTupleBuilder maxBuilder;
+    private final ArrayTupleReference min = new ArrayTupleReference();
+    private final ArrayTupleReference max = new ArrayTupleReference();
+    private boolean empty = true;
+
+    public JoinKeyRange(IBinaryComparator[] comparators, int[] keys, RecordDescriptor recordDescriptor) {
+        this.comparators = comparators;
+        this.keys = keys;
+        this.accessor = new FrameTupleAccessor(recordDescriptor);
+        this.minBuilder = new ArrayTupleBuilder(keys.length);
+        this.maxBuilder = new ArrayTupleBuilder(keys.length);
+    }
+
+    public void add(ByteBuffer buffer) throws HyracksDataException {
+        accessor.reset(buffer);
+        int tupleCount = accessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            if (empty) {
+                set(minBuilder, min, i);
+                set(maxBuilder, max, i);
+                empty = false;
+            } else if (compare(i, min) < 0) {
+                set(minBuilder, min, i);
+            } else if (compare(i, max) > 0) {
+                set(maxBuilder, max, i);
+            }
+        }
+    }
+
+    /**
+     * @return whether no tuple was added, in which case no tuple can match the keys of the input
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return the smallest keys, as a tuple of the key fields
+     */
+    public ITupleReference getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest keys, as a tuple of the key fields
+     */
+    public ITupleReference getMax() {
+        return max;
+    }
+
+    private int compare(int tIndex, ITupleReference keyTuple) throws HyracksDataException {
+        byte[] data = accessor.getBuffer().array();
+        for (int i = 0; i < keys.length; i++) {
+            int c = comparators[i].compare(data, accessor.getAbsoluteFieldStartOffset(tIndex, keys[i]),
+                    accessor.getFieldLength(tIndex, keys[i]), keyTuple.getFieldData(i), keyTuple.getFieldStart(i),
+                    keyTuple.getFieldLength(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private void set(ArrayTupleBuilder builder, ArrayTupleReference keyTuple, int tIndex)
+            throws HyracksDataException {
+        builder.reset();
+        for (int key : keys) {
+            builder.addField(accessor, tIndex, key);
+        }
+        keyTuple.reset(builder.getFieldEndOffsets(), builder.getByteArray());
+    }
+}
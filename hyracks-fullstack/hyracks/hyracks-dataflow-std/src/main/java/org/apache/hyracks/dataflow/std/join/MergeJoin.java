@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluator;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
+
+/**
+ * A merge join of a left input that is sorted on its keys and a right input that is sorted on the keys of its lower
+ * bound, or on the keys of its upper bound if it has no lower bound.
+ * <p>
+ * A right tuple matches the left tuples whose keys lie between its lower and upper bound, either of which may be
+ * missing. An equi-join uses the join keys of the right tuple as both bounds, a band join uses two different fields,
+ * and an inequality join has a single bound.
+ * <p>
+ * The right input is materialized to a run file first. The left input is then streamed, and a window of the right
+ * tuples that may still match is kept while the run file is read forward. A right tuple enters the window once its
+ * lower bound admits the current left tuple, and leaves it once its upper bound is below the current left tuple. The
+ * window frames are cached in memory as long as they fit; the frames that do not fit are read back from the run file
+ * whenever the window is scanned.
+ * <p>
+ * The pairs are checked with the predicate evaluator, if any, and with the tuple pair comparator, if any, which
+ * receives the left tuple first and reports a match by returning 0.
+ */
+public class MergeJoin {
+    private static final int MIN_FRAMES = 4;
+
+    private final FrameTupleAccessor leftAccessor;
+    private final FrameTupleAccessor rightAccessor;
+    private final int[] keysLeft;
+    private final MergeJoinBound lowBound;
+    private final MergeJoinBound highBound;
+    private final IBinaryComparator[] lowComparators;
+    private final IBinaryComparator[] highComparators;
+    private final IPredicateEvaluator predEvaluator;
+    private final ITuplePairComparator comparator;
+    private final boolean isLeftOuter;
+    private final ArrayTupleBuilder missingTupleBuilder;
+    private final FrameTupleAppender appender;
+    private final IDeallocatableFramePool windowPool;
+    private final ArrayDeque<WindowFrame> window = new ArrayDeque<>();
+    private final IFrame tailFrame;
+    private final IFrame rescanFrame;
+    private final RunFileWriter runFileWriter;
+
+    private RunFileReader runFileReader;
+    private RunFileReader rescanReader;
+    // The frame of the run file that was read last. It is not part of the window deque.
+    private boolean hasTail = false;
+    private long tailPosition;
+    // The position of the first window tuple in the first window frame, which is the tail if the deque is empty.
+    private int windowStart = 0;
+    // The number of tuples of the tail frame that have entered the window.
+    private int windowEnd = 0;
+
+    public MergeJoin(IHyracksTaskContext ctx, RecordDescriptor leftRd, RecordDescriptor rightRd, int[] keysLeft,
+            MergeJoinBound lowBound, MergeJoinBound highBound, int memSize, IPredicateEvaluator predEvaluator,
+            ITuplePairComparator comparator, boolean isLeftOuter, IMissingWriter[] missingWriters)
+            throws HyracksDataException {
+        if (memSize < MIN_FRAMES) {
+            throw new HyracksDataException("Not enough memory is available for Merge Join");
+        }
+        if (lowBound == null && highBound == null) {
+            throw new IllegalArgumentException("A merge join needs at least one bound");
+        }
+        this.leftAccessor = new FrameTupleAccessor(leftRd);
+        this.rightAccessor = new FrameTupleAccessor(rightRd);
+        this.keysLeft = keysLeft;
+        this.lowBound = lowBound;
+        this.highBound = highBound;
+        this.lowComparators = lowBound == null ? null : lowBound.createBinaryComparators();
+        this.highComparators = highBound == null ? null : highBound.createBinaryComparators();
+        this.predEvaluator = predEvaluator;
+        this.comparator = comparator;
+        this.isLeftOuter = isLeftOuter;
+        if (isLeftOuter) {
+            int rightFieldCount = rightRd.getFieldCount();
+            missingTupleBuilder = new ArrayTupleBuilder(rightFieldCount);
+            DataOutput out = missingTupleBuilder.getDataOutput();
+            for (int i = 0; i < rightFieldCount; i++) {
+                missingWriters[i].writeMissing(out);
+                missingTupleBuilder.addFieldEndOffset();
+            }
+        } else {
+            missingTupleBuilder = null;
+        }
+        // One frame for the output, one for the tail of the window and one for reading uncached frames back.
+        this.appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        this.tailFrame = new VSizeFrame(ctx);
+        this.rescanFrame = new VSizeFrame(ctx);
+        this.windowPool = new DeallocatableFramePool(ctx, (memSize - 3) * ctx.getInitialFrameSize());
+
+        FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(this.getClass().getSimpleName());
+        runFileWriter = new RunFileWriter(file, ctx.getIoManager());
+        runFileWriter.open();
+    }
+
+    public void cache(ByteBuffer buffer) throws HyracksDataException {
+        runFileWriter.nextFrame(buffer);
+    }
+
+    public void closeCache() throws HyracksDataException {
+        runFileWriter.close();
+    }
+
+    public void join(ByteBuffer leftBuffer, IFrameWriter writer) throws HyracksDataException {
+        if (runFileReader == null) {
+            runFileReader = runFileWriter.createDeleteOnCloseReader();
+            runFileReader.open();
+            rescanReader = runFileWriter.createReader();
+            rescanReader.open();
+        }
+        leftAccessor.reset(leftBuffer);
+        int tupleCount = leftAccessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            evict(i);
+            extend(i);
+            if (!joinWindow(i, writer) && isLeftOuter) {
+                FrameUtils.appendConcatToWriter(writer, appender, leftAccessor, i,
+                        missingTupleBuilder.getFieldEndOffsets(), missingTupleBuilder.getByteArray(), 0,
+                        missingTupleBuilder.getSize());
+            }
+        }
+    }
+
+    public void completeJoin(IFrameWriter writer) throws HyracksDataException {
+        appender.write(writer, true);
+    }
+
+    public void close() throws HyracksDataException {
+        for (WindowFrame frame : window) {
+            if (frame.buffer != null) {
+                windowPool.deAllocateBuffer(frame.buffer);
+            }
+        }
+        window.clear();
+        windowPool.close();
+        if (runFileReader == null) {
+            runFileWriter.getFileReference().delete();
+            return;
+        }
+        try {
+            rescanReader.close();
+        } finally {
+            runFileReader.close();
+        }
+    }
+
+    /**
+     * Drops the leading window tuples whose upper bound is below the given left tuple. Since the left input is
+     * sorted, they cannot match any of the following left tuples either.
+     */
+    private void evict(int leftIndex) throws HyracksDataException {
+        if (highBound == null) {
+            return;
+        }
+        while (!window.isEmpty()) {
+            WindowFrame first = window.peekFirst();
+            rightAccessor.reset(load(first));
+            while (windowStart < rightAccessor.getTupleCount() && !isBelowHigh(leftIndex, windowStart)) {
+                windowStart++;
+            }
+            if (windowStart < rightAccessor.getTupleCount()) {
+                return;
+            }
+            window.removeFirst();
+            if (first.buffer != null) {
+                windowPool.deAllocateBuffer(first.buffer);
+            }
+            windowStart = 0;
+        }
+        if (hasTail) {
+            rightAccessor.reset(tailFrame.getBuffer());
+            while (windowStart < windowEnd && !isBelowHigh(leftIndex, windowStart)) {
+                windowStart++;
+            }
+        }
+    }
+
+    /**
+     * Adds the right tuples whose lower bound admits the given left tuple to the window.
+     */
+    private void extend(int leftIndex) throws HyracksDataException {
+        while (true) {
+            if (hasTail) {
+                rightAccessor.reset(tailFrame.getBuffer());
+                if (windowEnd < rightAccessor.getTupleCount()) {
+                    if (!isAboveLow(leftIndex, windowEnd)) {
+                        return;
+                    }
+                    windowEnd++;
+                    continue;
+                }
+            }
+            if (!advanceTail()) {
+                return;
+            }
+        }
+    }
+
+    private boolean advanceTail() throws HyracksDataException {
+        if (runFileReader.position() >= runFileReader.getFileSize()) {
+            return false;
+        }
+        if (hasTail) {
+            if (window.isEmpty() && windowStart >= windowEnd) {
+                // Every tuple of the tail has been evicted already.
+                windowStart = 0;
+            } else {
+                ByteBuffer tail = tailFrame.getBuffer();
+                ByteBuffer copy = windowPool.allocateFrame(tail.capacity());
+                if (copy != null) {
+                    FrameUtils.copyAndFlip(tail, copy);
+                }
+                window.addLast(new WindowFrame(tailPosition, copy));
+            }
+        }
+        tailPosition = runFileReader.position();
+        runFileReader.nextFrame(tailFrame);
+        hasTail = true;
+        windowEnd = 0;
+        return true;
+    }
+
+    /**
+     * Joins the given left tuple with the tuples of the window.
+     *
+     * @return whether the left tuple had a match
+     */
+    private boolean joinWindow(int leftIndex, IFrameWriter writer) throws HyracksDataException {
+        boolean matched = false;
+        int start = windowStart;
+        Iterator<WindowFrame> frames = window.iterator();
+        while (frames.hasNext()) {
+            rightAccessor.reset(load(frames.next()));
+            matched |= joinTuples(leftIndex, start, rightAccessor.getTupleCount(), writer);
+            start = 0;
+        }
+        if (hasTail) {
+            rightAccessor.reset(tailFrame.getBuffer());
+            matched |= joinTuples(leftIndex, start, windowEnd, writer);
+        }
+        return matched;
+    }
+
+    private boolean joinTuples(int leftIndex, int start, int end, IFrameWriter writer) throws HyracksDataException {
+        boolean matched = false;
+        for (int j = start; j < end; j++) {
+            // The lower bound holds for all the tuples of the window.
+            if (isBelowHigh(leftIndex, j)
+                    && (predEvaluator == null || predEvaluator.evaluate(leftAccessor, leftIndex, rightAccessor, j))
+                    && (comparator == null || comparator.compare(leftAccessor, leftIndex, rightAccessor, j) == 0)) {
+                FrameUtils.appendConcatToWriter(writer, appender, leftAccessor, leftIndex, rightAccessor, j);
+                matched = true;
+            }
+        }
+        return matched;
+    }
+
+    private ByteBuffer load(WindowFrame frame) throws HyracksDataException {
+        if (frame.buffer != null) {
+            return frame.buffer;
+        }
+        rescanReader.seek(frame.position);
+        rescanReader.nextFrame(rescanFrame);
+        return rescanFrame.getBuffer();
+    }
+
+    private boolean isAboveLow(int leftIndex, int rightIndex) throws HyracksDataException {
+        if (lowBound == null) {
+            return true;
+        }
+        int c = compare(leftIndex, rightIndex, lowBound.getKeysRight(), lowComparators);
+        return c > 0 || (c == 0 && lowBound.isInclusive());
+    }
+
+    private boolean isBelowHigh(int leftIndex, int rightIndex) throws HyracksDataException {
+        if (highBound == null) {
+            return true;
+        }
+        int c = compare(leftIndex, rightIndex, highBound.getKeysRight(), highComparators);
+        return c < 0 || (c == 0 && highBound.isInclusive());
+    }
+
+    private int compare(int leftIndex, int rightIndex, int[] keysRight, IBinaryComparator[] comparators)
+            throws HyracksDataException {
+        byte[] leftData = leftAccessor.getBuffer().array();
+        byte[] rightData = rightAccessor.getBuffer().array();
+        for (int i = 0; i < keysLeft.length; i++) {
+            int c = comparators[i].compare(leftData, leftAccessor.getAbsoluteFieldStartOffset(leftIndex, keysLeft[i]),
+                    leftAccessor.getFieldLength(leftIndex, keysLeft[i]), rightData,
+                    rightAccessor.getAbsoluteFieldStartOffset(rightIndex, keysRight[i]),
+                    rightAccessor.getFieldLength(rightIndex, keysRight[i]));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static class WindowFrame {
+        private final long position;
+        // A copy of the frame, or null if it did not fit in memory and has to be read back from the run file.
+        private final ByteBuffer buffer;
+
+        private WindowFrame(long position, ByteBuffer buffer) {
+            this.position = position;
+            this.buffer = buffer;
+        }
+    }
+}
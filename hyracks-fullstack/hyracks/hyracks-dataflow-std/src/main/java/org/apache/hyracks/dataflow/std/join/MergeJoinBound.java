@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.Serializable;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+
+/**
+ * A bound of the range of left keys that a right tuple of a merge join matches. The bound is given by key fields of
+ * the right tuple, together with the comparators that compare the left keys to them.
+ */
+public class MergeJoinBound implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] keysRight;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final boolean inclusive;
+
+    /**
+     * @param keysRight
+     *            the fields of the right tuple the left keys are compared to
+     * @param comparatorFactories
+     *            comparators of a left key and the corresponding right field
+     * @param inclusive
+     *            whether left keys that are equal to the bound match
+     */
+    public MergeJoinBound(int[] keysRight, IBinaryComparatorFactory[] comparatorFactories, boolean inclusive) {
+        this.keysRight = keysRight;
+        this.comparatorFactories = comparatorFactories;
+        this.inclusive = inclusive;
+    }
+
+    public int[] getKeysRight() {
+        return keysRight;
+    }
+
+    public boolean isInclusive() {
+        return inclusive;
+    }
+
+    public IBinaryComparator[] createBinaryComparators() {
+        IBinaryComparator[] comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparators.length; i++) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        return comparators;
+    }
+}
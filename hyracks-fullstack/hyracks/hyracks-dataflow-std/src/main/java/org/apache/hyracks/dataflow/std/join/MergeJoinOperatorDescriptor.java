@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
+import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+
+/**
+ * Merge join of two sorted inputs, see {@link MergeJoin}. The first input is the left side and the second input is
+ * the right side, which is materialized before the left side is consumed. The output keeps the order of the left
+ * input.
+ */
+public class MergeJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+    private static final int MATERIALIZE_ACTIVITY_ID = 0;
+    private static final int MERGE_ACTIVITY_ID = 1;
+
+    private static final long serialVersionUID = 1L;
+    private final int[] keysLeft;
+    private final MergeJoinBound lowBound;
+    private final MergeJoinBound highBound;
+    private final int memSize;
+    private final IPredicateEvaluatorFactory predEvaluatorFactory;
+    private final ITuplePairComparatorFactory comparatorFactory;
+    private final boolean isLeftOuter;
+    private final IMissingWriterFactory[] missingWriterFactories;
+
+    /**
+     * Creates an equi-join of two inputs that are sorted on their keys.
+     */
+    public MergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] keysLeft, int[] keysRight,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor, int memSize,
+            IPredicateEvaluatorFactory predEvaluatorFactory, boolean isLeftOuter,
+            IMissingWriterFactory[] missingWriterFactories) {
+        this(spec, keysLeft, new MergeJoinBound(keysRight, comparatorFactories, true),
+                new MergeJoinBound(keysRight, comparatorFactories, true), recordDescriptor, memSize,
+                predEvaluatorFactory, null, isLeftOuter, missingWriterFactories);
+    }
+
+    /**
+     * Creates a band or inequality join. A right tuple matches the left tuples whose keys lie between its lower and
+     * upper bound, and a missing bound is unbounded. The left input is sorted on its keys and the right input is
+     * sorted on the keys of the lower bound, or of the upper bound if there is no lower bound. The optional
+     * comparator verifies the pairs whose keys match, for example with the exact join condition.
+     */
+    public MergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] keysLeft, MergeJoinBound lowBound,
+            MergeJoinBound highBound, RecordDescriptor recordDescriptor, int memSize,
+            IPredicateEvaluatorFactory predEvaluatorFactory, ITuplePairComparatorFactory comparatorFactory,
+            boolean isLeftOuter, IMissingWriterFactory[] missingWriterFactories) {
+        super(spec, 2, 1);
+        this.keysLeft = keysLeft;
+        this.lowBound = lowBound;
+        this.highBound = highBound;
+        this.outRecDescs[0] = recordDescriptor;
+        this.memSize = memSize;
+        this.predEvaluatorFactory = predEvaluatorFactory;
+        this.comparatorFactory = comparatorFactory;
+        this.isLeftOuter = isLeftOuter;
+        this.missingWriterFactories = missingWriterFactories;
+    }
+
+    @Override
+    public void contributeActivities(IActivityGraphBuilder builder) {
+        ActivityId materializeAid = new ActivityId(getOperatorId(), MATERIALIZE_ACTIVITY_ID);
+        ActivityId mergeAid = new ActivityId(getOperatorId(), MERGE_ACTIVITY_ID);
+        MaterializeActivityNode materialize = new MaterializeActivityNode(materializeAid, mergeAid);
+        MergeActivityNode merge = new MergeActivityNode(mergeAid);
+
+        builder.addActivity(this, materialize);
+        builder.addSourceEdge(1, materialize, 0);
+
+        builder.addActivity(this, merge);
+        builder.addSourceEdge(0, merge, 0);
+
+        builder.addTargetEdge(0, merge, 0);
+        builder.addBlockingEdge(materialize, merge);
+    }
+
+    public static class MergeJoinTaskState extends AbstractStateObject {
+        private MergeJoin joiner;
+
+        private MergeJoinTaskState(JobId jobId, TaskId taskId) {
+            super(jobId, taskId);
+        }
+    }
+
+    private class MaterializeActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        private final ActivityId mergeAid;
+
+        public MaterializeActivityNode(ActivityId id, ActivityId mergeAid) {
+            super(id);
+            this.mergeAid = mergeAid;
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            final RecordDescriptor leftRd = recordDescProvider.getInputRecordDescriptor(mergeAid, 0);
+            final RecordDescriptor rightRd = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+            final IMissingWriter[] missingWriters = isLeftOuter ? new IMissingWriter[missingWriterFactories.length]
+                    : null;
+            if (isLeftOuter) {
+                for (int i = 0; i < missingWriterFactories.length; i++) {
+                    missingWriters[i] = missingWriterFactories[i].createMissingWriter();
+                }
+            }
+
+            return new AbstractUnaryInputSinkOperatorNodePushable() {
+                private MergeJoinTaskState state;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    state = new MergeJoinTaskState(ctx.getJobletContext().getJobId(),
+                            new TaskId(getActivityId(), partition));
+                    state.joiner = new MergeJoin(ctx, leftRd, rightRd, keysLeft, lowBound, highBound, memSize,
+                            predEvaluatorFactory != null ? predEvaluatorFactory.createPredicateEvaluator() : null,
+                            comparatorFactory != null ? comparatorFactory.createTuplePairComparator(ctx) : null,
+                            isLeftOuter, missingWriters);
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.cache(buffer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    state.joiner.closeCache();
+                    ctx.setStateObject(state);
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    // No variables to update.
+                }
+            };
+        }
+    }
+
+    private class MergeActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public MergeActivityNode(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions) {
+            return new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
+                private MergeJoinTaskState state;
+                private boolean failed = false;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    writer.open();
+                    state = (MergeJoinTaskState) ctx.getStateObject(
+                            new TaskId(new ActivityId(getOperatorId(), MATERIALIZE_ACTIVITY_ID), partition));
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.join(buffer, writer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    try {
+                        if (!failed) {
+                            state.joiner.completeJoin(writer);
+                        }
+                    } catch (Exception e) {
+                        writer.fail();
+                        throw e;
+                    } finally {
+                        try {
+                            state.joiner.close();
+                        } finally {
+                            writer.close();
+                        }
+                    }
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    failed = true;
+                    writer.fail();
+                }
+            };
+        }
+    }
+}
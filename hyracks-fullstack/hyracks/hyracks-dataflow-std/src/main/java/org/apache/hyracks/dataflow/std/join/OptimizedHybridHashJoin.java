@@ -37,6 +37,8 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.common.utils.TaskUtil;
+import org.apache.hyracks.dataflow.std.buffermanager.BrokeredMemoryBudget;
 import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
@@ -104,6 +106,7 @@ public class OptimizedHybridHashJoin {
 
     // stats information
     private int[] buildPSizeInTups;
+    private long buildTupleCount;
     private IFrame reloadBuffer;
     private TuplePointer tempPtr = new TuplePointer(); // this is a reusable object to store the pointer,which is not used anywhere.
                                                        // we mainly use it to match the corresponding function signature.
@@ -148,7 +151,9 @@ public class OptimizedHybridHashJoin {
     }
 
     public void initBuild() throws HyracksDataException {
-        framePool = new DeallocatableFramePool(ctx, memSizeInFrames * ctx.getInitialFrameSize());
+        int memSizeInBytes = memSizeInFrames * ctx.getInitialFrameSize();
+        framePool = new DeallocatableFramePool(ctx, memSizeInBytes,
+                BrokeredMemoryBudget.create(TaskUtil.getMemoryBroker(ctx), memSizeInBytes));
         bufferManagerForHashTable = new FramePoolBackedFrameBufferManager(framePool);
         bufferManager = new VPartitionTupleBufferManager(
                 PreferToSpillFullyOccupiedFramePolicy.createAtMostOneFrameForSpilledPartitionConstrain(spilledStatus),
@@ -156,6 +161,7 @@ public class OptimizedHybridHashJoin {
         spillPolicy = new PreferToSpillFullyOccupiedFramePolicy(bufferManager, spilledStatus);
         spilledStatus.clear();
         buildPSizeInTups = new int[numOfPartitions];
+        buildTupleCount = 0;
     }
 
     public void build(ByteBuffer buffer) throws HyracksDataException {
@@ -167,7 +173,7 @@ public class OptimizedHybridHashJoin {
             processTuple(i, pid);
             buildPSizeInTups[pid]++;
         }
-
+        buildTupleCount += tupleCount;
     }
 
     private void processTuple(int tid, int pid) throws HyracksDataException {
@@ -287,8 +293,9 @@ public class OptimizedHybridHashJoin {
      */
     private int makeSpaceForHashTableAndBringBackSpilledPartitions() throws HyracksDataException {
         // we need number of |spilledPartitions| buffers to store the probe data
+        // the budget of the frame pool includes the memory borrowed from the memory broker during the build
         int frameSize = ctx.getInitialFrameSize();
-        long freeSpace = (long) (memSizeInFrames - spilledStatus.cardinality()) * frameSize;
+        long freeSpace = framePool.getMemoryBudgetBytes() - (long) spilledStatus.cardinality() * frameSize;
 
         // For partitions in main memory, we deduct their size from the free space.
         int inMemTupCount = 0;
@@ -382,7 +389,7 @@ public class OptimizedHybridHashJoin {
      */
     private int selectSinglePartitionToSpill(long currentFreeSpace, int currentInMemTupCount, int frameSize) {
         long spaceAfterSpill;
-        long minSpaceAfterSpill = (long) memSizeInFrames * frameSize;
+        long minSpaceAfterSpill = Math.max((long) memSizeInFrames * frameSize, framePool.getMemoryBudgetBytes());
         int minSpaceAfterSpillPartID = -1;
 
         for (int p = spilledStatus.nextClearBit(0); p >= 0 && p < numOfPartitions; p =
@@ -493,6 +500,10 @@ public class OptimizedHybridHashJoin {
     }
 
     public void probe(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
+        if (buildTupleCount == 0 && !isLeftOuter) {
+            // no probe tuple can match, so the probe input is neither hashed nor spilled
+            return;
+        }
         accessorProbe.reset(buffer);
         int tupleCount = accessorProbe.getTupleCount();
 
@@ -573,6 +584,20 @@ public class OptimizedHybridHashJoin {
         return ((buildRFWriters[pid] == null) ? null : (buildRFWriters[pid]).createDeleteOnCloseReader());
     }
 
+    /**
+     * @return the number of tuples of the build input, which is known once the build phase is closed
+     */
+    public long getBuildTupleCount() {
+        return buildTupleCount;
+    }
+
+    /**
+     * @return the number of build partitions that are spilled to disk after the build phase
+     */
+    public int getSpilledPartitionCount() {
+        return spilledStatus.cardinality();
+    }
+
     public int getBuildPartitionSizeInTup(int pid) {
         return (buildPSizeInTups[pid]);
     }
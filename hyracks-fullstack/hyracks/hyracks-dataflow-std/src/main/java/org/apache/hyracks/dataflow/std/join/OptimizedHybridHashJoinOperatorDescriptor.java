@@ -118,6 +118,15 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
     private static final String PROBE_REL = "RelR";
     private static final String BUILD_REL = "RelS";
 
+    // Counters of the task profile that report the sizes observed and the strategies chosen at runtime
+    private static final String BUILD_TUPLES_COUNTER = ".join.build.tuples";
+    private static final String SPILLED_PARTITIONS_COUNTER = ".join.spilled.partitions";
+    private static final String IN_MEMORY_JOIN_COUNTER = ".join.partition.inmemory";
+    private static final String IN_MEMORY_REVERSED_JOIN_COUNTER = ".join.partition.inmemory.reversed";
+    private static final String RECURSIVE_JOIN_COUNTER = ".join.partition.recursive";
+    private static final String RECURSIVE_REVERSED_JOIN_COUNTER = ".join.partition.recursive.reversed";
+    private static final String NESTED_LOOP_JOIN_COUNTER = ".join.partition.nestedloop";
+
     private final int memSizeInFrames;
     private final int inputsize0;
     private final double fudgeFactor;
@@ -139,6 +148,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
     private boolean forceNLJ = false;
     private boolean forceRoleReversal = false;
 
+    private boolean collectBuildKeyRange = false;
+
     private static final Logger LOGGER = LogManager.getLogger();
 
     public OptimizedHybridHashJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSizeInFrames,
@@ -179,6 +190,22 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 tupPaircomparatorFactory01, tupPaircomparatorFactory10, predEvaluatorFactory, false, null);
     }
 
+    /**
+     * @return the build activity, whose task state holds the {@link JoinKeyRange} of the build input if it is
+     *         collected
+     */
+    public ActivityId getBuildActivityId() {
+        return new ActivityId(odId, BUILD_AND_PARTITION_ACTIVITY_ID);
+    }
+
+    /**
+     * Sets whether the build phase collects the range of the build keys of each partition for the
+     * {@link IJoinKeyRangeConsumer} that reads the probe input.
+     */
+    public void setCollectBuildKeyRange(boolean collectBuildKeyRange) {
+        this.collectBuildKeyRange = collectBuildKeyRange;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId buildAid = new ActivityId(odId, BUILD_AND_PARTITION_ACTIVITY_ID);
@@ -226,6 +253,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
         private int memForJoin;
         private int numOfPartitions;
         private OptimizedHybridHashJoin hybridHJ;
+        private JoinKeyRange buildKeyRange;
 
         public BuildAndPartitionTaskState() {
         }
@@ -234,6 +262,13 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
             super(jobId, taskId);
         }
 
+        /**
+         * @return the range of the build keys of the partition, or null if it is not collected
+         */
+        public JoinKeyRange getBuildKeyRange() {
+            return buildKeyRange;
+        }
+
         @Override
         public void toBytes(DataOutput out) throws IOException {
 
@@ -302,6 +337,13 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             buildHpc, predEvaluator, isLeftOuter, nonMatchWriterFactories);
 
                     state.hybridHJ.initBuild();
+                    if (collectBuildKeyRange) {
+                        IBinaryComparator[] buildComparators = new IBinaryComparator[buildCompFactories.length];
+                        for (int i = 0; i < buildCompFactories.length; i++) {
+                            buildComparators[i] = buildCompFactories[i].createBinaryComparator();
+                        }
+                        state.buildKeyRange = new JoinKeyRange(buildComparators, buildKeys, buildRd);
+                    }
                     if (LOGGER.isTraceEnabled()) {
                         LOGGER.trace("OptimizedHybridHashJoin is starting the build phase with " + state.numOfPartitions
                                 + " partitions using " + state.memForJoin + " frames for memory.");
@@ -310,6 +352,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    if (state.buildKeyRange != null) {
+                        state.buildKeyRange.add(buffer);
+                    }
                     state.hybridHJ.build(buffer);
                 }
 
@@ -319,6 +364,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     if (isFailed) {
                         state.hybridHJ.clearBuildTempFiles();
                     } else {
+                        updateCounter(ctx, BUILD_TUPLES_COUNTER, state.hybridHJ.getBuildTupleCount());
+                        updateCounter(ctx, SPILLED_PARTITIONS_COUNTER, state.hybridHJ.getSpilledPartitionCount());
                         ctx.setStateObject(state);
                         if (LOGGER.isTraceEnabled()) {
                             LOGGER.trace("OptimizedHybridHashJoin closed its build phase");
@@ -336,6 +383,12 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
         }
     }
 
+    private void updateCounter(IHyracksTaskContext ctx, String counter, long delta) {
+        if (ctx.getCounterContext() != null) {
+            ctx.getCounterContext().getCounter(getOperatorId() + counter, true).update(delta);
+        }
+    }
+
     /*
      * Probe phase of Hybrid Hash Join:
      * Reading the probe side and partitioning it, resident tuples get
@@ -522,6 +575,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                                 LOGGER.debug("\t>>>Case 1.1 (IsLeftOuter || buildSize<probe) AND ApplyInMemHJ - [Level "
                                         + level + "]");
                             }
+                            updateCounter(ctx, IN_MEMORY_JOIN_COUNTER, 1);
                             tabSize = buildSizeInTuple;
                             if (tabSize == 0) {
                                 throw new HyracksDataException(
@@ -535,6 +589,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                                 LOGGER.debug("\t>>>Case 1.2. (NoIsLeftOuter || probe<build) AND ApplyInMemHJ"
                                         + "WITH RoleReversal - [Level " + level + "]");
                             }
+                            updateCounter(ctx, IN_MEMORY_REVERSED_JOIN_COUNTER, 1);
                             tabSize = probeSizeInTuple;
                             if (tabSize == 0) {
                                 throw new HyracksDataException(
@@ -557,6 +612,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                                         "\t\t>>>Case 2.1 - RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
                                                 + level + "]");
                             }
+                            updateCounter(ctx, RECURSIVE_JOIN_COUNTER, 1);
                             applyHybridHashJoin((int) buildPartSize, PROBE_REL, BUILD_REL, probeKeys, buildKeys,
                                     probeRd, buildRd, probeHpc, buildHpc, probeSideReader, buildSideReader, level,
                                     beforeMax, probComp);
@@ -566,7 +622,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                                 LOGGER.debug(
                                         "\t\t>>>Case 2.2. - RecursiveHHJ WITH RoleReversal - [Level " + level + "]");
                             }
-
+                            updateCounter(ctx, RECURSIVE_REVERSED_JOIN_COUNTER, 1);
                             applyHybridHashJoin((int) probePartSize, BUILD_REL, PROBE_REL, buildKeys, probeKeys,
                                     buildRd, probeRd, buildHpc, probeHpc, buildSideReader, probeSideReader, level,
                                     beforeMax, buildComp);
@@ -674,6 +730,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                                     continue;
                                 }
 
+                                updateCounter(ctx, NESTED_LOOP_JOIN_COUNTER, 1);
                                 int buildSideInTups = rHHj.getBuildPartitionSizeInTup(rPid);
                                 int probeSideInTups = rHHj.getProbePartitionSizeInTup(rPid);
                                 // NLJ order is outer + inner, the order is reversed from the other joins
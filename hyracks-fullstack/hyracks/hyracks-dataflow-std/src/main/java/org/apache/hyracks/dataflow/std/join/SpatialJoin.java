@@ -0,0 +1,665 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.BufferInfo;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A partition based spatial merge join of the tuples whose minimum bounding rectangles intersect.
+ * <p>
+ * The build side is cached in memory and a uniform grid is laid over the bounding rectangle of its tuples. Every
+ * tuple is assigned to all the grid cells its rectangle overlaps, and the entries of each cell are joined with a
+ * plane-sweep over the lower x coordinate. A pair is only reported in the cell that contains its reference point,
+ * the lower left corner of the intersection of the two rectangles, so that pairs that share several cells are
+ * produced once. The probe side is joined in batches, and probe tuples that fall outside the bounding rectangle of
+ * the build side are dropped before they are buffered.
+ * <p>
+ * If the build side does not fit in memory, the cells are distributed round-robin over a number of partitions and
+ * both inputs are written to one run file per partition. Each partition is then joined on its own, in chunks of the
+ * build run that fit in memory if the partition is still too large. Coordinates outside of the grid are clamped to
+ * the border cells, so the results are exact even though the grid of a spilled join is laid out before the whole
+ * build side has been seen.
+ * <p>
+ * Candidate pairs are verified with the given tuple pair comparator, which receives the probe tuple first and
+ * reports a match by returning 0.
+ */
+public class SpatialJoin {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int MIN_FRAMES = 5;
+    // The average number of build entries per grid cell the grid is sized for.
+    private static final int ENTRIES_PER_CELL = 32;
+    private static final int MAX_GRID_SIZE = 512;
+    private static final int MAX_SPILL_PARTITIONS = 64;
+
+    private final IHyracksTaskContext ctx;
+    private final FrameTupleAccessor probeAccessor;
+    private final FrameTupleAccessor buildAccessor;
+    private final ITupleMBRProvider probeMBRProvider;
+    private final ITupleMBRProvider buildMBRProvider;
+    private final ITuplePairComparator comparator;
+    private final int buildFrameLimit;
+    private final VariableFrameMemoryManager buildBufferMngr;
+    private final VariableFrameMemoryManager probeBufferMngr;
+    private final FrameTupleAppender appender;
+    private final IFrame buildReadBuffer;
+    private final IFrame probeReadBuffer;
+    private final BufferInfo tempInfo = new BufferInfo(null, -1, -1);
+    private final double[] mbr = new double[4];
+    private final TupleSet buildSet = new TupleSet();
+    private final TupleSet probeSet = new TupleSet();
+
+    // The bounding rectangle of all the build tuples.
+    private final double[] buildBounds =
+            { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+    private long numBuildTuples = 0L;
+
+    private int gridSize;
+    private double gridMinX;
+    private double gridMinY;
+    private double cellWidth;
+    private double cellHeight;
+
+    private int numPartitions = 1;
+    private boolean spilled = false;
+    private RunFileWriter[] buildRunWriters;
+    private RunFileWriter[] probeRunWriters;
+    private FrameTupleAppender[] spillAppenders;
+    private boolean[] spillTargets;
+    private int[] spillTargetList;
+
+    public SpatialJoin(IHyracksTaskContext ctx, FrameTupleAccessor probeAccessor, FrameTupleAccessor buildAccessor,
+            ITupleMBRProvider probeMBRProvider, ITupleMBRProvider buildMBRProvider, ITuplePairComparator comparator,
+            int memSize) throws HyracksDataException {
+        if (memSize < MIN_FRAMES) {
+            throw new HyracksDataException("Not enough memory is available for Spatial Join");
+        }
+        this.ctx = ctx;
+        this.probeAccessor = probeAccessor;
+        this.buildAccessor = buildAccessor;
+        this.probeMBRProvider = probeMBRProvider;
+        this.buildMBRProvider = buildMBRProvider;
+        this.comparator = comparator;
+        // One frame for the output and two for reading spilled partitions back.
+        int probeFrameLimit = Math.max(1, (memSize - 3) / 8);
+        this.buildFrameLimit = memSize - 3 - probeFrameLimit;
+        this.buildBufferMngr = new VariableFrameMemoryManager(
+                new VariableFramePool(ctx, ctx.getInitialFrameSize() * buildFrameLimit),
+                FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, buildFrameLimit));
+        this.probeBufferMngr = new VariableFrameMemoryManager(
+                new VariableFramePool(ctx, ctx.getInitialFrameSize() * probeFrameLimit),
+                FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, probeFrameLimit));
+        this.appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        this.buildReadBuffer = new VSizeFrame(ctx);
+        this.probeReadBuffer = new VSizeFrame(ctx);
+    }
+
+    public void build(ByteBuffer buffer) throws HyracksDataException {
+        buildAccessor.reset(buffer);
+        int tupleCount = buildAccessor.getTupleCount();
+        if (!spilled) {
+            int frameIndex = buildBufferMngr.insertFrame(buffer);
+            if (frameIndex >= 0) {
+                for (int i = 0; i < tupleCount; i++) {
+                    if (buildMBRProvider.getMBR(buildAccessor, i, mbr)) {
+                        addToBuildBounds();
+                        buildSet.add(frameIndex, i, mbr);
+                    }
+                }
+                return;
+            }
+            spill();
+            buildAccessor.reset(buffer);
+        }
+        for (int i = 0; i < tupleCount; i++) {
+            if (buildMBRProvider.getMBR(buildAccessor, i, mbr)) {
+                addToBuildBounds();
+                spillTuple(buildAccessor, i, buildRunWriters, "Build");
+            }
+        }
+    }
+
+    public void closeBuild() throws HyracksDataException {
+        if (!spilled) {
+            createGrid(numBuildTuples);
+            buildSet.index(0);
+            return;
+        }
+        closeSpillWriters(buildRunWriters);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Spatial join spilled " + numBuildTuples + " build tuples to " + numPartitions
+                    + " partitions of a " + gridSize + "x" + gridSize + " grid");
+        }
+    }
+
+    public void probe(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
+        if (numBuildTuples == 0) {
+            return;
+        }
+        probeAccessor.reset(buffer);
+        int tupleCount = probeAccessor.getTupleCount();
+        if (spilled) {
+            for (int i = 0; i < tupleCount; i++) {
+                if (probeMBRProvider.getMBR(probeAccessor, i, mbr) && intersectsBuildBounds()) {
+                    spillTuple(probeAccessor, i, probeRunWriters, "Probe");
+                }
+            }
+            return;
+        }
+        int frameIndex = -1;
+        for (int i = 0; i < tupleCount; i++) {
+            if (probeMBRProvider.getMBR(probeAccessor, i, mbr) && intersectsBuildBounds()) {
+                if (frameIndex < 0) {
+                    frameIndex = insertProbeFrame(buffer, 0, writer);
+                    // Joining the previous batch moves the accessor to other frames.
+                    probeAccessor.reset(buffer);
+                }
+                probeSet.add(frameIndex, i, mbr);
+            }
+        }
+    }
+
+    public void completeProbe(IFrameWriter writer) throws HyracksDataException {
+        if (!spilled) {
+            joinProbeBatch(0, writer);
+        } else {
+            closeSpillWriters(probeRunWriters);
+            for (int i = 0; i < numPartitions; i++) {
+                joinSpilledPartition(i, writer);
+            }
+        }
+        appender.write(writer, true);
+    }
+
+    public void releaseMemory() throws HyracksDataException {
+        buildBufferMngr.close();
+        probeBufferMngr.close();
+        buildSet.clear();
+        probeSet.clear();
+    }
+
+    public void clearSpilledPartitions() throws HyracksDataException {
+        eraseRunFiles(buildRunWriters);
+        eraseRunFiles(probeRunWriters);
+    }
+
+    private void addToBuildBounds() {
+        numBuildTuples++;
+        buildBounds[0] = Math.min(buildBounds[0], mbr[0]);
+        buildBounds[1] = Math.min(buildBounds[1], mbr[1]);
+        buildBounds[2] = Math.max(buildBounds[2], mbr[2]);
+        buildBounds[3] = Math.max(buildBounds[3], mbr[3]);
+    }
+
+    private boolean intersectsBuildBounds() {
+        return mbr[0] <= buildBounds[2] && buildBounds[0] <= mbr[2] && mbr[1] <= buildBounds[3]
+                && buildBounds[1] <= mbr[3];
+    }
+
+    /**
+     * Sizes the grid for the given number of build entries over the bounding rectangle of the build tuples seen
+     * so far.
+     */
+    private void createGrid(long numEntries) {
+        long numCells = Math.max(1L, numEntries / ENTRIES_PER_CELL);
+        gridSize = (int) Math.min(MAX_GRID_SIZE, Math.max(1L, (long) Math.ceil(Math.sqrt(numCells))));
+        if (numBuildTuples == 0) {
+            gridMinX = 0.0;
+            gridMinY = 0.0;
+            cellWidth = 1.0;
+            cellHeight = 1.0;
+            return;
+        }
+        gridMinX = buildBounds[0];
+        gridMinY = buildBounds[1];
+        double width = buildBounds[2] - buildBounds[0];
+        double height = buildBounds[3] - buildBounds[1];
+        cellWidth = width > 0.0 && width < Double.POSITIVE_INFINITY ? width / gridSize : 1.0;
+        cellHeight = height > 0.0 && height < Double.POSITIVE_INFINITY ? height / gridSize : 1.0;
+    }
+
+    private int cellX(double x) {
+        int cell = (int) ((x - gridMinX) / cellWidth);
+        return cell < 0 ? 0 : cell >= gridSize ? gridSize - 1 : cell;
+    }
+
+    private int cellY(double y) {
+        int cell = (int) ((y - gridMinY) / cellHeight);
+        return cell < 0 ? 0 : cell >= gridSize ? gridSize - 1 : cell;
+    }
+
+    private int partitionOf(int cell) {
+        return cell % numPartitions;
+    }
+
+    /**
+     * Switches to partitioned processing once the build side does not fit in memory, and writes the cached build
+     * tuples out to their partitions.
+     */
+    private void spill() throws HyracksDataException {
+        spilled = true;
+        numPartitions = Math.max(2, Math.min(MAX_SPILL_PARTITIONS, buildFrameLimit));
+        // Each chunk of a partition that fits in memory holds about as many entries as the memory holds now.
+        createGrid(numBuildTuples * numPartitions);
+        buildRunWriters = new RunFileWriter[numPartitions];
+        probeRunWriters = new RunFileWriter[numPartitions];
+        spillAppenders = new FrameTupleAppender[numPartitions];
+        spillTargets = new boolean[numPartitions];
+        spillTargetList = new int[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            spillAppenders[i] = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        }
+        for (int i = 0; i < buildSet.size; i++) {
+            buildBufferMngr.getFrame(buildSet.frames[i], tempInfo);
+            buildAccessor.reset(tempInfo.getBuffer(), tempInfo.getStartOffset(), tempInfo.getLength());
+            System.arraycopy(buildSet.mbrs, i * 4, mbr, 0, 4);
+            spillTuple(buildAccessor, buildSet.tuples[i], buildRunWriters, "Build");
+        }
+        buildSet.reset();
+        buildBufferMngr.reset();
+    }
+
+    /**
+     * Writes the tuple once to every partition that owns a cell its rectangle overlaps.
+     */
+    private void spillTuple(FrameTupleAccessor accessor, int tIndex, RunFileWriter[] runWriters, String side)
+            throws HyracksDataException {
+        int minCellX = cellX(mbr[0]);
+        int maxCellX = cellX(mbr[2]);
+        int minCellY = cellY(mbr[1]);
+        int maxCellY = cellY(mbr[3]);
+        int numTargets = 0;
+        for (int y = minCellY; y <= maxCellY && numTargets < numPartitions; y++) {
+            for (int x = minCellX; x <= maxCellX && numTargets < numPartitions; x++) {
+                int partition = partitionOf(y * gridSize + x);
+                if (!spillTargets[partition]) {
+                    spillTargets[partition] = true;
+                    spillTargetList[numTargets++] = partition;
+                }
+            }
+        }
+        for (int i = 0; i < numTargets; i++) {
+            int partition = spillTargetList[i];
+            spillTargets[partition] = false;
+            if (runWriters[partition] == null) {
+                FileReference file = ctx.getJobletContext()
+                        .createManagedWorkspaceFile(getClass().getSimpleName() + side + "-P" + partition);
+                runWriters[partition] = new RunFileWriter(file, ctx.getIoManager());
+                runWriters[partition].open();
+            }
+            FrameUtils.appendToWriter(runWriters[partition], spillAppenders[partition], accessor, tIndex);
+        }
+    }
+
+    private void closeSpillWriters(RunFileWriter[] runWriters) throws HyracksDataException {
+        for (int i = 0; i < numPartitions; i++) {
+            if (runWriters[i] != null) {
+                spillAppenders[i].write(runWriters[i], true);
+                runWriters[i].close();
+            }
+        }
+    }
+
+    private void eraseRunFiles(RunFileWriter[] runWriters) throws HyracksDataException {
+        if (runWriters == null) {
+            return;
+        }
+        for (int i = 0; i < runWriters.length; i++) {
+            if (runWriters[i] != null) {
+                runWriters[i].erase();
+                runWriters[i] = null;
+            }
+        }
+    }
+
+    private void joinSpilledPartition(int partition, IFrameWriter writer) throws HyracksDataException {
+        RunFileWriter buildRunWriter = buildRunWriters[partition];
+        RunFileWriter probeRunWriter = probeRunWriters[partition];
+        try {
+            if (buildRunWriter != null && probeRunWriter != null) {
+                joinRuns(buildRunWriter, probeRunWriter, partition, writer);
+            }
+        } finally {
+            if (buildRunWriter != null) {
+                buildRunWriter.erase();
+                buildRunWriters[partition] = null;
+            }
+            if (probeRunWriter != null) {
+                probeRunWriter.erase();
+                probeRunWriters[partition] = null;
+            }
+        }
+    }
+
+    private void joinRuns(RunFileWriter buildRunWriter, RunFileWriter probeRunWriter, int partition,
+            IFrameWriter writer) throws HyracksDataException {
+        RunFileReader buildReader = buildRunWriter.createReader();
+        try {
+            buildReader.open();
+            boolean pendingFrame = buildReader.nextFrame(buildReadBuffer);
+            while (pendingFrame) {
+                buildSet.reset();
+                buildBufferMngr.reset();
+                // Load as much of the build run as fits in memory.
+                while (pendingFrame) {
+                    int frameIndex = buildBufferMngr.insertFrame(buildReadBuffer.getBuffer());
+                    if (frameIndex < 0) {
+                        if (buildBufferMngr.getNumFrames() == 0) {
+                            throw new HyracksDataException("The given build frame of size:"
+                                    + buildReadBuffer.getFrameSize()
+                                    + " is too big to cache in the buffer. Please choose a larger buffer memory size");
+                        }
+                        break;
+                    }
+                    buildAccessor.reset(buildReadBuffer.getBuffer());
+                    for (int i = 0; i < buildAccessor.getTupleCount(); i++) {
+                        if (buildMBRProvider.getMBR(buildAccessor, i, mbr)) {
+                            buildSet.add(frameIndex, i, mbr);
+                        }
+                    }
+                    pendingFrame = buildReader.nextFrame(buildReadBuffer);
+                }
+                buildSet.index(partition);
+                joinProbeRun(probeRunWriter, partition, writer);
+            }
+        } finally {
+            buildReader.close();
+        }
+        buildSet.reset();
+        buildBufferMngr.reset();
+    }
+
+    private void joinProbeRun(RunFileWriter probeRunWriter, int partition, IFrameWriter writer)
+            throws HyracksDataException {
+        RunFileReader probeReader = probeRunWriter.createReader();
+        try {
+            probeReader.open();
+            while (probeReader.nextFrame(probeReadBuffer)) {
+                ByteBuffer buffer = probeReadBuffer.getBuffer();
+                int frameIndex = insertProbeFrame(buffer, partition, writer);
+                probeAccessor.reset(buffer);
+                for (int i = 0; i < probeAccessor.getTupleCount(); i++) {
+                    if (probeMBRProvider.getMBR(probeAccessor, i, mbr)) {
+                        probeSet.add(frameIndex, i, mbr);
+                    }
+                }
+            }
+        } finally {
+            probeReader.close();
+        }
+        joinProbeBatch(partition, writer);
+    }
+
+    /**
+     * Caches a probe frame, joining and releasing the current batch first if the frame does not fit.
+     */
+    private int insertProbeFrame(ByteBuffer buffer, int partition, IFrameWriter writer) throws HyracksDataException {
+        int frameIndex = probeBufferMngr.insertFrame(buffer);
+        if (frameIndex < 0) {
+            joinProbeBatch(partition, writer);
+            frameIndex = probeBufferMngr.insertFrame(buffer);
+            if (frameIndex < 0) {
+                throw new HyracksDataException("The given probe frame of size:" + buffer.capacity()
+                        + " is too big to cache in the buffer. Please choose a larger buffer memory size");
+            }
+        }
+        return frameIndex;
+    }
+
+    private void joinProbeBatch(int partition, IFrameWriter writer) throws HyracksDataException {
+        if (probeSet.size > 0 && buildSet.numEntries > 0) {
+            probeSet.index(partition);
+            int[] probeCells = probeSet.entryCells;
+            int i = 0;
+            while (i < probeSet.numEntries) {
+                int cell = probeCells[i];
+                int probeEnd = i + 1;
+                while (probeEnd < probeSet.numEntries && probeCells[probeEnd] == cell) {
+                    probeEnd++;
+                }
+                int buildStart = buildSet.firstEntry(cell);
+                int buildEnd = buildStart;
+                while (buildEnd < buildSet.numEntries && buildSet.entryCells[buildEnd] == cell) {
+                    buildEnd++;
+                }
+                if (buildStart < buildEnd) {
+                    sweep(cell, i, probeEnd, buildStart, buildEnd, writer);
+                }
+                i = probeEnd;
+            }
+        }
+        probeSet.reset();
+        probeBufferMngr.reset();
+    }
+
+    /**
+     * Plane-sweeps the entries of one cell, both sorted by their lower x coordinate.
+     */
+    private void sweep(int cell, int probeStart, int probeEnd, int buildStart, int buildEnd, IFrameWriter writer)
+            throws HyracksDataException {
+        int[] probeIds = probeSet.entryTuples;
+        int[] buildIds = buildSet.entryTuples;
+        double[] probeMBRs = probeSet.mbrs;
+        double[] buildMBRs = buildSet.mbrs;
+        int i = probeStart;
+        int j = buildStart;
+        while (i < probeEnd && j < buildEnd) {
+            int probeId = probeIds[i];
+            int buildId = buildIds[j];
+            if (probeMBRs[probeId * 4] <= buildMBRs[buildId * 4]) {
+                double maxX = probeMBRs[probeId * 4 + 2];
+                for (int k = j; k < buildEnd && buildMBRs[buildIds[k] * 4] <= maxX; k++) {
+                    check(cell, probeId, buildIds[k], writer);
+                }
+                i++;
+            } else {
+                double maxX = buildMBRs[buildId * 4 + 2];
+                for (int k = i; k < probeEnd && probeMBRs[probeIds[k] * 4] <= maxX; k++) {
+                    check(cell, probeIds[k], buildId, writer);
+                }
+                j++;
+            }
+        }
+    }
+
+    private void check(int cell, int probeId, int buildId, IFrameWriter writer) throws HyracksDataException {
+        double[] probeMBRs = probeSet.mbrs;
+        double[] buildMBRs = buildSet.mbrs;
+        int p = probeId * 4;
+        int b = buildId * 4;
+        if (probeMBRs[p + 1] > buildMBRs[b + 3] || buildMBRs[b + 1] > probeMBRs[p + 3]) {
+            return;
+        }
+        double refX = Math.max(probeMBRs[p], buildMBRs[b]);
+        double refY = Math.max(probeMBRs[p + 1], buildMBRs[b + 1]);
+        if (cellY(refY) * gridSize + cellX(refX) != cell) {
+            return;
+        }
+        probeBufferMngr.getFrame(probeSet.frames[probeId], tempInfo);
+        probeAccessor.reset(tempInfo.getBuffer(), tempInfo.getStartOffset(), tempInfo.getLength());
+        buildBufferMngr.getFrame(buildSet.frames[buildId], tempInfo);
+        buildAccessor.reset(tempInfo.getBuffer(), tempInfo.getStartOffset(), tempInfo.getLength());
+        int probeTuple = probeSet.tuples[probeId];
+        int buildTuple = buildSet.tuples[buildId];
+        if (comparator.compare(probeAccessor, probeTuple, buildAccessor, buildTuple) == 0) {
+            FrameUtils.appendConcatToWriter(writer, appender, probeAccessor, probeTuple, buildAccessor, buildTuple);
+        }
+    }
+
+    /**
+     * The cached tuples of one input with their rectangles, and the (cell, tuple) entries of the grid cells they
+     * overlap sorted by cell and lower x coordinate.
+     */
+    private class TupleSet {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size = 0;
+        private int[] frames = new int[INITIAL_CAPACITY];
+        private int[] tuples = new int[INITIAL_CAPACITY];
+        private double[] mbrs = new double[INITIAL_CAPACITY * 4];
+
+        private int numEntries = 0;
+        private int[] entryCells = new int[INITIAL_CAPACITY];
+        private int[] entryTuples = new int[INITIAL_CAPACITY];
+
+        private void add(int frameIndex, int tIndex, double[] tupleMBR) {
+            if (size == frames.length) {
+                frames = Arrays.copyOf(frames, size * 2);
+                tuples = Arrays.copyOf(tuples, size * 2);
+                mbrs = Arrays.copyOf(mbrs, size * 8);
+            }
+            frames[size] = frameIndex;
+            tuples[size] = tIndex;
+            System.arraycopy(tupleMBR, 0, mbrs, size * 4, 4);
+            size++;
+        }
+
+        private void addEntry(int cell, int id) {
+            if (numEntries == entryCells.length) {
+                entryCells = Arrays.copyOf(entryCells, numEntries * 2);
+                entryTuples = Arrays.copyOf(entryTuples, numEntries * 2);
+            }
+            entryCells[numEntries] = cell;
+            entryTuples[numEntries] = id;
+            numEntries++;
+        }
+
+        /**
+         * Creates the entries of the cells that belong to the given partition.
+         */
+        private void index(int partition) {
+            numEntries = 0;
+            for (int id = 0; id < size; id++) {
+                int minCellX = cellX(mbrs[id * 4]);
+                int maxCellX = cellX(mbrs[id * 4 + 2]);
+                int minCellY = cellY(mbrs[id * 4 + 1]);
+                int maxCellY = cellY(mbrs[id * 4 + 3]);
+                for (int y = minCellY; y <= maxCellY; y++) {
+                    for (int x = minCellX; x <= maxCellX; x++) {
+                        int cell = y * gridSize + x;
+                        if (partitionOf(cell) == partition) {
+                            addEntry(cell, id);
+                        }
+                    }
+                }
+            }
+            sort(0, numEntries);
+        }
+
+        /**
+         * @return the position of the first entry of the given cell, or of the next cell if it has none
+         */
+        private int firstEntry(int cell) {
+            int low = 0;
+            int high = numEntries;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entryCells[mid] < cell) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void sort(int from, int to) {
+            while (to - from > 16) {
+                int mid = (from + to) >>> 1;
+                int pivotCell = entryCells[mid];
+                double pivotX = mbrs[entryTuples[mid] * 4];
+                int i = from;
+                int j = to - 1;
+                while (i <= j) {
+                    while (compare(i, pivotCell, pivotX) < 0) {
+                        i++;
+                    }
+                    while (compare(j, pivotCell, pivotX) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // Recurse into the smaller part to bound the stack depth.
+                if (j - from < to - i) {
+                    sort(from, j + 1);
+                    from = i;
+                } else {
+                    sort(i, to);
+                    to = j + 1;
+                }
+            }
+            for (int i = from + 1; i < to; i++) {
+                for (int j = i; j > from && compare(j, entryCells[j - 1], mbrs[entryTuples[j - 1] * 4]) < 0; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private int compare(int entry, int cell, double minX) {
+            int c = Integer.compare(entryCells[entry], cell);
+            return c != 0 ? c : Double.compare(mbrs[entryTuples[entry] * 4], minX);
+        }
+
+        private void swap(int i, int j) {
+            int cell = entryCells[i];
+            entryCells[i] = entryCells[j];
+            entryCells[j] = cell;
+            int id = entryTuples[i];
+            entryTuples[i] = entryTuples[j];
+            entryTuples[j] = id;
+        }
+
+        private void reset() {
+            size = 0;
+            numEntries = 0;
+        }
+
+        private void clear() {
+            reset();
+            frames = new int[INITIAL_CAPACITY];
+            tuples = new int[INITIAL_CAPACITY];
+            mbrs = new double[INITIAL_CAPACITY * 4];
+            entryCells = new int[INITIAL_CAPACITY];
+            entryTuples = new int[INITIAL_CAPACITY];
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
+import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+
+/**
+ * Inner join of the tuples whose spatial keys have intersecting minimum bounding rectangles, see {@link SpatialJoin}.
+ * The first input is the probe side and the second input is the build side. The comparator refines the candidate
+ * pairs with the exact join condition.
+ */
+public class SpatialJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+    private static final int BUILD_ACTIVITY_ID = 0;
+    private static final int PROBE_ACTIVITY_ID = 1;
+
+    private static final long serialVersionUID = 1L;
+    private final ITupleMBRProviderFactory probeMBRProviderFactory;
+    private final ITupleMBRProviderFactory buildMBRProviderFactory;
+    private final ITuplePairComparatorFactory comparatorFactory;
+    private final int memSize;
+
+    public SpatialJoinOperatorDescriptor(IOperatorDescriptorRegistry spec,
+            ITupleMBRProviderFactory probeMBRProviderFactory, ITupleMBRProviderFactory buildMBRProviderFactory,
+            ITuplePairComparatorFactory comparatorFactory, RecordDescriptor recordDescriptor, int memSize) {
+        super(spec, 2, 1);
+        this.probeMBRProviderFactory = probeMBRProviderFactory;
+        this.buildMBRProviderFactory = buildMBRProviderFactory;
+        this.comparatorFactory = comparatorFactory;
+        this.outRecDescs[0] = recordDescriptor;
+        this.memSize = memSize;
+    }
+
+    @Override
+    public void contributeActivities(IActivityGraphBuilder builder) {
+        ActivityId buildAid = new ActivityId(getOperatorId(), BUILD_ACTIVITY_ID);
+        ActivityId probeAid = new ActivityId(getOperatorId(), PROBE_ACTIVITY_ID);
+        BuildActivityNode build = new BuildActivityNode(buildAid, probeAid);
+        ProbeActivityNode probe = new ProbeActivityNode(probeAid);
+
+        builder.addActivity(this, build);
+        builder.addSourceEdge(1, build, 0);
+
+        builder.addActivity(this, probe);
+        builder.addSourceEdge(0, probe, 0);
+
+        builder.addTargetEdge(0, probe, 0);
+        builder.addBlockingEdge(build, probe);
+    }
+
+    public static class SpatialJoinTaskState extends AbstractStateObject {
+        private SpatialJoin joiner;
+
+        private SpatialJoinTaskState(JobId jobId, TaskId taskId) {
+            super(jobId, taskId);
+        }
+    }
+
+    private class BuildActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        private final ActivityId probeAid;
+
+        public BuildActivityNode(ActivityId id, ActivityId probeAid) {
+            super(id);
+            this.probeAid = probeAid;
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            final RecordDescriptor probeRd = recordDescProvider.getInputRecordDescriptor(probeAid, 0);
+            final RecordDescriptor buildRd = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+
+            return new AbstractUnaryInputSinkOperatorNodePushable() {
+                private SpatialJoinTaskState state;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    state = new SpatialJoinTaskState(ctx.getJobletContext().getJobId(),
+                            new TaskId(getActivityId(), partition));
+                    state.joiner = new SpatialJoin(ctx, new FrameTupleAccessor(probeRd),
+                            new FrameTupleAccessor(buildRd), probeMBRProviderFactory.createTupleMBRProvider(ctx),
+                            buildMBRProviderFactory.createTupleMBRProvider(ctx),
+                            comparatorFactory.createTuplePairComparator(ctx), memSize);
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.build(buffer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    state.joiner.closeBuild();
+                    ctx.setStateObject(state);
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    if (state != null && state.joiner != null) {
+                        state.joiner.clearSpilledPartitions();
+                    }
+                }
+            };
+        }
+    }
+
+    private class ProbeActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public ProbeActivityNode(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions) {
+            return new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
+                private SpatialJoinTaskState state;
+                private boolean failed = false;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    writer.open();
+                    state = (SpatialJoinTaskState) ctx
+                            .getStateObject(new TaskId(new ActivityId(getOperatorId(), BUILD_ACTIVITY_ID), partition));
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.probe(buffer, writer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    try {
+                        if (!failed) {
+                            state.joiner.completeProbe(writer);
+                        }
+                    } catch (Exception e) {
+                        writer.fail();
+                        throw e;
+                    } finally {
+                        try {
+                            state.joiner.clearSpilledPartitions();
+                            state.joiner.releaseMemory();
+                        } finally {
+                            writer.close();
+                        }
+                    }
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    failed = true;
+                    writer.fail();
+                }
+            };
+        }
+    }
+}
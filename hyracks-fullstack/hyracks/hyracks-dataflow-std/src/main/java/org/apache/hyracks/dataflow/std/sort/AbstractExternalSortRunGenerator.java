@@ -25,6 +25,8 @@ import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.utils.TaskUtil;
+import org.apache.hyracks.dataflow.std.buffermanager.BrokeredMemoryBudget;
 import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
@@ -62,15 +64,15 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
         maxSortFrames = framesLimit - 1;
 
         IFrameFreeSlotPolicy freeSlotPolicy = FrameFreeSlotPolicyFactory.createFreeSlotPolicy(policy, maxSortFrames);
+        BrokeredMemoryBudget brokeredBudget = BrokeredMemoryBudget.create(TaskUtil.getMemoryBroker(ctx),
+                (long) maxSortFrames * ctx.getInitialFrameSize());
         IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
-                new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize()), freeSlotPolicy);
-        if (alg == Algorithm.MERGE_SORT) {
-            frameSorter = new FrameSorterMergeSort(ctx, bufferManager, maxSortFrames, sortFields,
-                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
-        } else {
-            frameSorter = new FrameSorterQuickSort(ctx, bufferManager, maxSortFrames, sortFields,
-                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
-        }
+                new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize(), brokeredBudget),
+                freeSlotPolicy);
+        AbstractFrameSorter sorter = FrameSorterFactory.createFrameSorter(alg, ctx, bufferManager, maxSortFrames,
+                sortFields, keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
+        sorter.setBrokeredBudget(brokeredBudget);
+        frameSorter = sorter;
     }
 
     @Override
@@ -22,13 +22,18 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.hyracks.api.comm.FrameConstants;
+import org.apache.hyracks.api.comm.IFrameReader;
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
@@ -36,23 +41,30 @@ import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.sort.util.GroupVSizeFrame;
+import org.apache.hyracks.dataflow.std.sort.util.ReadAheadFrameReader;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public abstract class AbstractExternalSortRunMerger {
 
+    // two input frames and one output frame
+    private static final int MIN_FRAMES_PER_PARALLEL_MERGE = 3;
+
     protected final IHyracksTaskContext ctx;
     protected final IFrameWriter writer;
 
     private final List<GeneratedRunFileReader> runs;
-    private final BitSet currentGenerationRunAvailable;
     private final IBinaryComparator[] comparators;
     private final INormalizedKeyComputer nmkComputer;
     private final RecordDescriptor recordDesc;
     private final int framesLimit;
     private final int topK;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final INormalizedKeyComputerFactory nmkFactory;
+    private final int degreeOfParallelism;
     private List<GroupVSizeFrame> inFrames;
+    private List<GroupVSizeFrame> aheadFrames;
     private VSizeFrame outputFrame;
     private ISorter sorter;
 
@@ -67,16 +79,33 @@ public abstract class AbstractExternalSortRunMerger {
     public AbstractExternalSortRunMerger(IHyracksTaskContext ctx, ISorter sorter, List<GeneratedRunFileReader> runs,
             IBinaryComparator[] comparators, INormalizedKeyComputer nmkComputer, RecordDescriptor recordDesc,
             int framesLimit, int topK, IFrameWriter writer) {
+        this(ctx, sorter, runs, comparators, nmkComputer, recordDesc, framesLimit, topK, writer, null, null, 1);
+    }
+
+    /**
+     * @param comparatorFactories
+     *            create the comparators of the merges that run in parallel
+     * @param nmkFactory
+     *            creates the normalized key computers of the merges that run in parallel, can be null
+     * @param degreeOfParallelism
+     *            the maximum number of intermediate merges that run in parallel
+     */
+    public AbstractExternalSortRunMerger(IHyracksTaskContext ctx, ISorter sorter, List<GeneratedRunFileReader> runs,
+            IBinaryComparator[] comparators, INormalizedKeyComputer nmkComputer, RecordDescriptor recordDesc,
+            int framesLimit, int topK, IFrameWriter writer, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory nmkFactory, int degreeOfParallelism) {
         this.ctx = ctx;
         this.sorter = sorter;
         this.runs = new LinkedList<>(runs);
-        this.currentGenerationRunAvailable = new BitSet(runs.size());
         this.comparators = comparators;
         this.nmkComputer = nmkComputer;
         this.recordDesc = recordDesc;
         this.framesLimit = framesLimit;
         this.writer = writer;
         this.topK = topK;
+        this.comparatorFactories = comparatorFactories;
+        this.nmkFactory = nmkFactory;
+        this.degreeOfParallelism = degreeOfParallelism;
     }
 
     public void process() throws HyracksDataException {
@@ -104,67 +133,56 @@ public abstract class AbstractExternalSortRunMerger {
                 finalWriter.open();
 
                 int maxMergeWidth = framesLimit - 1;
+                int mergeBudget = maxMergeWidth * ctx.getInitialFrameSize();
 
                 inFrames = new ArrayList<>(maxMergeWidth);
+                aheadFrames = new ArrayList<>(maxMergeWidth);
                 outputFrame = new VSizeFrame(ctx);
                 List<GeneratedRunFileReader> partialRuns = new ArrayList<>(maxMergeWidth);
 
-                int stop = runs.size();
-                currentGenerationRunAvailable.set(0, stop);
-                int numberOfPasses = 1;
-                while (true) {
-
-                    int unUsed = selectPartialRuns(maxMergeWidth * ctx.getInitialFrameSize(), runs, partialRuns,
-                            currentGenerationRunAvailable, stop);
-                    prepareFrames(unUsed, inFrames, partialRuns);
-
-                    if (!currentGenerationRunAvailable.isEmpty() || stop < runs.size()) {
-                        GeneratedRunFileReader reader;
-                        if (partialRuns.size() == 1) {
-                            if (!currentGenerationRunAvailable.isEmpty()) {
-                                throw new HyracksDataException(
-                                        "The record is too big to put into the merging frame, please"
-                                                + " allocate more sorting memory");
-                            } else {
-                                reader = partialRuns.get(0);
-                            }
-
-                        } else {
-                            RunFileWriter mergeFileWriter = prepareIntermediateMergeRunFile();
-                            IFrameWriter mergeResultWriter = prepareIntermediateMergeResultWriter(mergeFileWriter);
-
-                            try {
-                                mergeResultWriter.open();
-                                merge(mergeResultWriter, partialRuns);
-                            } catch (Throwable t) {
-                                mergeResultWriter.fail();
-                                throw t;
-                            } finally {
-                                mergeResultWriter.close();
-                            }
-                            reader = mergeFileWriter.createReader();
-                        }
-                        runs.add(reader);
-
-                        if (currentGenerationRunAvailable.isEmpty()) {
-                            numberOfPasses++;
-                            if (LOGGER.isDebugEnabled()) {
-                                LOGGER.debug("generated runs:" + stop);
-                            }
-                            runs.subList(0, stop).clear();
-                            currentGenerationRunAvailable.clear();
-                            currentGenerationRunAvailable.set(0, runs.size());
-                            stop = runs.size();
-                        }
-                    } else {
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("final runs: {}", stop);
-                            LOGGER.debug("number of passes: " + numberOfPasses);
-                        }
-                        merge(finalWriter, partialRuns);
-                        break;
+                if (degreeOfParallelism > 1 && comparatorFactories != null) {
+                    mergeRunsInParallel(maxMergeWidth);
+                }
+                int numberOfMerges = 0;
+                // the runs before the first run are the results of the intermediate merges, which are merged last
+                int firstRun = 0;
+                while (getTotalMaxFrameSize(runs) > mergeBudget) {
+                    int unUsed = selectIntermediateRuns(mergeBudget, runs, firstRun, partialRuns);
+                    if (partialRuns.size() < 2 && firstRun > 0) {
+                        // the remaining runs are merged with the results of the previous merges
+                        firstRun = 0;
+                        continue;
                     }
+                    if (partialRuns.size() < 2) {
+                        throw new HyracksDataException("The record is too big to put into the merging frame, please"
+                                + " allocate more sorting memory");
+                    }
+                    List<IFrameReader> partialRunReaders = prepareFrames(unUsed, partialRuns);
+                    RunFileWriter mergeFileWriter = prepareIntermediateMergeRunFile();
+                    IFrameWriter mergeResultWriter = prepareIntermediateMergeResultWriter(mergeFileWriter);
+
+                    try {
+                        mergeResultWriter.open();
+                        merge(mergeResultWriter, partialRunReaders);
+                    } catch (Throwable t) {
+                        mergeResultWriter.fail();
+                        throw t;
+                    } finally {
+                        mergeResultWriter.close();
+                    }
+                    // the merged run takes the place of the merged runs, so ties are still broken in the input order
+                    runs.subList(firstRun, firstRun + partialRuns.size()).clear();
+                    runs.add(firstRun, mergeFileWriter.createReader());
+                    firstRun++;
+                    numberOfMerges++;
                 }
+                partialRuns.clear();
+                partialRuns.addAll(runs);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("final runs: {}", partialRuns.size());
+                    LOGGER.debug("number of intermediate merges: " + numberOfMerges);
+                }
+                merge(finalWriter, prepareFrames(mergeBudget - (int) getTotalMaxFrameSize(partialRuns), partialRuns));
             }
         } catch (Exception e) {
             if (finalWriter != null) {
@@ -190,6 +208,174 @@ public abstract class AbstractExternalSortRunMerger {
         }
     }
 
+    /**
+     * Merges disjoint groups of runs in parallel, each with an equal share of the merge frames, until the remaining
+     * runs can be merged in one pass. The merged run of a group takes the place of the first run of the group, so
+     * the final merge breaks the ties between runs in the same way as without the parallel passes.
+     */
+    private void mergeRunsInParallel(int maxMergeWidth) throws HyracksDataException {
+        int numGroups = Math.min(degreeOfParallelism, framesLimit / MIN_FRAMES_PER_PARALLEL_MERGE);
+        if (numGroups < 2) {
+            return;
+        }
+        int frameSize = ctx.getInitialFrameSize();
+        int groupBudget = (framesLimit / numGroups - 1) * frameSize;
+        while (getTotalMaxFrameSize(runs) > maxMergeWidth * frameSize) {
+            List<List<GeneratedRunFileReader>> groups = new ArrayList<>(numGroups);
+            BitSet runAvailable = new BitSet(runs.size());
+            runAvailable.set(0, runs.size());
+            while (groups.size() < numGroups && !runAvailable.isEmpty()) {
+                List<GeneratedRunFileReader> group = new ArrayList<>();
+                selectPartialRuns(groupBudget, runs, group, runAvailable, runs.size());
+                if (group.size() < 2) {
+                    break;
+                }
+                groups.add(group);
+            }
+            if (groups.size() < 2) {
+                // a single merge gains nothing over the sequential passes
+                return;
+            }
+            List<GeneratedRunFileReader> mergedRuns = mergeGroupsInParallel(groups);
+            List<GeneratedRunFileReader> nextRuns = new ArrayList<>(runs.size());
+            for (GeneratedRunFileReader run : runs) {
+                int groupIndex = getGroupIndex(groups, run);
+                if (groupIndex < 0) {
+                    nextRuns.add(run);
+                } else if (groups.get(groupIndex).get(0) == run) {
+                    nextRuns.add(mergedRuns.get(groupIndex));
+                }
+            }
+            runs.clear();
+            runs.addAll(nextRuns);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("merged " + groups.size() + " groups of runs in parallel, remaining runs: " + runs.size());
+            }
+        }
+    }
+
+    private List<GeneratedRunFileReader> mergeGroupsInParallel(List<List<GeneratedRunFileReader>> groups)
+            throws HyracksDataException {
+        List<Future<GeneratedRunFileReader>> tasks = new ArrayList<>(groups.size());
+        Throwable failure = null;
+        try {
+            for (List<GeneratedRunFileReader> group : groups) {
+                // the frames and the files are allocated here, the merges only use them
+                List<GroupVSizeFrame> groupFrames = new ArrayList<>(group.size());
+                for (GeneratedRunFileReader run : group) {
+                    groupFrames.add(new GroupVSizeFrame(ctx, run.getMaxFrameSize()));
+                }
+                VSizeFrame groupOutputFrame = new VSizeFrame(ctx);
+                IBinaryComparator[] groupComparators = new IBinaryComparator[comparatorFactories.length];
+                for (int i = 0; i < comparatorFactories.length; i++) {
+                    groupComparators[i] = comparatorFactories[i].createBinaryComparator();
+                }
+                INormalizedKeyComputer groupNmkComputer =
+                        nmkFactory == null ? null : nmkFactory.createNormalizedKeyComputer();
+                RunFileWriter mergeFileWriter = prepareIntermediateMergeRunFile();
+                IFrameWriter mergeResultWriter = prepareIntermediateMergeResultWriter(mergeFileWriter);
+                tasks.add(ctx.getExecutorService().submit(() -> {
+                    mergeResultWriter.open();
+                    try {
+                        merge(mergeResultWriter, group, groupFrames, groupOutputFrame, groupComparators,
+                                groupNmkComputer);
+                    } catch (Exception e) {
+                        mergeResultWriter.fail();
+                        throw e;
+                    } finally {
+                        mergeResultWriter.close();
+                    }
+                    return mergeFileWriter.createReader();
+                }));
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        // every task is awaited, so that no merge is still running when the runs are closed
+        List<GeneratedRunFileReader> mergedRuns = new ArrayList<>(tasks.size());
+        for (Future<GeneratedRunFileReader> task : tasks) {
+            try {
+                mergedRuns.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = addFailure(failure, e);
+            } catch (ExecutionException e) {
+                failure = addFailure(failure, e.getCause());
+            }
+        }
+        if (failure != null) {
+            throw HyracksDataException.create(failure);
+        }
+        return mergedRuns;
+    }
+
+    private static Throwable addFailure(Throwable failure, Throwable th) {
+        if (failure == null) {
+            return th;
+        }
+        failure.addSuppressed(th);
+        return failure;
+    }
+
+    private static int getGroupIndex(List<List<GeneratedRunFileReader>> groups, GeneratedRunFileReader run) {
+        for (int i = 0; i < groups.size(); i++) {
+            for (GeneratedRunFileReader groupRun : groups.get(i)) {
+                if (groupRun == run) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long getTotalMaxFrameSize(List<GeneratedRunFileReader> runs) {
+        long totalSize = 0;
+        for (GeneratedRunFileReader run : runs) {
+            totalSize += run.getMaxFrameSize();
+        }
+        return totalSize;
+    }
+
+    /**
+     * Selects the fewest consecutive runs from the first run on whose merge lets all runs be merged in the final pass,
+     * or else as many of them as fit into half of the budget. The runs from the first run on have not been merged yet,
+     * so the data of the merged runs is not merged again just to save a pass over a few small runs. The other half of
+     * the budget reads the selected runs ahead. Only if fewer than two runs fit into half of the budget, the whole
+     * budget is used and the runs are not read ahead.
+     *
+     * @return the unused budget
+     */
+    private static int selectIntermediateRuns(int budget, List<GeneratedRunFileReader> runs, int firstRun,
+            List<GeneratedRunFileReader> partialRuns) {
+        int unUsed = selectIntermediateRuns(budget, budget / 2, runs, firstRun, partialRuns);
+        if (partialRuns.size() < 2) {
+            unUsed = selectIntermediateRuns(budget, budget, runs, firstRun, partialRuns);
+        }
+        return unUsed;
+    }
+
+    private static int selectIntermediateRuns(int budget, int selectionBudget, List<GeneratedRunFileReader> runs,
+            int firstRun, List<GeneratedRunFileReader> partialRuns) {
+        partialRuns.clear();
+        long otherRunsSize = getTotalMaxFrameSize(runs);
+        int selectedSize = 0;
+        int maxSelectedSize = 0;
+        for (GeneratedRunFileReader run : runs.subList(firstRun, runs.size())) {
+            int runFrameSize = run.getMaxFrameSize();
+            if (selectedSize + runFrameSize > selectionBudget) {
+                break;
+            }
+            partialRuns.add(run);
+            selectedSize += runFrameSize;
+            otherRunsSize -= runFrameSize;
+            maxSelectedSize = Math.max(maxSelectedSize, runFrameSize);
+            if (partialRuns.size() > 1 && otherRunsSize + maxSelectedSize <= budget) {
+                break;
+            }
+        }
+        return budget - selectedSize;
+    }
+
     private static int selectPartialRuns(int argBudget, List<GeneratedRunFileReader> runs,
             List<GeneratedRunFileReader> partialRuns, BitSet runAvailable, int stop) {
         partialRuns.clear();
@@ -198,21 +384,34 @@ public abstract class AbstractExternalSortRunMerger {
         int nextRunId = runAvailable.nextSetBit(0);
         while (budget > 0 && nextRunId >= 0 && nextRunId < stop) {
             int runFrameSize = runs.get(nextRunId).getMaxFrameSize();
-            if (budget - runFrameSize >= 0) {
-                partialRuns.add(runs.get(nextRunId));
-                budget -= runFrameSize;
-                runAvailable.clear(nextRunId);
-                maxFrameSizeOfGenRun = Math.max(runFrameSize, maxFrameSizeOfGenRun);
+            if (budget - runFrameSize < 0) {
+                // a group is consecutive, so that its merged run breaks the ties in the order of the runs
+                break;
             }
+            partialRuns.add(runs.get(nextRunId));
+            budget -= runFrameSize;
+            runAvailable.clear(nextRunId);
+            maxFrameSizeOfGenRun = Math.max(runFrameSize, maxFrameSizeOfGenRun);
             nextRunId = runAvailable.nextSetBit(nextRunId + 1);
         }
         return budget;
     }
 
-    private void prepareFrames(int extraFreeMem, List<GroupVSizeFrame> inFrames,
-            List<GeneratedRunFileReader> partialRuns) throws HyracksDataException {
-        if (extraFreeMem > 0 && partialRuns.size() > 1) {
-            int extraFrames = extraFreeMem / ctx.getInitialFrameSize();
+    /**
+     * Sizes the frames of a merge. If every run can get a second frame from the unused memory, the runs are read
+     * ahead while they are merged. The rest of the unused memory makes the frames bigger, so that more frames are read
+     * at once.
+     *
+     * @return the readers of the runs
+     */
+    private List<IFrameReader> prepareFrames(int extraFreeMem, List<GeneratedRunFileReader> partialRuns)
+            throws HyracksDataException {
+        long readAheadMem = getTotalMaxFrameSize(partialRuns);
+        boolean readAhead = partialRuns.size() > 1 && extraFreeMem >= readAheadMem;
+        // the frames that read ahead grow along with the frames of the merge
+        int extraFrameMem = readAhead ? (int) ((extraFreeMem - readAheadMem) / 2) : extraFreeMem;
+        if (extraFrameMem > 0 && partialRuns.size() > 1) {
+            int extraFrames = extraFrameMem / ctx.getInitialFrameSize();
             int avg = (extraFrames / partialRuns.size()) * ctx.getInitialFrameSize();
             int residue = extraFrames % partialRuns.size();
             for (int i = 0; i < residue; i++) {
@@ -235,6 +434,25 @@ public abstract class AbstractExternalSortRunMerger {
         for (; i < partialRuns.size(); i++) {
             inFrames.add(new GroupVSizeFrame(ctx, partialRuns.get(i).getMaxFrameSize()));
         }
+
+        List<IFrameReader> readers = new ArrayList<>(partialRuns.size());
+        if (!readAhead) {
+            readers.addAll(partialRuns);
+            return readers;
+        }
+        if (aheadFrames.size() > partialRuns.size()) {
+            aheadFrames.subList(partialRuns.size(), aheadFrames.size()).clear();
+        }
+        for (i = 0; i < aheadFrames.size(); i++) {
+            aheadFrames.get(i).resize(partialRuns.get(i).getMaxFrameSize());
+        }
+        for (; i < partialRuns.size(); i++) {
+            aheadFrames.add(new GroupVSizeFrame(ctx, partialRuns.get(i).getMaxFrameSize()));
+        }
+        for (i = 0; i < partialRuns.size(); i++) {
+            readers.add(new ReadAheadFrameReader(ctx, partialRuns.get(i), aheadFrames.get(i)));
+        }
+        return readers;
     }
 
     protected abstract IFrameWriter prepareSkipMergingFinalResultWriter(IFrameWriter nextWriter)
@@ -249,7 +467,13 @@ public abstract class AbstractExternalSortRunMerger {
 
     protected abstract int[] getSortFields();
 
-    private void merge(IFrameWriter writer, List<GeneratedRunFileReader> partialRuns) throws HyracksDataException {
+    private void merge(IFrameWriter writer, List<? extends IFrameReader> partialRuns) throws HyracksDataException {
+        merge(writer, partialRuns, inFrames, outputFrame, comparators, nmkComputer);
+    }
+
+    private void merge(IFrameWriter writer, List<? extends IFrameReader> partialRuns, List<GroupVSizeFrame> inFrames,
+            VSizeFrame outputFrame, IBinaryComparator[] comparators, INormalizedKeyComputer nmkComputer)
+            throws HyracksDataException {
         RunMergingFrameReader merger = new RunMergingFrameReader(ctx, partialRuns, inFrames, getSortFields(),
                 comparators, nmkComputer, recordDesc, topK);
         int io = 0;
@@ -36,6 +36,7 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.common.utils.NormalizedKeyUtils;
+import org.apache.hyracks.dataflow.std.buffermanager.BrokeredMemoryBudget;
 import org.apache.hyracks.dataflow.std.buffermanager.BufferInfo;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
@@ -71,6 +72,8 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
 
     protected final long maxSortMemory;
     protected long totalMemoryUsed;
+    // if set, replaces maxSortMemory and is shared with the frame pool of the buffer manager
+    protected BrokeredMemoryBudget brokeredBudget;
     protected int[] tPointers;
     protected final int[] tmpPointer;
     protected int tupleCount;
@@ -137,6 +140,19 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         this.tmpPointer = new int[ptrSize];
     }
 
+    /**
+     * Lets the sorter borrow memory beyond maxSortMemory. The budget must be the one of the frame pool of the buffer
+     * manager, which gives the borrowed memory back.
+     */
+    public void setBrokeredBudget(BrokeredMemoryBudget brokeredBudget) {
+        this.brokeredBudget = brokeredBudget;
+    }
+
+    private boolean hasMemoryFor(long requiredMemory) {
+        return brokeredBudget == null ? totalMemoryUsed + requiredMemory <= maxSortMemory
+                : brokeredBudget.ensure(totalMemoryUsed + requiredMemory);
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         this.tupleCount = 0;
@@ -148,7 +164,7 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     public boolean insertFrame(ByteBuffer inputBuffer) throws HyracksDataException {
         inputTupleAccessor.reset(inputBuffer);
         long requiredMemory = getRequiredMemory(inputTupleAccessor);
-        if (totalMemoryUsed + requiredMemory <= maxSortMemory && bufferManager.insertFrame(inputBuffer) >= 0) {
+        if (hasMemoryFor(requiredMemory) && bufferManager.insertFrame(inputBuffer) >= 0) {
             // we have enough memory
             totalMemoryUsed += requiredMemory;
             tupleCount += inputTupleAccessor.getTupleCount();
@@ -21,5 +21,10 @@ package org.apache.hyracks.dataflow.std.sort;
 
 public enum Algorithm {
     QUICK_SORT,
-    MERGE_SORT
+    /**
+     * Merge sort, or radix sort when the normalized keys decide the order of the tuples, see
+     * {@link FrameSorterFactory}
+     */
+    MERGE_SORT,
+    RADIX_SORT
 }
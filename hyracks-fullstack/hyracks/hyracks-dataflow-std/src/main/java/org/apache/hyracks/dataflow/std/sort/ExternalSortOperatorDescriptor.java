@@ -41,6 +41,7 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
     private Algorithm alg = Algorithm.MERGE_SORT;
     private EnumFreeSlotPolicy policy = EnumFreeSlotPolicy.LAST_FIT;
     private final int outputLimit;
+    private int degreeOfParallelism = 1;
 
     public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
@@ -79,6 +80,11 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
             @Override
             protected AbstractSortRunGenerator getRunGenerator(IHyracksTaskContext ctx,
                     IRecordDescriptorProvider recordDescProvider) throws HyracksDataException {
+                if (degreeOfParallelism > 1) {
+                    return new ParallelExternalSortRunGenerator(ctx, sortFields, keyNormalizerFactories,
+                            comparatorFactories, outRecDescs[0], alg, policy, framesLimit, outputLimit,
+                            degreeOfParallelism);
+                }
                 return new ExternalSortRunGenerator(ctx, sortFields, keyNormalizerFactories, comparatorFactories,
                         outRecDescs[0], alg, policy, framesLimit, outputLimit);
             }
@@ -96,7 +102,8 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
                     List<GeneratedRunFileReader> runs, IBinaryComparator[] comparators,
                     INormalizedKeyComputer nmkComputer, int necessaryFrames) {
                 return new ExternalSortRunMerger(ctx, sorter, runs, sortFields, comparators, nmkComputer,
-                        outRecDescs[0], necessaryFrames, outputLimit, writer);
+                        outRecDescs[0], necessaryFrames, outputLimit, writer, comparatorFactories,
+                        keyNormalizerFactories == null ? null : keyNormalizerFactories[0], degreeOfParallelism);
             }
         };
     }
@@ -120,4 +127,12 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
         this.outputLimit = outputLimit;
     }
 
+    /**
+     * Sets the number of threads that sort the runs and merge them in a partition. The order of the output does not
+     * depend on it.
+     */
+    public void setDegreeOfParallelism(int degreeOfParallelism) {
+        this.degreeOfParallelism = degreeOfParallelism;
+    }
+
 }
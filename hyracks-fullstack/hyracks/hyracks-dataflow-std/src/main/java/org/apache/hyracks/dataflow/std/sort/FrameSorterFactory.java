@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.utils.NormalizedKeyUtils;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+
+public class FrameSorterFactory {
+
+    private FrameSorterFactory() {
+    }
+
+    /**
+     * Creates the in-memory sorter of an algorithm. Merge sort is replaced by radix sort when the decisive prefix of
+     * the normalized keys covers all the sort fields, since both give the same stable order and radix sort does not
+     * call the comparators.
+     */
+    public static AbstractFrameSorter createFrameSorter(Algorithm alg, IHyracksTaskContext ctx,
+            IFrameBufferManager bufferManager, int maxSortFrames, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit) throws HyracksDataException {
+        switch (alg) {
+            case QUICK_SORT:
+                return new FrameSorterQuickSort(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories,
+                        comparatorFactories, recordDescriptor, outputLimit);
+            case MERGE_SORT:
+                if (!isNormalizedKeyDecisive(keyNormalizerFactories, comparatorFactories)) {
+                    return new FrameSorterMergeSort(ctx, bufferManager, maxSortFrames, sortFields,
+                            keyNormalizerFactories, comparatorFactories, recordDescriptor, outputLimit);
+                }
+                // fall through
+            case RADIX_SORT:
+            default:
+                return new FrameSorterRadixSort(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories,
+                        comparatorFactories, recordDescriptor, outputLimit);
+        }
+    }
+
+    public static AbstractFrameSorter createFrameSorter(Algorithm alg, IHyracksTaskContext ctx,
+            IFrameBufferManager bufferManager, int maxSortFrames, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor) throws HyracksDataException {
+        return createFrameSorter(alg, ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories,
+                comparatorFactories, recordDescriptor, Integer.MAX_VALUE);
+    }
+
+    private static boolean isNormalizedKeyDecisive(INormalizedKeyComputerFactory[] keyNormalizerFactories,
+            IBinaryComparatorFactory[] comparatorFactories) {
+        return keyNormalizerFactories != null && NormalizedKeyUtils
+                .getDecisivePrefixLength(keyNormalizerFactories) == comparatorFactories.length;
+    }
+}
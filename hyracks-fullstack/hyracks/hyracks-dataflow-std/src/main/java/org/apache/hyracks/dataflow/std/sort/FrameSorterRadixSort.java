@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+
+/**
+ * Sorts the tuple pointers with a most-significant-digit radix sort on the bytes of their normalized keys. The
+ * tuples are distributed by one byte at a time and every bucket is sorted recursively on the next byte, so the
+ * comparators are only called for small buckets and, when the normalized keys are not decisive, for the buckets
+ * whose normalized keys are equal. Both the distribution and the merge sort of the small buckets are stable, so the
+ * output is the same as the one of {@link FrameSorterMergeSort}.
+ */
+public class FrameSorterRadixSort extends AbstractFrameSorter {
+
+    // buckets up to this size are merge sorted instead of distributed
+    private static final int MERGE_SORT_THRESHOLD = 64;
+    private static final int INSERTION_SORT_THRESHOLD = 8;
+    private static final int RADIX = 256;
+
+    private final int numDigits;
+    // the bucket counts of each digit, reused by all the buckets at the same depth
+    private final int[][] counts;
+    private int[] tPointersTemp;
+
+    public FrameSorterRadixSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
+            int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor)
+            throws HyracksDataException {
+        this(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories, comparatorFactories,
+                recordDescriptor, Integer.MAX_VALUE);
+    }
+
+    public FrameSorterRadixSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
+            int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor, int outputLimit)
+            throws HyracksDataException {
+        super(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories, comparatorFactories,
+                recordDescriptor, outputLimit);
+        this.numDigits = normalizedKeyTotalLength * Integer.BYTES;
+        this.counts = new int[numDigits][];
+    }
+
+    @Override
+    void sortTupleReferences() throws HyracksDataException {
+        if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
+            tPointersTemp = new int[tPointers.length];
+        }
+        if (numDigits == 0) {
+            mergeSort(0, tupleCount);
+        } else {
+            radixSort(0, tupleCount, 0);
+        }
+    }
+
+    @Override
+    protected long getRequiredMemory(FrameTupleAccessor frameAccessor) {
+        return super.getRequiredMemory(frameAccessor) + ptrSize * frameAccessor.getTupleCount() * Integer.BYTES;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        tPointersTemp = null;
+    }
+
+    private void radixSort(int offset, int length, int digit) throws HyracksDataException {
+        int end = offset + length;
+        int[] count = counts[digit];
+        if (count == null) {
+            count = new int[RADIX + 1];
+            counts[digit] = count;
+        }
+        // skip the digits that are the same for the whole bucket
+        while (true) {
+            Arrays.fill(count, 0);
+            for (int i = offset; i < end; i++) {
+                count[getDigit(i, digit) + 1]++;
+            }
+            if (count[getDigit(offset, digit) + 1] < length) {
+                break;
+            }
+            if (++digit == numDigits) {
+                sortEqualNormalizedKeys(offset, length);
+                return;
+            }
+            count = counts[digit];
+            if (count == null) {
+                count = new int[RADIX + 1];
+                counts[digit] = count;
+            }
+        }
+        for (int b = 0; b < RADIX; b++) {
+            count[b + 1] += count[b];
+        }
+        // count[b] is now the start of bucket b, and is advanced while the bucket is filled
+        for (int i = offset; i < end; i++) {
+            copy(tPointers, i, tPointersTemp, offset + count[getDigit(i, digit)]++);
+        }
+        copy(tPointersTemp, offset, tPointers, offset, length);
+        // count[b] is now the end of bucket b
+        int nextDigit = digit + 1;
+        int bucketStart = 0;
+        for (int b = 0; b < RADIX; b++) {
+            int bucketLength = count[b] - bucketStart;
+            if (bucketLength > 1) {
+                if (bucketLength <= MERGE_SORT_THRESHOLD) {
+                    mergeSort(offset + bucketStart, bucketLength);
+                } else if (nextDigit == numDigits) {
+                    sortEqualNormalizedKeys(offset + bucketStart, bucketLength);
+                } else {
+                    radixSort(offset + bucketStart, bucketLength, nextDigit);
+                }
+            }
+            bucketStart = count[b];
+        }
+    }
+
+    private void sortEqualNormalizedKeys(int offset, int length) throws HyracksDataException {
+        if (!normalizedKeysDecisive) {
+            mergeSort(offset, length);
+        }
+    }
+
+    private int getDigit(int tp, int digit) {
+        int key = tPointers[tp * ptrSize + ID_NORMALIZED_KEY + (digit >> 2)];
+        return (key >>> ((3 - (digit & 3)) << 3)) & 0xff;
+    }
+
+    /**
+     * Stable merge sort of a range of the tuple pointers, which uses the same range of the temporary pointers
+     */
+    private void mergeSort(int offset, int length) throws HyracksDataException {
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(offset, length);
+            return;
+        }
+        int half = length >> 1;
+        int mid = offset + half;
+        int end = offset + length;
+        mergeSort(offset, half);
+        mergeSort(mid, length - half);
+        if (compare(mid - 1, mid) <= 0) {
+            return;
+        }
+        copy(tPointers, offset, tPointersTemp, offset, length);
+        int pos1 = offset;
+        int pos2 = mid;
+        int targetPos = offset;
+        while (pos1 < mid && pos2 < end) {
+            if (compare(tPointersTemp, pos1, tPointersTemp, pos2) <= 0) {
+                copy(tPointersTemp, pos1++, tPointers, targetPos++);
+            } else {
+                copy(tPointersTemp, pos2++, tPointers, targetPos++);
+            }
+        }
+        // the rest of the second half is already in place
+        if (pos1 < mid) {
+            copy(tPointersTemp, pos1, tPointers, targetPos, mid - pos1);
+        }
+    }
+
+    private void insertionSort(int offset, int length) throws HyracksDataException {
+        int end = offset + length;
+        for (int i = offset + 1; i < end; i++) {
+            if (compare(i - 1, i) <= 0) {
+                continue;
+            }
+            // tPointersTemp[i] holds the pointer that is inserted, the larger pointers are shifted to the right
+            copy(tPointers, i, tPointersTemp, i);
+            int j = i - 1;
+            do {
+                copy(tPointers, j, tPointers, j + 1);
+                j--;
+            } while (j >= offset && compare(tPointers, j, tPointersTemp, i) > 0);
+            copy(tPointersTemp, i, tPointers, j + 1);
+        }
+    }
+}
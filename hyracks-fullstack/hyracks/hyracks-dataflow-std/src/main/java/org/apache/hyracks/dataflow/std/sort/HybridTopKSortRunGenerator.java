@@ -101,8 +101,8 @@ public class HybridTopKSortRunGenerator extends HeapSortRunGenerator {
                         new VariableFramePool(ctx, (frameLimit - 1) * ctx.getInitialFrameSize()),
                         FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.BIGGEST_FIT,
                                 frameLimit - 1));
-                frameSorter = new FrameSorterMergeSort(ctx, bufferManager, frameLimit - 1, sortFields, nmkFactories,
-                        comparatorFactories, recordDescriptor, topK);
+                frameSorter = FrameSorterFactory.createFrameSorter(Algorithm.MERGE_SORT, ctx, bufferManager,
+                        frameLimit - 1, sortFields, nmkFactories, comparatorFactories, recordDescriptor, topK);
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("create frameSorter");
                 }
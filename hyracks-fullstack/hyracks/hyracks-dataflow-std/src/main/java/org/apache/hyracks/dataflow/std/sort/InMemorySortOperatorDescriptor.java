@@ -86,7 +86,7 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
     }
 
     private static class SortTaskState extends AbstractStateObject {
-        private FrameSorterMergeSort frameSorter;
+        private AbstractFrameSorter frameSorter;
 
         private SortTaskState(JobId jobId, TaskId taskId) {
             super(jobId, taskId);
@@ -123,9 +123,9 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
                             new VariableFramePool(ctx, VariableFramePool.UNLIMITED_MEMORY),
                             FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT));
 
-                    state.frameSorter =
-                            new FrameSorterMergeSort(ctx, frameBufferManager, VariableFramePool.UNLIMITED_MEMORY,
-                                    sortFields, keyNormalizerFactories, comparatorFactories, outRecDescs[0]);
+                    state.frameSorter = FrameSorterFactory.createFrameSorter(Algorithm.MERGE_SORT, ctx,
+                            frameBufferManager, VariableFramePool.UNLIMITED_MEMORY, sortFields, keyNormalizerFactories,
+                            comparatorFactories, outRecDescs[0]);
                     state.frameSorter.reset();
                 }
 
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates the sorted runs with several frame sorters that share the sort memory. The input is inserted into one
+ * sorter at a time. When it is full, it is sorted and flushed to a run on the executor of the task, while the input
+ * goes on into the next sorter. The runs are listed in the order in which they were started.
+ */
+public class ParallelExternalSortRunGenerator extends AbstractSortRunGenerator {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final IHyracksTaskContext ctx;
+    private final AbstractFrameSorter[] sorters;
+    private final Future<GeneratedRunFileReader>[] flushes;
+    private int current;
+    private boolean flushed;
+
+    @SuppressWarnings("unchecked")
+    public ParallelExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit,
+            int degreeOfParallelism) throws HyracksDataException {
+        super();
+        this.ctx = ctx;
+        int maxSortFrames = framesLimit - 1;
+        int numSorters = Math.max(1, Math.min(degreeOfParallelism, maxSortFrames));
+        int sorterFrames = maxSortFrames / numSorters;
+        sorters = new AbstractFrameSorter[numSorters];
+        flushes = new Future[numSorters];
+        for (int i = 0; i < numSorters; i++) {
+            IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
+                    new VariableFramePool(ctx, sorterFrames * ctx.getInitialFrameSize()),
+                    FrameFreeSlotPolicyFactory.createFreeSlotPolicy(policy, sorterFrames));
+            sorters[i] = FrameSorterFactory.createFrameSorter(alg, ctx, bufferManager, sorterFrames, sortFields,
+                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
+        }
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        current = 0;
+        flushed = false;
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (!sorters[current].insertFrame(buffer)) {
+            flushFramesToRun();
+            if (!sorters[current].insertFrame(buffer)) {
+                throw new HyracksDataException("The given frame is too big to insert into the sorting memory.");
+            }
+        }
+    }
+
+    @Override
+    public ISorter getSorter() {
+        return sorters[current];
+    }
+
+    /**
+     * Starts to flush the current sorter and moves on to the next one, which is free once its own flush is done.
+     */
+    @Override
+    protected void flushFramesToRun() throws HyracksDataException {
+        flushes[current] = startFlush(sorters[current]);
+        flushed = true;
+        current = (current + 1) % sorters.length;
+        awaitFlush(current);
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        if (sorters[current].hasRemaining()) {
+            if (flushed) {
+                flushes[current] = startFlush(sorters[current]);
+            } else {
+                // everything fits in one sorter, which is merged without any run
+                sorters[current].sort();
+            }
+        }
+        // the oldest flush is the one after the current sorter
+        for (int i = 1; i <= sorters.length; i++) {
+            awaitFlush((current + i) % sorters.length);
+        }
+        if (flushed) {
+            // the merger only recycles the current sorter
+            for (int i = 0; i < sorters.length; i++) {
+                if (i != current) {
+                    sorters[i].close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        for (int i = 0; i < flushes.length; i++) {
+            if (flushes[i] != null) {
+                try {
+                    flushes[i].get();
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARN, "Failure while flushing a sorted run", e);
+                }
+                flushes[i] = null;
+            }
+        }
+    }
+
+    private Future<GeneratedRunFileReader> startFlush(AbstractFrameSorter sorter) throws HyracksDataException {
+        RunFileWriter runWriter = getRunFileWriter();
+        return ctx.getExecutorService().submit(() -> {
+            sorter.sort();
+            runWriter.open();
+            try {
+                sorter.flush(runWriter);
+            } catch (Exception e) {
+                runWriter.fail();
+                throw e;
+            } finally {
+                runWriter.close();
+            }
+            sorter.reset();
+            return runWriter.createDeleteOnCloseReader();
+        });
+    }
+
+    private void awaitFlush(int sorterIndex) throws HyracksDataException {
+        Future<GeneratedRunFileReader> flush = flushes[sorterIndex];
+        if (flush == null) {
+            return;
+        }
+        flushes[sorterIndex] = null;
+        try {
+            generatedRunFileReaders.add(flush.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } catch (ExecutionException e) {
+            throw HyracksDataException.create(e.getCause());
+        }
+    }
+
+    @Override
+    protected RunFileWriter getRunFileWriter() throws HyracksDataException {
+        FileReference file =
+                ctx.getJobletContext().createManagedWorkspaceFile(ExternalSortRunGenerator.class.getSimpleName());
+        return new RunFileWriter(file, ctx.getIoManager());
+    }
+
+    @Override
+    protected IFrameWriter getFlushableFrameWriter(RunFileWriter writer) throws HyracksDataException {
+        return writer;
+    }
+}
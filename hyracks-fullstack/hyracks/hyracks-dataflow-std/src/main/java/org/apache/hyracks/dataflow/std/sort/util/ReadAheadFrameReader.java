@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameReader;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.util.InvokeUtil;
+
+/**
+ * Reads the next frames of a run into a second {@link GroupVSizeFrame} on the executor of the task while the caller
+ * consumes the current ones, so that the reads of a merge overlap with the merging. The frames that are completely
+ * read ahead are copied into the frame of the caller, and a partial frame at the end stays for the next read.
+ */
+public class ReadAheadFrameReader implements IFrameReader {
+
+    private final IHyracksTaskContext ctx;
+    private final IFrameReader reader;
+    private final GroupVSizeFrame aheadFrame;
+    private Future<Boolean> pendingRead;
+
+    /**
+     * @param reader
+     *            reads a run into a {@link GroupVSizeFrame}
+     * @param aheadFrame
+     *            the frame that the next frames are read into, as big as the frame of the caller
+     */
+    public ReadAheadFrameReader(IHyracksTaskContext ctx, IFrameReader reader, GroupVSizeFrame aheadFrame) {
+        this.ctx = ctx;
+        this.reader = reader;
+        this.aheadFrame = aheadFrame;
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        reader.open();
+        // the frame may be left over from another run
+        aheadFrame.getBuffer().clear();
+        readAhead();
+    }
+
+    @Override
+    public boolean nextFrame(IFrame frame) throws HyracksDataException {
+        if (pendingRead == null) {
+            return false;
+        }
+        boolean hasFrame;
+        try {
+            hasFrame = pendingRead.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } catch (ExecutionException e) {
+            throw HyracksDataException.create(e.getCause());
+        } finally {
+            pendingRead = null;
+        }
+        if (!hasFrame) {
+            return false;
+        }
+        ByteBuffer source = aheadFrame.getBuffer();
+        int end = getCompleteFramesEnd(source, frame.getMinSize());
+        frame.ensureFrameSize(end);
+        ByteBuffer target = frame.getBuffer();
+        target.clear();
+        System.arraycopy(source.array(), 0, target.array(), 0, end);
+        target.limit(end);
+        // the next read keeps the partial frame, as it does after a GroupFrameAccessor parsed the frame
+        source.position(end);
+        readAhead();
+        return true;
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (pendingRead != null) {
+                Future<Boolean> read = pendingRead;
+                pendingRead = null;
+                // the run must not be closed under a running read
+                InvokeUtil.doUninterruptibly(() -> {
+                    try {
+                        read.get();
+                    } catch (ExecutionException e) {
+                        // the frame is not consumed anymore
+                    }
+                });
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void readAhead() {
+        pendingRead = ctx.getExecutorService().submit(() -> reader.nextFrame(aheadFrame));
+    }
+
+    private static int getCompleteFramesEnd(ByteBuffer buffer, int minFrameSize) {
+        int i = 0;
+        int stop = buffer.limit();
+        while (i < stop) {
+            int unitSize = FrameHelper.deserializeNumOfMinFrame(buffer, i) * minFrameSize;
+            if (unitSize == 0 || i + unitSize > stop) {
+                break;
+            }
+            i += unitSize;
+        }
+        return i;
+    }
+}
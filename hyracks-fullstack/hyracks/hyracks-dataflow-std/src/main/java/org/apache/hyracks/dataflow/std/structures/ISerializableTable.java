@@ -24,12 +24,21 @@ import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
 
 public interface ISerializableTable {
 
-    boolean insert(int entry, TuplePointer tuplePointer) throws HyracksDataException;
+    /**
+     * Inserts the tuple pointer together with the hash code of its key. Tuples with equal keys must be inserted
+     * with the same hash code so that {@link #getTupleHashCode(int, int)} can rule out mismatches.
+     */
+    boolean insert(int entry, TuplePointer tuplePointer, int hashCode) throws HyracksDataException;
 
     void delete(int entry);
 
     boolean getTuplePointer(int entry, int offset, TuplePointer tuplePointer);
 
+    /**
+     * Returns the hash code that was inserted with the given tuple pointer without accessing the tuple itself.
+     */
+    int getTupleHashCode(int entry, int offset);
+
     /**
      * Returns the byte size of entire frames that are currently allocated to the table.
      */
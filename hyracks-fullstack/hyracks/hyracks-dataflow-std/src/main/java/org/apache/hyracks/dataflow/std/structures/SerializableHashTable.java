@@ -152,7 +152,7 @@ public class SerializableHashTable extends SimpleSerializableHashTable {
                 // Valid slot found. Reads the given slot information.
                 slotCapacity = currentReadContentFrameForGC.getInt(nextSlotIntPosInPageForGC);
                 slotUsedCount = currentReadContentFrameForGC.getInt(nextSlotIntPosInPageForGC + 1);
-                capacityInIntCount = (slotCapacity + 1) * 2;
+                capacityInIntCount = getSlotIntSize(slotCapacity);
 
                 // Used count should not be -1 (migrated or deleted).
                 if (slotUsedCount != INVALID_VALUE) {
@@ -162,7 +162,7 @@ public class SerializableHashTable extends SimpleSerializableHashTable {
 
                     // Check whether there is at least some space to put some part of the slot.
                     // If not, advance the write pointer to the next page.
-                    if ((gcInfo.currentWriteIntOffsetInPageForGC + 4) > frameCapacity
+                    if ((gcInfo.currentWriteIntOffsetInPageForGC + SLOT_HEADER_SIZE + POINTER_SIZE) > frameCapacity
                             && gcInfo.currentGCWritePageForGC < currentLargestFrameNumber) {
                         // Swipe the region that can't be used.
                         currentWriteContentFrameForGC.writeInvalidVal(gcInfo.currentWriteIntOffsetInPageForGC,
@@ -388,7 +388,7 @@ public class SerializableHashTable extends SimpleSerializableHashTable {
             throws HyracksDataException {
         // Finds the original hash value. We assume that bufferAccessor and tpc is already assigned.
         bufferAccessor.reset(hashedTuple);
-        int entry = tpc.partition(bufferAccessor, hashedTuple.getTupleIndex(), tableSize);
+        int entry = tpc.hash(bufferAccessor, hashedTuple.getTupleIndex()) % tableSize;
 
         // Finds the location of the hash value in the header frame arrays.
         int headerFrameIndex = getHeaderFrameIndex(entry);
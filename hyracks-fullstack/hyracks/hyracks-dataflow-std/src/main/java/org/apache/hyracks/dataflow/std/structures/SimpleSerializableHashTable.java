@@ -34,8 +34,9 @@ import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
  * A header slot consists of [content frame number], [offset in that frame] to get
  * the first tuple's pointer information that shares the same hash value.
  * An entry slot in the content frame is as follows.
- * [capacity of the slot], [# of occupied elements], {[frameIndex], [tupleIndex]}+;
- * <fIndex, tIndex> forms a tuple pointer.
+ * [capacity of the slot], [# of occupied elements], {[frameIndex], [tupleIndex], [hashCode]}+;
+ * <fIndex, tIndex> forms a tuple pointer. The hash code is given by the caller at the insertion time and lets a
+ * probe skip the tuples whose key cannot match without accessing the data frames. See {@link #HASH_CODE_RANGE}.
  * WARNING: this hash table can grow up indefinitely and may generate Out Of Memory Exception.
  * So, do not use this in production and use SerializableHashTable class instead
  * since that should be managed by a buffer manager.
@@ -48,6 +49,17 @@ public class SimpleSerializableHashTable implements ISerializableTable {
     protected static final int INIT_ENTRY_SIZE = 4;
     protected static final int INVALID_VALUE = 0xFFFFFFFF;
     protected static final byte INVALID_BYTE_VALUE = (byte) 0xFF;
+    // Slot header size: capacity, # of used count
+    protected static final int SLOT_HEADER_SIZE = 2;
+    // Tuple pointer size in a slot: frameIndex, tupleIndex, hashCode
+    protected static final int POINTER_SIZE = 3;
+
+    /**
+     * The range of the hash codes that callers store with the tuple pointers, e.g.
+     * {@code tpc.hash(accessor, tIndex) % HASH_CODE_RANGE}. Tuples with equal keys get the same hash code.
+     * A prime keeps the code independent of the entry for the usual table sizes.
+     */
+    public static final int HASH_CODE_RANGE = 65521;
 
     // Header frame array
     protected IntSerDeBuffer[] headers;
@@ -98,7 +110,7 @@ public class SimpleSerializableHashTable implements ISerializableTable {
     }
 
     @Override
-    public boolean insert(int entry, TuplePointer pointer) throws HyracksDataException {
+    public boolean insert(int entry, TuplePointer pointer, int hashCode) throws HyracksDataException {
         int headerFrameIndex = getHeaderFrameIndex(entry);
         int offsetInHeaderFrame = getHeaderFrameOffset(entry);
         IntSerDeBuffer headerFrame = headers[headerFrameIndex];
@@ -116,12 +128,12 @@ public class SimpleSerializableHashTable implements ISerializableTable {
             // Since the initial value of index and offset is -1, this means that the slot for
             // this entry is not created yet. So, create the entry slot and insert first tuple into that slot.
             // OR, the previous slot becomes full and the newly double-sized slot is about to be created.
-            result = insertNewEntry(headerFrame, offsetInHeaderFrame, INIT_ENTRY_SIZE, pointer);
+            result = insertNewEntry(headerFrame, offsetInHeaderFrame, INIT_ENTRY_SIZE, pointer, hashCode);
         } else {
             // The entry slot already exists. Insert non-first tuple into the entry slot
             int offsetInContentFrame = headerFrame.getInt(offsetInHeaderFrame + 1);
             result = insertNonFirstTuple(headerFrame, offsetInHeaderFrame, contentFrameIndex, offsetInContentFrame,
-                    pointer);
+                    pointer, hashCode);
         }
 
         if (result) {
@@ -153,7 +165,7 @@ public class SimpleSerializableHashTable implements ISerializableTable {
                 // Also reset the header (frmaeIdx, offset) to content frame pointer.
                 header.writeInvalidVal(offsetInHeaderFrame, 2);
                 tupleCount = tupleCount - entryUsedItems;
-                increaseWastedSpaceCount((entrySlotCapacity + 1) * 2);
+                increaseWastedSpaceCount(getSlotIntSize(entrySlotCapacity));
             }
         }
     }
@@ -163,33 +175,58 @@ public class SimpleSerializableHashTable implements ISerializableTable {
      * For the given integer value, get the n-th (n = offsetInSlot) tuple pointer in the corresponding slot.
      */
     public boolean getTuplePointer(int entry, int offsetInSlot, TuplePointer dataPointer) {
-        int headerFrameIndex = getHeaderFrameIndex(entry);
-        int offsetInHeaderFrame = getHeaderFrameOffset(entry);
-        IntSerDeBuffer header = headers[headerFrameIndex];
-        if (header == null) {
+        long pointerPos = getTuplePointerPosition(entry, offsetInSlot);
+        if (pointerPos < 0) {
             dataPointer.reset(INVALID_VALUE, INVALID_VALUE);
             return false;
         }
+        dataPointer.reset(getSlotInt(pointerPos), getSlotInt(pointerPos + 1));
+        return true;
+    }
+
+    /**
+     * For the given integer value, get the hash code of the n-th (n = offsetInSlot) tuple pointer in the
+     * corresponding slot.
+     */
+    @Override
+    public int getTupleHashCode(int entry, int offsetInSlot) {
+        long pointerPos = getTuplePointerPosition(entry, offsetInSlot);
+        return pointerPos < 0 ? INVALID_VALUE : getSlotInt(pointerPos + 2);
+    }
+
+    /**
+     * Returns the position of the n-th (n = offsetInSlot) tuple pointer in the slot for the given entry as
+     * (content frame index * frame capacity + int offset in that frame), or -1 if there is no such tuple pointer.
+     */
+    private long getTuplePointerPosition(int entry, int offsetInSlot) {
+        IntSerDeBuffer header = headers[getHeaderFrameIndex(entry)];
+        if (header == null) {
+            return INVALID_VALUE;
+        }
+        int offsetInHeaderFrame = getHeaderFrameOffset(entry);
         int contentFrameIndex = header.getInt(offsetInHeaderFrame);
-        int offsetInContentFrame = header.getInt(offsetInHeaderFrame + 1);
         if (contentFrameIndex < 0) {
-            dataPointer.reset(INVALID_VALUE, INVALID_VALUE);
-            return false;
+            return INVALID_VALUE;
         }
-        IntSerDeBuffer frame = contents.get(contentFrameIndex);
-        int entryUsedCountInSlot = frame.getInt(offsetInContentFrame + 1);
+        int offsetInContentFrame = header.getInt(offsetInHeaderFrame + 1);
+        int entryUsedCountInSlot = contents.get(contentFrameIndex).getInt(offsetInContentFrame + 1);
         if (offsetInSlot > entryUsedCountInSlot - 1) {
-            dataPointer.reset(INVALID_VALUE, INVALID_VALUE);
-            return false;
+            return INVALID_VALUE;
         }
-        int startOffsetInContentFrame = offsetInContentFrame + 2 + offsetInSlot * 2;
-        while (startOffsetInContentFrame >= frameCapacity) {
-            ++contentFrameIndex;
-            startOffsetInContentFrame -= frameCapacity;
-        }
-        frame = contents.get(contentFrameIndex);
-        dataPointer.reset(frame.getInt(startOffsetInContentFrame), frame.getInt(startOffsetInContentFrame + 1));
-        return true;
+        return (long) contentFrameIndex * frameCapacity + offsetInContentFrame + SLOT_HEADER_SIZE
+                + offsetInSlot * POINTER_SIZE;
+    }
+
+    /**
+     * Reads the int at the given position. A slot can span several content frames and a tuple pointer can cross
+     * the boundary of two content frames.
+     */
+    protected int getSlotInt(long pos) {
+        return contents.get((int) (pos / frameCapacity)).getInt((int) (pos % frameCapacity));
+    }
+
+    protected void writeSlotInt(long pos, int value) {
+        contents.get((int) (pos / frameCapacity)).writeInt((int) (pos % frameCapacity), value);
     }
 
     @Override
@@ -255,19 +292,21 @@ public class SimpleSerializableHashTable implements ISerializableTable {
     }
 
     protected boolean insertNewEntry(IntSerDeBuffer header, int offsetInHeaderFrame, int entryCapacity,
-            TuplePointer pointer) throws HyracksDataException {
+            TuplePointer pointer, int hashCode) throws HyracksDataException {
         IntSerDeBuffer lastContentFrame = contents.get(currentLargestFrameNumber);
         int lastOffsetInCurrentFrame = currentOffsetInEachFrameList.get(currentLargestFrameNumber);
-        int requiredIntCapacity = entryCapacity * 2;
+        // The first unit of a slot holds the slot header. The rest hold the tuple pointers.
+        int slotIntSize = getSlotIntSize(entryCapacity - 1);
+        int requiredIntCapacity = slotIntSize;
         int currentFrameNumber = currentLargestFrameNumber;
         boolean currentFrameNumberChanged = false;
 
         if (lastOffsetInCurrentFrame + requiredIntCapacity >= frameCapacity) {
             IntSerDeBuffer newContentFrame;
             // At least we need to have the mata-data (slot capacity and used count) and
-            // one tuplePointer in the same frame (4 INT_SIZE).
+            // one tuplePointer in the same frame (5 INT_SIZE).
             // So, if there is not enough space for this, we just move on to the next page.
-            if ((lastOffsetInCurrentFrame + 4) > frameCapacity) {
+            if ((lastOffsetInCurrentFrame + SLOT_HEADER_SIZE + POINTER_SIZE) > frameCapacity) {
                 // Swipe the region that can't be used.
                 lastContentFrame.writeInvalidVal(lastOffsetInCurrentFrame, frameCapacity - lastOffsetInCurrentFrame);
                 currentFrameNumber++;
@@ -308,12 +347,13 @@ public class SimpleSerializableHashTable implements ISerializableTable {
         // 3. initial entry in the slot
         lastContentFrame.writeInt(lastOffsetInCurrentFrame + 2, pointer.getFrameIndex());
         lastContentFrame.writeInt(lastOffsetInCurrentFrame + 3, pointer.getTupleIndex());
-        int newLastOffsetInContentFrame = lastOffsetInCurrentFrame + entryCapacity * 2;
+        lastContentFrame.writeInt(lastOffsetInCurrentFrame + 4, hashCode);
+        int newLastOffsetInContentFrame = lastOffsetInCurrentFrame + slotIntSize;
         newLastOffsetInContentFrame =
                 newLastOffsetInContentFrame < frameCapacity ? newLastOffsetInContentFrame : frameCapacity - 1;
         currentOffsetInEachFrameList.set(currentFrameNumber, newLastOffsetInContentFrame);
 
-        requiredIntCapacity = entryCapacity * 2 - (frameCapacity - lastOffsetInCurrentFrame);
+        requiredIntCapacity = slotIntSize - (frameCapacity - lastOffsetInCurrentFrame);
         while (requiredIntCapacity > 0) {
             currentFrameNumber++;
             requiredIntCapacity -= frameCapacity;
@@ -326,31 +366,22 @@ public class SimpleSerializableHashTable implements ISerializableTable {
     }
 
     protected boolean insertNonFirstTuple(IntSerDeBuffer header, int offsetInHeaderFrame, int contentFrameIndex,
-            int offsetInContentFrame, TuplePointer pointer) throws HyracksDataException {
-        int frameIndex = contentFrameIndex;
-        IntSerDeBuffer contentFrame = contents.get(frameIndex);
+            int offsetInContentFrame, TuplePointer pointer, int hashCode) throws HyracksDataException {
+        IntSerDeBuffer contentFrame = contents.get(contentFrameIndex);
         int entrySlotCapacity = contentFrame.getInt(offsetInContentFrame);
         int entryUsedCountInSlot = contentFrame.getInt(offsetInContentFrame + 1);
-        boolean frameIndexChanged = false;
+        long slotPos = (long) contentFrameIndex * frameCapacity + offsetInContentFrame;
         if (entryUsedCountInSlot < entrySlotCapacity) {
             // The slot has at least one space to accommodate this tuple pointer.
             // Increase the used count by 1.
             contentFrame.writeInt(offsetInContentFrame + 1, entryUsedCountInSlot + 1);
             // Calculates the first empty spot in the slot.
-            // +2: (capacity, # of used entry count)
-            // *2: each tuplePointer's occupation (frame index + offset in that frame)
-            int startOffsetInContentFrame = offsetInContentFrame + 2 + entryUsedCountInSlot * 2;
-            while (startOffsetInContentFrame >= frameCapacity) {
-                ++frameIndex;
-                startOffsetInContentFrame -= frameCapacity;
-                frameIndexChanged = true;
-            }
-            // We don't have to read content frame again if the frame index has not been changed.
-            if (frameIndexChanged) {
-                contentFrame = contents.get(frameIndex);
-            }
-            contentFrame.writeInt(startOffsetInContentFrame, pointer.getFrameIndex());
-            contentFrame.writeInt(startOffsetInContentFrame + 1, pointer.getTupleIndex());
+            // SLOT_HEADER_SIZE: (capacity, # of used entry count)
+            // POINTER_SIZE: each tuplePointer's occupation (frame index + offset in that frame + hash code)
+            long pointerPos = slotPos + SLOT_HEADER_SIZE + entryUsedCountInSlot * POINTER_SIZE;
+            writeSlotInt(pointerPos, pointer.getFrameIndex());
+            writeSlotInt(pointerPos + 1, pointer.getTupleIndex());
+            writeSlotInt(pointerPos + 2, hashCode);
         } else {
             // There is no enough space in this slot. We need to increase the slot size and
             // migrate the current entries in it.
@@ -367,10 +398,11 @@ public class SimpleSerializableHashTable implements ISerializableTable {
             // Gets the location of the initial entry.
             int fIndex = contentFrame.getInt(offsetInContentFrame + 2);
             int tIndex = contentFrame.getInt(offsetInContentFrame + 3);
+            int tHashCode = contentFrame.getInt(offsetInContentFrame + 4);
             tempTuplePointer.reset(fIndex, tIndex);
             // Creates a new double-sized slot for the current entries and
             // migrates the initial entry in the slot to the new slot.
-            if (!this.insertNewEntry(header, offsetInHeaderFrame, capacity, tempTuplePointer)) {
+            if (!this.insertNewEntry(header, offsetInHeaderFrame, capacity, tempTuplePointer, tHashCode)) {
                 // Reverses the effect of change.
                 header.writeInt(offsetInHeaderFrame, contentFrameIndex);
                 header.writeInt(offsetInHeaderFrame + 1, offsetInContentFrame);
@@ -383,25 +415,21 @@ public class SimpleSerializableHashTable implements ISerializableTable {
 
             // Migrates the existing entries (from 2nd to the last).
             for (int i = 1; i < entryUsedCountInSlot; i++) {
-                int startOffsetInContentFrame = offsetInContentFrame + 2 + i * 2;
-                int startFrameIndex = frameIndex;
-                while (startOffsetInContentFrame >= frameCapacity) {
-                    ++startFrameIndex;
-                    startOffsetInContentFrame -= frameCapacity;
-                }
-                contentFrame = contents.get(startFrameIndex);
-                fIndex = contentFrame.getInt(startOffsetInContentFrame);
-                tIndex = contentFrame.getInt(startOffsetInContentFrame + 1);
+                long pointerPos = slotPos + SLOT_HEADER_SIZE + i * POINTER_SIZE;
+                fIndex = getSlotInt(pointerPos);
+                tIndex = getSlotInt(pointerPos + 1);
+                tHashCode = getSlotInt(pointerPos + 2);
                 tempTuplePointer.reset(fIndex, tIndex);
-                if (!insertNonFirstTuple(header, offsetInHeaderFrame, newFrameIndex, newTupleIndex, tempTuplePointer)) {
+                if (!insertNonFirstTuple(header, offsetInHeaderFrame, newFrameIndex, newTupleIndex, tempTuplePointer,
+                        tHashCode)) {
                     return false;
                 }
             }
             // Now, inserts the new entry that caused an overflow to the old bucket.
-            if (!insertNonFirstTuple(header, offsetInHeaderFrame, newFrameIndex, newTupleIndex, pointer)) {
+            if (!insertNonFirstTuple(header, offsetInHeaderFrame, newFrameIndex, newTupleIndex, pointer, hashCode)) {
                 return false;
             }
-            increaseWastedSpaceCount(capacity);
+            increaseWastedSpaceCount(getSlotIntSize(entrySlotCapacity));
         }
         return true;
     }
@@ -424,10 +452,17 @@ public class SimpleSerializableHashTable implements ISerializableTable {
         return INIT_ENTRY_SIZE;
     }
 
+    /**
+     * Returns the number of ints of a slot that can hold the given number of tuple pointers.
+     */
+    protected static int getSlotIntSize(int pointerCapacity) {
+        return SLOT_HEADER_SIZE + pointerCapacity * POINTER_SIZE;
+    }
+
     public static int getExpectedByteSizePerHashValue() {
-        // first constant 2: capacity, # of used count
-        // second constant 2: tuple pointer (frameIndex, offset)
-        return getUnitSize() * (2 + getNumberOfEntryInSlot() * 2);
+        // SLOT_HEADER_SIZE: capacity, # of used count
+        // POINTER_SIZE: tuple pointer (frameIndex, offset, hashCode)
+        return getUnitSize() * (SLOT_HEADER_SIZE + getNumberOfEntryInSlot() * POINTER_SIZE);
     }
 
     /**
@@ -443,8 +478,8 @@ public class SimpleSerializableHashTable implements ISerializableTable {
      */
     public static long getExpectedTableFrameCount(long tableSize, int frameSize) {
         long numberOfHeaderFrame = (long) (Math.ceil((double) tableSize * 2 * getUnitSize() / (double) frameSize));
-        long numberOfContentFrame = (long) (Math
-                .ceil(((double) getNumberOfEntryInSlot() * 2 * getUnitSize() * tableSize) / (double) frameSize));
+        long numberOfContentFrame = (long) (Math.ceil(
+                ((double) getNumberOfEntryInSlot() * POINTER_SIZE * getUnitSize() * tableSize) / (double) frameSize));
         return numberOfHeaderFrame + numberOfContentFrame;
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.buffermanager;
+
+import static org.apache.hyracks.dataflow.std.buffermanager.Common.BUDGET;
+import static org.apache.hyracks.dataflow.std.buffermanager.Common.MIN_FRAME_SIZE;
+import static org.apache.hyracks.dataflow.std.buffermanager.Common.NUM_MIN_FRAME;
+import static org.apache.hyracks.dataflow.std.buffermanager.Common.commonFrameManager;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BrokeredFramePoolTest {
+
+    private MemoryBroker broker;
+
+    @Before
+    public void setUp() {
+        broker = new MemoryBroker(BUDGET);
+    }
+
+    private static List<ByteBuffer> allocateAll(IFramePool pool) throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        for (ByteBuffer frame = pool.allocateFrame(MIN_FRAME_SIZE); frame != null; frame =
+                pool.allocateFrame(MIN_FRAME_SIZE)) {
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    @Test
+    public void testDeallocatablePoolBorrowsAndReleases() throws HyracksDataException {
+        DeallocatableFramePool pool = new DeallocatableFramePool(commonFrameManager, BUDGET,
+                new BrokeredMemoryBudget(broker, BUDGET));
+        assertEquals(2 * NUM_MIN_FRAME, allocateAll(pool).size());
+        assertEquals(2 * BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(0, broker.getAvailableMemory());
+        pool.close();
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(BUDGET, broker.getAvailableMemory());
+    }
+
+    @Test
+    public void testDeallocatablePoolGivesBackUnderPressure() throws HyracksDataException {
+        DeallocatableFramePool pool = new DeallocatableFramePool(commonFrameManager, BUDGET,
+                new BrokeredMemoryBudget(broker, BUDGET));
+        List<ByteBuffer> frames = allocateAll(pool);
+
+        // another operator cannot get memory, so the deallocated frames go back to the broker until it has a reserve
+        DeallocatableFramePool other =
+                new DeallocatableFramePool(commonFrameManager, 0, new BrokeredMemoryBudget(broker, 0));
+        assertNull(other.allocateFrame(MIN_FRAME_SIZE));
+        assertTrue(broker.isUnderPressure());
+        for (ByteBuffer frame : frames) {
+            pool.deAllocateBuffer(frame);
+        }
+        assertFalse(broker.isUnderPressure());
+        assertTrue(pool.getMemoryBudgetBytes() < 2 * BUDGET);
+        assertNotNull(other.allocateFrame(MIN_FRAME_SIZE));
+        other.close();
+        pool.close();
+        assertEquals(BUDGET, broker.getAvailableMemory());
+    }
+
+    @Test
+    public void testVariablePoolKeepsBorrowedFramesWithoutPressure() throws HyracksDataException {
+        broker = new MemoryBroker(4L * BUDGET);
+        VariableFramePool pool =
+                new VariableFramePool(commonFrameManager, BUDGET, new BrokeredMemoryBudget(broker, BUDGET));
+        for (int i = 0; i <= NUM_MIN_FRAME; i++) {
+            assertNotNull(pool.allocateFrame(MIN_FRAME_SIZE));
+        }
+        int budget = pool.getMemoryBudgetBytes();
+        assertTrue(budget > BUDGET);
+        pool.reset();
+        assertEquals(budget, pool.getMemoryBudgetBytes());
+        pool.close();
+        assertEquals(4L * BUDGET, broker.getAvailableMemory());
+    }
+
+    @Test
+    public void testVariablePoolGivesBackOnResetUnderPressure() throws HyracksDataException {
+        VariableFramePool pool =
+                new VariableFramePool(commonFrameManager, BUDGET, new BrokeredMemoryBudget(broker, BUDGET));
+        assertEquals(2 * NUM_MIN_FRAME, allocateAll(pool).size());
+        assertTrue(broker.isUnderPressure());
+        pool.reset();
+        assertFalse(broker.isUnderPressure());
+        assertTrue(pool.getMemoryBudgetBytes() < 2 * BUDGET);
+        pool.close();
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(BUDGET, broker.getAvailableMemory());
+    }
+}
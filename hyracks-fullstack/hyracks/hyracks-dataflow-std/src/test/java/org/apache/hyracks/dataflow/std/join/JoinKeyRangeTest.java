@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JoinKeyRangeTest {
+    private static final int FRAME_SIZE = 32768;
+
+    private final RecordDescriptor recordDescriptor = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    @Test
+    public void testEmpty() throws HyracksDataException {
+        JoinKeyRange range = createRange(new int[] { 1 });
+        range.add(createFrame());
+        Assert.assertTrue(range.isEmpty());
+    }
+
+    @Test
+    public void testSingleKey() throws HyracksDataException {
+        JoinKeyRange range = createRange(new int[] { 1 });
+        range.add(createFrame(5, 50, 6, -3, 7, 12));
+        range.add(createFrame(8, 40, 9, 7));
+        Assert.assertFalse(range.isEmpty());
+        assertKeys(range.getMin(), -3);
+        assertKeys(range.getMax(), 50);
+    }
+
+    @Test
+    public void testCompositeKey() throws HyracksDataException {
+        JoinKeyRange range = createRange(new int[] { 0, 1 });
+        range.add(createFrame(2, 9, 1, 7, 2, 1, 1, 3));
+        assertKeys(range.getMin(), 1, 3);
+        assertKeys(range.getMax(), 2, 9);
+    }
+
+    private JoinKeyRange createRange(int[] keys) {
+        IBinaryComparator[] comparators = new IBinaryComparator[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            comparators[i] = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator();
+        }
+        return new JoinKeyRange(comparators, keys, recordDescriptor);
+    }
+
+    private static ByteBuffer createFrame(int... fields) throws HyracksDataException {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE);
+        FrameTupleAppender appender = new FrameTupleAppender();
+        appender.reset(new FixedSizeFrame(buffer), true);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        for (int i = 0; i < fields.length; i += 2) {
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, fields[i]);
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, fields[i + 1]);
+            Assert.assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+        }
+        return buffer;
+    }
+
+    private static void assertKeys(ITupleReference tuple, int... expected) {
+        Assert.assertEquals(expected.length, tuple.getFieldCount());
+        for (int i = 0; i < expected.length; i++) {
+            int key = IntegerPointable.getInteger(tuple.getFieldData(i), tuple.getFieldStart(i));
+            Assert.assertEquals(expected[i], key);
+        }
+    }
+}
@@ -46,7 +46,7 @@ public class SerializableHashTableTest {
     @Before
     public void setup() throws HyracksDataException {
         ctx = new FrameManager(256);
-        framePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 2048);
+        framePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 3072);
         bufferManager = new FramePoolBackedFrameBufferManager(framePool);
         nsTable = new SerializableHashTable(NUM_PART, ctx, bufferManager);
     }
@@ -61,7 +61,7 @@ public class SerializableHashTableTest {
 
             for (int j = i; j < num; j += NUM_PART) {
                 pointer.reset(j, j);
-                nsTable.insert(i, pointer);
+                nsTable.insert(i, pointer, j % SerializableHashTable.HASH_CODE_RANGE);
             }
 
             assertGetValue();
@@ -72,11 +72,30 @@ public class SerializableHashTableTest {
     public void testInsert() throws Exception {
         for (int i = 0; i < num; i++) {
             pointer.reset(i, i);
-            nsTable.insert(i % NUM_PART, pointer);
+            nsTable.insert(i % NUM_PART, pointer, i % SerializableHashTable.HASH_CODE_RANGE);
         }
         assertGetValue();
     }
 
+    @Test
+    public void testInsertWithHashCode() throws Exception {
+        for (int i = 0; i < num; i++) {
+            pointer.reset(i, i);
+            nsTable.insert(i % NUM_PART, pointer, i % SerializableHashTable.HASH_CODE_RANGE);
+        }
+        assertGetValue();
+        // The slots have grown several times and span several frames, so the hash codes have been migrated and
+        // some of the tuple pointers cross a frame boundary.
+        int loop = 0;
+        for (int i = 0; i < num; i++) {
+            assertEquals(i % SerializableHashTable.HASH_CODE_RANGE, nsTable.getTupleHashCode(i % NUM_PART, loop));
+            if (i % NUM_PART == NUM_PART - 1) {
+                loop++;
+            }
+        }
+        assertEquals(-1, nsTable.getTupleHashCode(0, loop + 1));
+    }
+
     protected void assertGetValue() {
         int loop = 0;
         for (int i = 0; i < num; i++) {
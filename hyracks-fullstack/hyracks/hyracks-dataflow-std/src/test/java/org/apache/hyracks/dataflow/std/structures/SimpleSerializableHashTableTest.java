@@ -53,7 +53,7 @@ public class SimpleSerializableHashTableTest {
 
             for (int j = i; j < num; j += NUM_PART) {
                 pointer.reset(j, j);
-                nsTable.insert(i, pointer);
+                nsTable.insert(i, pointer, j % SimpleSerializableHashTable.HASH_CODE_RANGE);
             }
 
             assertGetValue();
@@ -64,7 +64,7 @@ public class SimpleSerializableHashTableTest {
     public void testInsert() throws Exception {
         for (int i = 0; i < num; i++) {
             pointer.reset(i, i);
-            nsTable.insert(i % NUM_PART, pointer);
+            nsTable.insert(i % NUM_PART, pointer, i % SimpleSerializableHashTable.HASH_CODE_RANGE);
         }
         assertGetValue();
     }
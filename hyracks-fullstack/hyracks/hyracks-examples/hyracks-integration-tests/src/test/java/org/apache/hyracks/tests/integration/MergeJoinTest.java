@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.io.FileSplit;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.result.ResultSetId;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.parsers.IValueParserFactory;
+import org.apache.hyracks.dataflow.common.data.parsers.IntegerParserFactory;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.file.ConstantFileSplitProvider;
+import org.apache.hyracks.dataflow.std.file.DelimitedDataTupleParserFactory;
+import org.apache.hyracks.dataflow.std.file.FileScanOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.MergeJoinBound;
+import org.apache.hyracks.dataflow.std.join.MergeJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
+import org.apache.hyracks.tests.util.ResultSerializerFactoryProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MergeJoinTest extends AbstractIntegrationTest {
+    private static final int NUM_LEFT = 3000;
+    private static final int NUM_RIGHT = 2000;
+    private static final int NUM_KEYS = 50;
+    private static final int SPACE = 1000;
+    private static final int MAX_BAND = 40;
+    private static final int FRAME_SIZE = 256;
+
+    private static final IBinaryComparatorFactory[] INT_COMPARATOR =
+            new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+
+    @Test
+    public void equiJoinInMemory() throws Exception {
+        runEquiJoin(1000);
+    }
+
+    @Test
+    public void equiJoinSpilled() throws Exception {
+        runEquiJoin(4);
+    }
+
+    @Test
+    public void bandJoinInMemory() throws Exception {
+        runBandJoin(1000);
+    }
+
+    @Test
+    public void bandJoinSpilled() throws Exception {
+        runBandJoin(4);
+    }
+
+    private void runEquiJoin(int memSize) throws Exception {
+        Random random = new Random(memSize);
+        // (id, key) sorted on key, with many duplicate keys on both sides.
+        int[][] left = sortOn(generate(random, NUM_LEFT, NUM_KEYS, 0), 1);
+        int[][] right = sortOn(generate(random, NUM_RIGHT, NUM_KEYS, 0), 1);
+        List<String> expected = new ArrayList<>();
+        for (int[] l : left) {
+            for (int[] r : right) {
+                if (l[1] == r[1]) {
+                    expected.add(l[0] + "-" + r[0]);
+                }
+            }
+        }
+
+        JobSpecification spec = new JobSpecification(FRAME_SIZE);
+        RecordDescriptor inputDesc = createRecordDescriptor(2);
+        MergeJoinOperatorDescriptor join = new MergeJoinOperatorDescriptor(spec, new int[] { 1 }, new int[] { 1 },
+                INT_COMPARATOR, createRecordDescriptor(4), memSize, null, false, null);
+        runJoin(spec, join, left, inputDesc, right, inputDesc, 2, expected);
+    }
+
+    private void runBandJoin(int memSize) throws Exception {
+        Random random = new Random(memSize);
+        // The left input is (id, x) sorted on x and the right input is (id, low, high) sorted on low.
+        int[][] left = sortOn(generate(random, NUM_LEFT, SPACE, 0), 1);
+        int[][] right = sortOn(generate(random, NUM_RIGHT, SPACE, MAX_BAND), 1);
+        List<String> expected = new ArrayList<>();
+        for (int[] l : left) {
+            for (int[] r : right) {
+                // low <= x < high
+                if (r[1] <= l[1] && l[1] < r[2]) {
+                    expected.add(l[0] + "-" + r[0]);
+                }
+            }
+        }
+
+        JobSpecification spec = new JobSpecification(FRAME_SIZE);
+        MergeJoinOperatorDescriptor join = new MergeJoinOperatorDescriptor(spec, new int[] { 1 },
+                new MergeJoinBound(new int[] { 1 }, INT_COMPARATOR, true),
+                new MergeJoinBound(new int[] { 2 }, INT_COMPARATOR, false), createRecordDescriptor(5), memSize, null,
+                null, false, null);
+        runJoin(spec, join, left, createRecordDescriptor(2), right, createRecordDescriptor(3), 2, expected);
+    }
+
+    private void runJoin(JobSpecification spec, MergeJoinOperatorDescriptor join, int[][] left,
+            RecordDescriptor leftDesc, int[][] right, RecordDescriptor rightDesc, int rightIdField,
+            List<String> expected) throws Exception {
+        Assert.assertTrue(expected.size() > 0);
+        FileScanOperatorDescriptor leftScanner = createScanner(spec, left, leftDesc);
+        FileScanOperatorDescriptor rightScanner = createScanner(spec, right, rightDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, join, NC1_ID);
+
+        ResultSetId rsId = new ResultSetId(1);
+        spec.addResultSetId(rsId);
+        IOperatorDescriptor printer = new ResultWriterOperatorDescriptor(spec, rsId, false, false,
+                ResultSerializerFactoryProvider.INSTANCE.getResultSerializerFactoryProvider(), 1);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, printer, NC1_ID);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), leftScanner, 0, join, 0);
+        spec.connect(new OneToOneConnectorDescriptor(spec), rightScanner, 0, join, 1);
+        spec.connect(new OneToOneConnectorDescriptor(spec), join, 0, printer, 0);
+        spec.addRoot(printer);
+
+        JobId jobId = executeTest(spec);
+        List<String> actual = new ArrayList<>();
+        for (String result : readResults(spec, jobId, rsId)) {
+            String[] fields = result.trim().split(", ");
+            actual.add(fields[0] + "-" + fields[rightIdField]);
+        }
+        hcc.waitForCompletion(jobId);
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * Generates (id, key) records, or (id, low, high) records with a band of at most {@code maxBand} if it is
+     * positive.
+     */
+    private static int[][] generate(Random random, int count, int numKeys, int maxBand) {
+        int[][] records = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int key = random.nextInt(numKeys);
+            records[i] = maxBand > 0 ? new int[] { i, key, key + random.nextInt(maxBand) } : new int[] { i, key };
+        }
+        return records;
+    }
+
+    private static int[][] sortOn(int[][] records, int field) {
+        Arrays.sort(records, Comparator.comparingInt(r -> r[field]));
+        return records;
+    }
+
+    private static RecordDescriptor createRecordDescriptor(int numFields) {
+        ISerializerDeserializer<?>[] fields = new ISerializerDeserializer[numFields];
+        Arrays.fill(fields, IntegerSerializerDeserializer.INSTANCE);
+        return new RecordDescriptor(fields);
+    }
+
+    private FileScanOperatorDescriptor createScanner(JobSpecification spec, int[][] records,
+            RecordDescriptor recordDesc) throws Exception {
+        IValueParserFactory[] parsers = new IValueParserFactory[recordDesc.getFieldCount()];
+        Arrays.fill(parsers, IntegerParserFactory.INSTANCE);
+        FileScanOperatorDescriptor scanner = new FileScanOperatorDescriptor(spec,
+                new ConstantFileSplitProvider(new FileSplit[] { writeFile(records) }),
+                new DelimitedDataTupleParserFactory(parsers, '|'), recordDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, scanner, NC1_ID);
+        return scanner;
+    }
+
+    private FileSplit writeFile(int[][] records) throws Exception {
+        FileSplit split = createFile(nc1);
+        File file = split.getFile(nc1.getIoManager());
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int[] record : records) {
+                for (int i = 0; i < record.length; i++) {
+                    if (i > 0) {
+                        writer.write('|');
+                    }
+                    writer.write(String.valueOf(record[i]));
+                }
+                writer.newLine();
+            }
+        }
+        return split;
+    }
+}
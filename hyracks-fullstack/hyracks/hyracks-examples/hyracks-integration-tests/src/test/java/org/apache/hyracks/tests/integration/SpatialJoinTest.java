@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.io.FileSplit;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.result.ResultSetId;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.parsers.DoubleParserFactory;
+import org.apache.hyracks.dataflow.common.data.parsers.IValueParserFactory;
+import org.apache.hyracks.dataflow.common.data.parsers.IntegerParserFactory;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.file.ConstantFileSplitProvider;
+import org.apache.hyracks.dataflow.std.file.DelimitedDataTupleParserFactory;
+import org.apache.hyracks.dataflow.std.file.FileScanOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.ITupleMBRProvider;
+import org.apache.hyracks.dataflow.std.join.ITupleMBRProviderFactory;
+import org.apache.hyracks.dataflow.std.join.SpatialJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
+import org.apache.hyracks.tests.util.ResultSerializerFactoryProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpatialJoinTest extends AbstractIntegrationTest {
+    private static final int NUM_POINTS = 5000;
+    private static final int NUM_RECTANGLES = 2000;
+    private static final int SPACE = 1000;
+    private static final int MAX_SIDE = 20;
+
+    /**
+     * Reads the bounding rectangle from the consecutive double fields minX, minY, maxX, maxY starting at
+     * {@code firstField}. A point is given by the two fields x, y.
+     */
+    private static class MBRProviderFactory implements ITupleMBRProviderFactory {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstField;
+        private final boolean isPoint;
+
+        MBRProviderFactory(int firstField, boolean isPoint) {
+            this.firstField = firstField;
+            this.isPoint = isPoint;
+        }
+
+        @Override
+        public ITupleMBRProvider createTupleMBRProvider(IHyracksTaskContext ctx) {
+            return (accessor, tIndex, mbr) -> {
+                mbr[0] = getDouble(accessor, tIndex, firstField);
+                mbr[1] = getDouble(accessor, tIndex, firstField + 1);
+                mbr[2] = isPoint ? mbr[0] : getDouble(accessor, tIndex, firstField + 2);
+                mbr[3] = isPoint ? mbr[1] : getDouble(accessor, tIndex, firstField + 3);
+                return true;
+            };
+        }
+    }
+
+    /**
+     * Matches a point tuple (id, x, y) with a rectangle tuple (id, minX, minY, maxX, maxY) that contains it.
+     */
+    private static class ContainsComparatorFactory implements ITuplePairComparatorFactory {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public ITuplePairComparator createTuplePairComparator(IHyracksTaskContext ctx) {
+            return (accessor0, tIndex0, accessor1, tIndex1) -> {
+                double x = getDouble(accessor0, tIndex0, 1);
+                double y = getDouble(accessor0, tIndex0, 2);
+                boolean contains = getDouble(accessor1, tIndex1, 1) <= x && x <= getDouble(accessor1, tIndex1, 3)
+                        && getDouble(accessor1, tIndex1, 2) <= y && y <= getDouble(accessor1, tIndex1, 4);
+                return contains ? 0 : 1;
+            };
+        }
+    }
+
+    private static double getDouble(IFrameTupleAccessor accessor, int tIndex, int field) {
+        return DoublePointable.getDouble(accessor.getBuffer().array(), accessor.getTupleStartOffset(tIndex)
+                + accessor.getFieldSlotsLength() + accessor.getFieldStartOffset(tIndex, field));
+    }
+
+    @Test
+    public void spatialJoinInMemory() throws Exception {
+        runSpatialJoin(64);
+    }
+
+    @Test
+    public void spatialJoinSpilled() throws Exception {
+        runSpatialJoin(5);
+    }
+
+    private void runSpatialJoin(int memSize) throws Exception {
+        Random random = new Random(memSize);
+        int[][] points = new int[NUM_POINTS][];
+        for (int i = 0; i < NUM_POINTS; i++) {
+            points[i] = new int[] { i, random.nextInt(SPACE), random.nextInt(SPACE) };
+        }
+        int[][] rectangles = new int[NUM_RECTANGLES][];
+        for (int i = 0; i < NUM_RECTANGLES; i++) {
+            int minX = random.nextInt(SPACE);
+            int minY = random.nextInt(SPACE);
+            rectangles[i] = new int[] { i, minX, minY, minX + random.nextInt(MAX_SIDE + 1),
+                    minY + random.nextInt(MAX_SIDE + 1) };
+        }
+        List<String> expected = new ArrayList<>();
+        for (int[] p : points) {
+            for (int[] r : rectangles) {
+                if (r[1] <= p[1] && p[1] <= r[3] && r[2] <= p[2] && p[2] <= r[4]) {
+                    expected.add(p[0] + "-" + r[0]);
+                }
+            }
+        }
+        Assert.assertTrue(expected.size() > 0);
+
+        JobSpecification spec = new JobSpecification();
+        ISerializerDeserializer<?> intSerde = IntegerSerializerDeserializer.INSTANCE;
+        ISerializerDeserializer<?> doubleSerde = DoubleSerializerDeserializer.INSTANCE;
+        RecordDescriptor pointDesc = new RecordDescriptor(
+                new ISerializerDeserializer[] { intSerde, doubleSerde, doubleSerde });
+        RecordDescriptor rectangleDesc = new RecordDescriptor(
+                new ISerializerDeserializer[] { intSerde, doubleSerde, doubleSerde, doubleSerde, doubleSerde });
+        RecordDescriptor joinDesc = new RecordDescriptor(new ISerializerDeserializer[] { intSerde, doubleSerde,
+                doubleSerde, intSerde, doubleSerde, doubleSerde, doubleSerde, doubleSerde });
+
+        FileScanOperatorDescriptor pointScanner = new FileScanOperatorDescriptor(spec,
+                new ConstantFileSplitProvider(new FileSplit[] { writeFile(points) }),
+                new DelimitedDataTupleParserFactory(new IValueParserFactory[] { IntegerParserFactory.INSTANCE,
+                        DoubleParserFactory.INSTANCE, DoubleParserFactory.INSTANCE }, '|'),
+                pointDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, pointScanner, NC1_ID);
+
+        FileScanOperatorDescriptor rectangleScanner = new FileScanOperatorDescriptor(spec,
+                new ConstantFileSplitProvider(new FileSplit[] { writeFile(rectangles) }),
+                new DelimitedDataTupleParserFactory(new IValueParserFactory[] { IntegerParserFactory.INSTANCE,
+                        DoubleParserFactory.INSTANCE, DoubleParserFactory.INSTANCE, DoubleParserFactory.INSTANCE,
+                        DoubleParserFactory.INSTANCE }, '|'),
+                rectangleDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, rectangleScanner, NC1_ID);
+
+        SpatialJoinOperatorDescriptor join = new SpatialJoinOperatorDescriptor(spec, new MBRProviderFactory(1, true),
+                new MBRProviderFactory(1, false), new ContainsComparatorFactory(), joinDesc, memSize);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, join, NC1_ID);
+
+        ResultSetId rsId = new ResultSetId(1);
+        spec.addResultSetId(rsId);
+        IOperatorDescriptor printer = new ResultWriterOperatorDescriptor(spec, rsId, false, false,
+                ResultSerializerFactoryProvider.INSTANCE.getResultSerializerFactoryProvider(), 1);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, printer, NC1_ID);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), pointScanner, 0, join, 0);
+        spec.connect(new OneToOneConnectorDescriptor(spec), rectangleScanner, 0, join, 1);
+        spec.connect(new OneToOneConnectorDescriptor(spec), join, 0, printer, 0);
+        spec.addRoot(printer);
+
+        JobId jobId = executeTest(spec);
+        List<String> actual = new ArrayList<>();
+        for (String result : readResults(spec, jobId, rsId)) {
+            String[] fields = result.trim().split(", ");
+            actual.add(fields[0] + "-" + fields[3]);
+        }
+        hcc.waitForCompletion(jobId);
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        Assert.assertEquals(expected, actual);
+    }
+
+    private FileSplit writeFile(int[][] records) throws Exception {
+        FileSplit split = createFile(nc1);
+        File file = split.getFile(nc1.getIoManager());
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int[] record : records) {
+                for (int i = 0; i < record.length; i++) {
+                    if (i > 0) {
+                        writer.write('|');
+                    }
+                    writer.write(String.valueOf(record[i]));
+                }
+                writer.newLine();
+            }
+        }
+        return split;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.JobStatus;
+import org.apache.hyracks.api.result.ResultSetId;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.base.AbstractSingleActivityOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
+import org.apache.hyracks.tests.util.ResultSerializerFactoryProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TerminateOnResultCompletionTest extends AbstractIntegrationTest {
+
+    private static final int LIMIT = 3;
+
+    static final RecordDescriptor RECORD_DESC =
+            new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+
+    // counted down by the endless source once it has been cancelled
+    static CountDownLatch sourceStopped;
+
+    @Test
+    public void terminateOnResultCompletion() throws Exception {
+        sourceStopped = new CountDownLatch(1);
+        JobSpecification spec = new JobSpecification();
+
+        EndlessSourceOperatorDescriptor source = new EndlessSourceOperatorDescriptor(spec);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, source, NC1_ID);
+
+        FirstTuplesOperatorDescriptor limit = new FirstTuplesOperatorDescriptor(spec, LIMIT);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, limit, NC1_ID);
+
+        ResultSetId rsId = new ResultSetId(1);
+        IOperatorDescriptor printer = new ResultWriterOperatorDescriptor(spec, rsId, true, false,
+                ResultSerializerFactoryProvider.INSTANCE.getResultSerializerFactoryProvider(), 1);
+        spec.addResultSetId(rsId);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, printer, NC1_ID);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), source, 0, limit, 0);
+        spec.connect(new OneToOneConnectorDescriptor(spec), limit, 0, printer, 0);
+        spec.addRoot(printer);
+        spec.setTerminateOnResultCompletion(true);
+
+        // the source never ends, so the job only completes if it is terminated once its result is complete
+        JobId jobId = executeTest(spec);
+        hcc.waitForCompletion(jobId);
+        Assert.assertEquals(JobStatus.TERMINATED, hcc.getJobStatus(jobId));
+
+        // the upstream task is aborted rather than left running
+        Assert.assertTrue(sourceStopped.await(30, TimeUnit.SECONDS));
+
+        // the result is complete, so it is still readable after the result partition has been aborted
+        List<String> results = readResults(spec, jobId, rsId);
+        Assert.assertEquals(LIMIT, results.size());
+        for (int i = 0; i < LIMIT; i++) {
+            Assert.assertEquals(String.valueOf(i), results.get(i).trim());
+        }
+    }
+}
+
+class EndlessSourceOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    public EndlessSourceOperatorDescriptor(JobSpecification spec) {
+        super(spec, 0, 1);
+        outRecDescs[0] = TerminateOnResultCompletionTest.RECORD_DESC;
+    }
+
+    @Override
+    public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+            IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) throws HyracksDataException {
+        return new AbstractUnaryOutputSourceOperatorNodePushable() {
+
+            @Override
+            public void initialize() throws HyracksDataException {
+                FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx));
+                ArrayTupleBuilder tb = new ArrayTupleBuilder(1);
+                try {
+                    writer.open();
+                    for (int i = 0; !Thread.currentThread().isInterrupted(); i++) {
+                        tb.reset();
+                        tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+                        FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0,
+                                tb.getSize());
+                    }
+                } catch (Exception e) {
+                    writer.fail();
+                } finally {
+                    writer.close();
+                    TerminateOnResultCompletionTest.sourceStopped.countDown();
+                }
+            }
+        };
+    }
+}
+
+class FirstTuplesOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final int limit;
+
+    public FirstTuplesOperatorDescriptor(JobSpecification spec, int limit) {
+        super(spec, 1, 1);
+        this.limit = limit;
+        outRecDescs[0] = TerminateOnResultCompletionTest.RECORD_DESC;
+    }
+
+    @Override
+    public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+            IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) throws HyracksDataException {
+        return new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
+            private final FrameTupleAccessor accessor = new FrameTupleAccessor(outRecDescs[0]);
+            private FrameTupleAppender appender;
+            private int count;
+            private boolean closed;
+
+            @Override
+            public void open() throws HyracksDataException {
+                appender = new FrameTupleAppender(new VSizeFrame(ctx));
+                writer.open();
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                // like a limit that closes its output once reached, keeps consuming its input without forwarding it
+                if (closed) {
+                    return;
+                }
+                accessor.reset(buffer);
+                for (int i = 0; i < accessor.getTupleCount() && count < limit; i++, count++) {
+                    FrameUtils.appendToWriter(writer, appender, accessor, i);
+                }
+                if (count == limit) {
+                    closeOutput();
+                }
+            }
+
+            @Override
+            public void fail() throws HyracksDataException {
+                if (!closed) {
+                    writer.fail();
+                }
+            }
+
+            @Override
+            public void close() throws HyracksDataException {
+                if (!closed) {
+                    closeOutput();
+                }
+            }
+
+            private void closeOutput() throws HyracksDataException {
+                closed = true;
+                try {
+                    appender.write(writer, true);
+                } finally {
+                    writer.close();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.perf;
+
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.Integer64SerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.Integer64NormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.hyracks.dataflow.std.sort.AbstractFrameSorter;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterMergeSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterQuickSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterRadixSort;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Measures the in-memory sort of one million tuples by every sort algorithm, for int, bigint, string and uuid keys.
+ * A uuid is stored as two bigint fields, which are both normalized.
+ */
+public class FrameSorterPerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_TUPLES = 1000000;
+    private static final int WARMUP_REPEATS = 3;
+    private static final int REPEATS = 10;
+
+    public static void main(String[] args) throws Exception {
+        IBinaryComparatorFactory intCmp = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        IBinaryComparatorFactory longCmp = PointableBinaryComparatorFactory.of(LongPointable.FACTORY);
+        IBinaryComparatorFactory stringCmp = PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY);
+        ISerializerDeserializer intSerde = IntegerSerializerDeserializer.INSTANCE;
+        ISerializerDeserializer longSerde = Integer64SerializerDeserializer.INSTANCE;
+        ISerializerDeserializer stringSerde = new UTF8StringSerializerDeserializer();
+        Random random = new Random(0);
+
+        runExperiment("int", new ISerializerDeserializer[] { intSerde }, new IBinaryComparatorFactory[] { intCmp },
+                new INormalizedKeyComputerFactory[] { new IntegerNormalizedKeyComputerFactory() },
+                () -> new Object[] { random.nextInt() });
+        runExperiment("bigint", new ISerializerDeserializer[] { longSerde },
+                new IBinaryComparatorFactory[] { longCmp },
+                new INormalizedKeyComputerFactory[] { new Integer64NormalizedKeyComputerFactory() },
+                () -> new Object[] { random.nextLong() });
+        runExperiment("string", new ISerializerDeserializer[] { stringSerde },
+                new IBinaryComparatorFactory[] { stringCmp },
+                new INormalizedKeyComputerFactory[] { new UTF8StringNormalizedKeyComputerFactory() },
+                () -> new Object[] { Long.toString(random.nextLong() & Long.MAX_VALUE, 36) });
+        runExperiment("uuid", new ISerializerDeserializer[] { longSerde, longSerde },
+                new IBinaryComparatorFactory[] { longCmp, longCmp },
+                new INormalizedKeyComputerFactory[] { new Integer64NormalizedKeyComputerFactory(),
+                        new Integer64NormalizedKeyComputerFactory() },
+                () -> new Object[] { random.nextLong(), random.nextLong() });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void runExperiment(String name, ISerializerDeserializer[] serdes,
+            IBinaryComparatorFactory[] comparatorFactories, INormalizedKeyComputerFactory[] nkFactories,
+            KeyGenerator keyGen) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        RecordDescriptor recordDesc = new RecordDescriptor(serdes);
+        int[] sortFields = new int[serdes.length];
+        for (int i = 0; i < sortFields.length; i++) {
+            sortFields[i] = i;
+        }
+        AbstractFrameSorter[] sorters = new AbstractFrameSorter[Algorithm.values().length];
+        for (Algorithm alg : Algorithm.values()) {
+            sorters[alg.ordinal()] = createSorter(alg, ctx, sortFields, nkFactories, comparatorFactories, recordDesc);
+        }
+
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(serdes.length);
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame);
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            tb.reset();
+            Object[] key = keyGen.next();
+            for (int f = 0; f < serdes.length; f++) {
+                tb.addField(serdes[f], key[f]);
+            }
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                for (AbstractFrameSorter sorter : sorters) {
+                    sorter.insertFrame(frame.getBuffer());
+                }
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        for (AbstractFrameSorter sorter : sorters) {
+            sorter.insertFrame(frame.getBuffer());
+        }
+
+        for (Algorithm alg : Algorithm.values()) {
+            AbstractFrameSorter sorter = sorters[alg.ordinal()];
+            for (int i = 0; i < WARMUP_REPEATS; i++) {
+                sorter.sort();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < REPEATS; i++) {
+                sorter.sort();
+            }
+            long avgMillis = (System.nanoTime() - start) / REPEATS / 1000000;
+            System.out.println(name + " " + alg + ": " + avgMillis + " ms");
+            sorter.close();
+        }
+    }
+
+    private static AbstractFrameSorter createSorter(Algorithm alg, IHyracksTaskContext ctx, int[] sortFields,
+            INormalizedKeyComputerFactory[] nkFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDesc) throws Exception {
+        VariableFrameMemoryManager bufferManager =
+                new VariableFrameMemoryManager(new VariableFramePool(ctx, VariableFramePool.UNLIMITED_MEMORY),
+                        FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT));
+        switch (alg) {
+            case QUICK_SORT:
+                return new FrameSorterQuickSort(ctx, bufferManager, VariableFramePool.UNLIMITED_MEMORY, sortFields,
+                        nkFactories, comparatorFactories, recordDesc);
+            case MERGE_SORT:
+                return new FrameSorterMergeSort(ctx, bufferManager, VariableFramePool.UNLIMITED_MEMORY, sortFields,
+                        nkFactories, comparatorFactories, recordDesc);
+            case RADIX_SORT:
+            default:
+                return new FrameSorterRadixSort(ctx, bufferManager, VariableFramePool.UNLIMITED_MEMORY, sortFields,
+                        nkFactories, comparatorFactories, recordDesc);
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeyGenerator {
+        Object[] next();
+    }
+}
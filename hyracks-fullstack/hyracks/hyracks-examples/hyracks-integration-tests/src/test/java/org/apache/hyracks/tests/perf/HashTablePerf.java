@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.perf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.PointableBinaryHashFunctionFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.join.InMemoryHashJoin;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Measures the build and probe throughput of the in-memory hash join and the update throughput of the hash group-by
+ * table over int keys. Each measurement runs for a table that has about one tuple per entry and for a table that has
+ * eight tuples per entry, where most of the tuples of an entry have other keys.
+ */
+public class HashTablePerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_TUPLES = 1000000;
+    private static final int NUM_KEYS = 250000;
+    private static final int[] TUPLES_PER_ENTRY = { 1, 8 };
+    private static final int WARMUP_REPEATS = 3;
+    private static final int REPEATS = 10;
+
+    private static final RecordDescriptor RECORD_DESC = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    private static final int[] KEYS = { 0 };
+
+    public static void main(String[] args) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        Random random = new Random(0);
+        List<ByteBuffer> buildFrames = createFrames(ctx, random);
+        List<ByteBuffer> probeFrames = createFrames(ctx, random);
+        for (int tuplesPerEntry : TUPLES_PER_ENTRY) {
+            runJoinExperiment(ctx, buildFrames, probeFrames, NUM_TUPLES / tuplesPerEntry);
+        }
+        for (int tuplesPerEntry : TUPLES_PER_ENTRY) {
+            runGroupByExperiment(ctx, probeFrames, NUM_KEYS / tuplesPerEntry);
+        }
+    }
+
+    private static void runJoinExperiment(IHyracksTaskContext ctx, List<ByteBuffer> buildFrames,
+            List<ByteBuffer> probeFrames, int tableSize) throws HyracksDataException {
+        IBinaryHashFunctionFactory[] hashFunctionFactories =
+                new IBinaryHashFunctionFactory[] { PointableBinaryHashFunctionFactory.of(IntegerPointable.FACTORY) };
+        ITuplePartitionComputer tpc =
+                new FieldHashPartitionComputerFactory(KEYS, hashFunctionFactories).createPartitioner(ctx);
+        long buildNanos = 0;
+        long probeNanos = 0;
+        for (int i = 0; i < WARMUP_REPEATS + REPEATS; i++) {
+            ISimpleFrameBufferManager bufferManager =
+                    new FramePoolBackedFrameBufferManager(new DeallocatableFramePool(ctx, Integer.MAX_VALUE));
+            InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, new FrameTupleAccessor(RECORD_DESC), tpc,
+                    new FrameTupleAccessor(RECORD_DESC), RECORD_DESC, tpc,
+                    new FrameTuplePairComparator(KEYS, KEYS, createComparators()), false, null,
+                    new SerializableHashTable(tableSize, ctx, bufferManager), null, null);
+            long start = System.nanoTime();
+            for (ByteBuffer frame : buildFrames) {
+                joiner.build(frame);
+            }
+            long built = System.nanoTime();
+            IFrameWriter writer = new NullFrameWriter();
+            for (ByteBuffer frame : probeFrames) {
+                joiner.join(frame, writer);
+            }
+            joiner.completeJoin(writer);
+            long end = System.nanoTime();
+            joiner.closeTable();
+            if (i >= WARMUP_REPEATS) {
+                buildNanos += built - start;
+                probeNanos += end - built;
+            }
+        }
+        System.out.println("join, table size " + tableSize + ": build " + buildNanos / REPEATS / 1000000
+                + " ms, probe " + probeNanos / REPEATS / 1000000 + " ms");
+    }
+
+    private static void runGroupByExperiment(IHyracksTaskContext ctx, List<ByteBuffer> frames, int tableSize)
+            throws HyracksDataException {
+        HashSpillableTableFactory tableFactory = new HashSpillableTableFactory(
+                new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE });
+        MultiFieldsAggregatorFactory aggregatorFactory =
+                new MultiFieldsAggregatorFactory(new IFieldAggregateDescriptorFactory[] {
+                        new CountFieldAggregatorFactory(false), new IntSumFieldAggregatorFactory(1, false) });
+        RecordDescriptor outRecordDesc = new RecordDescriptor(
+                new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                        IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+        // Enough memory for all the groups, so that nothing is spilled.
+        int framesLimit = 4096;
+        FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESC);
+        long nanos = 0;
+        for (int i = 0; i < WARMUP_REPEATS + REPEATS; i++) {
+            ISpillableTable table = tableFactory.buildSpillableTable(ctx, tableSize, 0, KEYS, createComparators(),
+                    null, aggregatorFactory, RECORD_DESC, outRecordDesc, framesLimit, 0);
+            long start = System.nanoTime();
+            for (ByteBuffer frame : frames) {
+                accessor.reset(frame);
+                for (int t = 0; t < accessor.getTupleCount(); t++) {
+                    if (!table.insert(accessor, t)) {
+                        throw new IllegalStateException("The group-by table is too small");
+                    }
+                }
+            }
+            long end = System.nanoTime();
+            table.close();
+            if (i >= WARMUP_REPEATS) {
+                nanos += end - start;
+            }
+        }
+        System.out.println("group-by, table size " + tableSize + ": " + nanos / REPEATS / 1000000 + " ms");
+    }
+
+    private static IBinaryComparator[] createComparators() throws HyracksDataException {
+        return new IBinaryComparator[] {
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() };
+    }
+
+    /**
+     * Creates NUM_TUPLES tuples of (key, value), whose keys are drawn from NUM_KEYS distinct values.
+     */
+    private static List<ByteBuffer> createFrames(IHyracksTaskContext ctx, Random random) throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(RECORD_DESC.getFieldCount());
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame);
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, random.nextInt(NUM_KEYS));
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(ByteBuffer.wrap(frame.getBuffer().array().clone()));
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        frames.add(ByteBuffer.wrap(frame.getBuffer().array().clone()));
+        return frames;
+    }
+
+    private static class NullFrameWriter implements IFrameWriter {
+        @Override
+        public void open() throws HyracksDataException {
+            // Nothing to open.
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            // The join results are dropped.
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            // Nothing to fail.
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            // Nothing to close.
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupStreamOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExternalGroupStreamTest {
+
+    private static final double PASS_THROUGH_GROUP_RATIO = 0.8;
+
+    private final RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() });
+
+    private final RecordDescriptor outputRec = new RecordDescriptor(new ISerializerDeserializer[] {
+            new UTF8StringSerializerDeserializer(), IntegerSerializerDeserializer.INSTANCE, // sum
+            IntegerSerializerDeserializer.INSTANCE, // count
+    });
+
+    private final IAggregatorDescriptorFactory partialAggregator =
+            new MultiFieldsAggregatorFactory(new IFieldAggregateDescriptorFactory[] {
+                    new IntSumFieldAggregatorFactory(0, false), new CountFieldAggregatorFactory(false) });
+
+    private final IBinaryComparatorFactory[] comparatorFactories =
+            new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY) };
+
+    /**
+     * Aggregates the partial results again and checks the sums and counts of all the groups.
+     */
+    private class ResultValidateWriter implements IFrameWriter {
+        private final Map<String, int[]> expected;
+        private final Map<String, int[]> actual = new HashMap<>();
+        private final FrameTupleAccessor resultAccessor = new FrameTupleAccessor(outputRec);
+        private int numOutputTuples;
+
+        ResultValidateWriter(Map<String, int[]> expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+            // nothing to initialize
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            resultAccessor.reset(buffer);
+            ByteBufferInputStream bbis = new ByteBufferInputStream();
+            DataInputStream di = new DataInputStream(bbis);
+            Object[] outRecord = new Object[outputRec.getFieldCount()];
+            for (int tid = 0; tid < resultAccessor.getTupleCount(); tid++) {
+                for (int fid = 0; fid < outputRec.getFieldCount(); fid++) {
+                    bbis.setByteBuffer(resultAccessor.getBuffer(),
+                            resultAccessor.getAbsoluteFieldStartOffset(tid, fid));
+                    outRecord[fid] = outputRec.getFields()[fid].deserialize(di);
+                }
+                int[] result = actual.computeIfAbsent((String) outRecord[0], k -> new int[2]);
+                result[0] += (int) outRecord[1];
+                result[1] += (int) outRecord[2];
+                numOutputTuples++;
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            Assert.fail();
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            assertEquals(expected.size(), actual.size());
+            expected.forEach((key, value) -> {
+                int[] result = actual.get(key);
+                assertNotNull(result);
+                assertEquals(value[0], result[0]);
+                assertEquals(value[1], result[1]);
+            });
+        }
+    }
+
+    @Test
+    public void testFewGroupsInMem() throws HyracksDataException {
+        ResultValidateWriter writer = testStream(256, 23, 10000, 50, 1, PASS_THROUGH_GROUP_RATIO);
+        // All the groups fit in memory, so each of them is output exactly once.
+        assertEquals(50, writer.numOutputTuples);
+    }
+
+    @Test
+    public void testClusteredGroupsFlush() throws HyracksDataException {
+        // The groups do not fit in memory, but consecutive tuples share their groups, so the table keeps reducing
+        // the input instead of passing it through.
+        ResultValidateWriter writer = testStream(256, 8, 20000, 1000, 10, PASS_THROUGH_GROUP_RATIO);
+        assertTrue(writer.numOutputTuples > 1000);
+        assertTrue(writer.numOutputTuples < 20000 / 2);
+    }
+
+    @Test
+    public void testUniqueGroupsPassThrough() throws HyracksDataException {
+        ResultValidateWriter writer = testStream(256, 8, 10000, 10000, 1, PASS_THROUGH_GROUP_RATIO);
+        assertEquals(10000, writer.numOutputTuples);
+    }
+
+    @Test
+    public void testLowPassThroughRatio() throws HyracksDataException {
+        // The same input as testClusteredGroupsFlush, but the groups of the first flush already exceed the ratio, so
+        // the rest of the input is passed through.
+        ResultValidateWriter writer = testStream(256, 8, 20000, 1000, 10, 0.01);
+        assertTrue(writer.numOutputTuples > 20000 / 2);
+    }
+
+    private ResultValidateWriter testStream(int frameSize, int numFrames, int numTuples, int numGroups,
+            int runLength, double passThroughGroupRatio) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(frameSize);
+        Map<String, int[]> expected = new HashMap<>();
+        List<IFrame> input = prepareData(ctx, numTuples, numGroups, runLength, expected);
+
+        ExternalGroupStreamOperatorNodePushable operator = new ExternalGroupStreamOperatorNodePushable(ctx, 101,
+                (long) numFrames * frameSize, new int[] { 1 }, numFrames, comparatorFactories,
+                new UTF8StringNormalizedKeyComputerFactory(), partialAggregator, inRecordDesc, outputRec,
+                new HashSpillableTableFactory(
+                        new IBinaryHashFunctionFamily[] { UTF8StringBinaryHashFunctionFamily.INSTANCE }),
+                passThroughGroupRatio);
+        ResultValidateWriter writer = new ResultValidateWriter(expected);
+        operator.setOutputFrameWriter(0, writer, outputRec);
+        operator.open();
+        try {
+            for (IFrame frame : input) {
+                operator.nextFrame(frame.getBuffer());
+            }
+        } finally {
+            operator.close();
+        }
+        return writer;
+    }
+
+    /**
+     * Generates numTuples tuples whose keys cycle through numGroups groups, runLength consecutive tuples at a time.
+     */
+    private List<IFrame> prepareData(IHyracksTaskContext ctx, int numTuples, int numGroups, int runLength,
+            Map<String, int[]> expected) throws HyracksDataException {
+        List<IFrame> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(inRecordDesc.getFieldCount());
+        IFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame);
+        for (int i = 0; i < numTuples; i++) {
+            String key = "group" + (i / runLength % numGroups);
+            int[] result = expected.computeIfAbsent(key, k -> new int[2]);
+            result[0] += i;
+            result[1]++;
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+            tb.addField(new UTF8StringSerializerDeserializer(), key);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(frame);
+                frame = new VSizeFrame(ctx);
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        frames.add(frame);
+        return frames;
+    }
+}
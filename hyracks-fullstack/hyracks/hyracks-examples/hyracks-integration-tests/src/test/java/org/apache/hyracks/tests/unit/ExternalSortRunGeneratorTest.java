@@ -44,8 +44,17 @@ public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
                         new UTF8StringNormalizedKeyComputerFactory() },
                 ComparatorFactories, RecordDesc, Algorithm.MERGE_SORT, EnumFreeSlotPolicy.LAST_FIT, frameLimit,
                 Integer.MAX_VALUE);
+        ExternalSortRunGenerator radixSortRunGenerator = new ExternalSortRunGenerator(ctx, SortFields, null,
+                ComparatorFactories, RecordDesc, Algorithm.RADIX_SORT, EnumFreeSlotPolicy.LAST_FIT, frameLimit,
+                Integer.MAX_VALUE);
+        ExternalSortRunGenerator radixSortRunGeneratorWithNormalizeKeys = new ExternalSortRunGenerator(ctx,
+                SortFields,
+                new INormalizedKeyComputerFactory[] { new IntegerNormalizedKeyComputerFactory(),
+                        new UTF8StringNormalizedKeyComputerFactory() },
+                ComparatorFactories, RecordDesc, Algorithm.RADIX_SORT, EnumFreeSlotPolicy.LAST_FIT, frameLimit,
+                Integer.MAX_VALUE);
 
         return new AbstractSortRunGenerator[] { runGenerator, runGeneratorWithOneNormalizeKey,
-                runGeneratorWithNormalizeKeys };
+                runGeneratorWithNormalizeKeys, radixSortRunGenerator, radixSortRunGeneratorWithNormalizeKeys };
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.Integer64SerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.Integer64NormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.hyracks.dataflow.std.sort.AbstractFrameSorter;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterMergeSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterRadixSort;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+/**
+ * Checks that the radix sort gives the same output as the stable merge sort.
+ */
+public class FrameSorterRadixSortTest {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_TUPLES = 20000;
+
+    private final Random random = new Random(17);
+
+    @Test
+    public void testDecisiveIntegerKeys() throws HyracksDataException {
+        // few distinct keys, so that the buckets are large and the order of the duplicates matters
+        ISerializerDeserializer[] serdes =
+                { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        IBinaryComparatorFactory[] comparatorFactories =
+                { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        INormalizedKeyComputerFactory[] nkFactories = { new IntegerNormalizedKeyComputerFactory() };
+        testSort(serdes, new int[] { 0 }, nkFactories, comparatorFactories, i -> random.nextInt(1000) - 500);
+    }
+
+    @Test
+    public void testDecisiveBigintKeys() throws HyracksDataException {
+        ISerializerDeserializer[] serdes =
+                { Integer64SerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        IBinaryComparatorFactory[] comparatorFactories = { PointableBinaryComparatorFactory.of(LongPointable.FACTORY) };
+        INormalizedKeyComputerFactory[] nkFactories = { new Integer64NormalizedKeyComputerFactory() };
+        testSort(serdes, new int[] { 0 }, nkFactories, comparatorFactories,
+                i -> i % 3 == 0 ? random.nextLong() : (long) random.nextInt(100));
+    }
+
+    @Test
+    public void testIndecisiveStringKeys() throws HyracksDataException {
+        // the strings share long prefixes, so that the normalized keys of many tuples are the same
+        ISerializerDeserializer[] serdes =
+                { new UTF8StringSerializerDeserializer(), IntegerSerializerDeserializer.INSTANCE };
+        IBinaryComparatorFactory[] comparatorFactories =
+                { PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY) };
+        INormalizedKeyComputerFactory[] nkFactories = { new UTF8StringNormalizedKeyComputerFactory() };
+        testSort(serdes, new int[] { 0 }, nkFactories, comparatorFactories,
+                i -> "prefix" + random.nextInt(10) + "-" + random.nextInt(1000));
+    }
+
+    @Test
+    public void testWithoutNormalizedKeys() throws HyracksDataException {
+        ISerializerDeserializer[] serdes =
+                { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        IBinaryComparatorFactory[] comparatorFactories =
+                { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        testSort(serdes, new int[] { 0 }, null, comparatorFactories, i -> random.nextInt(1000));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void testSort(ISerializerDeserializer[] serdes, int[] sortFields,
+            INormalizedKeyComputerFactory[] nkFactories, IBinaryComparatorFactory[] comparatorFactories,
+            KeyGenerator keyGen) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        RecordDescriptor recordDesc = new RecordDescriptor(serdes);
+        AbstractFrameSorter mergeSorter = new FrameSorterMergeSort(ctx, createBufferManager(ctx),
+                VariableFramePool.UNLIMITED_MEMORY, sortFields, nkFactories, comparatorFactories, recordDesc);
+        AbstractFrameSorter radixSorter = new FrameSorterRadixSort(ctx, createBufferManager(ctx),
+                VariableFramePool.UNLIMITED_MEMORY, sortFields, nkFactories, comparatorFactories, recordDesc);
+
+        // the second field numbers the tuples, to check that the sort is stable
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(serdes.length);
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame);
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            tb.reset();
+            tb.addField(serdes[0], keyGen.next(i));
+            tb.addField(serdes[1], i);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                insertFrame(frame, mergeSorter, radixSorter);
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        insertFrame(frame, mergeSorter, radixSorter);
+
+        List<byte[]> expected = sortAndCollect(mergeSorter, recordDesc);
+        List<byte[]> actual = sortAndCollect(radixSorter, recordDesc);
+        assertEquals(NUM_TUPLES, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals("tuple " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    private static VariableFrameMemoryManager createBufferManager(IHyracksTaskContext ctx) {
+        return new VariableFrameMemoryManager(new VariableFramePool(ctx, VariableFramePool.UNLIMITED_MEMORY),
+                FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT));
+    }
+
+    private static void insertFrame(VSizeFrame frame, AbstractFrameSorter... sorters) throws HyracksDataException {
+        for (AbstractFrameSorter sorter : sorters) {
+            sorter.insertFrame(frame.getBuffer());
+        }
+    }
+
+    private static List<byte[]> sortAndCollect(AbstractFrameSorter sorter, RecordDescriptor recordDesc)
+            throws HyracksDataException {
+        List<byte[]> tuples = new ArrayList<>();
+        FrameTupleAccessor accessor = new FrameTupleAccessor(recordDesc);
+        sorter.sort();
+        sorter.flush(new IFrameWriter() {
+            @Override
+            public void open() {
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) {
+                accessor.reset(buffer);
+                for (int i = 0; i < accessor.getTupleCount(); i++) {
+                    tuples.add(Arrays.copyOfRange(buffer.array(), accessor.getTupleStartOffset(i),
+                            accessor.getTupleEndOffset(i)));
+                }
+            }
+
+            @Override
+            public void fail() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        sorter.close();
+        return tuples;
+    }
+
+    @FunctionalInterface
+    private interface KeyGenerator {
+        Object next(int i);
+    }
+}
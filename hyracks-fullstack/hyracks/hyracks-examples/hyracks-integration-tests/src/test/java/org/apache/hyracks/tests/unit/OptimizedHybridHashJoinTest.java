@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivity;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.std.join.JoinComparatorFactory;
+import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoin;
+import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoinOperatorDescriptor;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.apache.hyracks.tests.util.NoopMissingWriterFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class OptimizedHybridHashJoinTest {
+    private static final int FRAME_SIZE = 256;
+    private static final int[] KEYS = new int[] { 0 };
+
+    private final IOperatorDescriptorRegistry mockRegistry =
+            when(mock(IOperatorDescriptorRegistry.class).createOperatorDescriptorId(any()))
+                    .thenReturn(new OperatorDescriptorId(1)).getMock();
+    private final InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+    private final RecordDescriptor inputRd = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    private final RecordDescriptor outputRd = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    private IHyracksTaskContext ctx;
+
+    @Before
+    public void setUp() {
+        ctx = TestUtils.create(FRAME_SIZE);
+    }
+
+    @Test
+    public void testEmptyBuildSkipsProbe() throws HyracksDataException {
+        CountingPartitioner probeHpc = new CountingPartitioner(createPartitioner());
+        OptimizedHybridHashJoin join = createJoin(probeHpc, false, null);
+        join.initBuild();
+        join.closeBuild();
+        Assert.assertEquals(0, join.getBuildTupleCount());
+
+        TupleCounter writer = new TupleCounter();
+        join.initProbe();
+        for (IFrame frame : generateFrames(0, 1000)) {
+            join.probe(frame.getBuffer(), writer);
+        }
+        join.completeProbe(writer);
+        join.releaseResource();
+
+        Assert.assertEquals(0, writer.count);
+        // no probe tuple is hashed
+        Assert.assertEquals(0, probeHpc.count);
+    }
+
+    @Test
+    public void testEmptyBuildLeftOuter() throws HyracksDataException {
+        OptimizedHybridHashJoin join = createJoin(createPartitioner(), true,
+                new IMissingWriterFactory[] { NoopMissingWriterFactory.INSTANCE, NoopMissingWriterFactory.INSTANCE });
+        join.initBuild();
+        join.closeBuild();
+
+        TupleCounter writer = new TupleCounter();
+        join.initProbe();
+        for (IFrame frame : generateFrames(0, 1000)) {
+            join.probe(frame.getBuffer(), writer);
+        }
+        join.completeProbe(writer);
+        join.releaseResource();
+
+        // every probe tuple is returned without a match
+        Assert.assertEquals(1000, writer.count);
+    }
+
+    @Test
+    public void testBuildTupleCount() throws HyracksDataException {
+        OptimizedHybridHashJoin join = createJoin(createPartitioner(), false, null);
+        join.initBuild();
+        for (IFrame frame : generateFrames(0, 100)) {
+            join.build(frame.getBuffer());
+        }
+        join.closeBuild();
+        Assert.assertEquals(100, join.getBuildTupleCount());
+        Assert.assertEquals(0, join.getSpilledPartitionCount());
+
+        TupleCounter writer = new TupleCounter();
+        join.initProbe();
+        for (IFrame frame : generateFrames(0, 200)) {
+            join.probe(frame.getBuffer(), writer);
+        }
+        join.completeProbe(writer);
+        join.releaseResource();
+        Assert.assertEquals(100, writer.count);
+    }
+
+    @Test
+    public void testCountersOfEmptyBuild() throws HyracksDataException {
+        OptimizedHybridHashJoinOperatorDescriptor descriptor = createDescriptor(64, 20);
+        Assert.assertEquals(0, runJoin(descriptor, 0, 0, 1000));
+        Assert.assertEquals(0, getCounter(descriptor, ".join.build.tuples"));
+        Assert.assertEquals(0, getCounter(descriptor, ".join.spilled.partitions"));
+        Assert.assertEquals(0, getPartitionJoinCount(descriptor));
+    }
+
+    @Test
+    public void testCountersOfInMemoryJoin() throws HyracksDataException {
+        OptimizedHybridHashJoinOperatorDescriptor descriptor = createDescriptor(64, 20);
+        Assert.assertEquals(100, runJoin(descriptor, 100, 0, 200));
+        Assert.assertEquals(100, getCounter(descriptor, ".join.build.tuples"));
+        Assert.assertEquals(0, getCounter(descriptor, ".join.spilled.partitions"));
+        Assert.assertEquals(0, getPartitionJoinCount(descriptor));
+    }
+
+    @Test
+    public void testCountersOfSpilledJoin() throws HyracksDataException {
+        OptimizedHybridHashJoinOperatorDescriptor descriptor = createDescriptor(8, 400);
+        Assert.assertEquals(5000, runJoin(descriptor, 5000, 0, 5000));
+        Assert.assertEquals(5000, getCounter(descriptor, ".join.build.tuples"));
+        long spilledPartitions = getCounter(descriptor, ".join.spilled.partitions");
+        Assert.assertTrue(spilledPartitions > 0);
+        // every spilled partition pair is joined by one of the strategies, recursive joins count their partitions too
+        Assert.assertTrue(getPartitionJoinCount(descriptor) >= spilledPartitions);
+    }
+
+    private OptimizedHybridHashJoin createJoin(ITuplePartitionComputer probeHpc, boolean isLeftOuter,
+            IMissingWriterFactory[] missingWriterFactories) {
+        IBinaryComparator[] comparators = new IBinaryComparator[] {
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() };
+        return new OptimizedHybridHashJoin(ctx, 64, 4, "RelR", "RelS", KEYS, KEYS, comparators, inputRd, inputRd,
+                probeHpc, createPartitioner(), null, isLeftOuter, missingWriterFactories);
+    }
+
+    private static ITuplePartitionComputer createPartitioner() {
+        return new FieldHashPartitionComputerFamily(KEYS,
+                new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE }).createPartitioner(0);
+    }
+
+    private OptimizedHybridHashJoinOperatorDescriptor createDescriptor(int memSizeInFrames, int buildSizeInFrames) {
+        IBinaryComparatorFactory comparatorFactory = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        return new OptimizedHybridHashJoinOperatorDescriptor(mockRegistry, memSizeInFrames, buildSizeInFrames, 1.2,
+                KEYS, KEYS, new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE },
+                new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE },
+                new IBinaryComparatorFactory[] { comparatorFactory },
+                new IBinaryComparatorFactory[] { comparatorFactory }, outputRd,
+                new JoinComparatorFactory(comparatorFactory, 0, 0), new JoinComparatorFactory(comparatorFactory, 0, 0),
+                null);
+    }
+
+    /**
+     * Runs the build and the probe activities of the join in one task and returns the number of result tuples.
+     */
+    private int runJoin(OptimizedHybridHashJoinOperatorDescriptor descriptor, int buildSize, int probeStart,
+            int probeEnd) throws HyracksDataException {
+        IActivityGraphBuilder builder = mock(IActivityGraphBuilder.class);
+        descriptor.contributeActivities(builder);
+        ArgumentCaptor<IActivity> activities = ArgumentCaptor.forClass(IActivity.class);
+        verify(builder, times(2)).addActivity(any(), activities.capture());
+        IRecordDescriptorProvider recordDescProvider = mock(IRecordDescriptorProvider.class);
+        when(recordDescProvider.getInputRecordDescriptor(any(ActivityId.class), anyInt())).thenReturn(inputRd);
+
+        IOperatorNodePushable build = activities.getAllValues().get(0).createPushRuntime(ctx, recordDescProvider, 0, 1);
+        build.initialize();
+        IFrameWriter buildWriter = build.getInputFrameWriter(0);
+        buildWriter.open();
+        for (IFrame frame : generateFrames(0, buildSize)) {
+            buildWriter.nextFrame(frame.getBuffer());
+        }
+        buildWriter.close();
+        build.deinitialize();
+
+        TupleCounter writer = new TupleCounter();
+        IOperatorNodePushable probe = activities.getAllValues().get(1).createPushRuntime(ctx, recordDescProvider, 0, 1);
+        probe.setOutputFrameWriter(0, writer, outputRd);
+        probe.initialize();
+        IFrameWriter probeWriter = probe.getInputFrameWriter(0);
+        probeWriter.open();
+        for (IFrame frame : generateFrames(probeStart, probeEnd)) {
+            probeWriter.nextFrame(frame.getBuffer());
+        }
+        probeWriter.close();
+        probe.deinitialize();
+        return writer.count;
+    }
+
+    private long getCounter(OptimizedHybridHashJoinOperatorDescriptor descriptor, String name) {
+        ICounter counter = ctx.getCounterContext().getCounter(descriptor.getOperatorId() + name, false);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private long getPartitionJoinCount(OptimizedHybridHashJoinOperatorDescriptor descriptor) {
+        return getCounter(descriptor, ".join.partition.inmemory")
+                + getCounter(descriptor, ".join.partition.inmemory.reversed")
+                + getCounter(descriptor, ".join.partition.recursive")
+                + getCounter(descriptor, ".join.partition.recursive.reversed")
+                + getCounter(descriptor, ".join.partition.nestedloop");
+    }
+
+    private List<IFrame> generateFrames(int start, int end) throws HyracksDataException {
+        List<Object[]> tuples = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            tuples.add(new Object[] { i, i });
+        }
+        return frameGenerator.generateDataFrame(inputRd, tuples);
+    }
+
+    private static class CountingPartitioner implements ITuplePartitionComputer {
+        private final ITuplePartitionComputer partitioner;
+        private int count;
+
+        private CountingPartitioner(ITuplePartitionComputer partitioner) {
+            this.partitioner = partitioner;
+        }
+
+        @Override
+        public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException {
+            count++;
+            return partitioner.partition(accessor, tIndex, nParts);
+        }
+    }
+
+    private class TupleCounter implements IFrameWriter {
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(outputRd);
+        private int count;
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) {
+            accessor.reset(buffer);
+            count += accessor.getTupleCount();
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.ParallelExternalSortRunGenerator;
+import org.junit.Test;
+
+public class ParallelExternalSortRunGeneratorTest {
+
+    private static final int PAGE_SIZE = 1024;
+    private static final int FRAME_LIMIT = 9;
+    private static final int[] SORT_FIELDS = AbstractRunGeneratorTest.SortFields;
+    private static final IBinaryComparatorFactory[] COMPARATOR_FACTORIES =
+            AbstractRunGeneratorTest.ComparatorFactories;
+    private static final RecordDescriptor RECORD_DESC = AbstractRunGeneratorTest.RecordDesc;
+
+    @Test
+    public void testTwoSorters() throws HyracksDataException {
+        testSortRecords(2, 8);
+    }
+
+    @Test
+    public void testFourSorters() throws HyracksDataException {
+        testSortRecords(4, 8);
+    }
+
+    @Test
+    public void testMoreSortersThanFrames() throws HyracksDataException {
+        testSortRecords(FRAME_LIMIT * 2, 8);
+    }
+
+    @Test
+    public void testFitsInOneSorter() throws HyracksDataException {
+        IHyracksTaskContext ctx = AbstractRunGeneratorTest.testUtils.create(PAGE_SIZE);
+        List<IFrame> frameList = new ArrayList<>();
+        AbstractRunGeneratorTest.prepareData(ctx, frameList, PAGE_SIZE, PAGE_SIZE / 8, PAGE_SIZE / 8, null,
+                new HashMap<>());
+        AbstractSortRunGenerator runGenerator = createRunGenerator(ctx, 2);
+        runGenerator.open();
+        for (IFrame frame : frameList) {
+            runGenerator.nextFrame(frame.getBuffer());
+        }
+        runGenerator.close();
+        assertTrue(runGenerator.getRuns().isEmpty());
+        assertTrue(runGenerator.getSorter().hasRemaining());
+    }
+
+    private static void testSortRecords(int degreeOfParallelism, int numRuns) throws HyracksDataException {
+        IHyracksTaskContext ctx = AbstractRunGeneratorTest.testUtils.create(PAGE_SIZE);
+        HashMap<Integer, String> keyValuePair = new HashMap<>();
+        List<IFrame> frameList = new ArrayList<>();
+        AbstractRunGeneratorTest.prepareData(ctx, frameList, PAGE_SIZE * FRAME_LIMIT * numRuns, PAGE_SIZE / 8,
+                PAGE_SIZE / 4, null, keyValuePair);
+
+        AbstractSortRunGenerator parallelRunGenerator = createRunGenerator(ctx, degreeOfParallelism);
+        AbstractSortRunGenerator runGenerator =
+                new ExternalSortRunGenerator(ctx, SORT_FIELDS, null, COMPARATOR_FACTORIES, RECORD_DESC,
+                        Algorithm.MERGE_SORT, EnumFreeSlotPolicy.LAST_FIT, FRAME_LIMIT, Integer.MAX_VALUE);
+        for (AbstractSortRunGenerator generator : new AbstractSortRunGenerator[] { parallelRunGenerator,
+                runGenerator }) {
+            generator.open();
+            for (IFrame frame : frameList) {
+                generator.nextFrame(frame.getBuffer());
+            }
+            generator.close();
+            AbstractRunGeneratorTest.matchResult(ctx, generator.getRuns(), keyValuePair);
+        }
+        // the sorters share the memory of the operator, so their runs cannot be longer
+        assertTrue(parallelRunGenerator.getRuns().size() >= runGenerator.getRuns().size());
+    }
+
+    private static AbstractSortRunGenerator createRunGenerator(IHyracksTaskContext ctx, int degreeOfParallelism)
+            throws HyracksDataException {
+        return new ParallelExternalSortRunGenerator(ctx, SORT_FIELDS,
+                new INormalizedKeyComputerFactory[] { new IntegerNormalizedKeyComputerFactory() },
+                COMPARATOR_FACTORIES, RECORD_DESC, Algorithm.RADIX_SORT, EnumFreeSlotPolicy.LAST_FIT, FRAME_LIMIT,
+                Integer.MAX_VALUE, degreeOfParallelism);
+    }
+}
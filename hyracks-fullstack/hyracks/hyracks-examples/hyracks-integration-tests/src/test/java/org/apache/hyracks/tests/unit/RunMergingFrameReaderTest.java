@@ -23,6 +23,7 @@ import static org.apache.hyracks.tests.unit.AbstractRunGeneratorTest.*;
 import static org.junit.Assert.*;
 
 import java.io.DataInputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -34,9 +35,11 @@ import java.util.TreeMap;
 import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameReader;
+import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
@@ -47,8 +50,10 @@ import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerD
 import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunMerger;
 import org.apache.hyracks.dataflow.std.sort.RunMergingFrameReader;
 import org.apache.hyracks.dataflow.std.sort.util.GroupVSizeFrame;
+import org.apache.hyracks.dataflow.std.sort.util.ReadAheadFrameReader;
 import org.junit.Test;
 
 import junit.extensions.PA;
@@ -346,6 +351,126 @@ public class RunMergingFrameReaderTest {
         assertAllKeyValueIsConsumed(Arrays.asList(keyValuePair));
     }
 
+    @Test
+    public void testReadAheadRunFileReader() throws HyracksDataException {
+        int pageSize = 128;
+        int numRuns = 4;
+        int numFramesPerRun = 8;
+        int minRecordSize = pageSize / 10;
+        int maxRecordSize = pageSize * 2;
+
+        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, SortFields, null, ComparatorFactories,
+                RecordDesc, Algorithm.MERGE_SORT, numFramesPerRun);
+
+        runGenerator.open();
+        Map<Integer, String> keyValuePair = new HashMap<>();
+        List<IFrame> frameList = new ArrayList<>();
+        prepareData(ctx, frameList, pageSize * numFramesPerRun * numRuns, minRecordSize, maxRecordSize, null,
+                keyValuePair);
+        for (IFrame frame : frameList) {
+            runGenerator.nextFrame(frame.getBuffer());
+        }
+        runGenerator.close();
+
+        // the frames hold several frames of a run and a part of the next one, which the next read completes
+        List<IFrame> inFrame = new ArrayList<>(runGenerator.getRuns().size());
+        List<IFrameReader> runs = new ArrayList<>();
+        for (GeneratedRunFileReader run : runGenerator.getRuns()) {
+            int frameSize = run.getMaxFrameSize() * 2 + pageSize;
+            inFrame.add(new GroupVSizeFrame(ctx, frameSize));
+            runs.add(new ReadAheadFrameReader(ctx, run, new GroupVSizeFrame(ctx, frameSize)));
+        }
+        RunMergingFrameReader reader =
+                new RunMergingFrameReader(ctx, runs, inFrame, SortFields, Comparators, null, RecordDesc);
+
+        IFrame outFrame = new VSizeFrame(ctx);
+        reader.open();
+        while (reader.nextFrame(outFrame)) {
+            assertFrameIsSorted(outFrame, Arrays.asList(keyValuePair));
+        }
+        reader.close();
+        assertAllKeyValueIsConsumed(Arrays.asList(keyValuePair));
+    }
+
+    @Test
+    public void testMergeIsStableAcrossIntermediateMerges() throws HyracksDataException {
+        int pageSize = 128;
+        int numFramesPerRun = 4;
+        int numRecords = 1000;
+        int numKeys = 5;
+        int[] keyFields = new int[] { 0 };
+        IBinaryComparatorFactory[] keyComparatorFactories = new IBinaryComparatorFactory[] { ComparatorFactories[0] };
+        IBinaryComparator[] keyComparators = new IBinaryComparator[] { Comparators[0] };
+
+        // more runs than the fan-in of the merges, with duplicate keys whose values are in the input order
+        for (int framesLimit : new int[] { 4, 8 }) {
+            IHyracksTaskContext ctx = testUtils.create(pageSize);
+            ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, keyFields, null,
+                    keyComparatorFactories, RecordDesc, Algorithm.MERGE_SORT, numFramesPerRun);
+            runGenerator.open();
+            ArrayTupleBuilder tb = new ArrayTupleBuilder(RecordDesc.getFieldCount());
+            FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+            for (int i = 0; i < numRecords; i++) {
+                tb.reset();
+                tb.addField(IntegerSerializerDeserializer.INSTANCE, i % numKeys);
+                tb.addField(new UTF8StringSerializerDeserializer(), String.format("%05d", i));
+                if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                    appender.write(runGenerator, true);
+                    assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+                }
+            }
+            appender.write(runGenerator, true);
+            runGenerator.close();
+            assertTrue(runGenerator.getRuns().size() > framesLimit - 1);
+
+            List<Integer> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            IFrameWriter resultWriter = new IFrameWriter() {
+                private final FrameTupleAccessor fta = new FrameTupleAccessor(RecordDesc);
+                private final ByteBufferInputStream bbis = new ByteBufferInputStream();
+                private final DataInputStream di = new DataInputStream(bbis);
+
+                @Override
+                public void open() throws HyracksDataException {
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    fta.reset(buffer);
+                    for (int i = 0; i < fta.getTupleCount(); i++) {
+                        bbis.setByteBuffer(fta.getBuffer(),
+                                fta.getTupleStartOffset(i) + fta.getFieldStartOffset(i, 0) + fta.getFieldSlotsLength());
+                        keys.add((Integer) RecordDesc.getFields()[0].deserialize(di));
+                        bbis.setByteBuffer(fta.getBuffer(),
+                                fta.getTupleStartOffset(i) + fta.getFieldStartOffset(i, 1) + fta.getFieldSlotsLength());
+                        values.add((String) RecordDesc.getFields()[1].deserialize(di));
+                    }
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                }
+            };
+            ExternalSortRunMerger merger = new ExternalSortRunMerger(ctx, runGenerator.getSorter(),
+                    runGenerator.getRuns(), keyFields, keyComparators, null, RecordDesc, framesLimit, Integer.MAX_VALUE,
+                    resultWriter);
+            merger.process();
+
+            assertEquals(numRecords, keys.size());
+            for (int i = 1; i < keys.size(); i++) {
+                assertTrue(keys.get(i - 1) <= keys.get(i));
+                if (keys.get(i - 1).equals(keys.get(i))) {
+                    assertTrue(values.get(i - 1).compareTo(values.get(i)) < 0);
+                }
+            }
+        }
+    }
+
     private void assertAllKeyValueIsConsumed(List<Map<Integer, String>> keyValueMapList) {
         for (Map<Integer, String> map : keyValueMapList) {
             assertTrue(map.isEmpty());
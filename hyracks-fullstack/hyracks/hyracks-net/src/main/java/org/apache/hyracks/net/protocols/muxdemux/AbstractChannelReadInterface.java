@@ -76,4 +76,9 @@ public abstract class AbstractChannelReadInterface implements IChannelReadInterf
     public void setBufferFactory(IBufferFactory bufferFactory, int limit, int frameSize) {
         this.bufferFactory = bufferFactory;
     }
+
+    @Override
+    public void enableFrameCompression() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support frame compression");
+    }
 }
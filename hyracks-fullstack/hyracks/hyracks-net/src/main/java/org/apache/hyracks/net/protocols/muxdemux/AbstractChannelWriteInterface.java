@@ -73,7 +73,7 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
     private boolean computeWritability() {
         boolean writableDataPresent = currentWriteBuffer != null || !wiFullQueue.isEmpty();
         if (writableDataPresent) {
-            return credits > 0;
+            return hasWriteCredits();
         }
         if (isPendingCloseWrite()) {
             return true;
@@ -81,6 +81,10 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
         return ecode.get() == REMOTE_ERROR_CODE && !ecodeSent;
     }
 
+    protected boolean hasWriteCredits() {
+        return credits > 0;
+    }
+
     @Override
     public void adjustChannelWritability() {
         boolean writable = computeWritability();
@@ -116,6 +120,11 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
         return credits;
     }
 
+    @Override
+    public void enableFrameCompression() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support frame compression");
+    }
+
     protected boolean isPendingCloseWrite() {
         return eos && !eosSent && !ecodeSent;
     }
@@ -173,6 +173,10 @@ public class ChannelControlBlock implements IChannelControlBlock {
         return cSet.getMultiplexedConnection().getRemoteAddress();
     }
 
+    public MuxDemuxPerformanceCounters getPerformanceCounters() {
+        return cSet.getMultiplexedConnection().getPerformanceCounters();
+    }
+
     public JsonNode getState() {
         final ObjectNode state = JSONUtil.createObject();
         state.put("id", channelId);
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.net.protocols.muxdemux;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.NetException;
+
+/**
+ * A fast LZ77 block codec used to compress the frames exchanged over a channel.
+ * The encoded blocks follow the LZ4 block format: a sequence of (token, literals, match offset, match length)
+ * entries terminated by a literal-only entry.
+ * An instance keeps its own match table and therefore must only be used by a single channel.
+ */
+public class FrameCompressionCodec {
+    /**
+     * Size of the header written in front of every block: the encoded payload length followed by the frame length.
+     */
+    public static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_LOG = 12;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int SKIP_TRIGGER = 6;
+    private static final int RUN_MASK = 0x0F;
+
+    private final int[] matchTable = new int[1 << HASH_LOG];
+
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code srcLength} bytes of {@code src} into {@code dst}.
+     *
+     * @return the number of bytes written into {@code dst}
+     */
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        final int srcEnd = srcOffset + srcLength;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+        final int findLimit = srcEnd - MATCH_FIND_LIMIT;
+        int anchor = srcOffset;
+        int dOff = dstOffset;
+        if (srcLength > MATCH_FIND_LIMIT) {
+            Arrays.fill(matchTable, -1);
+            int sOff = srcOffset;
+            int misses = 0;
+            while (sOff < findLimit) {
+                final int sequence = readInt(src, sOff);
+                final int slot = hash(sequence);
+                int ref = matchTable[slot];
+                matchTable[slot] = sOff;
+                if (ref < 0 || sOff - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    // accelerate over incompressible regions
+                    sOff += 1 + (misses++ >>> SKIP_TRIGGER);
+                    continue;
+                }
+                misses = 0;
+                while (sOff > anchor && ref > srcOffset && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (sOff + matchLength < matchLimit && src[sOff + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLength, dst, dOff);
+                sOff += matchLength;
+                anchor = sOff;
+            }
+        }
+        dOff = writeLiteralRun(src, anchor, srcEnd - anchor, dst, dOff);
+        return dOff - dstOffset;
+    }
+
+    /**
+     * Decompresses the block stored in {@code src} into {@code dst}.
+     *
+     * @return the number of bytes written into {@code dst}
+     * @throws NetException
+     *             if the block is malformed or does not fit into {@code dstLength} bytes
+     */
+    public int decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength)
+            throws NetException {
+        final int srcEnd = srcOffset + srcLength;
+        final int dstEnd = dstOffset + dstLength;
+        int sOff = srcOffset;
+        int dOff = dstOffset;
+        try {
+            while (true) {
+                final int token = src[sOff++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                if (sOff + literalLength > srcEnd || dOff + literalLength > dstEnd) {
+                    throw new NetException("Malformed compressed block");
+                }
+                System.arraycopy(src, sOff, dst, dOff, literalLength);
+                sOff += literalLength;
+                dOff += literalLength;
+                if (sOff == srcEnd) {
+                    return dOff - dstOffset;
+                }
+                final int offset = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+                sOff += 2;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+                int ref = dOff - offset;
+                if (offset == 0 || ref < dstOffset || dOff + matchLength > dstEnd) {
+                    throw new NetException("Malformed compressed block");
+                }
+                // matches may overlap their own output, so copy byte by byte
+                for (int i = 0; i < matchLength; i++) {
+                    dst[dOff++] = dst[ref++];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new NetException("Malformed compressed block", e);
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, int offset, int matchLength,
+            byte[] dst, int dOff) {
+        final int tokenOff = dOff;
+        dOff = writeLiteralRun(src, literalOffset, literalLength, dst, dOff);
+        dst[dOff++] = (byte) offset;
+        dst[dOff++] = (byte) (offset >>> 8);
+        int remaining = matchLength - MIN_MATCH;
+        if (remaining >= RUN_MASK) {
+            dst[tokenOff] |= RUN_MASK;
+            dOff = writeLength(remaining - RUN_MASK, dst, dOff);
+        } else {
+            dst[tokenOff] |= remaining;
+        }
+        return dOff;
+    }
+
+    private static int writeLiteralRun(byte[] src, int literalOffset, int literalLength, byte[] dst, int dOff) {
+        if (literalLength >= RUN_MASK) {
+            dst[dOff++] = (byte) (RUN_MASK << 4);
+            dOff = writeLength(literalLength - RUN_MASK, dst, dOff);
+        } else {
+            dst[dOff++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalOffset, dst, dOff, literalLength);
+        return dOff + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dOff) {
+        while (length >= 0xFF) {
+            dst[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dst[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16)
+                | ((b[off + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (Integer.SIZE - HASH_LOG);
+    }
+}
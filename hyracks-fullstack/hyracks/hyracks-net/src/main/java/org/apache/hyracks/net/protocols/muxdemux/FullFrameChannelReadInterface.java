@@ -25,6 +25,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 
 import org.apache.hyracks.api.comm.IBufferFactory;
 import org.apache.hyracks.api.comm.IChannelControlBlock;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.NetException;
 import org.apache.hyracks.api.network.ISocketChannel;
 import org.apache.logging.log4j.LogManager;
@@ -35,6 +36,13 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
     private static final Logger LOGGER = LogManager.getLogger();
     private final BlockingDeque<ByteBuffer> riEmptyStack;
     private final IChannelControlBlock ccb;
+    private FrameCompressionCodec codec;
+    private MuxDemuxPerformanceCounters perfCounters;
+    private ByteBuffer blockHeader;
+    private ByteBuffer blockBuffer;
+    private byte[] frameBytes;
+    private int payloadLength;
+    private int frameLength;
 
     public FullFrameChannelReadInterface(IChannelControlBlock ccb) {
         this.ccb = ccb;
@@ -53,36 +61,19 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
 
     @Override
     public int read(ISocketChannel sc, int size) throws IOException, NetException {
+        if (codec != null) {
+            return readCompressed(sc, size);
+        }
         while (true) {
             if (size <= 0) {
                 return size;
             }
             if (currentReadBuffer == null) {
-                currentReadBuffer = riEmptyStack.poll();
-                //if current buffer == null and limit not reached
-                // factory.createBuffer factory
-                if (currentReadBuffer == null) {
-                    currentReadBuffer = bufferFactory.createBuffer();
-                }
-            }
-            if (currentReadBuffer == null) {
-                if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn("{} read buffers exceeded. Current empty buffers: {}", ccb, riEmptyStack.size());
-                }
-                throw new IllegalStateException(ccb + " read buffers exceeded");
+                acquireReadBuffer();
             }
             int rSize = Math.min(size, currentReadBuffer.remaining());
             if (rSize > 0) {
-                currentReadBuffer.limit(currentReadBuffer.position() + rSize);
-                int len;
-                try {
-                    len = sc.read(currentReadBuffer);
-                    if (len < 0) {
-                        throw new NetException("Socket Closed");
-                    }
-                } finally {
-                    currentReadBuffer.limit(currentReadBuffer.capacity());
-                }
+                int len = read(sc, currentReadBuffer, rSize);
                 size -= len;
                 if (len < rSize) {
                     return size;
@@ -96,6 +87,103 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
         }
     }
 
+    @Override
+    public void enableFrameCompression() {
+        codec = new FrameCompressionCodec();
+        perfCounters = ((ChannelControlBlock) ccb).getPerformanceCounters();
+        blockHeader = ByteBuffer.allocate(FrameCompressionCodec.BLOCK_HEADER_SIZE);
+    }
+
+    private int readCompressed(ISocketChannel sc, int size) throws IOException, NetException {
+        while (size > 0) {
+            final boolean readingHeader = blockHeader.hasRemaining();
+            final ByteBuffer target = readingHeader ? blockHeader : blockBuffer;
+            int rSize = Math.min(size, target.remaining());
+            int len = read(sc, target, rSize);
+            size -= len;
+            if (!target.hasRemaining()) {
+                if (readingHeader) {
+                    startBlock();
+                } else {
+                    completeBlock();
+                }
+            }
+            if (len < rSize) {
+                return size;
+            }
+        }
+        return size;
+    }
+
+    private void startBlock() throws NetException {
+        payloadLength = blockHeader.getInt(0);
+        frameLength = blockHeader.getInt(Integer.BYTES);
+        if (payloadLength <= 0 || payloadLength > frameLength) {
+            throw new NetException(ccb + " received a malformed block header");
+        }
+        if (blockBuffer == null || blockBuffer.capacity() < frameLength) {
+            blockBuffer = ByteBuffer.allocate(frameLength);
+            frameBytes = new byte[frameLength];
+        }
+        blockBuffer.clear();
+        blockBuffer.limit(payloadLength);
+    }
+
+    private void completeBlock() throws IOException, NetException {
+        byte[] frame = blockBuffer.array();
+        if (payloadLength < frameLength) {
+            final long startTime = System.nanoTime();
+            if (codec.decompress(frame, 0, payloadLength, frameBytes, 0, frameLength) != frameLength) {
+                throw new NetException(ccb + " received a block that does not match its frame length");
+            }
+            perfCounters.addDecompressionTime(System.nanoTime() - startTime);
+            frame = frameBytes;
+        }
+        // the frame size of the sender might differ from ours, so the data is handed over as a byte stream
+        int offset = 0;
+        while (offset < frameLength) {
+            if (currentReadBuffer == null) {
+                acquireReadBuffer();
+            }
+            int length = Math.min(frameLength - offset, currentReadBuffer.remaining());
+            currentReadBuffer.put(frame, offset, length);
+            offset += length;
+            if (currentReadBuffer.remaining() <= 0) {
+                flush();
+            }
+        }
+        blockHeader.clear();
+    }
+
+    private void acquireReadBuffer() throws HyracksDataException {
+        currentReadBuffer = riEmptyStack.poll();
+        //if current buffer == null and limit not reached
+        // factory.createBuffer factory
+        if (currentReadBuffer == null) {
+            currentReadBuffer = bufferFactory.createBuffer();
+        }
+        if (currentReadBuffer == null) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("{} read buffers exceeded. Current empty buffers: {}", ccb, riEmptyStack.size());
+            }
+            throw new IllegalStateException(ccb + " read buffers exceeded");
+        }
+    }
+
+    private static int read(ISocketChannel sc, ByteBuffer buffer, int size) throws IOException, NetException {
+        final int limit = buffer.limit();
+        buffer.limit(buffer.position() + size);
+        try {
+            int len = sc.read(buffer);
+            if (len < 0) {
+                throw new NetException("Socket Closed");
+            }
+            return len;
+        } finally {
+            buffer.limit(limit);
+        }
+    }
+
     @Override
     public void setBufferFactory(IBufferFactory bufferFactory, int limit, int frameSize) {
         super.setBufferFactory(bufferFactory, limit, frameSize);
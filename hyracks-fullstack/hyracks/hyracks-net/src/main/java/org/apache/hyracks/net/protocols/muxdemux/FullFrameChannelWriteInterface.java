@@ -18,6 +18,8 @@
  */
 package org.apache.hyracks.net.protocols.muxdemux;
 
+import java.nio.ByteBuffer;
+
 import org.apache.hyracks.api.comm.IBufferFactory;
 import org.apache.hyracks.api.comm.IChannelControlBlock;
 import org.apache.hyracks.api.comm.IConnectionWriterState;
@@ -29,6 +31,18 @@ import org.apache.logging.log4j.Logger;
 public class FullFrameChannelWriteInterface extends AbstractChannelWriteInterface {
 
     private static final Logger LOGGER = LogManager.getLogger();
+    /*
+     * A frame is sent uncompressed when compression does not save at least 10% of its size.
+     * Consecutive poor frames double the number of following frames that skip the compression attempt.
+     */
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+    private static final int MAX_BYPASSED_FRAMES = 64;
+    private FrameCompressionCodec codec;
+    private MuxDemuxPerformanceCounters perfCounters;
+    private ByteBuffer blockBuffer;
+    private byte[] frameBytes;
+    private int bypassWindow;
+    private int framesToBypass;
 
     FullFrameChannelWriteInterface(IChannelControlBlock ccb) {
         super(ccb);
@@ -37,12 +51,16 @@ public class FullFrameChannelWriteInterface extends AbstractChannelWriteInterfac
     @Override
     public void write(IConnectionWriterState writerState) throws NetException {
         if (currentWriteBuffer == null) {
-            currentWriteBuffer = wiFullQueue.poll();
+            currentWriteBuffer = codec == null ? wiFullQueue.poll() : nextCompressedBlock();
         }
         if (currentWriteBuffer != null) {
-            int size = Math.min(currentWriteBuffer.remaining(), credits);
+            // the credits of a compressed block are consumed as a whole when the block is created
+            int size = codec == null ? Math.min(currentWriteBuffer.remaining(), credits)
+                    : currentWriteBuffer.remaining();
             if (size > 0) {
-                credits -= size;
+                if (codec == null) {
+                    credits -= size;
+                }
                 writerState.getCommand().setChannelId(channelId);
                 writerState.getCommand().setCommandType(MuxDemuxCommand.CommandType.DATA);
                 writerState.getCommand().setData(size);
@@ -50,6 +68,9 @@ public class FullFrameChannelWriteInterface extends AbstractChannelWriteInterfac
             } else {
                 adjustChannelWritability();
             }
+        } else if (!wiFullQueue.isEmpty()) {
+            // no credits to send the next piece of the queued frame
+            adjustChannelWritability();
         } else if (ecode.get() == REMOTE_ERROR_CODE && !ecodeSent) {
             writerState.getCommand().setChannelId(channelId);
             writerState.getCommand().setCommandType(MuxDemuxCommand.CommandType.ERROR);
@@ -83,4 +104,86 @@ public class FullFrameChannelWriteInterface extends AbstractChannelWriteInterfac
         }
         eos = true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void enableFrameCompression() {
+        codec = new FrameCompressionCodec();
+        perfCounters = ((ChannelControlBlock) ccb).getPerformanceCounters();
+    }
+
+    @Override
+    public void writeComplete() {
+        if (codec == null) {
+            super.writeComplete();
+        } else if (currentWriteBuffer.remaining() <= 0) {
+            // the frame itself is recycled when its last piece is encoded
+            currentWriteBuffer = null;
+            adjustChannelWritability();
+        }
+    }
+
+    @Override
+    protected boolean hasWriteCredits() {
+        if (codec == null) {
+            return super.hasWriteCredits();
+        }
+        return currentWriteBuffer != null || credits > 0;
+    }
+
+    /**
+     * Encodes the next piece of the first queued frame into {@link #blockBuffer}. Like an uncompressed frame, a
+     * frame is sent in pieces of at most the available credits, which count the uncompressed bytes. The frame is
+     * returned to the empty buffer acceptor once its last piece is encoded.
+     *
+     * @return the encoded block or null if nothing can be sent yet
+     */
+    private ByteBuffer nextCompressedBlock() {
+        ByteBuffer frame = wiFullQueue.peek();
+        if (frame == null || credits <= 0) {
+            return null;
+        }
+        final int pieceLength = Math.min(frame.remaining(), credits);
+        credits -= pieceLength;
+        ensureCapacity(pieceLength);
+        final byte[] block = blockBuffer.array();
+        int payloadLength = pieceLength;
+        if (framesToBypass > 0) {
+            framesToBypass--;
+            frame.get(block, FrameCompressionCodec.BLOCK_HEADER_SIZE, pieceLength);
+        } else {
+            frame.get(frameBytes, 0, pieceLength);
+            final long startTime = System.nanoTime();
+            final int compressedLength =
+                    codec.compress(frameBytes, 0, pieceLength, block, FrameCompressionCodec.BLOCK_HEADER_SIZE);
+            perfCounters.addCompressionTime(System.nanoTime() - startTime);
+            if (compressedLength <= pieceLength * MAX_COMPRESSION_RATIO) {
+                payloadLength = compressedLength;
+                bypassWindow = 0;
+            } else {
+                System.arraycopy(frameBytes, 0, block, FrameCompressionCodec.BLOCK_HEADER_SIZE, pieceLength);
+                bypassWindow = Math.min(Math.max(1, bypassWindow * 2), MAX_BYPASSED_FRAMES);
+                framesToBypass = bypassWindow;
+            }
+        }
+        if (!frame.hasRemaining()) {
+            wiFullQueue.poll();
+            frame.clear();
+            eba.accept(frame);
+        }
+        blockBuffer.clear();
+        blockBuffer.putInt(payloadLength);
+        blockBuffer.putInt(pieceLength);
+        blockBuffer.position(0);
+        blockBuffer.limit(FrameCompressionCodec.BLOCK_HEADER_SIZE + payloadLength);
+        perfCounters.addCompressedFrameWritten(pieceLength, blockBuffer.remaining());
+        return blockBuffer;
+    }
+
+    private void ensureCapacity(int frameLength) {
+        if (frameBytes == null || frameBytes.length < frameLength) {
+            frameBytes = new byte[frameLength];
+            blockBuffer = ByteBuffer.allocate(
+                    FrameCompressionCodec.BLOCK_HEADER_SIZE + FrameCompressionCodec.maxCompressedLength(frameLength));
+        }
+    }
+}
@@ -425,6 +425,10 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
         }
     }
 
+    MuxDemuxPerformanceCounters getPerformanceCounters() {
+        return muxDemux.getPerformanceCounters();
+    }
+
     public IChannelInterfaceFactory getChannelInterfaceFactory() {
         return muxDemux.getChannelInterfaceFactory();
     }
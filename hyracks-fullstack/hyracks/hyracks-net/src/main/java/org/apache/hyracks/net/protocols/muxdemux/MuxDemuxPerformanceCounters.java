@@ -29,11 +29,23 @@ public class MuxDemuxPerformanceCounters {
 
     private final AtomicLong signalingBytesWritten;
 
+    private final AtomicLong uncompressedBytesWritten;
+
+    private final AtomicLong compressedBytesWritten;
+
+    private final AtomicLong compressionTimeNanos;
+
+    private final AtomicLong decompressionTimeNanos;
+
     public MuxDemuxPerformanceCounters() {
         payloadBytesRead = new AtomicLong();
         payloadBytesWritten = new AtomicLong();
         signalingBytesRead = new AtomicLong();
         signalingBytesWritten = new AtomicLong();
+        uncompressedBytesWritten = new AtomicLong();
+        compressedBytesWritten = new AtomicLong();
+        compressionTimeNanos = new AtomicLong();
+        decompressionTimeNanos = new AtomicLong();
     }
 
     public void addPayloadBytesRead(long delta) {
@@ -67,4 +79,41 @@ public class MuxDemuxPerformanceCounters {
     public long getSignalingBytesWritten() {
         return signalingBytesWritten.get();
     }
+
+    /**
+     * Records a frame written through a compressing channel.
+     *
+     * @param uncompressedBytes
+     *            the size of the frame
+     * @param compressedBytes
+     *            the number of bytes put on the wire for the frame, including the block header
+     */
+    public void addCompressedFrameWritten(long uncompressedBytes, long compressedBytes) {
+        uncompressedBytesWritten.addAndGet(uncompressedBytes);
+        compressedBytesWritten.addAndGet(compressedBytes);
+    }
+
+    public long getUncompressedBytesWritten() {
+        return uncompressedBytesWritten.get();
+    }
+
+    public long getCompressedBytesWritten() {
+        return compressedBytesWritten.get();
+    }
+
+    public void addCompressionTime(long nanos) {
+        compressionTimeNanos.addAndGet(nanos);
+    }
+
+    public long getCompressionTimeNanos() {
+        return compressionTimeNanos.get();
+    }
+
+    public void addDecompressionTime(long nanos) {
+        decompressionTimeNanos.addAndGet(nanos);
+    }
+
+    public long getDecompressionTimeNanos() {
+        return decompressionTimeNanos.get();
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.net.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.api.comm.IBufferAcceptor;
+import org.apache.hyracks.api.comm.ICloseableBufferAcceptor;
+import org.apache.hyracks.ipc.sockets.PlainSocketChannelFactory;
+import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
+import org.apache.hyracks.net.protocols.muxdemux.FullFrameChannelInterfaceFactory;
+import org.apache.hyracks.net.protocols.muxdemux.IChannelOpenListener;
+import org.apache.hyracks.net.protocols.muxdemux.MultiplexedConnection;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemux;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Sends compressed frames over a channel whose receiver has less credit than the size of a frame.
+ */
+public class FrameCompressionChannelTest {
+
+    private static final int RECEIVER_BUFFER_COUNT = 2;
+    private static final int RECEIVER_FRAME_SIZE = 1024;
+    private static final int FRAME_SIZE = 64 * RECEIVER_FRAME_SIZE;
+    private static final int FRAME_COUNT = 20;
+
+    @Test
+    public void frameLargerThanCreditTest() throws Exception {
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final CountDownLatch closed = new CountDownLatch(1);
+        final AtomicInteger errors = new AtomicInteger();
+        MuxDemux receiver = createReceiver(received, closed, errors);
+        receiver.start();
+        MuxDemux sender = new MuxDemux(new InetSocketAddress("127.0.0.1", 0), channel -> {
+        }, 1, 5, FullFrameChannelInterfaceFactory.INSTANCE, PlainSocketChannelFactory.INSTANCE);
+        sender.start();
+
+        MultiplexedConnection connection = sender.connect(receiver.getLocalAddress());
+        ChannelControlBlock channel = connection.openChannel();
+        channel.getWriteInterface().enableFrameCompression();
+        final BlockingQueue<ByteBuffer> emptyFrames = new LinkedBlockingQueue<>();
+        channel.getWriteInterface().setEmptyBufferAcceptor(emptyFrames::add);
+        channel.getReadInterface().setFullBufferAcceptor(new ICloseableBufferAcceptor() {
+            @Override
+            public void accept(ByteBuffer buffer) {
+            }
+
+            @Override
+            public void error(int ecode) {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        final Random random = new Random(0);
+        ICloseableBufferAcceptor fba = channel.getWriteInterface().getFullBufferAcceptor();
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            final byte[] frame = new byte[FRAME_SIZE];
+            // alternate compressible and incompressible frames
+            final int alphabet = i % 2 == 0 ? 4 : 256;
+            for (int j = 0; j < FRAME_SIZE; j++) {
+                frame[j] = (byte) random.nextInt(alphabet);
+            }
+            sent.write(frame);
+            fba.accept(ByteBuffer.wrap(frame));
+        }
+        fba.close();
+
+        Assert.assertTrue("the channel was not closed", closed.await(60, TimeUnit.SECONDS));
+        Assert.assertEquals(0, errors.get());
+        Assert.assertArrayEquals(sent.toByteArray(), received.toByteArray());
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            Assert.assertNotNull("a frame was not recycled", emptyFrames.poll(60, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue(sender.getPerformanceCounters().getCompressedBytesWritten() < sender
+                .getPerformanceCounters().getUncompressedBytesWritten());
+    }
+
+    private static MuxDemux createReceiver(ByteArrayOutputStream received, CountDownLatch closed,
+            AtomicInteger errors) {
+        IChannelOpenListener openListener = new IChannelOpenListener() {
+            @Override
+            public void channelOpened(ChannelControlBlock channel) {
+                channel.getReadInterface().enableFrameCompression();
+                final AtomicInteger buffers = new AtomicInteger();
+                channel.getReadInterface().setBufferFactory(() -> buffers.incrementAndGet() <= RECEIVER_BUFFER_COUNT
+                        ? ByteBuffer.allocate(RECEIVER_FRAME_SIZE) : null, RECEIVER_BUFFER_COUNT,
+                        RECEIVER_FRAME_SIZE);
+                final IBufferAcceptor emptyBufferAcceptor = channel.getReadInterface().getEmptyBufferAcceptor();
+                final BlockingQueue<ByteBuffer> fullBuffers = new LinkedBlockingQueue<>();
+                final ByteBuffer eos = ByteBuffer.allocate(0);
+                channel.getReadInterface().setFullBufferAcceptor(new ICloseableBufferAcceptor() {
+                    @Override
+                    public void accept(ByteBuffer buffer) {
+                        fullBuffers.add(buffer);
+                    }
+
+                    @Override
+                    public void error(int ecode) {
+                        errors.incrementAndGet();
+                        fullBuffers.add(eos);
+                    }
+
+                    @Override
+                    public void close() {
+                        fullBuffers.add(eos);
+                    }
+                });
+                channel.getWriteInterface().setEmptyBufferAcceptor(buffer -> {
+                });
+                new Thread(() -> {
+                    try {
+                        while (true) {
+                            ByteBuffer buffer = fullBuffers.take();
+                            if (buffer == eos) {
+                                channel.getWriteInterface().getFullBufferAcceptor().close();
+                                closed.countDown();
+                                return;
+                            }
+                            // consume the frame slowly so that the sender runs out of credits
+                            Thread.sleep(1);
+                            received.write(buffer.array(), 0, buffer.remaining());
+                            buffer.clear();
+                            emptyBufferAcceptor.accept(buffer);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }).start();
+            }
+        };
+        return new MuxDemux(new InetSocketAddress("127.0.0.1", 0), openListener, 1, 5,
+                FullFrameChannelInterfaceFactory.INSTANCE, PlainSocketChannelFactory.INSTANCE);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.net.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.hyracks.api.exceptions.NetException;
+import org.apache.hyracks.net.protocols.muxdemux.FrameCompressionCodec;
+import org.apache.hyracks.util.StorageUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FrameCompressionCodecTest {
+
+    private static final int FRAME_SIZE = StorageUtil.getIntSizeInBytes(32, StorageUtil.StorageUnit.KILOBYTE);
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final Random random = new Random(0);
+        final FrameCompressionCodec codec = new FrameCompressionCodec();
+        for (int i = 0; i < 1000; i++) {
+            final int length = random.nextInt(i % 10 == 0 ? 32 : FRAME_SIZE);
+            final byte[] frame = new byte[length];
+            final int alphabet = 1 + random.nextInt(256);
+            for (int j = 0; j < length; j++) {
+                frame[j] = (byte) random.nextInt(alphabet);
+            }
+            Assert.assertArrayEquals(frame, roundTrip(codec, frame));
+        }
+    }
+
+    @Test
+    public void repetitiveFrameTest() throws Exception {
+        final FrameCompressionCodec codec = new FrameCompressionCodec();
+        final byte[] frame = new byte[FRAME_SIZE];
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            frame[i] = (byte) (i % 41);
+        }
+        final byte[] compressed = new byte[FrameCompressionCodec.maxCompressedLength(FRAME_SIZE)];
+        final int compressedLength = codec.compress(frame, 0, FRAME_SIZE, compressed, 0);
+        Assert.assertTrue(compressedLength < FRAME_SIZE / 10);
+        Assert.assertArrayEquals(frame, roundTrip(codec, frame));
+    }
+
+    @Test(expected = NetException.class)
+    public void undersizedDestinationTest() throws Exception {
+        final FrameCompressionCodec codec = new FrameCompressionCodec();
+        final byte[] frame = new byte[FRAME_SIZE];
+        final byte[] compressed = new byte[FrameCompressionCodec.maxCompressedLength(FRAME_SIZE)];
+        final int compressedLength = codec.compress(frame, 0, FRAME_SIZE, compressed, 0);
+        codec.decompress(compressed, 0, compressedLength, new byte[FRAME_SIZE / 2], 0, FRAME_SIZE / 2);
+    }
+
+    private static byte[] roundTrip(FrameCompressionCodec codec, byte[] frame) throws NetException {
+        final byte[] compressed = new byte[FrameCompressionCodec.maxCompressedLength(frame.length) + 1];
+        final int compressedLength = codec.compress(frame, 0, frame.length, compressed, 1);
+        final byte[] decompressed = new byte[frame.length];
+        final int length = codec.decompress(compressed, 1, compressedLength, decompressed, 0, decompressed.length);
+        return Arrays.copyOf(decompressed, length);
+    }
+}
@@ -20,17 +20,20 @@
 package org.apache.hyracks.storage.am.btree.dataflow;
 
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.std.base.AbstractSingleActivityOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.IJoinKeyRangeConsumer;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
 import org.apache.hyracks.storage.am.common.api.ITupleFilterFactory;
 import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
 
-public class BTreeSearchOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+public class BTreeSearchOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor
+        implements IJoinKeyRangeConsumer {
 
     private static final long serialVersionUID = 1L;
 
@@ -51,6 +54,7 @@ public class BTreeSearchOperatorDescriptor extends AbstractSingleActivityOperato
     protected byte[] searchCallbackProceedResultTrueValue;
     protected final ITupleFilterFactory tupleFilterFactory;
     protected final long outputLimit;
+    protected ActivityId joinKeyRangeSource;
 
     public BTreeSearchOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
             int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive,
@@ -90,15 +94,27 @@ public class BTreeSearchOperatorDescriptor extends AbstractSingleActivityOperato
         this.searchCallbackProceedResultTrueValue = searchCallbackProceedResultTrueValue;
     }
 
+    /**
+     * Bounds a scan of the whole index by the range of the build keys of a hash join, whose probe keys are the keys
+     * of the index. The range is collected by the build activity of the same partition, which must complete before
+     * the scan starts.
+     */
+    @Override
+    public void setJoinKeyRangeSource(ActivityId buildActivityId) {
+        this.joinKeyRangeSource = buildActivityId;
+    }
+
     @Override
     public BTreeSearchOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
             IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) throws HyracksDataException {
-        return new BTreeSearchOperatorNodePushable(ctx, partition,
+        BTreeSearchOperatorNodePushable pushable = new BTreeSearchOperatorNodePushable(ctx, partition,
                 recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), lowKeyFields, highKeyFields,
                 lowKeyInclusive, highKeyInclusive, minFilterFieldIndexes, maxFilterFieldIndexes, indexHelperFactory,
                 retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, appendIndexFilter,
                 tupleFilterFactory, outputLimit, appendOpCallbackProceedResult, searchCallbackProceedResultFalseValue,
                 searchCallbackProceedResultTrueValue);
+        pushable.setJoinKeyRangeSource(joinKeyRangeSource);
+        return pushable;
     }
 
 }
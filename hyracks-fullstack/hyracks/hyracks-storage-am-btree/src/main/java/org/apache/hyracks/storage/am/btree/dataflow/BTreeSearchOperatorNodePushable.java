@@ -19,9 +19,14 @@
 package org.apache.hyracks.storage.am.btree.dataflow;
 
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.std.join.JoinKeyRange;
+import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoinOperatorDescriptor.BuildAndPartitionTaskState;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
@@ -43,6 +48,9 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
     protected MultiComparator lowKeySearchCmp;
     protected MultiComparator highKeySearchCmp;
 
+    private final int partition;
+    private ActivityId joinKeyRangeSource;
+
     public BTreeSearchOperatorNodePushable(IHyracksTaskContext ctx, int partition, RecordDescriptor inputRecDesc,
             int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive,
             int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes, IIndexDataflowHelperFactory indexHelperFactory,
@@ -66,6 +74,7 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
                 retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, appendIndexFilter,
                 tupleFilterFactory, outputLimit, appendOpCallbackProceedResult, searchCallbackProceedResultFalseValue,
                 searchCallbackProceedResultTrueValue);
+        this.partition = partition;
         this.lowKeyInclusive = lowKeyInclusive;
         this.highKeyInclusive = highKeyInclusive;
         if (lowKeyFields != null && lowKeyFields.length > 0) {
@@ -94,15 +103,44 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
         }
     }
 
+    /**
+     * Sets the build activity of the hash join whose build keys bound a scan of the whole index, see
+     * {@link BTreeSearchOperatorDescriptor#setJoinKeyRangeSource(ActivityId)}.
+     */
+    public void setJoinKeyRangeSource(ActivityId joinKeyRangeSource) {
+        this.joinKeyRangeSource = joinKeyRangeSource;
+    }
+
     @Override
     protected ISearchPredicate createSearchPredicate() {
         ITreeIndex treeIndex = (ITreeIndex) index;
-        lowKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), lowKey);
-        highKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), highKey);
-        return new RangePredicate(lowKey, highKey, lowKeyInclusive, highKeyInclusive, lowKeySearchCmp, highKeySearchCmp,
+        if (lowKey == null && highKey == null && joinKeyRangeSource != null) {
+            JoinKeyRange range = getJoinKeyRange();
+            if (range != null && range.isEmpty()) {
+                // no key of the join input can match, so the scan is skipped
+                finished = true;
+            } else if (range != null) {
+                return createSearchPredicate(treeIndex, range.getMin(), range.getMax(), true, true);
+            }
+        }
+        return createSearchPredicate(treeIndex, lowKey, highKey, lowKeyInclusive, highKeyInclusive);
+    }
+
+    private ISearchPredicate createSearchPredicate(ITreeIndex treeIndex, ITupleReference low, ITupleReference high,
+            boolean lowInclusive, boolean highInclusive) {
+        lowKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), low);
+        highKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), high);
+        return new RangePredicate(low, high, lowInclusive, highInclusive, lowKeySearchCmp, highKeySearchCmp,
                 minFilterKey, maxFilterKey);
     }
 
+    private JoinKeyRange getJoinKeyRange() {
+        // the build state is only found if the join partition runs on this node, otherwise the whole index is scanned
+        Object state = ctx.getStateObject(new TaskId(joinKeyRangeSource, partition));
+        return state instanceof BuildAndPartitionTaskState ? ((BuildAndPartitionTaskState) state).getBuildKeyRange()
+                : null;
+    }
+
     @Override
     protected int getFieldCount() {
         return ((ITreeIndex) index).getFieldCount();
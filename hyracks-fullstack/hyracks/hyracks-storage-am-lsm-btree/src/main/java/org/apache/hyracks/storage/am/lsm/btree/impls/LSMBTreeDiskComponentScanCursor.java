@@ -58,6 +58,8 @@ public class LSMBTreeDiskComponentScanCursor extends LSMIndexSearchCursor {
 
     private IntegerPointable cursorIndexPointable;
 
+    private LSMBTreeValueDecoders valueDecoders;
+
     public LSMBTreeDiskComponentScanCursor(ILSMIndexOperationContext opCtx) {
         super(opCtx, true);
         this.outputTuple = new ArrayTupleReference();
@@ -69,6 +71,9 @@ public class LSMBTreeDiskComponentScanCursor extends LSMIndexSearchCursor {
         cmp = lsmInitialState.getOriginalKeyComparator();
         operationalComponents = lsmInitialState.getOperationalComponents();
         lsmHarness = lsmInitialState.getLSMHarness();
+        if (valueDecoders == null && opCtx.getIndex() instanceof LSMBTree) {
+            valueDecoders = ((LSMBTree) opCtx.getIndex()).createValueDecoders();
+        }
         includeMutableComponent = false;
         int numBTrees = operationalComponents.size();
         rangeCursors = new IIndexCursor[numBTrees];
@@ -114,7 +119,10 @@ public class LSMBTreeDiskComponentScanCursor extends LSMIndexSearchCursor {
                 }
             } else {
                 //matter tuple
-                setMatterTuple(diskTuple, outputElement.getCursorIndex());
+                int cursorIndex = outputElement.getCursorIndex();
+                setMatterTuple(valueDecoders == null ? diskTuple
+                        : valueDecoders.decode(operationalComponents.get(cursorIndex), cursorIndex, diskTuple),
+                        cursorIndex);
                 foundNext = true;
                 return true;
             }
@@ -60,6 +60,7 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
     private ITupleReference frameTuple;
     private List<ILSMComponent> operationalComponents;
     private boolean resultOfSearchCallbackProceed = false;
+    private LSMBTreeValueDecoders valueDecoders;
 
     private final long[] hashes = BloomFilter.createHashArray();
 
@@ -96,7 +97,7 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
                         btreeCursors[i].close();
                         return false;
                     } else {
-                        frameTuple = btreeCursors[i].getTuple();
+                        frameTuple = getTuple(i);
                         foundTuple = true;
                         foundIn = i;
                         return true;
@@ -117,7 +118,7 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
                             btreeCursors[i].close();
                             return false;
                         } else {
-                            frameTuple = btreeCursors[i].getTuple();
+                            frameTuple = getTuple(i);
                             foundTuple = true;
                             searchCallback.complete(predicate.getLowKey());
                             foundIn = i;
@@ -128,7 +129,7 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
                         btreeCursors[i].close();
                     }
                 } else {
-                    frameTuple = btreeCursors[i].getTuple();
+                    frameTuple = getTuple(i);
                     searchCallback.reconcile(frameTuple);
                     searchCallback.complete(frameTuple);
                     foundTuple = true;
@@ -142,6 +143,11 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
         return false;
     }
 
+    private ITupleReference getTuple(int i) throws HyracksDataException {
+        ITupleReference tuple = btreeCursors[i].getTuple();
+        return valueDecoders == null ? tuple : valueDecoders.decode(operationalComponents.get(i), i, tuple);
+    }
+
     @Override
     public void doClose() throws HyracksDataException {
         try {
@@ -161,6 +167,9 @@ public class LSMBTreePointSearchCursor extends EnforcedIndexCursor implements IL
         operationalComponents = lsmInitialState.getOperationalComponents();
         lsmHarness = lsmInitialState.getLSMHarness();
         searchCallback = lsmInitialState.getSearchOperationCallback();
+        if (valueDecoders == null && opCtx.getIndex() instanceof LSMBTree) {
+            valueDecoders = ((LSMBTree) opCtx.getIndex()).createValueDecoders();
+        }
         predicate = (RangePredicate) lsmInitialState.getSearchPredicate();
         numBTrees = operationalComponents.size();
         if (btreeCursors != null && btreeCursors.length != numBTrees) {
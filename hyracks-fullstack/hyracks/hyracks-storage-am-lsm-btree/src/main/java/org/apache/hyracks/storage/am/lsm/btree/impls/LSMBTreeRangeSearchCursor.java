@@ -26,6 +26,7 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.util.CleanupUtils;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
@@ -54,6 +55,8 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
     private boolean canCallProceed = true;
     private boolean resultOfSearchCallbackProceed = false;
     private int tupleFromMemoryComponentCount = 0;
+    private LSMBTreeValueDecoders valueDecoders;
+    private ITupleReference outputTuple;
 
     public LSMBTreeRangeSearchCursor(ILSMIndexOperationContext opCtx) {
         this(opCtx, false);
@@ -79,6 +82,14 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         if (outputElement.getCursorIndex() == 0) {
             tupleFromMemoryComponentCount++;
         }
+        outputTuple = valueDecoders == null ? outputElement.getTuple()
+                : valueDecoders.decode(operationalComponents.get(outputElement.getCursorIndex()),
+                        outputElement.getCursorIndex(), outputElement.getTuple());
+    }
+
+    @Override
+    public ITupleReference doGetTuple() {
+        return outputTuple;
     }
 
     /**
@@ -337,6 +348,9 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         operationalComponents = lsmInitialState.getOperationalComponents();
         lsmHarness = lsmInitialState.getLSMHarness();
         searchCallback = lsmInitialState.getSearchOperationCallback();
+        if (valueDecoders == null && opCtx.getIndex() instanceof LSMBTree) {
+            valueDecoders = ((LSMBTree) opCtx.getIndex()).createValueDecoders();
+        }
         RangePredicate predicate = (RangePredicate) lsmInitialState.getSearchPredicate();
         reusablePred.setLowKeyComparator(cmp);
         reusablePred.setHighKey(predicate.getHighKey(), predicate.isHighKeyInclusive());
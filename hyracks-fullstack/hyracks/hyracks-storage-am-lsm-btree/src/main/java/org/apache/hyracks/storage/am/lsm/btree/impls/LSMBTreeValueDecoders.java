@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueCodec;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueDecoder;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
+
+/**
+ * Decodes the tuples that a cursor reads from the components of an LSM B-tree with a value codec. The decoder of a
+ * disk component is created once and is reused as long as the cursor reads the same component at the same position,
+ * which avoids reading the component metadata for every search of a cursor that is reused across searches.
+ */
+public class LSMBTreeValueDecoders {
+    private final IComponentValueCodec codec;
+    private final LSMBTreeValueRewriter rewriter;
+    private ILSMComponent[] components = new ILSMComponent[0];
+    private IComponentValueDecoder[] decoders = new IComponentValueDecoder[0];
+
+    public LSMBTreeValueDecoders(IComponentValueCodec codec, LSMBTreeValueRewriter rewriter) {
+        this.codec = codec;
+        this.rewriter = rewriter;
+    }
+
+    /**
+     * @param component
+     *            the component that the tuple was read from
+     * @param index
+     *            the position of the component among the operational components of the cursor
+     * @param tuple
+     *            the tuple as it is stored in the component
+     * @return the decoded tuple, which is valid until the next call
+     * @throws HyracksDataException
+     */
+    public ITupleReference decode(ILSMComponent component, int index, ITupleReference tuple)
+            throws HyracksDataException {
+        if (component.getType() != LSMComponentType.DISK) {
+            return tuple;
+        }
+        if (index >= components.length) {
+            components = Arrays.copyOf(components, index + 1);
+            decoders = Arrays.copyOf(decoders, index + 1);
+        }
+        if (components[index] != component) {
+            decoders[index] = codec.createDecoder(component.getMetadata());
+            components[index] = component;
+        }
+        return rewriter.decode(tuple, decoders[index]);
+    }
+}
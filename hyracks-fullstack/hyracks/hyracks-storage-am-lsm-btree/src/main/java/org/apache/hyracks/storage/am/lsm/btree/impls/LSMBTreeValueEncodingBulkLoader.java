@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentMetadata;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueEncoder;
+import org.apache.hyracks.storage.am.lsm.common.impls.IChainedComponentBulkLoader;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+
+/**
+ * Encodes the coded field of the tuples that are loaded into a disk component and stores the state of the encoder in
+ * the component metadata when the component is complete.
+ */
+public class LSMBTreeValueEncodingBulkLoader implements IChainedComponentBulkLoader {
+    private final IComponentValueEncoder encoder;
+    private final IComponentMetadata metadata;
+    private final LSMBTreeValueRewriter rewriter;
+
+    public LSMBTreeValueEncodingBulkLoader(IComponentValueEncoder encoder, IComponentMetadata metadata,
+            LSMBTreeValueRewriter rewriter) {
+        this.encoder = encoder;
+        this.metadata = metadata;
+        this.rewriter = rewriter;
+    }
+
+    @Override
+    public ITupleReference add(ITupleReference tuple) throws HyracksDataException {
+        return rewriter.encode(tuple, encoder);
+    }
+
+    @Override
+    public ITupleReference delete(ITupleReference tuple) throws HyracksDataException {
+        // only the keys of deleted tuples are written
+        return tuple;
+    }
+
+    @Override
+    public void end() throws HyracksDataException {
+        encoder.end(metadata);
+    }
+
+    @Override
+    public void abort() throws HyracksDataException {
+        //Noop
+    }
+
+    @Override
+    public void cleanupArtifacts() throws HyracksDataException {
+        //Noop
+    }
+
+    @Override
+    public void writeFailed(ICachedPage page, Throwable failure) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasFailed() {
+        return false;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return null;
+    }
+}
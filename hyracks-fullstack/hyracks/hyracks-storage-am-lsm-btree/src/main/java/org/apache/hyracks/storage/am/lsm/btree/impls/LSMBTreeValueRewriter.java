@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleReference;
+import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleWriter;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueDecoder;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentValueEncoder;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
+
+/**
+ * Rewrites the coded field of the tuples of an LSM B-tree. The rewritten tuple has the layout of the tuples in the
+ * B-tree pages, so that it can be copied as is into a disk component. Antimatter tuples only hold the keys and are
+ * never rewritten.
+ */
+public class LSMBTreeValueRewriter {
+    private final LSMBTreeTupleWriter tupleWriter;
+    private final LSMBTreeTupleReference rewrittenTuple;
+    private final int field;
+    private final VoidPointable value = new VoidPointable();
+    private final ArrayBackedValueStorage rewrittenValue = new ArrayBackedValueStorage();
+    private final FieldReplacingTupleReference replacingTuple = new FieldReplacingTupleReference();
+    private byte[] buffer = new byte[0];
+
+    public LSMBTreeValueRewriter(LSMBTreeTupleWriter tupleWriter, int field) {
+        this.tupleWriter = tupleWriter;
+        this.rewrittenTuple = tupleWriter.createTupleReference();
+        this.field = field;
+    }
+
+    public ITupleReference encode(ITupleReference tuple, IComponentValueEncoder encoder) throws HyracksDataException {
+        if (!hasValue(tuple)) {
+            return tuple;
+        }
+        rewrittenValue.reset();
+        encoder.encode(value, rewrittenValue);
+        return rewrite(tuple);
+    }
+
+    public ITupleReference decode(ITupleReference tuple, IComponentValueDecoder decoder) throws HyracksDataException {
+        if (!hasValue(tuple)) {
+            return tuple;
+        }
+        rewrittenValue.reset();
+        decoder.decode(value, rewrittenValue);
+        return rewrite(tuple);
+    }
+
+    private boolean hasValue(ITupleReference tuple) {
+        if (tuple.getFieldCount() <= field
+                || (tuple instanceof ILSMTreeTupleReference && ((ILSMTreeTupleReference) tuple).isAntimatter())) {
+            return false;
+        }
+        value.set(tuple.getFieldData(field), tuple.getFieldStart(field), tuple.getFieldLength(field));
+        return true;
+    }
+
+    private ITupleReference rewrite(ITupleReference tuple) {
+        replacingTuple.tuple = tuple;
+        int size = tupleWriter.bytesRequired(replacingTuple);
+        if (buffer.length < size) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+        }
+        tupleWriter.writeTuple(replacingTuple, buffer, 0);
+        rewrittenTuple.resetByTupleOffset(buffer, 0);
+        return rewrittenTuple;
+    }
+
+    private class FieldReplacingTupleReference implements ITupleReference {
+        private ITupleReference tuple;
+
+        @Override
+        public int getFieldCount() {
+            return tuple.getFieldCount();
+        }
+
+        @Override
+        public byte[] getFieldData(int fIdx) {
+            return fIdx == field ? rewrittenValue.getByteArray() : tuple.getFieldData(fIdx);
+        }
+
+        @Override
+        public int getFieldStart(int fIdx) {
+            return fIdx == field ? rewrittenValue.getStartOffset() : tuple.getFieldStart(fIdx);
+        }
+
+        @Override
+        public int getFieldLength(int fIdx) {
+            return fIdx == field ? rewrittenValue.getLength() : tuple.getFieldLength(fIdx);
+        }
+    }
+}
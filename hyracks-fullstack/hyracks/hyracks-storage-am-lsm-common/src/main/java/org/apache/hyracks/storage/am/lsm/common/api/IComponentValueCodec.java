@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.api;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Encodes one field of the tuples that are written to the disk components of an index and decodes it when the
+ * tuples are read back, e.g., to replace repeated parts of the values by references to a dictionary. The state that
+ * is needed to decode the values of a component is kept in the metadata of the component, so every component is
+ * encoded independently and memory components always hold the values as is.
+ */
+public interface IComponentValueCodec {
+
+    /**
+     * @return the index of the field whose values are encoded
+     */
+    int getField();
+
+    /**
+     * Creates the encoder of the values of a new disk component
+     *
+     * @return the encoder
+     */
+    IComponentValueEncoder createEncoder();
+
+    /**
+     * Creates a decoder of the values of a disk component
+     *
+     * @param metadata
+     *            the metadata of the component, which holds the state that was stored by its encoder
+     * @return the decoder
+     * @throws HyracksDataException
+     */
+    IComponentValueDecoder createDecoder(IComponentMetadata metadata) throws HyracksDataException;
+}
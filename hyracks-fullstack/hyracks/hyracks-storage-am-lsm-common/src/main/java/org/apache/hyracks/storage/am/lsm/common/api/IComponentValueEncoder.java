@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.api;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+
+public interface IComponentValueEncoder {
+
+    /**
+     * Encodes a value that is written to the disk component
+     *
+     * @param value
+     *            the value as is
+     * @param encoded
+     *            the storage that receives the encoded value
+     * @throws HyracksDataException
+     */
+    void encode(IValueReference value, ArrayBackedValueStorage encoded) throws HyracksDataException;
+
+    /**
+     * Stores the state that is needed to decode the values in the metadata of the component, once all the values of
+     * the component are encoded
+     *
+     * @param metadata
+     * @throws HyracksDataException
+     */
+    void end(IComponentMetadata metadata) throws HyracksDataException;
+}
@@ -236,6 +236,10 @@ public abstract class AbstractLSMDiskComponent extends AbstractLSMComponent impl
         if (withFilter && getLsmIndex().getFilterFields() != null) {
             chainedBulkLoader.addBulkLoader(createFilterBulkLoader());
         }
+        IChainedComponentBulkLoader encodingBulkloader = getLsmIndex().createEncodingBulkLoader(this);
+        if (encodingBulkloader != null) {
+            chainedBulkLoader.addBulkLoader(encodingBulkloader);
+        }
         IChainedComponentBulkLoader indexBulkloader = operation.getIOOpertionType() == LSMIOOperationType.MERGE
                 ? createMergeIndexBulkLoader(fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex)
                 : createIndexBulkLoader(fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex);
@@ -783,6 +783,19 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
         return filterManager;
     }
 
+    /**
+     * Creates the bulk loader that encodes the tuples of a new disk component before they are written to it
+     *
+     * @param component
+     *            the new disk component
+     * @return the bulk loader, or null if the tuples are written as is
+     * @throws HyracksDataException
+     */
+    public IChainedComponentBulkLoader createEncodingBulkLoader(ILSMDiskComponent component)
+            throws HyracksDataException {
+        return null;
+    }
+
     @Override
     public ILSMHarness getHarness() {
         return lsmHarness;
@@ -51,6 +51,8 @@ public class LSMInvertedIndexSearchOperatorDescriptor extends AbstractSingleActi
     private final int numOfFields;
     // the maximum number of frames that this inverted-index-search can use
     private final int frameLimit;
+    // if positive, only the topK best matches of each query are returned, in descending idf score order
+    private final int topK;
 
     public LSMInvertedIndexSearchOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
             int queryField, IIndexDataflowHelperFactory indexHelperFactory,
@@ -59,6 +61,18 @@ public class LSMInvertedIndexSearchOperatorDescriptor extends AbstractSingleActi
             ISearchOperationCallbackFactory searchCallbackFactory, int[] minFilterFieldIndexes,
             int[] maxFilterFieldIndexes, boolean isFullTextSearchQuery, int numOfFields, boolean appendIndexFilter,
             int frameLimit) {
+        this(spec, outRecDesc, queryField, indexHelperFactory, queryTokenizerFactory, searchModifierFactory,
+                retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, minFilterFieldIndexes,
+                maxFilterFieldIndexes, isFullTextSearchQuery, numOfFields, appendIndexFilter, frameLimit, 0);
+    }
+
+    public LSMInvertedIndexSearchOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
+            int queryField, IIndexDataflowHelperFactory indexHelperFactory,
+            IBinaryTokenizerFactory queryTokenizerFactory, IInvertedIndexSearchModifierFactory searchModifierFactory,
+            boolean retainInput, boolean retainMissing, IMissingWriterFactory missingWriterFactory,
+            ISearchOperationCallbackFactory searchCallbackFactory, int[] minFilterFieldIndexes,
+            int[] maxFilterFieldIndexes, boolean isFullTextSearchQuery, int numOfFields, boolean appendIndexFilter,
+            int frameLimit, int topK) {
         super(spec, 1, 1);
         this.indexHelperFactory = indexHelperFactory;
         this.queryTokenizerFactory = queryTokenizerFactory;
@@ -75,6 +89,7 @@ public class LSMInvertedIndexSearchOperatorDescriptor extends AbstractSingleActi
         this.numOfFields = numOfFields;
         this.outRecDescs[0] = outRecDesc;
         this.frameLimit = frameLimit;
+        this.topK = topK;
     }
 
     @Override
@@ -85,6 +100,6 @@ public class LSMInvertedIndexSearchOperatorDescriptor extends AbstractSingleActi
                 recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), partition, minFilterFieldIndexes,
                 maxFilterFieldIndexes, indexHelperFactory, retainInput, retainMissing, missingWriterFactory,
                 searchCallbackFactory, searchModifier, queryTokenizerFactory, queryField, isFullTextSearchQuery,
-                numOfFields, appendIndexFilter, frameLimit);
+                numOfFields, appendIndexFilter, frameLimit, topK);
     }
 }
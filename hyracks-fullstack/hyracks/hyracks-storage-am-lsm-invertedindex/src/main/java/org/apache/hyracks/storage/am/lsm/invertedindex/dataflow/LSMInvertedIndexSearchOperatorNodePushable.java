@@ -34,9 +34,11 @@ import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
 import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
 import org.apache.hyracks.storage.am.common.dataflow.IndexSearchOperatorNodePushable;
 import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndexSearchModifier;
+import org.apache.hyracks.storage.am.lsm.invertedindex.impls.LSMInvertedIndexTopKSearchCursor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.search.InvertedIndexSearchPredicate;
 import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokenizerFactory;
 import org.apache.hyracks.storage.common.IIndexAccessParameters;
+import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 
 public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOperatorNodePushable {
@@ -51,6 +53,8 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
     // Budget-constrained buffer manager for conducting the search operation
     protected final ISimpleFrameBufferManager bufferManagerForSearch;
     protected final IDeallocatableFramePool framePool;
+    // If positive, only the topK best matches (ranked by the idf of their matched tokens) are returned for each query.
+    protected final int topK;
 
     public LSMInvertedIndexSearchOperatorNodePushable(IHyracksTaskContext ctx, RecordDescriptor inputRecDesc,
             int partition, int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes,
@@ -58,7 +62,7 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
             IMissingWriterFactory missingWriterFactory, ISearchOperationCallbackFactory searchCallbackFactory,
             IInvertedIndexSearchModifier searchModifier, IBinaryTokenizerFactory binaryTokenizerFactory,
             int queryFieldIndex, boolean isFullTextSearchQuery, int numOfFields, boolean appendIndexFilter,
-            int frameLimit) throws HyracksDataException {
+            int frameLimit, int topK) throws HyracksDataException {
         super(ctx, inputRecDesc, partition, minFilterFieldIndexes, maxFilterFieldIndexes, indexHelperFactory,
                 retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, appendIndexFilter);
         this.searchModifier = searchModifier;
@@ -70,6 +74,7 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
             this.frameTuple = new FrameTupleReference();
         }
         this.numOfFields = numOfFields;
+        this.topK = topK;
         // Intermediate and final search result will use this buffer manager to get frames.
         this.framePool = new DeallocatableFramePool(ctx, frameLimit * ctx.getInitialFrameSize());
         this.bufferManagerForSearch = new FramePoolBackedFrameBufferManager(framePool);
@@ -83,6 +88,11 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
                 maxFilterKey, isFullTextSearchQuery);
     }
 
+    @Override
+    protected IIndexCursor createCursor() throws HyracksDataException {
+        return topK > 0 ? new LSMInvertedIndexTopKSearchCursor(topK) : super.createCursor();
+    }
+
     @Override
     protected void resetSearchPredicate(int tupleIndex) {
         frameTuple.reset(accessor, tupleIndex);
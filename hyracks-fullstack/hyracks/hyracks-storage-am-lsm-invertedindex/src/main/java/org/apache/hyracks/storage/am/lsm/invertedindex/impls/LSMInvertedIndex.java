@@ -163,6 +163,7 @@ public class LSMInvertedIndex extends AbstractLSMIndex implements IInvertedIndex
             case INSERT:
                 // Insert into the in-memory inverted index.
                 ctx.getCurrentMutableInvIndexAccessors().insert(indexTuple);
+                ((LSMInvertedIndexMemoryComponent) getCurrentMemoryComponent()).documentInserted();
                 break;
             case DELETE:
                 // First remove all entries in the in-memory inverted index (if any).
@@ -171,6 +172,7 @@ public class LSMInvertedIndex extends AbstractLSMIndex implements IInvertedIndex
                 ctx.getKeysOnlyTuple().reset(indexTuple);
                 try {
                     ctx.getCurrentDeletedKeysBTreeAccessors().insert(ctx.getKeysOnlyTuple());
+                    ((LSMInvertedIndexMemoryComponent) getCurrentMemoryComponent()).documentDeleted();
                 } catch (HyracksDataException e) {
                     if (e.getErrorCode() != ErrorCode.DUPLICATE_KEY) {
                         // Key has already been deleted.
@@ -22,12 +22,15 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.common.api.IMetadataPageManager;
 import org.apache.hyracks.storage.am.lsm.common.api.AbstractLSMWithBuddyDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.impls.ChainedLSMDiskComponentBulkLoader;
 import org.apache.hyracks.storage.am.lsm.common.impls.IChainedComponentBulkLoader;
 import org.apache.hyracks.storage.am.lsm.common.impls.IndexWithBuddyBulkLoader;
 import org.apache.hyracks.storage.am.lsm.common.util.ComponentUtils;
@@ -118,6 +121,26 @@ public class LSMInvertedIndexDiskComponent extends AbstractLSMWithBuddyDiskCompo
         }
     }
 
+    /**
+     * @return the (estimated) number of documents of this component, or {@link ComponentUtils#NOT_FOUND} if the
+     *         component was written without collection statistics
+     */
+    public long getNumDocuments(ArrayBackedValueStorage buffer) throws HyracksDataException {
+        return ComponentUtils.getLong(getMetadata(), LSMInvertedIndexStatisticsBulkLoader.NUM_DOCUMENTS_KEY,
+                ComponentUtils.NOT_FOUND, buffer);
+    }
+
+    @Override
+    public ChainedLSMDiskComponentBulkLoader createBulkLoader(ILSMIOOperation operation, float fillFactor,
+            boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex, boolean withFilter,
+            boolean cleanupEmptyComponent) throws HyracksDataException {
+        ChainedLSMDiskComponentBulkLoader chainedBulkLoader = super.createBulkLoader(operation, fillFactor, verifyInput,
+                numElementsHint, checkIfEmptyIndex, withFilter, cleanupEmptyComponent);
+        chainedBulkLoader.addBulkLoader(new LSMInvertedIndexStatisticsBulkLoader(getMetadata(),
+                invIndex.getTokenTypeTraits().length, invIndex.getInvListTypeTraits().length));
+        return chainedBulkLoader;
+    }
+
     @Override
     protected IChainedComponentBulkLoader createMergeIndexBulkLoader(float fillFactor, boolean verifyInput,
             long numElementsHint, boolean checkIfEmptyIndex) throws HyracksDataException {
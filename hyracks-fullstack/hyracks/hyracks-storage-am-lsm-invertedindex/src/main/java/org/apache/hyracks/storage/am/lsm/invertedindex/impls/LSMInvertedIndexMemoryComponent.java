@@ -19,6 +19,9 @@
 
 package org.apache.hyracks.storage.am.lsm.invertedindex.impls;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
@@ -29,6 +32,9 @@ public class LSMInvertedIndexMemoryComponent extends AbstractLSMWithBuddyMemoryC
 
     private final InMemoryInvertedIndex invIndex;
     private final BTree deletedKeysBTree;
+    // Inserted minus deleted documents. Deletes of on-disk documents make this negative, so that the sum over all
+    // components approximates the number of live documents.
+    private final AtomicLong numDocuments = new AtomicLong();
 
     public LSMInvertedIndexMemoryComponent(LSMInvertedIndex lsmIndex, InMemoryInvertedIndex invIndex,
             BTree deletedKeysBTree, IVirtualBufferCache vbc, ILSMComponentFilter filter) {
@@ -46,4 +52,22 @@ public class LSMInvertedIndexMemoryComponent extends AbstractLSMWithBuddyMemoryC
     public BTree getBuddyIndex() {
         return deletedKeysBTree;
     }
+
+    public void documentInserted() {
+        numDocuments.incrementAndGet();
+    }
+
+    public void documentDeleted() {
+        numDocuments.decrementAndGet();
+    }
+
+    public long getNumDocuments() {
+        return numDocuments.get();
+    }
+
+    @Override
+    public void doReset() throws HyracksDataException {
+        super.doReset();
+        numDocuments.set(0L);
+    }
 }
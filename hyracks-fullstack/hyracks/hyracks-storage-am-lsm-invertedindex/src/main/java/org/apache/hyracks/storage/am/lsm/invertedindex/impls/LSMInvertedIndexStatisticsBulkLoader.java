@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.bloomfilter.impls.MurmurHash128Bit;
+import org.apache.hyracks.storage.am.common.freepage.MutableArrayValueReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IComponentMetadata;
+import org.apache.hyracks.storage.am.lsm.common.impls.IChainedComponentBulkLoader;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+
+/**
+ * Collects the collection statistics of a disk component while it is being bulk loaded and stores them in the
+ * component metadata. The per-term document frequencies are the inverted list sizes and need no extra bookkeeping,
+ * but the number of documents cannot be derived from a (token, key) sorted stream without remembering every key.
+ * It is therefore estimated with a HyperLogLog sketch over the primary keys (about 1.6% standard error), minus the
+ * number of deleted keys written into the component, so that summing the counts of all components approximates the
+ * number of live documents in the index.
+ */
+public class LSMInvertedIndexStatisticsBulkLoader implements IChainedComponentBulkLoader {
+    public static final MutableArrayValueReference NUM_DOCUMENTS_KEY =
+            new MutableArrayValueReference("InvertedIndexNumDocuments".getBytes());
+
+    private static final int PRECISION = 12;
+    private static final int NUM_REGISTERS = 1 << PRECISION;
+    private static final long SEED = 0L;
+
+    private final IComponentMetadata metadata;
+    private final int[] keyFields;
+    private final byte[] registers = new byte[NUM_REGISTERS];
+    private final long[] hashes = new long[2];
+    private long numDeletedKeys = 0L;
+
+    public LSMInvertedIndexStatisticsBulkLoader(IComponentMetadata metadata, int numTokenFields, int numKeyFields) {
+        this.metadata = metadata;
+        this.keyFields = new int[numKeyFields];
+        for (int i = 0; i < numKeyFields; i++) {
+            keyFields[i] = numTokenFields + i;
+        }
+    }
+
+    @Override
+    public ITupleReference add(ITupleReference tuple) throws HyracksDataException {
+        MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+        long hash = hashes[0];
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        // The marker bit bounds the rank when all the remaining bits are zero.
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+        return tuple;
+    }
+
+    @Override
+    public ITupleReference delete(ITupleReference tuple) throws HyracksDataException {
+        numDeletedKeys++;
+        return tuple;
+    }
+
+    @Override
+    public void end() throws HyracksDataException {
+        metadata.put(NUM_DOCUMENTS_KEY, LongPointable.FACTORY.createPointable(estimateNumKeys() - numDeletedKeys));
+    }
+
+    @Override
+    public void abort() throws HyracksDataException {
+        //Noop
+    }
+
+    @Override
+    public void cleanupArtifacts() throws HyracksDataException {
+        //Noop
+    }
+
+    private long estimateNumKeys() {
+        double sum = 0.0;
+        int numZeroRegisters = 0;
+        for (int i = 0; i < NUM_REGISTERS; i++) {
+            sum += Math.scalb(1.0, -registers[i]);
+            if (registers[i] == 0) {
+                numZeroRegisters++;
+            }
+        }
+        double alpha = 0.7213 / (1.0 + 1.079 / NUM_REGISTERS);
+        double estimate = alpha * NUM_REGISTERS * NUM_REGISTERS / sum;
+        if (estimate <= 2.5 * NUM_REGISTERS && numZeroRegisters > 0) {
+            // Linear counting is more accurate for small cardinalities.
+            estimate = NUM_REGISTERS * Math.log((double) NUM_REGISTERS / numZeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    @Override
+    public void writeFailed(ICachedPage page, Throwable failure) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasFailed() {
+        return false;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return null;
+    }
+}
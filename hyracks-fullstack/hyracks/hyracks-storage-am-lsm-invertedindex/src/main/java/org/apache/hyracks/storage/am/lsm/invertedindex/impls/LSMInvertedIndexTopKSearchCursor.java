@@ -0,0 +1,477 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.impls;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.ILSMIndexCursor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.util.ComponentUtils;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.InvertedListCursor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.InvertedIndexSearchPredicate;
+import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokenizer;
+import org.apache.hyracks.storage.common.EnforcedIndexCursor;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.ISearchOperationCallback;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Returns the k best matching keys of a keyword query instead of every matching key. A key is scored by the sum of
+ * the inverse document frequencies (as defined by BM25) of the query tokens it matches. Inverted lists only store
+ * keys, so neither the term frequency nor the length of a document is known and the score has no tf or length
+ * normalization component. The document frequency of a token is the sum of its list sizes over all components and
+ * the number of documents is taken from the statistics kept by each component
+ * (see {@link LSMInvertedIndexStatisticsBulkLoader}).
+ * The components are traversed document-at-a-time with MaxScore pruning: the lists of a component are ordered by
+ * weight, and the lists whose combined weight cannot lift a document above the current k-th best score only verify
+ * candidates that were produced by the other lists. The threshold is shared across components, so the search stops
+ * as soon as no unseen document can enter the top k. The occurrence threshold of the search modifier is honored
+ * (e.g. a conjunctive query only ranks documents that contain every token). Results are returned in descending score
+ * order.
+ */
+public class LSMInvertedIndexTopKSearchCursor extends EnforcedIndexCursor implements ILSMIndexCursor {
+    private static final Comparator<ScoredKey> SCORE_COMPARATOR = (a, b) -> Double.compare(a.score, b.score);
+
+    private final int k;
+    private final PriorityQueue<ScoredKey> topK;
+    private ScoredKey[] results = new ScoredKey[0];
+    private int numResults;
+    private int resultIndex;
+
+    private ILSMHarness harness;
+    private ILSMIndexOperationContext opCtx;
+    private List<ILSMComponent> operationalComponents;
+    private List<IIndexAccessor> indexAccessors;
+    private ISearchOperationCallback searchCallback;
+    private boolean includeMemoryComponents;
+    private MultiComparator keyCmp;
+
+    // For searching the deleted-keys BTrees.
+    private IIndexCursor[] deletedKeysBTreeCursors;
+    private BloomFilter[] deletedKeysBTreeBloomFilters;
+    private List<IIndexAccessor> deletedKeysBTreeAccessors;
+    private RangePredicate keySearchPred;
+    private final long[] hashes = BloomFilter.createHashArray();
+
+    private final List<ArrayTupleBuilder> queryTokenBuilders = new ArrayList<>();
+    private final ArrayTupleReference queryToken = new ArrayTupleReference();
+    private int numQueryTokens;
+    private int occurrenceThreshold;
+    // [component][query token]
+    private InvertedListCursor[][] listCursors;
+    private double[] weights;
+
+    // The lists of the component being searched, in ascending order of weight.
+    private InvertedListCursor[] lists;
+    private double[] listWeights;
+    // listUpperBounds[i] is the highest score a document can get from lists 0..i
+    private double[] listUpperBounds;
+    private boolean[] hasHead;
+    private ArrayTupleBuilder candidateBuilder;
+    private final ArrayTupleReference candidate = new ArrayTupleReference();
+
+    public LSMInvertedIndexTopKSearchCursor(int k) {
+        this.k = k;
+        this.topK = new PriorityQueue<>(SCORE_COMPARATOR);
+    }
+
+    @Override
+    protected void doOpen(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        LSMInvertedIndexSearchCursorInitialState lsmInitState = (LSMInvertedIndexSearchCursorInitialState) initialState;
+        harness = lsmInitState.getLSMHarness();
+        opCtx = lsmInitState.getOpContext();
+        operationalComponents = lsmInitState.getOperationalComponents();
+        indexAccessors = lsmInitState.getIndexAccessors();
+        searchCallback = lsmInitState.getSearchOperationCallback();
+        keyCmp = lsmInitState.getKeyComparator();
+        keySearchPred = new RangePredicate(null, null, true, true, keyCmp, keyCmp);
+        if (candidateBuilder == null) {
+            candidateBuilder = new ArrayTupleBuilder(keyCmp.getKeyFieldCount());
+        }
+        deletedKeysBTreeAccessors = lsmInitState.getDeletedKeysBTreeAccessors();
+        deletedKeysBTreeCursors = new IIndexCursor[deletedKeysBTreeAccessors.size()];
+        deletedKeysBTreeBloomFilters = new BloomFilter[deletedKeysBTreeAccessors.size()];
+        includeMemoryComponents = false;
+        for (int i = 0; i < operationalComponents.size(); i++) {
+            ILSMComponent component = operationalComponents.get(i);
+            deletedKeysBTreeCursors[i] = deletedKeysBTreeAccessors.get(i).createSearchCursor(false);
+            if (component.getType() == LSMComponentType.MEMORY) {
+                // No need for a bloom filter for the in-memory BTree.
+                deletedKeysBTreeBloomFilters[i] = null;
+                includeMemoryComponents = true;
+            } else {
+                deletedKeysBTreeBloomFilters[i] = ((LSMInvertedIndexDiskComponent) component).getBloomFilter();
+            }
+        }
+        topK.clear();
+        numResults = 0;
+        resultIndex = 0;
+
+        InvertedIndexSearchPredicate invIndexSearchPred = (InvertedIndexSearchPredicate) searchPred;
+        tokenizeQuery(invIndexSearchPred);
+        if (numQueryTokens == 0) {
+            return;
+        }
+        occurrenceThreshold = invIndexSearchPred.getSearchModifier().getOccurrenceThreshold(numQueryTokens);
+        if (occurrenceThreshold <= 0) {
+            throw HyracksDataException.create(ErrorCode.OCCURRENCE_THRESHOLD_PANIC_EXCEPTION);
+        }
+        openInvertedLists();
+        computeWeights();
+        for (int i = 0; i < operationalComponents.size() && !isTerminated(); i++) {
+            searchComponent(i);
+        }
+        // Drains the heap into descending score order.
+        numResults = topK.size();
+        if (results.length < numResults) {
+            results = new ScoredKey[numResults];
+        }
+        for (int i = numResults - 1; i >= 0; i--) {
+            results[i] = topK.poll();
+        }
+    }
+
+    private void tokenizeQuery(InvertedIndexSearchPredicate searchPred) throws HyracksDataException {
+        ITupleReference queryTuple = searchPred.getQueryTuple();
+        int queryFieldIndex = searchPred.getQueryFieldIndex();
+        IBinaryTokenizer queryTokenizer = searchPred.getQueryTokenizer();
+        queryTokenizer.reset(queryTuple.getFieldData(queryFieldIndex), queryTuple.getFieldStart(queryFieldIndex),
+                queryTuple.getFieldLength(queryFieldIndex));
+        // Phrases are not rejected: a ranked query is a bag of words.
+        numQueryTokens = 0;
+        while (queryTokenizer.hasNext()) {
+            queryTokenizer.next();
+            if (numQueryTokens == queryTokenBuilders.size()) {
+                queryTokenBuilders.add(new ArrayTupleBuilder(1));
+            }
+            ArrayTupleBuilder tokenBuilder = queryTokenBuilders.get(numQueryTokens++);
+            tokenBuilder.reset();
+            try {
+                queryTokenizer.getToken().serializeToken(tokenBuilder.getFieldData());
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            tokenBuilder.addFieldEndOffset();
+        }
+    }
+
+    private void openInvertedLists() throws HyracksDataException {
+        listCursors = new InvertedListCursor[indexAccessors.size()][numQueryTokens];
+        for (int i = 0; i < indexAccessors.size(); i++) {
+            IInvertedIndexAccessor accessor = (IInvertedIndexAccessor) indexAccessors.get(i);
+            for (int j = 0; j < numQueryTokens; j++) {
+                ArrayTupleBuilder tokenBuilder = queryTokenBuilders.get(j);
+                queryToken.reset(tokenBuilder.getFieldEndOffsets(), tokenBuilder.getByteArray());
+                listCursors[i][j] = accessor.createInvertedListCursor();
+                accessor.openInvertedListCursor(listCursors[i][j], queryToken);
+            }
+        }
+    }
+
+    /**
+     * Computes the idf weight of each query token from the collection statistics of all components.
+     */
+    private void computeWeights() throws HyracksDataException {
+        long numDocuments = 0L;
+        ArrayBackedValueStorage buffer = new ArrayBackedValueStorage();
+        for (ILSMComponent component : operationalComponents) {
+            if (component.getType() == LSMComponentType.MEMORY) {
+                numDocuments += ((LSMInvertedIndexMemoryComponent) component).getNumDocuments();
+            } else {
+                long componentDocuments = ((LSMInvertedIndexDiskComponent) component).getNumDocuments(buffer);
+                if (componentDocuments != ComponentUtils.NOT_FOUND) {
+                    numDocuments += componentDocuments;
+                }
+            }
+        }
+        long[] documentFrequencies = new long[numQueryTokens];
+        for (int i = 0; i < listCursors.length; i++) {
+            for (int j = 0; j < numQueryTokens; j++) {
+                documentFrequencies[j] += listCursors[i][j].size();
+            }
+        }
+        // Components written without statistics (or estimation errors) must not make a frequency exceed N.
+        for (int j = 0; j < numQueryTokens; j++) {
+            numDocuments = Math.max(numDocuments, documentFrequencies[j]);
+        }
+        weights = new double[numQueryTokens];
+        for (int j = 0; j < numQueryTokens; j++) {
+            weights[j] = inverseDocumentFrequency(numDocuments, documentFrequencies[j]);
+        }
+    }
+
+    static double inverseDocumentFrequency(long numDocuments, long documentFrequency) {
+        return Math.log(1.0 + (numDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private void searchComponent(int componentIndex) throws HyracksDataException {
+        Integer[] order = new Integer[numQueryTokens];
+        for (int j = 0; j < numQueryTokens; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(weights[a], weights[b]));
+        lists = new InvertedListCursor[numQueryTokens];
+        listWeights = new double[numQueryTokens];
+        listUpperBounds = new double[numQueryTokens];
+        hasHead = new boolean[numQueryTokens];
+        for (int i = 0; i < numQueryTokens; i++) {
+            lists[i] = listCursors[componentIndex][order[i]];
+            listWeights[i] = weights[order[i]];
+            listUpperBounds[i] = (i == 0 ? 0.0 : listUpperBounds[i - 1]) + listWeights[i];
+        }
+        try {
+            // Loads the shortest (highest weight) lists first since the longest list can make do with fewer frames.
+            for (int i = numQueryTokens - 1; i >= 0; i--) {
+                lists[i].prepareLoadPages();
+                lists[i].loadPages();
+                advance(i);
+            }
+            int firstCandidateList;
+            while ((firstCandidateList = getFirstCandidateList()) < numQueryTokens) {
+                // The next candidate is the smallest key on the candidate lists.
+                int minList = -1;
+                for (int i = firstCandidateList; i < numQueryTokens; i++) {
+                    if (hasHead[i] && (minList < 0 || keyCmp.compare(lists[i].getTuple(),
+                            lists[minList].getTuple()) < 0)) {
+                        minList = i;
+                    }
+                }
+                if (minList < 0) {
+                    break;
+                }
+                TupleUtils.copyTuple(candidateBuilder, lists[minList].getTuple(), keyCmp.getKeyFieldCount());
+                candidate.reset(candidateBuilder.getFieldEndOffsets(), candidateBuilder.getByteArray());
+                double score = 0.0;
+                int count = 0;
+                for (int i = firstCandidateList; i < numQueryTokens; i++) {
+                    if (hasHead[i] && keyCmp.compare(candidate, lists[i].getTuple()) == 0) {
+                        score += listWeights[i];
+                        count++;
+                        advance(i);
+                    }
+                }
+                // Verifies the candidate against the remaining lists as long as it can still make it.
+                for (int i = firstCandidateList - 1; i >= 0; i--) {
+                    if (count + i + 1 < occurrenceThreshold || !canEnter(score + listUpperBounds[i])) {
+                        break;
+                    }
+                    while (hasHead[i] && keyCmp.compare(lists[i].getTuple(), candidate) < 0) {
+                        advance(i);
+                    }
+                    if (hasHead[i] && keyCmp.compare(candidate, lists[i].getTuple()) == 0) {
+                        score += listWeights[i];
+                        count++;
+                        advance(i);
+                    }
+                }
+                if (count >= occurrenceThreshold && canEnter(score)) {
+                    offer(candidate, score, componentIndex);
+                }
+            }
+        } finally {
+            for (int i = 0; i < numQueryTokens; i++) {
+                lists[i].unloadPages();
+            }
+        }
+    }
+
+    private void advance(int list) throws HyracksDataException {
+        hasHead[list] = lists[list].hasNext();
+        if (hasHead[list]) {
+            lists[list].next();
+        }
+    }
+
+    /**
+     * @return the index of the first list that may produce candidates: a document that only appears in the lists
+     *         before it either cannot beat the current k-th best score or misses the occurrence threshold.
+     */
+    private int getFirstCandidateList() {
+        int first = occurrenceThreshold - 1;
+        while (first < numQueryTokens && !canEnter(listUpperBounds[first])) {
+            first++;
+        }
+        return first;
+    }
+
+    private boolean canEnter(double score) {
+        return topK.size() < k || score > topK.peek().score;
+    }
+
+    private boolean isTerminated() {
+        double maxScore = 0.0;
+        for (int j = 0; j < numQueryTokens; j++) {
+            maxScore += weights[j];
+        }
+        return !canEnter(maxScore);
+    }
+
+    private void offer(ITupleReference key, double score, int componentIndex) throws HyracksDataException {
+        if (isDeleted(key, componentIndex)) {
+            return;
+        }
+        boolean reconciled = false;
+        if (includeMemoryComponents && componentIndex == 0 && !searchCallback.proceed(key)) {
+            // The result is not materialized later on, so it has to be reconciled now.
+            searchCallback.reconcile(key);
+            reconciled = true;
+        }
+        ScoredKey entry;
+        if (topK.size() < k) {
+            entry = new ScoredKey();
+        } else {
+            entry = topK.poll();
+            if (entry.reconciled) {
+                searchCallback.cancel(entry.key);
+            }
+        }
+        entry.set(key, score, reconciled);
+        topK.add(entry);
+    }
+
+    private boolean isDeleted(ITupleReference key, int componentIndex) throws HyracksDataException {
+        keySearchPred.setLowKey(key, true);
+        keySearchPred.setHighKey(key, true);
+        for (int i = 0; i < componentIndex; i++) {
+            deletedKeysBTreeCursors[i].close();
+            if (deletedKeysBTreeBloomFilters[i] != null && !deletedKeysBTreeBloomFilters[i].contains(key, hashes)) {
+                continue;
+            }
+            try {
+                deletedKeysBTreeAccessors.get(i).search(deletedKeysBTreeCursors[i], keySearchPred);
+                if (deletedKeysBTreeCursors[i].hasNext()) {
+                    return true;
+                }
+            } finally {
+                deletedKeysBTreeCursors[i].close();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean doHasNext() throws HyracksDataException {
+        return resultIndex < numResults;
+    }
+
+    @Override
+    protected void doNext() throws HyracksDataException {
+        resultIndex++;
+    }
+
+    @Override
+    protected ITupleReference doGetTuple() {
+        return results[resultIndex - 1].key;
+    }
+
+    /**
+     * @return the score of the current result
+     */
+    public double getScore() {
+        return results[resultIndex - 1].score;
+    }
+
+    @Override
+    protected void doClose() throws HyracksDataException {
+        try {
+            closeInvertedLists();
+        } finally {
+            if (harness != null) {
+                harness.endSearch(opCtx);
+            }
+        }
+    }
+
+    @Override
+    protected void doDestroy() throws HyracksDataException {
+        closeInvertedLists();
+    }
+
+    private void closeInvertedLists() throws HyracksDataException {
+        if (listCursors == null) {
+            return;
+        }
+        for (int i = 0; i < listCursors.length; i++) {
+            for (int j = 0; j < listCursors[i].length; j++) {
+                if (listCursors[i][j] != null) {
+                    try {
+                        listCursors[i][j].close();
+                    } finally {
+                        listCursors[i][j].destroy();
+                    }
+                }
+            }
+        }
+        listCursors = null;
+    }
+
+    @Override
+    public ITupleReference getFilterMinTuple() {
+        // Results come from several components.
+        return null;
+    }
+
+    @Override
+    public ITupleReference getFilterMaxTuple() {
+        return null;
+    }
+
+    @Override
+    public boolean getSearchOperationCallbackProceedResult() {
+        return false;
+    }
+
+    private static class ScoredKey {
+        private ArrayTupleBuilder keyBuilder;
+        private final ArrayTupleReference key = new ArrayTupleReference();
+        private double score;
+        private boolean reconciled;
+
+        void set(ITupleReference tuple, double score, boolean reconciled) throws HyracksDataException {
+            if (keyBuilder == null) {
+                keyBuilder = new ArrayTupleBuilder(tuple.getFieldCount());
+            }
+            TupleUtils.copyTuple(keyBuilder, tuple, tuple.getFieldCount());
+            key.reset(keyBuilder.getFieldEndOffsets(), keyBuilder.getByteArray());
+            this.score = score;
+            this.reconciled = reconciled;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListBuilder;
+
+/**
+ * Builds inverted lists of fixed-size elements in a compressed, block-based layout.
+ * Each list is a sequence of blocks that never cross a page boundary. A block starts with a header
+ * (element count, encoded length) followed by its first element stored verbatim, which serves as the skip pointer
+ * for the block. Each following element is stored as the length of the prefix it shares with its predecessor
+ * followed by the remaining bytes. Since list elements are sorted, consecutive big-endian keys share most of their
+ * leading bytes, so this is effectively a byte-granular delta encoding that works for any fixed-size key.
+ * A zero element count (or a page remainder that is smaller than a block header) marks the end of a page.
+ */
+public class CompressedInvertedListBuilder implements IInvertedListBuilder {
+    public static final int BLOCK_HEADER_SIZE = 2 * Short.BYTES;
+    public static final int MAX_BLOCK_ELEMENTS = 64;
+    public static final int MAX_BLOCK_LENGTH = 0xFFFF;
+    public static final int MAX_PREFIX_LENGTH = 0xFF;
+
+    private final int elementSize;
+    private final byte[] prevElement;
+    private final byte[] element;
+    private int listSize = 0;
+
+    private byte[] targetBuf;
+    private int pos;
+    // header offset of the block being appended to; -1 if the next element starts a new block
+    private int blockStart = -1;
+    private int blockCount;
+    private int blockLength;
+
+    public CompressedInvertedListBuilder(ITypeTraits[] invListFields) {
+        int tmp = 0;
+        for (int i = 0; i < invListFields.length; i++) {
+            tmp += invListFields[i].getFixedLength();
+        }
+        elementSize = tmp;
+        prevElement = new byte[elementSize];
+        element = new byte[elementSize];
+    }
+
+    @Override
+    public boolean startNewList(ITupleReference tuple, int tokenField) {
+        if (pos + BLOCK_HEADER_SIZE + elementSize > targetBuf.length) {
+            writePageTerminator();
+            return false;
+        }
+        listSize = 0;
+        blockStart = -1;
+        return true;
+    }
+
+    @Override
+    public boolean appendElement(ITupleReference tuple, int numTokenFields, int numElementFields) {
+        int off = 0;
+        for (int i = 0; i < numElementFields; i++) {
+            int field = numTokenFields + i;
+            int length = tuple.getFieldLength(field);
+            System.arraycopy(tuple.getFieldData(field), tuple.getFieldStart(field), element, off, length);
+            off += length;
+        }
+        if (blockStart >= 0 && blockCount < MAX_BLOCK_ELEMENTS) {
+            int prefixLength = getSharedPrefixLength();
+            int entryLength = 1 + elementSize - prefixLength;
+            if (blockLength + entryLength <= MAX_BLOCK_LENGTH && pos + entryLength <= targetBuf.length) {
+                targetBuf[pos] = (byte) prefixLength;
+                System.arraycopy(element, prefixLength, targetBuf, pos + 1, elementSize - prefixLength);
+                pos += entryLength;
+                blockCount++;
+                blockLength += entryLength;
+                writeBlockHeader();
+                appended();
+                return true;
+            }
+        }
+        // Starts a new block with the element stored as is.
+        if (pos + BLOCK_HEADER_SIZE + elementSize > targetBuf.length) {
+            writePageTerminator();
+            return false;
+        }
+        blockStart = pos;
+        blockCount = 1;
+        blockLength = elementSize;
+        writeBlockHeader();
+        System.arraycopy(element, 0, targetBuf, pos + BLOCK_HEADER_SIZE, elementSize);
+        pos += BLOCK_HEADER_SIZE + elementSize;
+        appended();
+        return true;
+    }
+
+    @Override
+    public void setTargetBuffer(byte[] targetBuf, int startPos) {
+        this.targetBuf = targetBuf;
+        this.pos = startPos;
+        this.blockStart = -1;
+    }
+
+    @Override
+    public int getListSize() {
+        return listSize;
+    }
+
+    @Override
+    public int getPos() {
+        return pos;
+    }
+
+    private void appended() {
+        System.arraycopy(element, 0, prevElement, 0, elementSize);
+        listSize++;
+    }
+
+    private int getSharedPrefixLength() {
+        int limit = Math.min(elementSize, MAX_PREFIX_LENGTH);
+        int i = 0;
+        while (i < limit && element[i] == prevElement[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private void writeBlockHeader() {
+        writeShort(targetBuf, blockStart, blockCount);
+        writeShort(targetBuf, blockStart + Short.BYTES, blockLength);
+    }
+
+    /**
+     * Marks the end of the current page, since pages are not guaranteed to be zeroed.
+     */
+    private void writePageTerminator() {
+        if (pos + BLOCK_HEADER_SIZE <= targetBuf.length) {
+            writeShort(targetBuf, pos, 0);
+        }
+        blockStart = -1;
+    }
+
+    private static void writeShort(byte[] buf, int off, int value) {
+        buf[off] = (byte) (value >>> 8);
+        buf[off + 1] = (byte) value;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import static org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.CompressedInvertedListBuilder.BLOCK_HEADER_SIZE;
+import static org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.CompressedInvertedListBuilder.MAX_BLOCK_ELEMENTS;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.InvertedListCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * A cursor that traverses an inverted list written by {@link CompressedInvertedListBuilder}.
+ * Only the page holding the current block is pinned, and a block is only decoded when one of its elements is
+ * needed. Random probes ({@link #containsKey(ITupleReference, MultiComparator)}) must be issued in increasing key
+ * order: they skip whole blocks by comparing against the verbatim first element of the following block and then
+ * gallop inside the decoded block, so the cost of a probe depends on the distance from the previous probe
+ * rather than on the size of the list.
+ */
+public class CompressedInvertedListCursor extends InvertedListCursor {
+
+    private final IBufferCache bufferCache;
+    private final int fileId;
+    private final ITypeTraits[] invListFields;
+    private final int elementSize;
+    private final int pageSize;
+    // the whole range of the given inverted list
+    private int startPageId;
+    private int endPageId;
+    private int startOff;
+    private int numElements;
+
+    private ICachedPage page;
+    private byte[] pageData;
+    private boolean pinned;
+    private int pinnedPageId = -1;
+    private int currentPageId;
+    private boolean loaded;
+
+    // the current block
+    private int blockOff;
+    private int blockCount;
+    private int blockLength;
+    private boolean blockDecoded;
+    private final byte[] decodedBlock;
+    // number of elements in the blocks before the current one
+    private int elementsBeforeBlock;
+    // index of the current element inside the current block, -1 if the block has not been entered yet
+    private int elementIx;
+
+    private final FixedSizeTupleReference tuple;
+    // points to the verbatim first element of a block that has not been decoded
+    private final FixedSizeTupleReference skipTuple;
+
+    public CompressedInvertedListCursor(IBufferCache bufferCache, int fileId, ITypeTraits[] invListFields) {
+        this.bufferCache = bufferCache;
+        this.fileId = fileId;
+        this.invListFields = invListFields;
+        int tmpSize = 0;
+        for (int i = 0; i < invListFields.length; i++) {
+            tmpSize += invListFields[i].getFixedLength();
+        }
+        this.elementSize = tmpSize;
+        this.pageSize = bufferCache.getPageSize();
+        this.decodedBlock = new byte[MAX_BLOCK_ELEMENTS * elementSize];
+        this.tuple = new FixedSizeTupleReference(invListFields);
+        this.skipTuple = new FixedSizeTupleReference(invListFields);
+    }
+
+    @Override
+    protected void setInvListInfo(int startPageId, int endPageId, int startOff, int numElements)
+            throws HyracksDataException {
+        this.startPageId = startPageId;
+        this.endPageId = endPageId;
+        this.startOff = startOff;
+        this.numElements = numElements;
+        this.currentPageId = startPageId - 1;
+        this.loaded = false;
+        this.blockCount = 0;
+        this.elementsBeforeBlock = 0;
+        this.elementIx = -1;
+    }
+
+    @Override
+    public void prepareLoadPages() throws HyracksDataException {
+        // No-op for this cursor since it only keeps the page of the current block.
+    }
+
+    /**
+     * Positions the cursor on the first block of the inverted list.
+     */
+    @Override
+    public void loadPages() throws HyracksDataException {
+        if (loaded || numElements <= 0) {
+            return;
+        }
+        pinPage(startPageId);
+        positionBlock(startOff);
+        loaded = true;
+    }
+
+    @Override
+    public void unloadPages() throws HyracksDataException {
+        if (pinned) {
+            bufferCache.unpin(page);
+            pinned = false;
+            pageData = null;
+        }
+        loaded = false;
+    }
+
+    @Override
+    public boolean doHasNext() {
+        return elementsBeforeBlock + elementIx + 1 < numElements;
+    }
+
+    @Override
+    public void doNext() throws HyracksDataException {
+        if (!loaded) {
+            loadPages();
+        }
+        if (elementIx + 1 >= blockCount) {
+            advanceBlock();
+        }
+        elementIx++;
+        decodeBlock();
+        tuple.reset(decodedBlock, elementIx * elementSize);
+    }
+
+    /**
+     * Checks whether the given tuple exists on this inverted list. Probes must come in increasing key order.
+     */
+    @Override
+    public boolean containsKey(ITupleReference searchTuple, MultiComparator invListCmp) throws HyracksDataException {
+        if (!loaded) {
+            loadPages();
+        }
+        // Skips the blocks that end before the search key.
+        while (hasNextBlock()) {
+            int nextBlockOff = getNextBlockOffset();
+            if (nextBlockOff >= 0) {
+                skipTuple.reset(pageData, nextBlockOff + BLOCK_HEADER_SIZE);
+                if (invListCmp.compare(searchTuple, skipTuple) < 0) {
+                    break;
+                }
+            } else {
+                // The next block is on the next page; uses the last element of the current block instead.
+                decodeBlock();
+                tuple.reset(decodedBlock, (blockCount - 1) * elementSize);
+                if (invListCmp.compare(searchTuple, tuple) <= 0) {
+                    break;
+                }
+            }
+            advanceBlock();
+        }
+        decodeBlock();
+        // Gallops from the last probed position to find a range that contains the key, then binary-searches it.
+        int low = Math.max(elementIx, 0);
+        int high = low;
+        int step = 1;
+        while (high < blockCount && compareAt(searchTuple, high, invListCmp) > 0) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, blockCount - 1);
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareAt(searchTuple, mid, invListCmp);
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                elementIx = mid;
+                return true;
+            }
+        }
+        // All elements before low are smaller than the search key.
+        elementIx = low - 1;
+        return false;
+    }
+
+    private int compareAt(ITupleReference searchTuple, int ix, MultiComparator invListCmp)
+            throws HyracksDataException {
+        tuple.reset(decodedBlock, ix * elementSize);
+        return invListCmp.compare(searchTuple, tuple);
+    }
+
+    private boolean hasNextBlock() {
+        return elementsBeforeBlock + blockCount < numElements;
+    }
+
+    /**
+     * @return the offset of the block that follows the current one on the current page, or -1 if it is on the next
+     *         page.
+     */
+    private int getNextBlockOffset() {
+        int off = blockOff + BLOCK_HEADER_SIZE + blockLength;
+        if (off + BLOCK_HEADER_SIZE > pageSize || readShort(pageData, off) == 0) {
+            return -1;
+        }
+        return off;
+    }
+
+    private void advanceBlock() throws HyracksDataException {
+        int off = getNextBlockOffset();
+        elementsBeforeBlock += blockCount;
+        if (off < 0) {
+            pinPage(currentPageId + 1);
+            off = 0;
+        }
+        positionBlock(off);
+    }
+
+    private void positionBlock(int off) {
+        blockOff = off;
+        blockCount = readShort(pageData, off);
+        blockLength = readShort(pageData, off + Short.BYTES);
+        blockDecoded = false;
+        elementIx = -1;
+    }
+
+    private void decodeBlock() {
+        if (blockDecoded) {
+            return;
+        }
+        int src = blockOff + BLOCK_HEADER_SIZE;
+        System.arraycopy(pageData, src, decodedBlock, 0, elementSize);
+        src += elementSize;
+        for (int i = 1, dst = elementSize; i < blockCount; i++, dst += elementSize) {
+            int prefixLength = pageData[src++] & 0xFF;
+            int suffixLength = elementSize - prefixLength;
+            System.arraycopy(decodedBlock, dst - elementSize, decodedBlock, dst, prefixLength);
+            System.arraycopy(pageData, src, decodedBlock, dst + prefixLength, suffixLength);
+            src += suffixLength;
+        }
+        blockDecoded = true;
+    }
+
+    private void pinPage(int pageId) throws HyracksDataException {
+        currentPageId = pageId;
+        if (pinned && pinnedPageId == pageId) {
+            return;
+        }
+        if (pinned) {
+            bufferCache.unpin(page);
+            pinned = false;
+        }
+        page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+        pageData = page.getBuffer().array();
+        pinnedPageId = pageId;
+        pinned = true;
+    }
+
+    private static int readShort(byte[] buf, int off) {
+        return ((buf[off] & 0xFF) << 8) | (buf[off + 1] & 0xFF);
+    }
+
+    /**
+     * Prints the contents of the current inverted list (a debugging method).
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public String printInvList(ISerializerDeserializer[] serdes) throws HyracksDataException {
+        CompressedInvertedListCursor printCursor = new CompressedInvertedListCursor(bufferCache, fileId, invListFields);
+        printCursor.setInvListInfo(startPageId, endPageId, startOff, numElements);
+        StringBuilder strBuilder = new StringBuilder();
+        try {
+            printCursor.loadPages();
+            while (printCursor.doHasNext()) {
+                printCursor.doNext();
+                strBuilder.append(printCursor.printCurrentElement(serdes));
+                strBuilder.append(" ");
+            }
+        } finally {
+            printCursor.unloadPages();
+        }
+        return strBuilder.toString();
+    }
+
+    /**
+     * Prints the current element (a debugging method).
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public String printCurrentElement(ISerializerDeserializer[] serdes) throws HyracksDataException {
+        StringBuilder strBuilder = new StringBuilder();
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            ByteArrayInputStream inStream =
+                    new ByteArrayInputStream(tuple.getFieldData(i), tuple.getFieldStart(i), tuple.getFieldLength(i));
+            DataInput dataIn = new DataInputStream(inStream);
+            Object o = serdes[i].deserialize(dataIn);
+            strBuilder.append(o.toString());
+            if (i + 1 < tuple.getFieldCount()) {
+                strBuilder.append(",");
+            }
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    public int compareTo(InvertedListCursor invListCursor) {
+        try {
+            return numElements - invListCursor.size();
+        } catch (HyracksDataException hde) {
+            throw new IllegalStateException(hde);
+        }
+    }
+
+    @Override
+    public int size() {
+        return numElements;
+    }
+
+    @Override
+    public ITupleReference doGetTuple() {
+        return tuple;
+    }
+
+    @Override
+    public void doClose() throws HyracksDataException {
+        // Keeps at most one page pinned so that a following list on the same page does not need another pin.
+        loaded = false;
+    }
+
+    @Override
+    public void doDestroy() throws HyracksDataException {
+        unloadPages();
+    }
+}
@@ -319,6 +319,21 @@ public class FixedSizeElementInvertedListCursor extends InvertedListCursor {
         int begin = lastRandomSearchedElementIx;
         int end = bufferEndElementIx;
 
+        // Since the search keys are given in increasing order, the next match is usually close to the last
+        // searched element. Gallops forward to narrow down the range before doing a binary search.
+        int bound = begin;
+        int step = 1;
+        while (bound < end) {
+            getElementAtIndex(bound, tuple);
+            if (invListCmp.compare(searchTuple, tuple) <= 0) {
+                end = bound;
+                break;
+            }
+            begin = bound + 1;
+            bound += step;
+            step <<= 1;
+        }
+
         while (begin <= end) {
             mid = (begin + end) / 2;
             getElementAtIndex(mid, tuple);
@@ -103,6 +103,8 @@ public class OnDiskInvertedIndex implements IInPlaceInvertedIndex {
     protected final int numTokenFields;
     protected final int numInvListKeys;
     protected final FileReference invListsFile;
+    // Whether the inverted lists are written by a CompressedInvertedListBuilder.
+    protected final boolean compressedInvLists;
     // Last page id of inverted-lists file (inclusive). Set during bulk load.
     protected int invListsMaxPageId = -1;
     protected boolean isOpen = false;
@@ -111,7 +113,8 @@ public class OnDiskInvertedIndex implements IInPlaceInvertedIndex {
     public OnDiskInvertedIndex(IBufferCache bufferCache, IInvertedListBuilder invListBuilder,
             ITypeTraits[] invListTypeTraits, IBinaryComparatorFactory[] invListCmpFactories,
             ITypeTraits[] tokenTypeTraits, IBinaryComparatorFactory[] tokenCmpFactories, FileReference btreeFile,
-            FileReference invListsFile, IPageManagerFactory pageManagerFactory) throws HyracksDataException {
+            FileReference invListsFile, IPageManagerFactory pageManagerFactory, boolean compressedInvLists)
+            throws HyracksDataException {
         this.bufferCache = bufferCache;
         this.invListBuilder = invListBuilder;
         this.invListTypeTraits = invListTypeTraits;
@@ -123,6 +126,7 @@ public class OnDiskInvertedIndex implements IInPlaceInvertedIndex {
         this.numTokenFields = btree.getComparatorFactories().length;
         this.numInvListKeys = invListCmpFactories.length;
         this.invListsFile = invListsFile;
+        this.compressedInvLists = compressedInvLists;
         this.invListStartPageIdField = numTokenFields;
         this.invListEndPageIdField = numTokenFields + 1;
         this.invListStartOffField = numTokenFields + 2;
@@ -186,11 +190,17 @@ public class OnDiskInvertedIndex implements IInPlaceInvertedIndex {
 
     @Override
     public InvertedListCursor createInvertedListCursor(IHyracksTaskContext ctx) throws HyracksDataException {
+        if (compressedInvLists) {
+            return new CompressedInvertedListCursor(bufferCache, fileId, invListTypeTraits);
+        }
         return new FixedSizeElementInvertedListCursor(bufferCache, fileId, invListTypeTraits, ctx);
     }
 
     @Override
     public InvertedListCursor createInvertedListRangeSearchCursor() throws HyracksDataException {
+        if (compressedInvLists) {
+            return new CompressedInvertedListCursor(bufferCache, fileId, invListTypeTraits);
+        }
         return new FixedSizeElementInvertedListScanCursor(bufferCache, fileId, invListTypeTraits);
     }
 
@@ -139,8 +139,12 @@ public class InvertedListMerger {
                     // Merge suffix list.
                     int numInvListElements = invListCursor.size();
                     int currentNumResults = prevSearchResult.getNumResults();
-                    // Should we binary search the next list or should we sort-merge it?
-                    if (currentNumResults * Math.log(numInvListElements) < currentNumResults + numInvListElements) {
+                    // Should we probe the next list or should we sort-merge it? Probes are issued in increasing key
+                    // order and the on-disk cursors gallop from the previous match, so a probe costs about
+                    // log(m / n) comparisons instead of log(m).
+                    double probeCost = currentNumResults
+                            * Math.log((double) numInvListElements / Math.max(currentNumResults, 1) + 1);
+                    if (probeCost < currentNumResults + numInvListElements) {
                         doneMerge = mergeSuffixListProbe(invListCursor, prevSearchResult, result, i, numInvLists,
                                 occurrenceThreshold, isFinalList);
                     } else {
@@ -40,6 +40,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTrackerFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCacheProvider;
 import org.apache.hyracks.storage.am.lsm.common.dataflow.LsmResource;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.RTreePackingType;
 import org.apache.hyracks.storage.am.lsm.rtree.utils.LSMRTreeUtils;
 import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
 import org.apache.hyracks.storage.common.IIndex;
@@ -61,6 +62,7 @@ public class LSMRTreeLocalResource extends LsmResource {
     protected final int[] buddyBTreeFields;
     protected final boolean isPointMBR;
     protected final double bloomFilterFalsePositiveRate;
+    protected final RTreePackingType packingType;
 
     public LSMRTreeLocalResource(String path, IStorageManager storageManager, ITypeTraits[] typeTraits,
             IBinaryComparatorFactory[] rtreeCmpFactories, ITypeTraits[] filterTypeTraits,
@@ -72,6 +74,23 @@ public class LSMRTreeLocalResource extends LsmResource {
             IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
             ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
             boolean isPointMBR, double bloomFilterFalsePositiveRate) {
+        this(path, storageManager, typeTraits, rtreeCmpFactories, filterTypeTraits, filterCmpFactories, filterFields,
+                opTrackerProvider, ioOpCallbackFactory, metadataPageManagerFactory, vbcProvider, ioSchedulerProvider,
+                mergePolicyFactory, mergePolicyProperties, durable, btreeCmpFactories, valueProviderFactories,
+                rtreePolicyType, linearizeCmpFactory, rtreeFields, buddyBTreeFields, isPointMBR,
+                bloomFilterFalsePositiveRate, RTreePackingType.CURVE);
+    }
+
+    public LSMRTreeLocalResource(String path, IStorageManager storageManager, ITypeTraits[] typeTraits,
+            IBinaryComparatorFactory[] rtreeCmpFactories, ITypeTraits[] filterTypeTraits,
+            IBinaryComparatorFactory[] filterCmpFactories, int[] filterFields,
+            ILSMOperationTrackerFactory opTrackerProvider, ILSMIOOperationCallbackFactory ioOpCallbackFactory,
+            IMetadataPageManagerFactory metadataPageManagerFactory, IVirtualBufferCacheProvider vbcProvider,
+            ILSMIOOperationSchedulerProvider ioSchedulerProvider, ILSMMergePolicyFactory mergePolicyFactory,
+            Map<String, String> mergePolicyProperties, boolean durable, IBinaryComparatorFactory[] btreeCmpFactories,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
+            ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
+            boolean isPointMBR, double bloomFilterFalsePositiveRate, RTreePackingType packingType) {
         super(path, storageManager, typeTraits, rtreeCmpFactories, filterTypeTraits, filterCmpFactories, filterFields,
                 opTrackerProvider, ioOpCallbackFactory, metadataPageManagerFactory, vbcProvider, ioSchedulerProvider,
                 mergePolicyFactory, mergePolicyProperties, durable);
@@ -83,6 +102,7 @@ public class LSMRTreeLocalResource extends LsmResource {
         this.buddyBTreeFields = buddyBTreeFields;
         this.isPointMBR = isPointMBR;
         this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
+        this.packingType = packingType;
     }
 
     protected LSMRTreeLocalResource(IPersistedResourceRegistry registry, JsonNode json,
@@ -90,6 +110,15 @@ public class LSMRTreeLocalResource extends LsmResource {
             RTreePolicyType rtreePolicyType, ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields,
             int[] buddyBTreeFields, boolean isPointMBR, double bloomFilterFalsePositiveRate)
             throws HyracksDataException {
+        this(registry, json, btreeCmpFactories, valueProviderFactories, rtreePolicyType, linearizeCmpFactory,
+                rtreeFields, buddyBTreeFields, isPointMBR, bloomFilterFalsePositiveRate, RTreePackingType.CURVE);
+    }
+
+    protected LSMRTreeLocalResource(IPersistedResourceRegistry registry, JsonNode json,
+            IBinaryComparatorFactory[] btreeCmpFactories, IPrimitiveValueProviderFactory[] valueProviderFactories,
+            RTreePolicyType rtreePolicyType, ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields,
+            int[] buddyBTreeFields, boolean isPointMBR, double bloomFilterFalsePositiveRate,
+            RTreePackingType packingType) throws HyracksDataException {
         super(registry, json);
         this.btreeCmpFactories = btreeCmpFactories;
         this.valueProviderFactories = valueProviderFactories;
@@ -99,6 +128,7 @@ public class LSMRTreeLocalResource extends LsmResource {
         this.buddyBTreeFields = buddyBTreeFields;
         this.isPointMBR = isPointMBR;
         this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
+        this.packingType = packingType;
     }
 
     @Override
@@ -114,7 +144,7 @@ public class LSMRTreeLocalResource extends LsmResource {
                 opTrackerProvider.getOperationTracker(ncServiceCtx, this),
                 ioSchedulerProvider.getIoScheduler(ncServiceCtx), ioOpCallbackFactory, linearizeCmpFactory, rtreeFields,
                 buddyBTreeFields, filterTypeTraits, filterCmpFactories, filterFields, durable, isPointMBR,
-                metadataPageManagerFactory);
+                metadataPageManagerFactory, packingType);
     }
 
     @Override
@@ -144,6 +174,7 @@ public class LSMRTreeLocalResource extends LsmResource {
         json.putPOJO("buddyBTreeFields", buddyBTreeFields);
         json.put("isPointMBR", isPointMBR);
         json.put("bloomFilterFalsePositiveRate", bloomFilterFalsePositiveRate);
+        json.put("packingType", packingType.name());
     }
 
     public static IJsonSerializable fromJson(IPersistedResourceRegistry registry, JsonNode json)
@@ -152,6 +183,9 @@ public class LSMRTreeLocalResource extends LsmResource {
         final int[] rtreeFields = OBJECT_MAPPER.convertValue(json.get("rtreeFields"), int[].class);
         final double bloomFilterFalsePositiveRate = json.get("bloomFilterFalsePositiveRate").asDouble();
         final boolean isPointMBR = json.get("isPointMBR").asBoolean();
+        // resources persisted before the packing type was configurable were all curve-packed
+        final RTreePackingType packingType = json.has("packingType")
+                ? RTreePackingType.valueOf(json.get("packingType").asText()) : RTreePackingType.CURVE;
         final RTreePolicyType rtreePolicyType = (RTreePolicyType) registry.deserialize(json.get("rtreePolicyType"));
         final ILinearizeComparatorFactory linearizeCmpFactory =
                 (ILinearizeComparatorFactory) registry.deserialize(json.get("linearizeCmpFactory"));
@@ -170,6 +204,7 @@ public class LSMRTreeLocalResource extends LsmResource {
         final IPrimitiveValueProviderFactory[] valueProviderFactories =
                 valueProviderFactoriesList.toArray(new IPrimitiveValueProviderFactory[0]);
         return new LSMRTreeLocalResource(registry, json, btreeCmpFactories, valueProviderFactories, rtreePolicyType,
-                linearizeCmpFactory, rtreeFields, buddyBTreeFields, isPointMBR, bloomFilterFalsePositiveRate);
+                linearizeCmpFactory, rtreeFields, buddyBTreeFields, isPointMBR, bloomFilterFalsePositiveRate,
+                packingType);
     }
 }
@@ -39,6 +39,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.IComponentFilterHelper;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterFrameFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponentFactory;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallbackFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexFileManager;
@@ -52,14 +53,19 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFileReferences
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFilterManager;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeFrameFactory;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
 import org.apache.hyracks.storage.common.IIndexAccessParameters;
 import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.util.trace.ITracer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public abstract class AbstractLSMRTree extends AbstractLSMIndex implements ITreeIndex {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
     protected final ILinearizeComparatorFactory linearizer;
     protected final int[] comparatorFields;
     protected final IBinaryComparatorFactory[] linearizerArray;
@@ -253,4 +259,24 @@ public abstract class AbstractLSMRTree extends AbstractLSMIndex implements ITree
         FileReference lastFile = lastTree.getFileReference();
         return fileManager.getRelMergeFileReference(firstFile.getFile().getName(), lastFile.getFile().getName());
     }
+
+    /**
+     * Logs the leaf coverage and overlap of a component written by a flush or a merge. Gathering them reads the
+     * interior levels of the new R-tree, so it is only done at debug level.
+     */
+    protected void logPackingStats(ILSMIOOperation operation, ILSMDiskComponent component)
+            throws HyracksDataException {
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
+        RTreePackingStats stats;
+        if (component instanceof LSMRTreeDiskComponent) {
+            stats = ((LSMRTreeDiskComponent) component).getPackingStats();
+        } else if (component instanceof LSMRTreeWithAntimatterDiskComponent) {
+            stats = ((LSMRTreeWithAntimatterDiskComponent) component).getPackingStats();
+        } else {
+            return;
+        }
+        LOGGER.debug("{} of {} wrote an R-tree with {}", operation.getIOOpertionType(), this, stats);
+    }
 }
@@ -28,10 +28,20 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
 
 public class LSMRTreeAccessor extends LSMTreeIndexAccessor {
     private final DualTupleReference dualTuple;
+    private final int[] buddyBTreeFields;
 
     public LSMRTreeAccessor(ILSMHarness lsmHarness, ILSMIndexOperationContext ctx, int[] buddyBTreeFields) {
         super(lsmHarness, ctx, aCtx -> new LSMRTreeSearchCursor(aCtx, buddyBTreeFields));
         dualTuple = new DualTupleReference(buddyBTreeFields);
+        this.buddyBTreeFields = buddyBTreeFields;
+    }
+
+    /**
+     * @return a cursor to be passed to {@link #search} together with a
+     *         {@link org.apache.hyracks.storage.am.rtree.impls.NearestNeighborSearchPredicate}
+     */
+    public LSMRTreeNearestNeighborSearchCursor createNearestNeighborSearchCursor() {
+        return new LSMRTreeNearestNeighborSearchCursor(getCtx(), buddyBTreeFields);
     }
 
     @Override
@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.am.lsm.rtree.impls;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.common.api.IMetadataPageManager;
@@ -28,6 +29,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.AbstractLSMWithBuddyDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class LSMRTreeDiskComponent extends AbstractLSMWithBuddyDiskComponent {
@@ -89,6 +91,13 @@ public class LSMRTreeDiskComponent extends AbstractLSMWithBuddyDiskComponent {
         return rtree;
     }
 
+    /**
+     * @return the coverage and overlap of the leaves of this component's R-tree
+     */
+    public RTreePackingStats getPackingStats() throws HyracksDataException {
+        return rtree.gatherPackingStats();
+    }
+
     static IMetadataPageManager getMetadataPageManager(RTree rtree) {
         return (IMetadataPageManager) rtree.getPageManager();
     }
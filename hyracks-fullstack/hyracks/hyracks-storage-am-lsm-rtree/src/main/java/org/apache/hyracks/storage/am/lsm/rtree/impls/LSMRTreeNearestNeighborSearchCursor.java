@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.rtree.impls;
+
+import java.util.PriorityQueue;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.rtree.impls.NearestNeighborSearchPredicate;
+import org.apache.hyracks.storage.am.rtree.impls.RTreeNearestNeighborSearchCursor;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+
+/**
+ * Returns the k entries of an LSM R-tree nearest to a query point in increasing distance order. Every component is
+ * searched with an unbounded {@link RTreeNearestNeighborSearchCursor} and the component streams are merged on their
+ * distance; an entry is skipped when the buddy B-tree of a newer component holds its key, so k counts live entries
+ * only. At equal distances the newer component comes first.
+ */
+public class LSMRTreeNearestNeighborSearchCursor extends LSMRTreeAbstractCursor {
+
+    private final PermutingTupleReference btreeTuple;
+    private final NearestNeighborSearchPredicate componentPredicate =
+            new NearestNeighborSearchPredicate(null, Integer.MAX_VALUE);
+    private final PriorityQueue<Integer> queue = new PriorityQueue<>(this::compareComponents);
+    private RTreeNearestNeighborSearchCursor[] nnCursors;
+    private int k;
+    private int numReturned;
+    private int currentCursor = -1;
+    private double distance;
+    private boolean resultOfSearchCallbackProceed = false;
+
+    public LSMRTreeNearestNeighborSearchCursor(ILSMIndexOperationContext opCtx, int[] buddyBTreeFields) {
+        super(opCtx);
+        this.btreeTuple = new PermutingTupleReference(buddyBTreeFields);
+    }
+
+    @Override
+    public void doOpen(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        NearestNeighborSearchPredicate pred = (NearestNeighborSearchPredicate) searchPred;
+        // the components are not searched with a range predicate
+        super.doOpen(initialState, null);
+        k = pred.getK();
+        numReturned = 0;
+        currentCursor = -1;
+        componentPredicate.setQueryPoint(pred.getQueryPoint());
+        nnCursors = new RTreeNearestNeighborSearchCursor[numberOfTrees];
+        queue.clear();
+        for (int i = 0; i < numberOfTrees; i++) {
+            nnCursors[i] = rtreeAccessors[i].createNearestNeighborSearchCursor();
+            rtreeAccessors[i].search(nnCursors[i], componentPredicate);
+            advance(i);
+        }
+    }
+
+    @Override
+    public boolean doHasNext() throws HyracksDataException {
+        if (foundNext) {
+            return true;
+        }
+        if (currentCursor >= 0) {
+            advance(currentCursor);
+            currentCursor = -1;
+        }
+        while (numReturned < k && !queue.isEmpty()) {
+            int cursorIndex = queue.poll();
+            ITupleReference currentTuple = nnCursors[cursorIndex].getTuple();
+            resultOfSearchCallbackProceed =
+                    cursorIndex == 0 && includeMutableComponent ? searchCallback.proceed(currentTuple) : true;
+            if (!isKilled(currentTuple, cursorIndex)) {
+                frameTuple = currentTuple;
+                distance = nnCursors[cursorIndex].getDistance();
+                currentCursor = cursorIndex;
+                foundNext = true;
+                return true;
+            }
+            advance(cursorIndex);
+        }
+        return false;
+    }
+
+    @Override
+    public void doNext() throws HyracksDataException {
+        foundNext = false;
+        numReturned++;
+    }
+
+    /**
+     * @return the Euclidean distance between the query point and the MBR of the current entry
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public void doClose() throws HyracksDataException {
+        if (!open) {
+            return;
+        }
+        foundNext = false;
+        currentCursor = -1;
+        queue.clear();
+        try {
+            closeComponentCursors();
+        } finally {
+            lsmHarness.endSearch(opCtx);
+        }
+    }
+
+    @Override
+    public void doDestroy() throws HyracksDataException {
+        queue.clear();
+        try {
+            closeComponentCursors();
+        } finally {
+            super.doDestroy();
+        }
+    }
+
+    private void closeComponentCursors() throws HyracksDataException {
+        if (nnCursors != null) {
+            for (int i = 0; i < nnCursors.length; i++) {
+                if (nnCursors[i] != null) {
+                    nnCursors[i].close();
+                    nnCursors[i].destroy();
+                }
+            }
+            nnCursors = null;
+        }
+    }
+
+    private void advance(int cursorIndex) throws HyracksDataException {
+        if (nnCursors[cursorIndex].hasNext()) {
+            nnCursors[cursorIndex].next();
+            queue.add(cursorIndex);
+        }
+    }
+
+    private boolean isKilled(ITupleReference tuple, int cursorIndex) throws HyracksDataException {
+        btreeTuple.reset(tuple);
+        for (int i = 0; i < cursorIndex; i++) {
+            if (bloomFilters[i] != null && !bloomFilters[i].contains(btreeTuple, hashes)) {
+                continue;
+            }
+            btreeCursors[i].close();
+            btreeRangePredicate.setHighKey(btreeTuple, true);
+            btreeRangePredicate.setLowKey(btreeTuple, true);
+            btreeAccessors[i].search(btreeCursors[i], btreeRangePredicate);
+            try {
+                if (btreeCursors[i].hasNext()) {
+                    return true;
+                }
+            } finally {
+                btreeCursors[i].close();
+            }
+        }
+        return false;
+    }
+
+    private int compareComponents(int c1, int c2) {
+        int c = Double.compare(nnCursors[c1].getDistance(), nnCursors[c2].getDistance());
+        return c != 0 ? c : Integer.compare(c1, c2);
+    }
+
+    @Override
+    public ITupleReference getFilterMinTuple() {
+        ILSMComponentFilter filter = getFilter();
+        return filter == null ? null : filter.getMinTuple();
+    }
+
+    @Override
+    public ITupleReference getFilterMaxTuple() {
+        ILSMComponentFilter filter = getFilter();
+        return filter == null ? null : filter.getMaxTuple();
+    }
+
+    private ILSMComponentFilter getFilter() {
+        return foundNext ? operationalComponents.get(currentCursor).getLSMComponentFilter() : null;
+    }
+
+    @Override
+    public boolean getSearchOperationCallbackProceedResult() {
+        return resultOfSearchCallbackProceed;
+    }
+}
@@ -103,7 +103,7 @@ public class LSMRTreeSearchCursor extends LSMRTreeAbstractCursor {
                 btreeTuple.reset(rtreeCursors[currentCursor].getTuple());
                 boolean killerTupleFound = false;
                 for (int i = 0; i < currentCursor && !killerTupleFound; i++) {
-                    if (bloomFilters[i] != null && bloomFilters[i].contains(btreeTuple, hashes)) {
+                    if (bloomFilters[i] != null && !bloomFilters[i].contains(btreeTuple, hashes)) {
                         continue;
                     }
                     btreeCursors[i].close();
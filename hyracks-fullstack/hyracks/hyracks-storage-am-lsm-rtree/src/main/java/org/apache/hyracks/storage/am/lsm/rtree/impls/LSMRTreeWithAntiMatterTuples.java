@@ -199,6 +199,7 @@ public class LSMRTreeWithAntiMatterTuples extends AbstractLSMRTree {
                 }
             }
         }
+        logPackingStats(operation, component);
         return component;
     }
 
@@ -257,6 +258,7 @@ public class LSMRTreeWithAntiMatterTuples extends AbstractLSMRTree {
         }
 
         componentBulkLoader.end();
+        logPackingStats(operation, component);
 
         return component;
     }
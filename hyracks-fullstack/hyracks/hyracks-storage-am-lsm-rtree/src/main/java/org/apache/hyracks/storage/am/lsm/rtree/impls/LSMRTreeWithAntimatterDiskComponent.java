@@ -25,6 +25,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
 
 public class LSMRTreeWithAntimatterDiskComponent extends AbstractLSMDiskComponent {
     private final RTree rtree;
@@ -39,6 +40,13 @@ public class LSMRTreeWithAntimatterDiskComponent extends AbstractLSMDiskComponen
         return rtree;
     }
 
+    /**
+     * @return the coverage and overlap of the leaves of this component's R-tree
+     */
+    public RTreePackingStats getPackingStats() throws HyracksDataException {
+        return rtree.gatherPackingStats();
+    }
+
     @Override
     public RTree getMetadataHolder() {
         return rtree;
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.rtree.impls;
+
+/**
+ * The order in which the entries of a flushed memory component are bulk loaded into the disk R-tree.
+ */
+public enum RTreePackingType {
+    /**
+     * Sorts the entries by the space-filling curve of the index's linearizer (a Hilbert curve for two-dimensional
+     * doubles, a Z-order curve otherwise).
+     */
+    CURVE,
+    /**
+     * Sort-tile-recursive packing: the entries are sorted by the center of their first dimension and cut into slices
+     * of whole leaves, each slice is sorted and cut by the next dimension, and so on. This gives leaves with less
+     * overlap than a curve order at the cost of a few extra passes over the entries.
+     */
+    STR
+}
@@ -22,6 +22,7 @@ package org.apache.hyracks.storage.am.lsm.rtree.impls;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
@@ -113,6 +114,112 @@ public class TreeTupleSorter extends EnforcedIndexCursor implements ITreeIndexCu
         sort(tPointers, 0, numTuples);
     }
 
+    /**
+     * Orders the entries by sort-tile-recursive packing (see {@link RTreePackingType#STR}) instead of the comparator.
+     * The slices are cut at multiples of the number of entries that fit in a leaf of the target frame, so that the
+     * leaves built by a sequential bulk load line up with the tiles.
+     *
+     * @param keyValueProviders
+     *            the value providers of the MBR fields, lows first and highs second
+     * @param targetLeafFrame
+     *            a leaf frame of the tree that will be bulk loaded with the entries
+     */
+    public void sortTiles(IPrimitiveValueProvider[] keyValueProviders, ITreeIndexFrame targetLeafFrame)
+            throws HyracksDataException {
+        int numDimensions = keyValueProviders.length / 2;
+        double[] centers = new double[numTuples * numDimensions];
+        long totalBytes = 0;
+        for (int i = 0; i < numTuples; i++) {
+            ICachedPage node = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, tPointers[i * 2]), false);
+            try {
+                leafFrame1.setPage(node);
+                frameTuple1.resetByTupleOffset(leafFrame1.getBuffer().array(), tPointers[i * 2 + 1]);
+                for (int d = 0; d < numDimensions; d++) {
+                    int h = numDimensions + d;
+                    double low =
+                            keyValueProviders[d].getValue(frameTuple1.getFieldData(d), frameTuple1.getFieldStart(d));
+                    double high =
+                            keyValueProviders[h].getValue(frameTuple1.getFieldData(h), frameTuple1.getFieldStart(h));
+                    centers[i * numDimensions + d] = (low + high) / 2.0;
+                }
+                totalBytes += targetLeafFrame.getBytesRequiredToWriteTuple(frameTuple1);
+            } finally {
+                bufferCache.unpin(node);
+            }
+        }
+        if (numTuples == 0) {
+            return;
+        }
+        long leafBytes = (long) bufferCache.getPageSize() - targetLeafFrame.getPageHeaderSize();
+        int leafCapacity = (int) Math.max(1L, leafBytes * numTuples / totalBytes);
+        int[] order = new int[numTuples];
+        for (int i = 0; i < numTuples; i++) {
+            order[i] = i;
+        }
+        sortTiles(order, centers, numDimensions, 0, 0, numTuples, leafCapacity);
+        int[] sortedPointers = new int[numTuples * 2];
+        for (int i = 0; i < numTuples; i++) {
+            sortedPointers[i * 2] = tPointers[order[i] * 2];
+            sortedPointers[i * 2 + 1] = tPointers[order[i] * 2 + 1];
+        }
+        tPointers = sortedPointers;
+    }
+
+    private static void sortTiles(int[] order, double[] centers, int numDimensions, int dimension, int offset,
+            int length, int leafCapacity) {
+        sortByCenter(order, centers, numDimensions, dimension, offset, offset + length - 1);
+        if (dimension == numDimensions - 1) {
+            return;
+        }
+        int numLeaves = (length + leafCapacity - 1) / leafCapacity;
+        int numSlices = (int) Math.ceil(Math.pow(numLeaves, 1.0 / (numDimensions - dimension)));
+        int sliceLength = leafCapacity * ((numLeaves + numSlices - 1) / numSlices);
+        for (int start = offset; start < offset + length; start += sliceLength) {
+            sortTiles(order, centers, numDimensions, dimension + 1, start,
+                    Math.min(sliceLength, offset + length - start), leafCapacity);
+        }
+    }
+
+    private static void sortByCenter(int[] order, double[] centers, int numDimensions, int dimension, int low,
+            int high) {
+        while (high - low > 16) {
+            double pivot = centers[order[(low + high) >>> 1] * numDimensions + dimension];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (centers[order[i] * numDimensions + dimension] < pivot) {
+                    i++;
+                }
+                while (centers[order[j] * numDimensions + dimension] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int t = order[i];
+                    order[i++] = order[j];
+                    order[j--] = t;
+                }
+            }
+            // Recurses into the smaller part to bound the stack depth.
+            if (j - low < high - i) {
+                sortByCenter(order, centers, numDimensions, dimension, low, j);
+                low = i;
+            } else {
+                sortByCenter(order, centers, numDimensions, dimension, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            int t = order[i];
+            double key = centers[t * numDimensions + dimension];
+            int j = i - 1;
+            while (j >= low && centers[order[j] * numDimensions + dimension] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = t;
+        }
+    }
+
     private void sort(int[] tPointers, int offset, int length) throws HyracksDataException {
         int m = offset + (length >> 1);
         int mi = tPointers[m * 2];
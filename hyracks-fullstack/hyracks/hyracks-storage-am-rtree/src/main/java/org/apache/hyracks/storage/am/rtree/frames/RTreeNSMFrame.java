@@ -113,6 +113,10 @@ public abstract class RTreeNSMFrame extends TreeIndexNSMFrame implements IRTreeF
         return mbrTuples;
     }
 
+    public IPrimitiveValueProvider[] getKeyValueProviders() {
+        return keyValueProviders;
+    }
+
     @Override
     public void split(ITreeIndexFrame rightFrame, ITupleReference tuple, ISplitKey splitKey,
             IExtraPageBlockHelper extraPageBlockHelper, IBufferCache bufferCache) throws HyracksDataException {
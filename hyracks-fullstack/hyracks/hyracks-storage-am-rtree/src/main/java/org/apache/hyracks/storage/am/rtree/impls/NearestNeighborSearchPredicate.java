@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.rtree.impls;
+
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.impls.AbstractSearchPredicate;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Asks for the k entries whose MBR is nearest (by Euclidean distance) to a query point.
+ */
+public class NearestNeighborSearchPredicate extends AbstractSearchPredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    protected double[] queryPoint;
+    protected int k;
+
+    public NearestNeighborSearchPredicate(double[] queryPoint, int k) {
+        this.queryPoint = queryPoint;
+        this.k = k;
+    }
+
+    public double[] getQueryPoint() {
+        return queryPoint;
+    }
+
+    public void setQueryPoint(double[] queryPoint) {
+        this.queryPoint = queryPoint;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public void setK(int k) {
+        this.k = k;
+    }
+
+    @Override
+    public ITupleReference getLowKey() {
+        return null;
+    }
+
+    @Override
+    public MultiComparator getLowKeyComparator() {
+        return null;
+    }
+
+    @Override
+    public MultiComparator getHighKeyComparator() {
+        return null;
+    }
+}
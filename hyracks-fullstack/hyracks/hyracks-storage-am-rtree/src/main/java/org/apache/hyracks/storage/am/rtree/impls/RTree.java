@@ -20,7 +20,9 @@
 package org.apache.hyracks.storage.am.rtree.impls;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -32,6 +34,7 @@ import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.api.IIndexOperationContext;
 import org.apache.hyracks.storage.am.common.api.IPageManager;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
@@ -50,6 +53,7 @@ import org.apache.hyracks.storage.am.rtree.api.IRTreeLeafFrame;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMFrame;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMInteriorFrame;
 import org.apache.hyracks.storage.am.rtree.tuples.RTreeTypeAwareTupleWriter;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
 import org.apache.hyracks.storage.common.IIndexAccessParameters;
 import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.IIndexCursor;
@@ -796,6 +800,12 @@ public class RTree extends AbstractTreeIndex {
                     (IRTreeLeafFrame) leafFrameFactory.createFrame());
         }
 
+        public RTreeNearestNeighborSearchCursor createNearestNeighborSearchCursor() {
+            IRTreeLeafFrame leafFrame = (IRTreeLeafFrame) leafFrameFactory.createFrame();
+            return new RTreeNearestNeighborSearchCursor((IRTreeInteriorFrame) interiorFrameFactory.createFrame(),
+                    leafFrame, ((RTreeNSMFrame) leafFrame).getKeyValueProviders());
+        }
+
         @Override
         public void search(IIndexCursor cursor, ISearchPredicate searchPred) throws HyracksDataException {
             ctx.setOperation(IndexOperation.SEARCH);
@@ -1100,6 +1110,95 @@ public class RTree extends AbstractTreeIndex {
         }
     }
 
+    /**
+     * Computes the coverage and overlap of the leaves from the MBRs stored in the interior nodes, so only the
+     * interior levels of the tree are read.
+     */
+    public RTreePackingStats gatherPackingStats() throws HyracksDataException {
+        RTreePackingStats stats = new RTreePackingStats();
+        IRTreeInteriorFrame frame = (IRTreeInteriorFrame) interiorFrameFactory.createFrame();
+        ITreeIndexTupleReference frameTuple = frame.createTupleReference();
+        IPrimitiveValueProvider[] keyValueProviders = ((RTreeNSMFrame) frame).getKeyValueProviders();
+        int numDimensions = keyValueProviders.length / 2;
+        double[] mbrs = new double[0];
+        Deque<Integer> pageIds = new ArrayDeque<>();
+        pageIds.push(rootPage);
+        while (!pageIds.isEmpty()) {
+            int pageId = pageIds.pop();
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(getFileId(), pageId), false);
+            page.acquireReadLatch();
+            try {
+                frame.setPage(page);
+                if (frame.isLeaf()) {
+                    // a single-page tree
+                    stats.addLeaves(1, 0.0, 0.0);
+                    continue;
+                }
+                int tupleCount = frame.getTupleCount();
+                if (mbrs.length < tupleCount * keyValueProviders.length) {
+                    mbrs = new double[tupleCount * keyValueProviders.length];
+                }
+                for (int i = 0; i < tupleCount; i++) {
+                    frameTuple.resetByTupleIndex(frame, i);
+                    for (int j = 0; j < keyValueProviders.length; j++) {
+                        mbrs[i * keyValueProviders.length + j] =
+                                keyValueProviders[j].getValue(frameTuple.getFieldData(j), frameTuple.getFieldStart(j));
+                    }
+                    if (frame.getLevel() > 1) {
+                        pageIds.push(frame.getChildPageId(i));
+                    }
+                }
+                if (pageId == rootPage) {
+                    stats.setBoundingArea(boundingArea(mbrs, tupleCount, numDimensions));
+                }
+                if (frame.getLevel() == 1) {
+                    double area = 0.0;
+                    double overlapArea = 0.0;
+                    for (int i = 0; i < tupleCount; i++) {
+                        area += intersectionArea(mbrs, i, i, numDimensions);
+                        for (int j = i + 1; j < tupleCount; j++) {
+                            overlapArea += intersectionArea(mbrs, i, j, numDimensions);
+                        }
+                    }
+                    stats.addLeaves(tupleCount, area, overlapArea);
+                }
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+        return stats;
+    }
+
+    private static double intersectionArea(double[] mbrs, int i, int j, int numDimensions) {
+        double area = 1.0;
+        int offI = i * numDimensions * 2;
+        int offJ = j * numDimensions * 2;
+        for (int d = 0; d < numDimensions; d++) {
+            double low = Math.max(mbrs[offI + d], mbrs[offJ + d]);
+            double high = Math.min(mbrs[offI + numDimensions + d], mbrs[offJ + numDimensions + d]);
+            if (high <= low) {
+                return 0.0;
+            }
+            area *= high - low;
+        }
+        return area;
+    }
+
+    private static double boundingArea(double[] mbrs, int count, int numDimensions) {
+        double area = 1.0;
+        for (int d = 0; d < numDimensions; d++) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                low = Math.min(low, mbrs[i * numDimensions * 2 + d]);
+                high = Math.max(high, mbrs[i * numDimensions * 2 + numDimensions + d]);
+            }
+            area *= high - low;
+        }
+        return area;
+    }
+
     @Override
     public void validate() throws HyracksDataException {
         throw new UnsupportedOperationException("Validation not implemented for R-Trees.");
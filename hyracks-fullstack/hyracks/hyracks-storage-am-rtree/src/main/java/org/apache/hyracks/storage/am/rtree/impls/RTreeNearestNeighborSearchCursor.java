@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.rtree.impls;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.rtree.api.IRTreeInteriorFrame;
+import org.apache.hyracks.storage.am.rtree.api.IRTreeLeafFrame;
+import org.apache.hyracks.storage.common.EnforcedIndexCursor;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * Returns the k leaf entries nearest to a query point in increasing distance order, using a best-first traversal:
+ * nodes and leaf entries share one priority queue ordered by their minimum distance to the query point, so a node is
+ * only read once every entry that is closer than its MBR has been returned. No latch is held between calls; the
+ * entries of a leaf are copied when the leaf is expanded, and concurrent splits are followed through the right-page
+ * links the same way as in {@link RTreeSearchCursor}.
+ */
+public class RTreeNearestNeighborSearchCursor extends EnforcedIndexCursor implements ITreeIndexCursor {
+
+    // At equal distances entries come before nodes so that results are returned as early as possible.
+    private static final Comparator<Entry> DISTANCE_COMPARATOR = (e1, e2) -> {
+        int c = Double.compare(e1.distance, e2.distance);
+        return c != 0 ? c : Boolean.compare(e2.isLeafEntry(), e1.isLeafEntry());
+    };
+
+    private final IRTreeInteriorFrame interiorFrame;
+    private final IRTreeLeafFrame leafFrame;
+    private final IPrimitiveValueProvider[] keyValueProviders;
+    private final ITreeIndexTupleReference interiorFrameTuple;
+    private final ITreeIndexTupleReference leafFrameTuple;
+    private final int numDimensions;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(DISTANCE_COMPARATOR);
+    private final List<Entry> freeEntries = new ArrayList<>();
+    private Entry current;
+
+    private IBufferCache bufferCache = null;
+    private int fileId = -1;
+    private int rootPage;
+    private double[] queryPoint;
+    private int k;
+    private int numReturned;
+
+    public RTreeNearestNeighborSearchCursor(IRTreeInteriorFrame interiorFrame, IRTreeLeafFrame leafFrame,
+            IPrimitiveValueProvider[] keyValueProviders) {
+        this.interiorFrame = interiorFrame;
+        this.leafFrame = leafFrame;
+        this.keyValueProviders = keyValueProviders;
+        this.interiorFrameTuple = interiorFrame.createTupleReference();
+        this.leafFrameTuple = leafFrame.createTupleReference();
+        this.numDimensions = keyValueProviders.length / 2;
+    }
+
+    @Override
+    public void doOpen(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        NearestNeighborSearchPredicate pred = (NearestNeighborSearchPredicate) searchPred;
+        queryPoint = pred.getQueryPoint();
+        k = pred.getK();
+        if (queryPoint.length != numDimensions) {
+            throw new IllegalArgumentException(
+                    "The query point has " + queryPoint.length + " dimensions, the index has " + numDimensions + ".");
+        }
+        rootPage = ((RTreeCursorInitialState) initialState).getRootPage();
+        releaseEntries();
+        numReturned = 0;
+        queue.add(allocateEntry().setNode(rootPage, -1, 0.0));
+    }
+
+    @Override
+    public boolean doHasNext() throws HyracksDataException {
+        if (numReturned >= k) {
+            return false;
+        }
+        while (!queue.isEmpty()) {
+            Entry head = queue.peek();
+            if (head.isLeafEntry()) {
+                return true;
+            }
+            queue.poll();
+            try {
+                expand(head);
+            } finally {
+                freeEntries.add(head);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void doNext() throws HyracksDataException {
+        if (current != null) {
+            freeEntries.add(current);
+        }
+        current = queue.poll();
+        numReturned++;
+    }
+
+    @Override
+    public ITupleReference doGetTuple() {
+        return current.tuple;
+    }
+
+    /**
+     * @return the Euclidean distance between the query point and the MBR of the current entry
+     */
+    public double getDistance() {
+        return Math.sqrt(current.distance);
+    }
+
+    private void expand(Entry node) throws HyracksDataException {
+        if (fileId < 0) {
+            throw new IllegalStateException();
+        }
+        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, node.pageId), false);
+        page.acquireReadLatch();
+        try {
+            interiorFrame.setPage(page);
+            if (node.pageId != rootPage && node.parentLsn < interiorFrame.getPageNsn()) {
+                // Concurrent split detected, the right page holds entries that were covered by the same parent MBR.
+                int rightPage = interiorFrame.getRightPage();
+                if (rightPage != -1) {
+                    queue.add(allocateEntry().setNode(rightPage, node.parentLsn, node.distance));
+                }
+            }
+            long pageLsn = interiorFrame.getPageLsn();
+            if (!interiorFrame.isLeaf()) {
+                for (int i = 0; i < interiorFrame.getTupleCount(); i++) {
+                    interiorFrameTuple.resetByTupleIndex(interiorFrame, i);
+                    double distance = minDistance(interiorFrameTuple);
+                    queue.add(allocateEntry().setNode(interiorFrame.getChildPageId(i), pageLsn, distance));
+                }
+            } else {
+                leafFrame.setPage(page);
+                for (int i = 0; i < leafFrame.getTupleCount(); i++) {
+                    leafFrameTuple.resetByTupleIndex(leafFrame, i);
+                    queue.add(allocateEntry().setLeafEntry(leafFrameTuple, minDistance(leafFrameTuple)));
+                }
+            }
+        } finally {
+            page.releaseReadLatch();
+            bufferCache.unpin(page);
+        }
+    }
+
+    /**
+     * @return the squared Euclidean distance between the query point and the closest point of the MBR
+     */
+    private double minDistance(ITupleReference mbr) {
+        double sum = 0.0;
+        for (int i = 0; i < numDimensions; i++) {
+            int j = numDimensions + i;
+            double low = keyValueProviders[i].getValue(mbr.getFieldData(i), mbr.getFieldStart(i));
+            double high = keyValueProviders[j].getValue(mbr.getFieldData(j), mbr.getFieldStart(j));
+            double delta = 0.0;
+            if (queryPoint[i] < low) {
+                delta = low - queryPoint[i];
+            } else if (queryPoint[i] > high) {
+                delta = queryPoint[i] - high;
+            }
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    private Entry allocateEntry() {
+        return freeEntries.isEmpty() ? new Entry() : freeEntries.remove(freeEntries.size() - 1);
+    }
+
+    private void releaseEntries() {
+        freeEntries.addAll(queue);
+        queue.clear();
+        if (current != null) {
+            freeEntries.add(current);
+            current = null;
+        }
+    }
+
+    @Override
+    public void doClose() throws HyracksDataException {
+        releaseEntries();
+    }
+
+    @Override
+    public void doDestroy() throws HyracksDataException {
+        queue.clear();
+        freeEntries.clear();
+        current = null;
+    }
+
+    @Override
+    public void setBufferCache(IBufferCache bufferCache) {
+        this.bufferCache = bufferCache;
+    }
+
+    @Override
+    public void setFileId(int fileId) {
+        this.fileId = fileId;
+    }
+
+    @Override
+    public boolean isExclusiveLatchNodes() {
+        return false;
+    }
+
+    private static class Entry {
+        private int pageId;
+        private long parentLsn;
+        private double distance;
+        private ArrayTupleBuilder tupleBuilder;
+        private final ArrayTupleReference tuple = new ArrayTupleReference();
+
+        private Entry setNode(int pageId, long parentLsn, double distance) {
+            this.pageId = pageId;
+            this.parentLsn = parentLsn;
+            this.distance = distance;
+            return this;
+        }
+
+        private Entry setLeafEntry(ITupleReference entry, double distance) throws HyracksDataException {
+            if (tupleBuilder == null || tupleBuilder.getFieldEndOffsets().length != entry.getFieldCount()) {
+                tupleBuilder = new ArrayTupleBuilder(entry.getFieldCount());
+            }
+            tupleBuilder.reset();
+            for (int i = 0; i < entry.getFieldCount(); i++) {
+                tupleBuilder.addField(entry.getFieldData(i), entry.getFieldStart(i), entry.getFieldLength(i));
+            }
+            tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+            this.pageId = -1;
+            this.distance = distance;
+            return this;
+        }
+
+        private boolean isLeafEntry() {
+            return pageId < 0;
+        }
+    }
+}
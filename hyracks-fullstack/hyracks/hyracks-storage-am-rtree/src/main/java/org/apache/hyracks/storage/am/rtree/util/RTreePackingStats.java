@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.rtree.util;
+
+import java.text.DecimalFormat;
+
+/**
+ * Describes how well the leaves of an R-tree are packed. All values are computed from the leaf MBRs kept in the
+ * lowest interior level: the coverage is the summed area (volume) of the leaf MBRs and the overlap is the summed area
+ * of the pairwise intersections of sibling leaf MBRs, both relative to the area of the tree MBR. Lower is better for
+ * both; a search that hits a region of the tree reads about coverage + overlap leaves per unit of area.
+ */
+public class RTreePackingStats {
+
+    private long numLeaves = 0;
+    private double leafArea = 0.0;
+    private double leafOverlapArea = 0.0;
+    private double boundingArea = 0.0;
+
+    public void addLeaves(int count, double area, double overlapArea) {
+        numLeaves += count;
+        leafArea += area;
+        leafOverlapArea += overlapArea;
+    }
+
+    public void setBoundingArea(double boundingArea) {
+        this.boundingArea = boundingArea;
+    }
+
+    public long getNumLeaves() {
+        return numLeaves;
+    }
+
+    public double getLeafArea() {
+        return leafArea;
+    }
+
+    public double getLeafOverlapArea() {
+        return leafOverlapArea;
+    }
+
+    public double getBoundingArea() {
+        return boundingArea;
+    }
+
+    public double getCoverage() {
+        return boundingArea > 0.0 ? leafArea / boundingArea : 0.0;
+    }
+
+    public double getOverlap() {
+        return boundingArea > 0.0 ? leafOverlapArea / boundingArea : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        DecimalFormat df = new DecimalFormat("#####.####");
+        return "LEAVES: " + numLeaves + ", COVERAGE: " + df.format(getCoverage()) + ", OVERLAP: "
+                + df.format(getOverlap());
+    }
+}
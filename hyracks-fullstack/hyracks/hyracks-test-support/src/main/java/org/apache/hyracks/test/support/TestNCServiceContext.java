@@ -30,6 +30,7 @@ import org.apache.hyracks.api.job.IJobSerializerDeserializerContainer;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.lifecycle.LifeCycleComponentManager;
 import org.apache.hyracks.api.messages.IMessageBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.api.service.IControllerService;
 import org.apache.hyracks.util.trace.ITracer;
@@ -110,6 +111,11 @@ public class TestNCServiceContext implements INCServiceContext {
         return mm;
     }
 
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return null;
+    }
+
     @Override
     public ThreadFactory getThreadFactory() {
         return null;
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.hyracks.api.context.IHyracksJobletContext;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
@@ -43,17 +44,25 @@ import org.apache.hyracks.control.common.job.profiling.StatsCollector;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 
 public class TestTaskContext implements IHyracksTaskContext {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final TestJobletContext jobletContext;
     private final TaskAttemptId taskId;
     private WorkspaceFileFactory fileFactory;
     private Map<Object, IStateObject> stateObjectMap = new HashMap<>();
     private Object sharedObject;
     private final IStatsCollector statsCollector = new StatsCollector();
+    private final CounterContext counterContext;
 
     public TestTaskContext(TestJobletContext jobletContext, TaskAttemptId taskId) {
         this.jobletContext = jobletContext;
         this.taskId = taskId;
         fileFactory = new WorkspaceFileFactory(this, getIoManager());
+        counterContext = new CounterContext(jobletContext.getJobId() + "." + taskId);
     }
 
     @Override
@@ -105,7 +114,7 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     @Override
     public ICounterContext getCounterContext() {
-        return new CounterContext(jobletContext.getJobId() + "." + taskId);
+        return counterContext;
     }
 
     @Override
@@ -149,7 +158,7 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     @Override
     public ExecutorService getExecutorService() {
-        return null;
+        return EXECUTOR;
     }
 
     @Override
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.invertedindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.util.HyracksConstants;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.util.GrowableArray;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TaskUtil;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestUtils;
+import org.apache.hyracks.storage.am.common.CheckTuple;
+import org.apache.hyracks.storage.am.common.datagen.TupleGenerator;
+import org.apache.hyracks.storage.am.common.impls.IndexAccessParameters;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
+import org.apache.hyracks.storage.am.config.AccessMethodTestsConfig;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndexSearchModifier;
+import org.apache.hyracks.storage.am.lsm.invertedindex.common.AbstractInvertedIndexTest;
+import org.apache.hyracks.storage.am.lsm.invertedindex.impls.LSMInvertedIndexTopKSearchCursor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.ConjunctiveSearchModifier;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.DisjunctiveSearchModifier;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.InvertedIndexSearchPredicate;
+import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokenizer;
+import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestContext;
+import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestContext.InvertedIndexType;
+import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestUtils;
+import org.apache.hyracks.storage.common.IIndex;
+import org.apache.hyracks.storage.common.IIndexAccessParameters;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.junit.Test;
+
+public class LSMInvertedIndexTopKSearchTest extends AbstractInvertedIndexTest {
+    private static final int K = 10;
+    private static final double EPSILON = 1e-9;
+
+    private final IInvertedIndexSearchModifier[] searchModifiers =
+            new IInvertedIndexSearchModifier[] { new DisjunctiveSearchModifier(), new ConjunctiveSearchModifier() };
+
+    public LSMInvertedIndexTopKSearchTest() {
+        super(InvertedIndexType.LSM);
+    }
+
+    @Test
+    public void wordTokensTopKSearchTest() throws IOException {
+        LSMInvertedIndexTestContext testCtx =
+                LSMInvertedIndexTestUtils.createWordInvIndexTestContext(harness, invIndexType);
+        TupleGenerator tupleGen = LSMInvertedIndexTestUtils.createStringDocumentTupleGen(harness.getRandom());
+        IIndex invIndex = testCtx.getIndex();
+        invIndex.create();
+        invIndex.activate();
+
+        // The in-memory component counts its documents exactly, so the scores can be checked exactly.
+        LSMInvertedIndexTestUtils.insertIntoInvIndex(testCtx, tupleGen, NUM_DOCS_TO_INSERT);
+        runQueries(testCtx, true);
+
+        // Deactivate and the re-activate the index to force it flush its in memory component
+        invIndex.deactivate();
+        invIndex.activate();
+        LSMInvertedIndexTestUtils.insertIntoInvIndex(testCtx, tupleGen, NUM_DOCS_TO_INSERT);
+        LSMInvertedIndexTestUtils.deleteFromInvIndex(testCtx, harness.getRandom(), NUM_DOCS_TO_INSERT / 2);
+        // The number of documents of a disk component is estimated, so only the ranking invariants are checked.
+        runQueries(testCtx, false);
+
+        invIndex.deactivate();
+        invIndex.destroy();
+    }
+
+    private void runQueries(LSMInvertedIndexTestContext testCtx, boolean checkScores) throws IOException {
+        IHyracksTaskContext ctx = new LSMInvertedIndexTestUtils.HyracksTaskTestContext();
+        TaskUtil.put(HyracksConstants.INVERTED_INDEX_SEARCH_FRAME_MANAGER,
+                new FramePoolBackedFrameBufferManager(new DeallocatableFramePool(ctx,
+                        AccessMethodTestsConfig.LSM_INVINDEX_SEARCH_FRAME_LIMIT * ctx.getInitialFrameSize())),
+                ctx);
+        IIndexAccessParameters iap =
+                new IndexAccessParameters(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        iap.getParameters().put(HyracksConstants.HYRACKS_TASK_CONTEXT, ctx);
+        IIndexAccessor accessor = testCtx.getIndex().createAccessor(iap);
+        List<ITupleReference> documentCorpus = testCtx.getDocumentCorpus();
+        // Project away the primary-key field.
+        PermutingTupleReference searchDocument = new PermutingTupleReference(new int[] { 0 });
+        for (IInvertedIndexSearchModifier searchModifier : searchModifiers) {
+            IBinaryTokenizer tokenizer = testCtx.getTokenizerFactory().createTokenizer();
+            InvertedIndexSearchPredicate searchPred = new InvertedIndexSearchPredicate(tokenizer, searchModifier);
+            for (int i = 0; i < TINY_WORKLOAD_NUM_DOC_QUERIES; i++) {
+                int queryIndex = harness.getRandom().nextInt(documentCorpus.size());
+                searchDocument.reset(documentCorpus.get(queryIndex));
+                searchPred.setQueryTuple(searchDocument);
+                searchPred.setQueryFieldIndex(0);
+
+                Map<Integer, Double> expectedScores = new HashMap<>();
+                int occurrenceThreshold =
+                        getExpectedScores(testCtx, searchDocument, tokenizer, searchModifier, expectedScores);
+
+                LSMInvertedIndexTopKSearchCursor cursor = new LSMInvertedIndexTopKSearchCursor(K);
+                List<Double> actualScores = new ArrayList<>();
+                try {
+                    accessor.search(cursor, searchPred);
+                    try {
+                        while (cursor.hasNext()) {
+                            cursor.next();
+                            ITupleReference tuple = cursor.getTuple();
+                            Integer key = IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0));
+                            assertTrue("Unexpected result " + key, expectedScores.containsKey(key));
+                            if (!actualScores.isEmpty()) {
+                                assertTrue(actualScores.get(actualScores.size() - 1) >= cursor.getScore());
+                            }
+                            actualScores.add(cursor.getScore());
+                            if (checkScores) {
+                                assertEquals(expectedScores.get(key), cursor.getScore(), EPSILON);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                } finally {
+                    cursor.destroy();
+                }
+                assertEquals(Math.min(K, expectedScores.size()), actualScores.size());
+                if (checkScores) {
+                    List<Double> sortedScores = new ArrayList<>(expectedScores.values());
+                    Collections.sort(sortedScores, Collections.reverseOrder());
+                    for (int j = 0; j < actualScores.size(); j++) {
+                        assertEquals(sortedScores.get(j), actualScores.get(j), EPSILON);
+                    }
+                }
+                assertTrue(occurrenceThreshold > 0);
+            }
+        }
+    }
+
+    /**
+     * Computes the idf score of every document that satisfies the occurrence threshold.
+     *
+     * @return the occurrence threshold of the query
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int getExpectedScores(LSMInvertedIndexTestContext testCtx, ITupleReference searchDocument,
+            IBinaryTokenizer tokenizer, IInvertedIndexSearchModifier searchModifier, Map<Integer, Double> scores)
+            throws IOException {
+        List<List<Integer>> invLists = new ArrayList<>();
+        GrowableArray tokenData = new GrowableArray();
+        tokenizer.reset(searchDocument.getFieldData(0), searchDocument.getFieldStart(0),
+                searchDocument.getFieldLength(0));
+        while (tokenizer.hasNext()) {
+            tokenizer.next();
+            tokenData.reset();
+            tokenizer.getToken().serializeToken(tokenData);
+            Comparable token = (Comparable) testCtx.getFieldSerdes()[0].deserialize(new DataInputStream(
+                    new ByteArrayInputStream(tokenData.getByteArray(), 0, tokenData.getLength())));
+            CheckTuple key = new CheckTuple(1, 1);
+            key.appendField(token);
+            List<Integer> invList = new ArrayList<>();
+            for (CheckTuple checkTuple : OrderedIndexTestUtils.getPrefixExpectedSubset(testCtx.getCheckTuples(), key,
+                    key)) {
+                invList.add((Integer) checkTuple.getField(1));
+            }
+            invLists.add(invList);
+        }
+        int numDocuments = testCtx.getDocumentCorpus().size();
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (List<Integer> invList : invLists) {
+            double idf = Math.log(1.0 + (numDocuments - invList.size() + 0.5) / (invList.size() + 0.5));
+            for (Integer doc : invList) {
+                scores.merge(doc, idf, Double::sum);
+                counts.merge(doc, 1, Integer::sum);
+            }
+        }
+        int occurrenceThreshold = searchModifier.getOccurrenceThreshold(invLists.size());
+        counts.forEach((doc, count) -> {
+            if (count < occurrenceThreshold) {
+                scores.remove(doc);
+            }
+        });
+        return occurrenceThreshold;
+    }
+}
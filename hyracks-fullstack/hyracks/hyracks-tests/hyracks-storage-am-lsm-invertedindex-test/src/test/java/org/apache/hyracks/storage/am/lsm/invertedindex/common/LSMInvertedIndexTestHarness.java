@@ -83,6 +83,7 @@ public class LSMInvertedIndexTestHarness {
     protected FileReference invIndexFileRef;
     protected IMetadataPageManagerFactory metadataPageManagerFactory =
             AppendOnlyLinkedMetadataPageManagerFactory.INSTANCE;
+    protected boolean compressedInvLists = false;
 
     public LSMInvertedIndexTestHarness() {
         this.diskPageSize = AccessMethodTestsConfig.LSM_INVINDEX_DISK_PAGE_SIZE;
@@ -220,4 +221,12 @@ public class LSMInvertedIndexTestHarness {
     public IMetadataPageManagerFactory getMetadataPageManagerFactory() {
         return metadataPageManagerFactory;
     }
+
+    public boolean isCompressedInvLists() {
+        return compressedInvLists;
+    }
+
+    public void setCompressedInvLists(boolean compressedInvLists) {
+        this.compressedInvLists = compressedInvLists;
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import static org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.CompressedInvertedListBuilder.BLOCK_HEADER_SIZE;
+import static org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.CompressedInvertedListBuilder.MAX_BLOCK_ELEMENTS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.storage.am.lsm.invertedindex.common.LSMInvertedIndexTestHarness;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
+import org.apache.hyracks.storage.common.buffercache.PageWriteFailureCallback;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the layout that {@link CompressedInvertedListBuilder} writes at page boundaries, and how
+ * {@link CompressedInvertedListCursor} scans and probes it.
+ */
+public class CompressedInvertedListTest {
+
+    private static final ITypeTraits[] INV_LIST_TYPE_TRAITS = new ITypeTraits[] { IntegerPointable.TYPE_TRAITS };
+
+    private final LSMInvertedIndexTestHarness harness = new LSMInvertedIndexTestHarness();
+    private final MultiComparator invListCmp = MultiComparator
+            .create(new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) });
+    private final ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(1);
+    private final ArrayTupleReference tuple = new ArrayTupleReference();
+    private IBufferCache bufferCache;
+    private int fileId;
+    private int pageSize;
+    private int nextPageId;
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+        bufferCache = harness.getDiskBufferCache();
+        fileId = bufferCache.createFile(harness.getInvListsFileRef());
+        bufferCache.openFile(fileId);
+        pageSize = bufferCache.getPageSize();
+        nextPageId = 0;
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId);
+        harness.tearDown();
+    }
+
+    @Test
+    public void testBlockEndsAtPageBoundary() throws HyracksDataException {
+        int[] keys = getKeys(600, 3);
+        // The blocks of the first 150 elements fill the rest of the first page exactly.
+        int startOff = pageSize - getLength(Arrays.copyOf(keys, 150));
+        InvertedList list = load(keys, startOff);
+        Assert.assertEquals(pageSize, (int) list.pageEnds.get(0));
+        checkScan(list, keys);
+        checkProbes(list, keys, 1);
+    }
+
+    @Test
+    public void testPageTerminator() throws HyracksDataException {
+        int[] keys = getKeys(600, 3);
+        // Two full blocks, so the element that follows them starts a new block that does not fit on the page.
+        int firstPageLength = getLength(Arrays.copyOf(keys, 2 * MAX_BLOCK_ELEMENTS));
+        for (int remainder = 1; remainder < BLOCK_HEADER_SIZE + Integer.BYTES; remainder++) {
+            // The remainder only has room for a terminator from BLOCK_HEADER_SIZE bytes on.
+            InvertedList list = load(keys, pageSize - firstPageLength - remainder);
+            Assert.assertEquals(pageSize - remainder, (int) list.pageEnds.get(0));
+            checkScan(list, keys);
+            checkProbes(list, keys, 1);
+        }
+    }
+
+    @Test
+    public void testListSpansSeveralPages() throws HyracksDataException {
+        Random rnd = new Random(50);
+        int[] keys = new int[5000];
+        for (int i = 1; i < keys.length; i++) {
+            // Mixes small and large gaps, so that the elements share prefixes of different lengths.
+            keys[i] = keys[i - 1] + 1 + rnd.nextInt(i % 2 == 0 ? 10 : 100000);
+        }
+        InvertedList list = load(keys, 0);
+        Assert.assertTrue(list.pageEnds.size() >= 3);
+        checkScan(list, keys);
+        checkProbes(list, keys, 97);
+    }
+
+    @Test
+    public void testGallopingProbes() throws HyracksDataException {
+        int[] keys = getKeys(4000, 2);
+        InvertedList list = load(keys, 0);
+        Assert.assertTrue(list.pageEnds.size() >= 3);
+        // Strides within a block, of about a block, and across several blocks and pages.
+        for (int stride : new int[] { 1, 7, MAX_BLOCK_ELEMENTS - 1, MAX_BLOCK_ELEMENTS, MAX_BLOCK_ELEMENTS + 1, 200,
+                1000 }) {
+            checkProbes(list, keys, stride);
+        }
+    }
+
+    private static int[] getKeys(int numKeys, int gap) {
+        int[] keys = new int[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            keys[i] = 1000 + i * gap;
+        }
+        return keys;
+    }
+
+    /**
+     * @return the number of bytes that the keys take as a list that does not cross a page boundary
+     */
+    private int getLength(int[] keys) throws HyracksDataException {
+        CompressedInvertedListBuilder builder = new CompressedInvertedListBuilder(INV_LIST_TYPE_TRAITS);
+        builder.setTargetBuffer(new byte[pageSize], 0);
+        Assert.assertTrue(builder.startNewList(setKey(keys[0]), 0));
+        for (int key : keys) {
+            Assert.assertTrue(builder.appendElement(setKey(key), 0, 1));
+        }
+        return builder.getPos();
+    }
+
+    /**
+     * Writes the keys as an inverted list that starts at the given offset of a new page, moving on to the next page
+     * whenever the builder rejects an element as the bulk loader of the on-disk inverted index does.
+     */
+    private InvertedList load(int[] keys, int startOff) throws HyracksDataException {
+        CompressedInvertedListBuilder builder = new CompressedInvertedListBuilder(INV_LIST_TYPE_TRAITS);
+        PageWriteFailureCallback callback = new PageWriteFailureCallback();
+        IFIFOPageQueue queue = bufferCache.createFIFOQueue();
+        InvertedList list = new InvertedList(nextPageId, startOff, keys.length);
+        ICachedPage page = confiscatePage(nextPageId);
+        builder.setTargetBuffer(page.getBuffer().array(), startOff);
+        Assert.assertTrue(builder.startNewList(setKey(keys[0]), 0));
+        for (int key : keys) {
+            if (!builder.appendElement(setKey(key), 0, 1)) {
+                list.pageEnds.add(builder.getPos());
+                queue.put(page, callback);
+                page = confiscatePage(++nextPageId);
+                builder.setTargetBuffer(page.getBuffer().array(), 0);
+                Assert.assertTrue(builder.appendElement(setKey(key), 0, 1));
+            }
+        }
+        Assert.assertEquals(keys.length, builder.getListSize());
+        list.endPageId = nextPageId++;
+        queue.put(page, callback);
+        bufferCache.finishQueue();
+        Assert.assertFalse(callback.hasFailed());
+        return list;
+    }
+
+    private ICachedPage confiscatePage(int pageId) throws HyracksDataException {
+        ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, pageId));
+        // Pages are not zeroed, so the cursor must not depend on the bytes that the builder does not write.
+        Arrays.fill(page.getBuffer().array(), (byte) 0xFF);
+        return page;
+    }
+
+    private void checkScan(InvertedList list, int[] keys) throws HyracksDataException {
+        CompressedInvertedListCursor cursor = list.open();
+        try {
+            Assert.assertEquals(keys.length, cursor.size());
+            for (int key : keys) {
+                Assert.assertTrue(cursor.doHasNext());
+                cursor.doNext();
+                ITupleReference element = cursor.doGetTuple();
+                Assert.assertEquals(key,
+                        IntegerPointable.getInteger(element.getFieldData(0), element.getFieldStart(0)));
+            }
+            Assert.assertFalse(cursor.doHasNext());
+        } finally {
+            cursor.unloadPages();
+        }
+    }
+
+    /**
+     * Probes every stride-th key in increasing order, each right after the absent key before it if there is one, as
+     * well as absent keys before the first and after the last element.
+     */
+    private void checkProbes(InvertedList list, int[] keys, int stride) throws HyracksDataException {
+        CompressedInvertedListCursor cursor = list.open();
+        try {
+            Assert.assertFalse(cursor.containsKey(setKey(keys[0] - 1), invListCmp));
+            for (int i = 0; i < keys.length; i += stride) {
+                if (i > 0 && keys[i] - 1 > keys[i - 1]) {
+                    Assert.assertFalse(cursor.containsKey(setKey(keys[i] - 1), invListCmp));
+                }
+                Assert.assertTrue(cursor.containsKey(setKey(keys[i]), invListCmp));
+            }
+            Assert.assertFalse(cursor.containsKey(setKey(keys[keys.length - 1] + 1), invListCmp));
+        } finally {
+            cursor.unloadPages();
+        }
+    }
+
+    private ITupleReference setKey(int key) throws HyracksDataException {
+        tupleBuilder.reset();
+        tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, key);
+        tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+        return tuple;
+    }
+
+    private class InvertedList {
+        private final int startPageId;
+        private final int startOff;
+        private final int numElements;
+        private int endPageId;
+        // the position at which each page that the list filled ends
+        private final List<Integer> pageEnds = new ArrayList<>();
+
+        private InvertedList(int startPageId, int startOff, int numElements) {
+            this.startPageId = startPageId;
+            this.startOff = startOff;
+            this.numElements = numElements;
+        }
+
+        private CompressedInvertedListCursor open() throws HyracksDataException {
+            CompressedInvertedListCursor cursor =
+                    new CompressedInvertedListCursor(bufferCache, fileId, INV_LIST_TYPE_TRAITS);
+            cursor.setInvListInfo(startPageId, endPageId, startOff, numElements);
+            cursor.prepareLoadPages();
+            cursor.loadPages();
+            return cursor;
+        }
+    }
+}
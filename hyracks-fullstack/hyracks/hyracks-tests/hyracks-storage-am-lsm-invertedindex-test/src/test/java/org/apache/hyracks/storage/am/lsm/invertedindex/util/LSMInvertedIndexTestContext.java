@@ -171,13 +171,15 @@ public class LSMInvertedIndexTestContext extends OrderedIndexTestContext {
             case ONDISK: {
                 invIndex = InvertedIndexUtils.createOnDiskInvertedIndex(ioManager, harness.getDiskBufferCache(),
                         invListTypeTraits, invListCmpFactories, tokenTypeTraits, tokenCmpFactories,
-                        harness.getInvListsFileRef(), harness.getMetadataPageManagerFactory());
+                        harness.getInvListsFileRef(), harness.getMetadataPageManagerFactory(),
+                        harness.isCompressedInvLists());
                 break;
             }
             case PARTITIONED_ONDISK: {
                 invIndex = InvertedIndexUtils.createPartitionedOnDiskInvertedIndex(ioManager,
                         harness.getDiskBufferCache(), invListTypeTraits, invListCmpFactories, tokenTypeTraits,
-                        tokenCmpFactories, harness.getInvListsFileRef(), harness.getMetadataPageManagerFactory());
+                        tokenCmpFactories, harness.getInvListsFileRef(), harness.getMetadataPageManagerFactory(),
+                        harness.isCompressedInvLists());
                 break;
             }
             case LSM: {
@@ -187,7 +189,8 @@ public class LSMInvertedIndexTestContext extends OrderedIndexTestContext {
                         harness.getMergePolicy(), harness.getOperationTracker(), harness.getIOScheduler(),
                         harness.getIOOperationCallbackFactory(), invertedIndexFields, filterTypeTraits,
                         filterCmpFactories, filterFields, filterFieldsForNonBulkLoadOps,
-                        invertedIndexFieldsForNonBulkLoadOps, true, harness.getMetadataPageManagerFactory(),
+                        invertedIndexFieldsForNonBulkLoadOps, harness.isCompressedInvLists(), true,
+                        harness.getMetadataPageManagerFactory(),
                         new Tracer(LSMInvertedIndexTestContext.class.getSimpleName(),
                                 ITraceCategoryRegistry.CATEGORIES_ALL, new TraceCategoryRegistry()));
                 break;
@@ -200,7 +203,8 @@ public class LSMInvertedIndexTestContext extends OrderedIndexTestContext {
                         harness.getOperationTracker(), harness.getIOScheduler(),
                         harness.getIOOperationCallbackFactory(), invertedIndexFields, filterTypeTraits,
                         filterCmpFactories, filterFields, filterFieldsForNonBulkLoadOps,
-                        invertedIndexFieldsForNonBulkLoadOps, true, harness.getMetadataPageManagerFactory(),
+                        invertedIndexFieldsForNonBulkLoadOps, harness.isCompressedInvLists(), true,
+                        harness.getMetadataPageManagerFactory(),
                         new Tracer(LSMInvertedIndexTestContext.class.getSimpleName(),
                                 ITraceCategoryRegistry.CATEGORIES_ALL, new TraceCategoryRegistry()));
                 break;
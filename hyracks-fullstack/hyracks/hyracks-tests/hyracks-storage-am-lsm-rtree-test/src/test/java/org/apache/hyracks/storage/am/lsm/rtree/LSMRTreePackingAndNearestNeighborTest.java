@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.rtree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProviderFactory;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.AbstractLSMRTree;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.LSMRTreeAccessor;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.LSMRTreeDiskComponent;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.LSMRTreeNearestNeighborSearchCursor;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.RTreePackingType;
+import org.apache.hyracks.storage.am.lsm.rtree.util.LSMRTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.rtree.util.LSMRTreeTestHarness;
+import org.apache.hyracks.storage.am.rtree.RTreeCheckTuple;
+import org.apache.hyracks.storage.am.rtree.RTreeTestUtils;
+import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
+import org.apache.hyracks.storage.am.rtree.impls.NearestNeighborSearchPredicate;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
+import org.apache.hyracks.storage.am.rtree.util.RTreeUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMRTreePackingAndNearestNeighborTest {
+
+    private static final int NUM_TUPLES = 1000;
+    private static final int NUM_ROUNDS = 3;
+    private static final int NUM_QUERIES = 10;
+    private static final int K = 10;
+    private static final int NUM_KEYS = 4;
+
+    private final LSMRTreeTestHarness harness = new LSMRTreeTestHarness();
+    private final RTreeTestUtils rTreeTestUtils = new RTreeTestUtils();
+    private ITupleReference rangeKey;
+
+    @Before
+    public void setUp() throws Exception {
+        harness.setUp();
+        rangeKey = TupleUtils.createDoubleTuple(0.25, 0.25, 0.75, 0.75);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        harness.tearDown();
+    }
+
+    @Test
+    public void strFlushAndMergeTest() throws Exception {
+        runFlushAndMergeTest(RTreePackingType.STR);
+    }
+
+    @Test
+    public void curveFlushAndMergeTest() throws Exception {
+        runFlushAndMergeTest(RTreePackingType.CURVE);
+    }
+
+    @Test
+    public void nearestNeighborsInMemoryComponentTest() throws Exception {
+        Random rnd = harness.getRandom();
+        LSMRTreeTestContext ctx = createTestContext(RTreePackingType.STR);
+        ctx.getIndex().create();
+        ctx.getIndex().activate();
+        rTreeTestUtils.insertDoubleTuples(ctx, NUM_TUPLES, rnd);
+        flush(ctx);
+        // the deletes stay in the memory component and must hide the flushed entries
+        rTreeTestUtils.insertDoubleTuples(ctx, NUM_TUPLES, rnd);
+        rTreeTestUtils.deleteTuples(ctx, NUM_TUPLES / 2, rnd);
+        checkNearestNeighbors(ctx, rnd);
+        rTreeTestUtils.checkRangeSearch(ctx, rangeKey);
+        ctx.getIndex().deactivate();
+        ctx.getIndex().destroy();
+    }
+
+    private void runFlushAndMergeTest(RTreePackingType packingType) throws Exception {
+        Random rnd = harness.getRandom();
+        LSMRTreeTestContext ctx = createTestContext(packingType);
+        ctx.getIndex().create();
+        ctx.getIndex().activate();
+        rTreeTestUtils.bulkLoadDoubleTuples(ctx, NUM_TUPLES, rnd);
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            rTreeTestUtils.insertDoubleTuples(ctx, NUM_TUPLES, rnd);
+            rTreeTestUtils.deleteTuples(ctx, NUM_TUPLES / 10, rnd);
+            flush(ctx);
+            checkPackingStats(ctx, i + 2);
+            checkQueries(ctx, rnd);
+        }
+        AbstractLSMRTree lsmTree = (AbstractLSMRTree) ctx.getIndex();
+        ((LSMRTreeAccessor) ctx.getIndexAccessor()).scheduleMerge(lsmTree.getDiskComponents());
+        checkPackingStats(ctx, 1);
+        checkQueries(ctx, rnd);
+        ctx.getIndex().deactivate();
+        ctx.getIndex().destroy();
+    }
+
+    private void flush(LSMRTreeTestContext ctx) throws Exception {
+        // Deactivating the index flushes its memory component.
+        ctx.getIndex().deactivate();
+        ctx.getIndex().activate();
+    }
+
+    private void checkQueries(LSMRTreeTestContext ctx, Random rnd) throws Exception {
+        rTreeTestUtils.checkScan(ctx);
+        rTreeTestUtils.checkDiskOrderScan(ctx);
+        rTreeTestUtils.checkRangeSearch(ctx, rangeKey);
+        checkNearestNeighbors(ctx, rnd);
+    }
+
+    private void checkPackingStats(LSMRTreeTestContext ctx, int expectedComponents) throws Exception {
+        List<ILSMDiskComponent> components = ((AbstractLSMRTree) ctx.getIndex()).getDiskComponents();
+        Assert.assertEquals(expectedComponents, components.size());
+        for (ILSMDiskComponent component : components) {
+            RTreePackingStats stats = ((LSMRTreeDiskComponent) component).getPackingStats();
+            Assert.assertTrue(stats.toString(), stats.getNumLeaves() > 0);
+            Assert.assertTrue(stats.toString(), stats.getLeafArea() >= 0.0);
+            Assert.assertTrue(stats.toString(), stats.getLeafOverlapArea() >= 0.0);
+            Assert.assertTrue(stats.toString(), stats.getBoundingArea() >= 0.0);
+        }
+    }
+
+    private void checkNearestNeighbors(LSMRTreeTestContext ctx, Random rnd) throws Exception {
+        LSMRTreeAccessor accessor = (LSMRTreeAccessor) ctx.getIndexAccessor();
+        LSMRTreeNearestNeighborSearchCursor cursor = accessor.createNearestNeighborSearchCursor();
+        try {
+            for (int q = 0; q < NUM_QUERIES; q++) {
+                double[] queryPoint = { rnd.nextDouble(), rnd.nextDouble() };
+                List<Double> expected = new ArrayList<>();
+                for (RTreeCheckTuple checkTuple : ctx.getCheckTuples()) {
+                    expected.add(distance(checkTuple, queryPoint));
+                }
+                Collections.sort(expected);
+                List<Double> actual = new ArrayList<>();
+                accessor.search(cursor, new NearestNeighborSearchPredicate(queryPoint, K));
+                try {
+                    while (cursor.hasNext()) {
+                        cursor.next();
+                        actual.add(cursor.getDistance());
+                        Assert.assertEquals(cursor.getDistance(), distance(cursor.getTuple(), queryPoint), 1e-9);
+                    }
+                } finally {
+                    cursor.close();
+                }
+                Assert.assertEquals(Math.min(K, expected.size()), actual.size());
+                for (int i = 0; i < actual.size(); i++) {
+                    Assert.assertEquals(expected.get(i), actual.get(i), 1e-9);
+                }
+            }
+        } finally {
+            cursor.destroy();
+        }
+    }
+
+    private static double distance(RTreeCheckTuple mbr, double[] point) {
+        double[] values = new double[NUM_KEYS];
+        for (int i = 0; i < NUM_KEYS; i++) {
+            values[i] = (Double) mbr.getField(i);
+        }
+        return distance(values, point);
+    }
+
+    private static double distance(ITupleReference mbr, double[] point) {
+        double[] values = new double[NUM_KEYS];
+        for (int i = 0; i < NUM_KEYS; i++) {
+            values[i] = DoublePointable.getDouble(mbr.getFieldData(i), mbr.getFieldStart(i));
+        }
+        return distance(values, point);
+    }
+
+    private static double distance(double[] mbr, double[] point) {
+        int numDimensions = point.length;
+        double sum = 0.0;
+        for (int i = 0; i < numDimensions; i++) {
+            double delta = Math.max(0.0, Math.max(mbr[i] - point[i], point[i] - mbr[numDimensions + i]));
+            sum += delta * delta;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private LSMRTreeTestContext createTestContext(RTreePackingType packingType) throws Exception {
+        ISerializerDeserializer[] fieldSerdes = { DoubleSerializerDeserializer.INSTANCE,
+                DoubleSerializerDeserializer.INSTANCE, DoubleSerializerDeserializer.INSTANCE,
+                DoubleSerializerDeserializer.INSTANCE, DoubleSerializerDeserializer.INSTANCE };
+        IPrimitiveValueProviderFactory[] valueProviderFactories =
+                RTreeUtils.createPrimitiveValueProviderFactories(NUM_KEYS, DoublePointable.FACTORY);
+        return LSMRTreeTestContext.create(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), fieldSerdes, valueProviderFactories,
+                NUM_KEYS, RTreePolicyType.RTREE, harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(),
+                harness.getOperationTracker(), harness.getIOScheduler(), harness.getIOOperationCallbackFactory(),
+                harness.getMetadataPageManagerFactory(), false, packingType);
+    }
+}
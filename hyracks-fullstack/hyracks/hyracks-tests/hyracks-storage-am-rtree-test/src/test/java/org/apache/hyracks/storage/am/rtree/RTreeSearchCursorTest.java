@@ -19,7 +19,12 @@
 
 package org.apache.hyracks.storage.am.rtree;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
@@ -48,10 +53,13 @@ import org.apache.hyracks.storage.am.rtree.api.IRTreeLeafFrame;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMInteriorFrameFactory;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMLeafFrameFactory;
 import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
+import org.apache.hyracks.storage.am.rtree.impls.NearestNeighborSearchPredicate;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.impls.RTreeNearestNeighborSearchCursor;
 import org.apache.hyracks.storage.am.rtree.impls.RTreeSearchCursor;
 import org.apache.hyracks.storage.am.rtree.impls.SearchPredicate;
 import org.apache.hyracks.storage.am.rtree.tuples.RTreeTypeAwareTupleWriterFactory;
+import org.apache.hyracks.storage.am.rtree.util.RTreePackingStats;
 import org.apache.hyracks.storage.am.rtree.util.RTreeUtils;
 import org.apache.hyracks.storage.am.rtree.utils.AbstractRTreeTest;
 import org.apache.hyracks.storage.common.MultiComparator;
@@ -142,6 +150,71 @@ public class RTreeSearchCursorTest extends AbstractRTreeTest {
         rtree.destroy();
     }
 
+    @Test
+    public void nearestNeighborSearchTest() throws Exception {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("TESTING NEAREST NEIGHBOR SEARCH CURSOR FOR RTREE");
+        }
+        IBufferCache bufferCache = harness.getBufferCache();
+        IMetadataPageManager freePageManager = new LinkedMetaDataPageManager(bufferCache, META_FRAME_FACTORY);
+        RTree rtree = new RTree(bufferCache, freePageManager, INTERIOR_FRAME_FACTORY, LEAF_FRAME_FACTORY, CMP_FACTORIES,
+                FIELD_COUNT, harness.getFileReference(), false);
+        rtree.create();
+        rtree.activate();
+        ArrayList<RTreeCheckTuple> checkTuples = insert(rtree);
+        RTreePackingStats packingStats = rtree.gatherPackingStats();
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(packingStats);
+        }
+        assertTrue(packingStats.getNumLeaves() > 1);
+        RTree.RTreeAccessor indexAccessor = rtree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        try {
+            int k = 20;
+            double[] queryPoint = { RND.nextInt(), RND.nextInt() };
+            List<Double> expectedDistances = new ArrayList<>();
+            for (RTreeCheckTuple checkTuple : checkTuples) {
+                expectedDistances.add(minDistance(checkTuple, queryPoint));
+            }
+            Collections.sort(expectedDistances);
+            RTreeNearestNeighborSearchCursor searchCursor = indexAccessor.createNearestNeighborSearchCursor();
+            try {
+                indexAccessor.search(searchCursor, new NearestNeighborSearchPredicate(queryPoint, k));
+                try {
+                    int count = 0;
+                    while (searchCursor.hasNext()) {
+                        searchCursor.next();
+                        double expected = expectedDistances.get(count);
+                        assertEquals(expected, searchCursor.getDistance(), Math.max(1.0, expected * 1e-9));
+                        count++;
+                    }
+                    assertEquals(k, count);
+                } finally {
+                    searchCursor.close();
+                }
+            } finally {
+                searchCursor.destroy();
+            }
+        } finally {
+            indexAccessor.destroy();
+        }
+        rtree.deactivate();
+        rtree.destroy();
+    }
+
+    private static double minDistance(RTreeCheckTuple checkTuple, double[] queryPoint) {
+        double distance = 0.0;
+        for (int i = 0; i < queryPoint.length; i++) {
+            double low = ((Integer) checkTuple.getField(i)).doubleValue();
+            double high = ((Integer) checkTuple.getField(i + queryPoint.length)).doubleValue();
+            if (queryPoint[i] < low) {
+                distance += (low - queryPoint[i]) * (low - queryPoint[i]);
+            } else if (queryPoint[i] > high) {
+                distance += (queryPoint[i] - high) * (queryPoint[i] - high);
+            }
+        }
+        return Math.sqrt(distance);
+    }
+
     public static SearchPredicate createSearchPredicate(ArrayTupleReference key, int first, int second, int third,
             int fourth) throws HyracksDataException {
         ArrayTupleBuilder keyTb = new ArrayTupleBuilder(KEY_FIELD_COUNT);